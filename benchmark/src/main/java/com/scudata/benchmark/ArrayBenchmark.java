@@ -0,0 +1,121 @@
+package com.scudata.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scudata.array.BoolArray;
+import com.scudata.array.DoubleArray;
+import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
+import com.scudata.array.LongArray;
+import com.scudata.array.StringArray;
+import com.scudata.expression.Relation;
+
+/**
+ * IArrayͱȽ㣬мıʽ䵽Щ
+ * @author RunQian
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArrayBenchmark {
+	@Param({"100000"})
+	private int size;
+	
+	private IntArray ints1, ints2;
+	private LongArray longs1, longs2;
+	private DoubleArray doubles1, doubles2;
+	private StringArray strings1, strings2;
+	
+	@Setup
+	public void setup() {
+		Random random = new Random(1);
+		ints1 = new IntArray(size);
+		ints2 = new IntArray(size);
+		longs1 = new LongArray(size);
+		longs2 = new LongArray(size);
+		doubles1 = new DoubleArray(size);
+		doubles2 = new DoubleArray(size);
+		strings1 = new StringArray(size);
+		strings2 = new StringArray(size);
+		
+		for (int i = 0; i < size; ++i) {
+			int n1 = random.nextInt(1000000);
+			int n2 = random.nextInt(1000000);
+			ints1.push(n1);
+			ints2.push(n2);
+			longs1.push(n1 * 1000L);
+			longs2.push(n2 * 1000L);
+			doubles1.push(n1 / 100.0);
+			doubles2.push(n2 / 100.0);
+			strings1.push("s" + n1);
+			strings2.push("s" + n2);
+		}
+	}
+	
+	@Benchmark
+	public IArray intAdd() {
+		return ints1.memberAdd(ints2);
+	}
+	
+	@Benchmark
+	public IArray intMultiply() {
+		return ints1.memberMultiply(ints2);
+	}
+	
+	@Benchmark
+	public BoolArray intGreater() {
+		return ints1.calcRelation(ints2, Relation.GREATER);
+	}
+	
+	@Benchmark
+	public IArray longAdd() {
+		return longs1.memberAdd(longs2);
+	}
+	
+	@Benchmark
+	public BoolArray longGreater() {
+		return longs1.calcRelation(longs2, Relation.GREATER);
+	}
+	
+	@Benchmark
+	public IArray doubleAdd() {
+		return doubles1.memberAdd(doubles2);
+	}
+	
+	@Benchmark
+	public IArray doubleMultiply() {
+		return doubles1.memberMultiply(doubles2);
+	}
+	
+	@Benchmark
+	public BoolArray doubleLess() {
+		return doubles1.calcRelation(doubles2, Relation.LESS);
+	}
+	
+	@Benchmark
+	public BoolArray stringEqual() {
+		return strings1.calcRelation(strings2, Relation.EQUAL);
+	}
+	
+	@Benchmark
+	public BoolArray stringGreater() {
+		return strings1.calcRelation(strings2, Relation.GREATER);
+	}
+}
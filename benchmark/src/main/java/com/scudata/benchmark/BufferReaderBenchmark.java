@@ -0,0 +1,91 @@
+package com.scudata.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.scudata.dw.BufferReader;
+import com.scudata.dw.BufferWriter;
+
+/**
+ * ݿĽ룬ͷֱһ
+ * @author RunQian
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BufferReaderBenchmark {
+	@Param({"8192"})
+	private int count; // ÿļ¼
+	
+	private byte []intBlock;
+	private byte []longBlock;
+	private byte []doubleBlock;
+	private byte []stringBlock;
+	
+	@Setup
+	public void setup() throws IOException {
+		Random random = new Random(1);
+		BufferWriter intWriter = new BufferWriter(null);
+		BufferWriter longWriter = new BufferWriter(null);
+		BufferWriter doubleWriter = new BufferWriter(null);
+		BufferWriter stringWriter = new BufferWriter(null);
+		
+		for (int i = 0; i < count; ++i) {
+			int n = random.nextInt(100000);
+			intWriter.writeObject(n);
+			longWriter.writeObject(n * 1000000L);
+			doubleWriter.writeObject(n / 100.0);
+			stringWriter.writeObject("name" + n);
+		}
+		
+		intBlock = intWriter.finish();
+		longBlock = longWriter.finish();
+		doubleBlock = doubleWriter.finish();
+		stringBlock = stringWriter.finish();
+	}
+	
+	private void read(byte []block, Blackhole bh) throws IOException {
+		BufferReader reader = new BufferReader(null, block);
+		for (int i = 0; i < count; ++i) {
+			bh.consume(reader.readObject());
+		}
+	}
+	
+	@Benchmark
+	public void readInt(Blackhole bh) throws IOException {
+		read(intBlock, bh);
+	}
+	
+	@Benchmark
+	public void readLong(Blackhole bh) throws IOException {
+		read(longBlock, bh);
+	}
+	
+	@Benchmark
+	public void readDouble(Blackhole bh) throws IOException {
+		read(doubleBlock, bh);
+	}
+	
+	@Benchmark
+	public void readString(Blackhole bh) throws IOException {
+		read(stringBlock, bh);
+	}
+}
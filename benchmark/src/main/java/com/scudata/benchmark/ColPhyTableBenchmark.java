@@ -0,0 +1,113 @@
+package com.scudata.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.scudata.dm.Context;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.Table;
+import com.scudata.dm.cursor.ICursor;
+import com.scudata.dw.ComTable;
+import com.scudata.dw.PhyTable;
+import com.scudata.expression.Expression;
+
+/**
+ * дαɨ裬׼׶ɵʱļ
+ * ȡѹн͹ˣļϵͳ棬ĲǴٶ
+ * @author RunQian
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColPhyTableBenchmark {
+	@Param({"2000000"})
+	private int size;
+	
+	private Context ctx;
+	private File file;
+	private PhyTable table;
+	private Expression filter;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		ctx = new Context();
+		file = File.createTempFile("esproc-bench", ".ctx");
+		file.delete();
+		
+		String path = file.getAbsolutePath().replace('\\', '/');
+		PhyTable tmp = (PhyTable)calc("file(\"" + path + "\").create(#id,g,x,s)");
+		ctx.setParamValue("T", tmp);
+		calc("T.append(to(" + size + ").new(~:id,~%1000:g,~*7%10007/10.0:x,\"name\"+string(~%5000):s).cursor())");
+		tmp.getGroupTable().close();
+		
+		table = ComTable.openBaseTable(file, ctx);
+		filter = new Expression(ctx, "x>500");
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (table != null) {
+			table.getGroupTable().close();
+		}
+		
+		file.delete();
+	}
+	
+	private Object calc(String exp) {
+		return new Expression(ctx, exp).calculate(ctx);
+	}
+	
+	private static long scan(ICursor cursor) {
+		long count = 0;
+		while (true) {
+			Sequence seq = cursor.fetch(ICursor.FETCHCOUNT);
+			if (seq == null || seq.length() == 0) {
+				return count;
+			}
+			
+			count += seq.length();
+		}
+	}
+	
+	@Benchmark
+	public long scanAll() {
+		return scan(table.cursor());
+	}
+	
+	@Benchmark
+	public long scanColumns() {
+		return scan(table.cursor(new String[] {"g", "x"}));
+	}
+	
+	@Benchmark
+	public long scanFilter() {
+		return scan(table.cursor(new String[] {"g", "x"}, filter, ctx));
+	}
+	
+	@Benchmark
+	public Table scanGroups() {
+		ICursor cursor = table.cursor(new String[] {"g", "x"});
+		Expression []exps = new Expression[] {new Expression(ctx, "g")};
+		Expression []calcExps = new Expression[] {new Expression(ctx, "sum(x)")};
+		return cursor.groups(exps, new String[] {"g"}, calcExps, new String[] {"s"}, null, ctx);
+	}
+}
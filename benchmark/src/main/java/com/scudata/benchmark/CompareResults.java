@@ -0,0 +1,164 @@
+package com.scudata.benchmark;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ȽJMHеĽ-rf csvļԱȱ
+ * ÷CompareResults baseline.csv current.csv [ֵٷֱȣȱʡ10]
+ * ģʽԽԽãģʽԽСԽãֵļΪˣлʱ˳Ϊ1
+ * @author RunQian
+ *
+ */
+public class CompareResults {
+	private static final double DEFAULT_THRESHOLD = 10;
+	
+	// һ׼ԵĽ
+	private static class Result {
+		String mode;
+		double score;
+		double error;
+		String unit;
+	}
+	
+	public static void main(String []args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: CompareResults baseline.csv current.csv [threshold%]");
+			System.exit(2);
+		}
+		
+		double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+		Map<String, Result> baseline = load(args[0]);
+		Map<String, Result> current = load(args[1]);
+		
+		int regressions = 0;
+		System.out.println(String.format("%-60s %14s %14s %9s  %s",
+				"Benchmark", "Baseline", "Current", "Change", "Unit"));
+		for (Map.Entry<String, Result> entry : current.entrySet()) {
+			String name = entry.getKey();
+			Result cur = entry.getValue();
+			Result base = baseline.get(name);
+			if (base == null) {
+				System.out.println(String.format("%-60s %14s %14.3f %9s  %s",
+						name, "-", cur.score, "new", cur.unit));
+				continue;
+			}
+			
+			// 仯ͳһʾ
+			double change = (cur.score - base.score) / base.score * 100;
+			if (!"thrpt".equals(cur.mode)) {
+				change = -change;
+			}
+			
+			// νΧصʱˣ
+			boolean isOverlap = Math.abs(cur.score - base.score) <= cur.error + base.error;
+			String flag = "";
+			if (change < -threshold && !isOverlap) {
+				flag = "  REGRESSION";
+				regressions++;
+			} else if (change > threshold && !isOverlap) {
+				flag = "  improved";
+			}
+			
+			System.out.println(String.format("%-60s %14.3f %14.3f %+8.1f%%  %s%s",
+					name, base.score, cur.score, change, cur.unit, flag));
+		}
+		
+		for (String name : baseline.keySet()) {
+			if (!current.containsKey(name)) {
+				System.out.println(String.format("%-60s %14.3f %14s %9s", name,
+						baseline.get(name).score, "-", "missing"));
+			}
+		}
+		
+		System.out.println();
+		System.out.println(regressions + " regression(s), threshold " + threshold + "%");
+		if (regressions > 0) {
+			System.exit(1);
+		}
+	}
+	
+	// ȡJMHcsvΪӲ
+	private static Map<String, Result> load(String fileName) throws IOException {
+		Map<String, Result> map = new LinkedHashMap<String, Result>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(fileName), "UTF-8"));
+		
+		try {
+			String line = reader.readLine();
+			if (line == null) {
+				return map;
+			}
+			
+			String []header = split(line);
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().length() == 0) {
+					continue;
+				}
+				
+				String []items = split(line);
+				StringBuffer name = new StringBuffer(items[0]);
+				Result result = new Result();
+				for (int i = 1; i < header.length && i < items.length; ++i) {
+					String col = header[i];
+					if (col.equals("Mode")) {
+						result.mode = items[i];
+					} else if (col.equals("Score")) {
+						result.score = parseDouble(items[i]);
+					} else if (col.startsWith("Score Error")) {
+						result.error = parseDouble(items[i]);
+					} else if (col.equals("Unit")) {
+						result.unit = items[i];
+					} else if (col.startsWith("Param: ") && items[i].length() > 0) {
+						name.append(name.indexOf(":") == -1 ? ':' : ',');
+						name.append(col.substring(7)).append('=').append(items[i]);
+					}
+				}
+				
+				map.put(name.toString(), result);
+			}
+		} finally {
+			reader.close();
+		}
+		
+		return map;
+	}
+	
+	private static double parseDouble(String str) {
+		if (str.length() == 0 || str.equals("NaN")) {
+			return 0;
+		} else {
+			return Double.parseDouble(str);
+		}
+	}
+	
+	// һcsvֶοܴ˫
+	private static String[] split(String line) {
+		ArrayList<String> items = new ArrayList<String>();
+		StringBuffer sb = new StringBuffer();
+		boolean inQuote = false;
+		for (int i = 0, len = line.length(); i < len; ++i) {
+			char c = line.charAt(i);
+			if (c == '"') {
+				if (inQuote && i + 1 < len && line.charAt(i + 1) == '"') {
+					sb.append('"');
+					i++;
+				} else {
+					inQuote = !inQuote;
+				}
+			} else if (c == ',' && !inQuote) {
+				items.add(sb.toString());
+				sb.setLength(0);
+			} else {
+				sb.append(c);
+			}
+		}
+		
+		items.add(sb.toString());
+		return items.toArray(new String[items.size()]);
+	}
+}
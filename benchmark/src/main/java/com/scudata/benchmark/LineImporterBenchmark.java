@@ -0,0 +1,86 @@
+package com.scudata.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.scudata.dm.LineImporter;
+
+/**
+ * ıеĲֺͽڴ̶ȡ
+ * @author RunQian
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineImporterBenchmark {
+	private static final String CHARSET = "UTF-8";
+	
+	@Param({"200000"})
+	private int lineCount;
+	
+	private byte []csv; // ŷָı
+	private byte []quotedCsv; // ַŵı
+	
+	@Setup
+	public void setup() throws IOException {
+		Random random = new Random(1);
+		StringBuilder sb = new StringBuilder(lineCount * 48);
+		StringBuilder quoted = new StringBuilder(lineCount * 52);
+		for (int i = 1; i <= lineCount; ++i) {
+			int n = random.nextInt(100000);
+			String name = "name" + n;
+			String amount = Double.toString(n / 100.0);
+			String date = "2023-0" + (n % 9 + 1) + "-1" + (n % 9);
+			
+			sb.append(i).append(',').append(name).append(',');
+			sb.append(amount).append(',').append(date).append('\n');
+			quoted.append(i).append(",\"").append(name).append("\",");
+			quoted.append(amount).append(',').append(date).append('\n');
+		}
+		
+		csv = sb.toString().getBytes(CHARSET);
+		quotedCsv = quoted.toString().getBytes(CHARSET);
+	}
+	
+	private static void parse(byte []bytes, String opt, Blackhole bh) throws IOException {
+		LineImporter importer = new LineImporter(new ByteArrayInputStream(bytes),
+				CHARSET, new byte[] {','}, opt);
+		try {
+			Object []line;
+			while ((line = importer.readLine()) != null) {
+				bh.consume(line);
+			}
+		} finally {
+			importer.close();
+		}
+	}
+	
+	@Benchmark
+	public void parse(Blackhole bh) throws IOException {
+		parse(csv, null, bh);
+	}
+	
+	@Benchmark
+	public void parseQuoted(Blackhole bh) throws IOException {
+		parse(quotedCsv, "q", bh);
+	}
+}
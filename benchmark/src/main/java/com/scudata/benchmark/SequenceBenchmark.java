@@ -0,0 +1,115 @@
+package com.scudata.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.scudata.dm.Context;
+import com.scudata.dm.HashIndexTable;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.Table;
+import com.scudata.dm.op.GroupsResult;
+import com.scudata.expression.Expression;
+
+/**
+ * ڴϵķܡ͹ϣ
+ * @author RunQian
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SequenceBenchmark {
+	@Param({"1000000"})
+	private int size;
+	
+	@Param({"1000"})
+	private int groupCount; // 
+	
+	private Context ctx;
+	private Table table; // ֶΪid,g,xid1size
+	private Sequence values; // 
+	private Object []keys; // Ҫҵļһڱ
+	
+	private Expression []groupExps;
+	private String []groupNames;
+	private Expression []calcExps;
+	private String []calcNames;
+	private Expression sortExp;
+	
+	private HashIndexTable index;
+	
+	@Setup
+	public void setup() {
+		ctx = new Context();
+		Random random = new Random(1);
+		table = new Table(new String[] {"id", "g", "x"}, size);
+		values = new Sequence(size);
+		for (int i = 1; i <= size; ++i) {
+			table.newLast(new Object[] {i, random.nextInt(groupCount), random.nextDouble() * 1000});
+			values.add(random.nextInt());
+		}
+		
+		keys = new Object[size];
+		for (int i = 0; i < size; ++i) {
+			keys[i] = random.nextInt(size * 2) + 1;
+		}
+		
+		groupExps = new Expression[] {new Expression(ctx, "g")};
+		groupNames = new String[] {"g"};
+		calcExps = new Expression[] {new Expression(ctx, "sum(x)"), new Expression(ctx, "count(x)")};
+		calcNames = new String[] {"s", "c"};
+		sortExp = new Expression(ctx, "x");
+		
+		index = new HashIndexTable(size);
+		index.create(table, 0);
+	}
+	
+	@Benchmark
+	public Table groups() {
+		GroupsResult result = new GroupsResult(groupExps, groupNames, calcExps, calcNames, null, ctx);
+		result.push(table, ctx);
+		return result.getResultTable();
+	}
+	
+	@Benchmark
+	public Sequence sortValues() {
+		return values.sort(null);
+	}
+	
+	@Benchmark
+	public Sequence sortByField() {
+		return table.sort(sortExp, null, null, ctx);
+	}
+	
+	@Benchmark
+	public HashIndexTable createIndex() {
+		HashIndexTable index = new HashIndexTable(size);
+		index.create(table, 0);
+		return index;
+	}
+	
+	@Benchmark
+	public void findIndex(Blackhole bh) {
+		HashIndexTable index = this.index;
+		Object []keys = this.keys;
+		for (int i = 0, len = keys.length; i < len; ++i) {
+			bh.consume(index.find(keys[i]));
+		}
+	}
+}
@@ -30,6 +30,7 @@ import com.scudata.dm.Machines;
 import com.scudata.dm.ParallelCaller;
 import com.scudata.dm.Param;
 import com.scudata.dm.ParamList;
+import com.scudata.dm.Profiler;
 import com.scudata.dm.RetryException;
 import com.scudata.dm.Sequence;
 import com.scudata.dm.cursor.ICursor;
@@ -1939,10 +1940,19 @@ public class PgmCellSet extends CellSet {
 			return curLct;
 		}
 
+		// ʱ¼ÿִкʱ
+		Profiler profiler = Profiler.get(ctx);
+		Profiler.Frame frame = null;
+		PgmNormalCell cell = null;
+		
 		try {
 			// ִеǰĵԪ񣬲ҳһҪִеĸ
-			PgmNormalCell cell = getPgmNormalCell(curLct.getRow(),
+			cell = getPgmNormalCell(curLct.getRow(),
 					curLct.getCol());
+			if (profiler != null) {
+				frame = profiler.enter(curLct.toString());
+			}
+			
 			Command command = cell.getCommand();
 
 			if (command == null) {
@@ -2036,6 +2046,12 @@ public class PgmCellSet extends CellSet {
 				msg = mm.getMessage("error.cell", cellId) + msg;
 				throw new RQException(msg, e);
 			}
+		} finally {
+			if (frame != null) {
+				Object value = cell.getValue();
+				int rowsOut = value instanceof Sequence ? ((Sequence)value).length() : 0;
+				Profiler.exit(frame, 0, rowsOut);
+			}
 		}
 
 		return curLct;
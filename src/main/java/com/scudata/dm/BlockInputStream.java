@@ -4,14 +4,25 @@ import java.io.IOException;
 import java.io.InputStream;
 
 /**
- * ̶Сȡݵ
+ * ̶СȡݵInputStreamManagerĶ߳첽Ԥ
+ * ԤĿ1ʼȡʱΪҪȴԤEnv.getReadAheadDepth()
  * @author WangXiaoJun
  *
  */
 public class BlockInputStream extends InputStream {
 	protected InputStream is;
-	protected byte []buffer; // 
-	protected volatile int count; // ʵʶֽ
+	protected int bufSize; // С
+
+	private byte [][]buffers; // ԤĻѭʹ
+	private int []counts; // ʵʶֽ
+	private int head; // һҪȡĻ
+	private int size; // ѶݵĻ
+	private int pos; // ׸ѱֽ
+	private int depth = 1; // ǰԤĿ
+
+	private boolean isReading; // Ƿڶлڶ
+	private boolean isFilling; // ߳Ƿڶ
+	private boolean isEnd; // Ƿβ
 
 	protected IOException e;
 	protected boolean isClosed;
@@ -31,32 +42,106 @@ public class BlockInputStream extends InputStream {
 	 */
 	public BlockInputStream(InputStream is, int bufSize) {
 		this.is = is;
-		this.count = 0;
-		this.buffer = new byte[bufSize];
+		this.bufSize = bufSize;
+
+		int maxDepth = Env.getReadAheadDepth();
+		buffers = new byte[maxDepth][];
+		counts = new int[maxDepth];
+
+		synchronized(is) {
+			requestRead();
+		}
+	}
 
-		InputStreamManager.getInstance().read(this);
+	// ҪѵǰУҪסis
+	private void requestRead() {
+		if (!isReading && !isEnd && !isClosed && e == null && size < depth) {
+			isReading = true;
+			InputStreamManager.getInstance().read(this);
+		}
 	}
 
-	// ݵ
-	void fillBuffers() {
+	/**
+	 * ɶ̵߳ãһݵеĻ
+	 * @return ڵ0ʾҪֵΪֽС0ʾҪٶˣֽΪ-ֵ-1
+	 */
+	int fillBuffers() {
+		byte []buffer;
+		int index;
 		synchronized(is) {
-			if (!isClosed) {
-				try {
-					do {
-						count = is.read(buffer);
-					} while (count == 0);
-				} catch (Exception e) {
-					if (e instanceof IOException) {
-						this.e = (IOException)e;
-					} else {
-						this.e = new IOException(e);
-					}
-				}
+			if (isClosed || size >= depth) {
+				isReading = false;
+				is.notifyAll();
+				return -1;
+			}
+
+			index = (head + size) % buffers.length;
+			buffer = buffers[index];
+			if (buffer == null) {
+				buffer = new byte[bufSize];
+				buffers[index] = buffer;
+			}
+
+			isFilling = true;
+		}
+
+		// ʱӰȡѶĻ
+		int count = 0;
+		IOException error = null;
+		try {
+			do {
+				count = is.read(buffer);
+			} while (count == 0);
+		} catch (Exception e) {
+			if (e instanceof IOException) {
+				error = (IOException)e;
 			} else {
+				error = new IOException(e);
+			}
+		}
+
+		synchronized(is) {
+			isFilling = false;
+			if (isClosed) {
 				this.e = new IOException("Stream closed");
+				isReading = false;
+			} else if (error != null) {
+				this.e = error;
+				isReading = false;
+			} else if (count < 0) {
+				isEnd = true;
+				isReading = false;
+			} else {
+				counts[index] = count;
+				size++;
+				if (size >= depth) {
+					isReading = false;
+				}
 			}
 
-			is.notify();
+			is.notifyAll();
+			if (count < 0) {
+				return -1;
+			} else {
+				return isReading ? count : -count - 1;
+			}
+		}
+	}
+
+	// ȴ̶߳ݣҪסis
+	private void waitData() throws IOException {
+		// ߱ȶ߳̿죬ԤĿ
+		if (depth < buffers.length) {
+			depth++;
+		}
+
+		requestRead();
+		InputStreamManager.getInstance().addWaitCount();
+
+		try {
+			is.wait();
+		} catch (InterruptedException e) {
+			throw new IOException(e.toString());
 		}
 	}
 
@@ -86,32 +171,28 @@ public class BlockInputStream extends InputStream {
 	 * @return int
 	 */
 	public int read(byte []b, int off, int len) throws IOException {
-		if (len != buffer.length) {
+		if (len != bufSize) {
 			throw new IOException("Invalid buffer size.");
 		}
 
 		synchronized(is) {
-			if (count == 0) {
-				if (e != null) throw e;
-
-				try {
-					is.wait();
-				} catch (InterruptedException e) {
-					throw new IOException(e.toString());
+			while (size == 0) {
+				if (e != null) {
+					throw e;
+				} else if (isEnd) {
+					return -1; // EOF
 				}
-			}
 
-			if (count > 0) {
-				int n = count;
-				System.arraycopy(buffer, 0, b, off, n);
-				count = 0;
-				InputStreamManager.getInstance().read(this);
-				return n;
-			} else if (count < 0) {
-				return -1; // EOF
-			} else {
-				throw e;
+				waitData();
 			}
+
+			int n = counts[head] - pos;
+			System.arraycopy(buffers[head], pos, b, off, n);
+			pos = 0;
+			head = (head + 1) % buffers.length;
+			size--;
+			requestRead();
+			return n;
 		}
 	}
 
@@ -136,32 +217,52 @@ public class BlockInputStream extends InputStream {
 		if (n < 1) return -1;
 
 		synchronized(is) {
-			if (count > 0) {
-				if (count > n) {
-					int rest = count - (int)n;
-					System.arraycopy(buffer, (int)n, buffer, 0, rest);
-					count = rest;
-
-					return n;
-				} else if (count < n) {
-					long total = skip(is, n - count) + count;
-
-					count = 0;
-					InputStreamManager.getInstance().read(this);
-
-					return total;
-				} else {
-					count = 0;
-					InputStreamManager.getInstance().read(this);
-					return n;
+			long total = 0;
+			while (true) {
+				// Ѷ뻺
+				while (size > 0) {
+					int rest = counts[head] - pos;
+					if (rest > n) {
+						pos += (int)n;
+						return total + n;
+					}
+
+					total += rest;
+					n -= rest;
+					pos = 0;
+					head = (head + 1) % buffers.length;
+					size--;
+
+					if (n == 0) {
+						requestRead();
+						return total;
+					}
 				}
-			} else if (count < 0) {
-				return 0; // EOF
-			} else {
-				if (e != null) throw e;
 
-				return skip(is, n);
+				if (e != null) {
+					if (total > 0) {
+						return total;
+					} else {
+						throw e;
+					}
+				} else if (isEnd) {
+					return total; // EOF
+				} else if (!isFilling) {
+					break;
+				}
+
+				// ߳ڶ
+				try {
+					is.wait();
+				} catch (InterruptedException e) {
+					throw new IOException(e.toString());
+				}
 			}
+
+			// ѿղҶ߳ûڶֱ
+			total += skip(is, n);
+			requestRead();
+			return total;
 		}
 	}
 
@@ -171,14 +272,23 @@ public class BlockInputStream extends InputStream {
 	 */
 	public int available() throws IOException {
 		synchronized(is) {
-			if (e != null) {
+			// ߳ڶʱ
+			while (size == 0 && isFilling) {
+				try {
+					is.wait();
+				} catch (InterruptedException e) {
+					throw new IOException(e.toString());
+				}
+			}
+
+			if (size > 0) {
+				return bufSize;
+			} else if (e != null) {
 				throw e;
-			} else if (count > 0) {
-				return buffer.length;
-			} else if (count < 0) {
+			} else if (isEnd) {
 				return 0;
 			} else {
-				return is.available() > 0 ? buffer.length : 0;
+				return is.available() > 0 ? bufSize : 0;
 			}
 		}
 	}
@@ -189,6 +299,16 @@ public class BlockInputStream extends InputStream {
 	public void close() throws IOException {
 		synchronized(is) {
 			isClosed = true;
+
+			// ȶ̶߳ٹر
+			while (isFilling) {
+				try {
+					is.wait();
+				} catch (InterruptedException e) {
+					break;
+				}
+			}
+
 			is.close();
 		}
 	}
@@ -0,0 +1,369 @@
+package com.scudata.dm;
+
+import com.scudata.array.IArray;
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.expression.Constant;
+import com.scudata.expression.CurrentElement;
+import com.scudata.expression.Expression;
+import com.scudata.expression.FieldRef;
+import com.scudata.expression.Gather;
+import com.scudata.expression.IParam;
+import com.scudata.expression.Node;
+import com.scudata.expression.UnknownSymbol;
+import com.scudata.expression.fn.gather.Average;
+import com.scudata.expression.fn.gather.Count;
+import com.scudata.expression.fn.gather.Max;
+import com.scudata.expression.fn.gather.Min;
+import com.scudata.expression.fn.gather.Sum;
+import com.scudata.expression.operator.Add;
+import com.scudata.expression.operator.And;
+import com.scudata.expression.operator.Divide;
+import com.scudata.expression.operator.Equals;
+import com.scudata.expression.operator.Greater;
+import com.scudata.expression.operator.Mod;
+import com.scudata.expression.operator.Multiply;
+import com.scudata.expression.operator.Negative;
+import com.scudata.expression.operator.Not;
+import com.scudata.expression.operator.NotEquals;
+import com.scudata.expression.operator.NotGreater;
+import com.scudata.expression.operator.NotSmaller;
+import com.scudata.expression.operator.Or;
+import com.scudata.expression.operator.Smaller;
+import com.scudata.expression.operator.Subtract;
+import com.scudata.resources.EngineMessage;
+import com.scudata.util.EnvUtil;
+
+/**
+ * дŵһݣαȡڸͷܼ䴫ݣΪÿв¼
+ * Աֶδ飬ʱֻ޸ѡҪûؽʱɼ¼
+ * @author RunQian
+ *
+ */
+public class ColumnBatch {
+	private DataStruct ds; // ݽṹ
+	private IArray []columns; // ֶεֵ1ʼ
+	private int []selection; // ѡекţ1ʼΪձʾȫѡ
+	private int count; // ѡе
+	private IArray []selectedColumns; // ѡȡֵֶõʱ
+	
+	private boolean isDerived; // ǷֶΣֶκͨ¼
+	private BatchView view; // ڼʽͼ
+	
+	/**
+	 * дŵ
+	 * @param ds ݽṹ
+	 * @param columns ֶεֵ鳤ȶΪsize
+	 * @param size 
+	 */
+	public ColumnBatch(DataStruct ds, IArray []columns, int size) {
+		this.ds = ds;
+		this.columns = columns;
+		this.count = size;
+	}
+	
+	/**
+	 * ȡݽṹ
+	 * @return DataStruct
+	 */
+	public DataStruct getDataStruct() {
+		return ds;
+	}
+	
+	/**
+	 * ݽṹݽṹֶһ
+	 * @param ds ݽṹ
+	 */
+	public void setDataStruct(DataStruct ds) {
+		this.ds = ds;
+		view = null;
+	}
+	
+	/**
+	 * ȡѡе
+	 * @return int
+	 */
+	public int length() {
+		return count;
+	}
+	
+	/**
+	 * ȡѡежӦֵֶ
+	 * @param field ֶţ0ʼ
+	 * @return IArray
+	 */
+	public IArray getColumn(int field) {
+		if (selection == null) {
+			return columns[field];
+		}
+		
+		if (selectedColumns == null) {
+			selectedColumns = new IArray[columns.length];
+		}
+		
+		IArray array = selectedColumns[field];
+		if (array == null) {
+			array = columns[field].get(selection, 1, count, false);
+			selectedColumns[field] = array;
+		}
+		
+		return array;
+	}
+	
+	/**
+	 * ļ޸ѡֻȡֵΪ
+	 * @param signArray ļȺѡеͬ
+	 */
+	public void select(IArray signArray) {
+		int count = this.count;
+		int []selection = this.selection;
+		int []result = new int[count + 1];
+		int q = 0;
+		
+		for (int i = 1; i <= count; ++i) {
+			if (signArray.isTrue(i)) {
+				result[++q] = selection == null ? i : selection[i];
+			}
+		}
+		
+		if (q != count) {
+			this.selection = result;
+			this.count = q;
+			selectedColumns = null;
+		}
+	}
+	
+	/**
+	 * ֶΣеֶλᰴѡȡ
+	 * @param name ֶ
+	 * @param array ֵֶȺѡеͬ
+	 */
+	public void addColumn(String name, IArray array) {
+		IArray []columns = this.columns;
+		int fcount = columns.length;
+		IArray []newColumns = new IArray[fcount + 1];
+		for (int f = 0; f < fcount; ++f) {
+			newColumns[f] = getColumn(f);
+		}
+		
+		// ʱ飬޸
+		newColumns[fcount] = array.reserve(true);
+		selection = null;
+		selectedColumns = null;
+		isDerived = true;
+		
+		String []names = new String[fcount + 1];
+		System.arraycopy(ds.getFieldNames(), 0, names, 0, fcount);
+		names[fcount] = name;
+		
+		this.columns = newColumns;
+		setDataStruct(ds.create(names));
+	}
+	
+	/**
+	 * ѡемʽ
+	 * @param exp ʽͨcanCalculate
+	 * @param ctx 
+	 * @return IArray 
+	 */
+	public IArray calculateAll(Expression exp, Context ctx) {
+		ComputeStack stack = ctx.getComputeStack();
+		stack.push(new Current(toSequence()));
+		
+		try {
+			return exp.calculateAll(ctx);
+		} finally {
+			stack.pop();
+		}
+	}
+	
+	/**
+	 * ѡɵͼڰмʽ
+	 * ȡԱʱͬһ¼ֻֻȡֵֶǰ¼ļ
+	 * @return Sequence
+	 */
+	public Sequence toSequence() {
+		if (view == null) {
+			view = new BatchView(this);
+		}
+		
+		return view;
+	}
+	
+	/**
+	 * ѡеɼ¼
+	 * @return Table
+	 */
+	public Table toTable() {
+		DataStruct ds = this.ds;
+		int count = this.count;
+		int fcount = columns.length;
+		int []selection = this.selection;
+		boolean isDerived = this.isDerived;
+		IArray []columns = this.columns;
+		
+		Table table = new Table(ds, count);
+		IArray mems = table.getMems();
+		for (int i = 1; i <= count; ++i) {
+			int row = selection == null ? i : selection[i];
+			Record r = isDerived ? new Record(ds) : newRecord(ds, row);
+			
+			for (int f = 0; f < fcount; ++f) {
+				r.setNormalFieldValue(f, columns[f].get(row));
+			}
+			
+			mems.add(r);
+		}
+		
+		return table;
+	}
+	
+	/**
+	 * ָжӦļ¼ԲжϢļ¼
+	 * @param ds ݽṹ
+	 * @param row кţ1ʼ
+	 * @return Record
+	 */
+	protected Record newRecord(DataStruct ds, int row) {
+		return new Record(ds);
+	}
+	
+	/**
+	 * жϱʽܷ԰дŵݼ
+	 * ֶֻ֧ΡȽϡ߼ɵıʽ̲úͱǰ¼
+	 * @param exp ʽ
+	 * @param ds ݽṹ
+	 * @param ctx 
+	 * @return trueԣfalse
+	 */
+	public static boolean canCalculate(Expression exp, DataStruct ds, Context ctx) {
+		return exp == null || canCalculate(exp.getHome(), ds, ctx);
+	}
+	
+	/**
+	 * жϱʽܷ԰дŵݼ
+	 * @param exps ʽ
+	 * @param ds ݽṹ
+	 * @param ctx 
+	 * @return trueԣfalse
+	 */
+	public static boolean canCalculate(Expression []exps, DataStruct ds, Context ctx) {
+		if (exps != null) {
+			for (Expression exp : exps) {
+				if (!canCalculate(exp, ds, ctx)) {
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * жϻܷܺ԰дŵݼ㣬ֵֻֻ֧ü¼sumcountavgmaxmin
+	 * @param gathers ܺ
+	 * @param ds ݽṹ
+	 * @param ctx 
+	 * @return trueԣfalse
+	 */
+	public static boolean canGather(Node []gathers, DataStruct ds, Context ctx) {
+		if (gathers == null) {
+			return true;
+		}
+		
+		for (Node node : gathers) {
+			if (!(node instanceof Sum || node instanceof Count || node instanceof Average ||
+					node instanceof Max || node instanceof Min)) {
+				return false;
+			}
+			
+			Gather gather = (Gather)node;
+			IParam param = gather.getParam();
+			if (gather.getOption() != null || param == null || !param.isLeaf() ||
+					!canCalculate(param.getLeafExpression(), ds, ctx)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private static boolean canCalculate(Node node, DataStruct ds, Context ctx) {
+		if (node == null || node instanceof Constant) {
+			return true;
+		} else if (node instanceof UnknownSymbol) {
+			String name = ((UnknownSymbol)node).getName();
+			return ds.getFieldIndex(name) != -1 || EnvUtil.getParam(name, ctx) != null;
+		} else if (node instanceof FieldRef) {
+			// ~.f
+			Node left = node.getLeft();
+			return left instanceof CurrentElement && left.getLeft() == null &&
+					ds.getFieldIndex(((FieldRef)node).getName()) != -1;
+		} else if (node instanceof Add || node instanceof Subtract || node instanceof Multiply ||
+				node instanceof Divide || node instanceof Mod || node instanceof Negative ||
+				node instanceof And || node instanceof Or || node instanceof Not ||
+				node instanceof Equals || node instanceof NotEquals || node instanceof Greater ||
+				node instanceof NotSmaller || node instanceof Smaller || node instanceof NotGreater) {
+			return canCalculate(node.getLeft(), ds, ctx) && canCalculate(node.getRight(), ds, ctx);
+		} else {
+			return false;
+		}
+	}
+	
+	/**
+	 * ѡɵͼֱֵֶӴȡ
+	 */
+	private static class BatchView extends Table {
+		private static final long serialVersionUID = 0x02613003;
+		
+		private ColumnBatch batch;
+		private Record row; // мʱõļ¼
+		
+		public BatchView(ColumnBatch batch) {
+			super(batch.ds);
+			this.batch = batch;
+			row = new Record(batch.ds);
+		}
+		
+		public int length() {
+			return batch.count;
+		}
+		
+		public Object get(int seq) {
+			return getMem(seq);
+		}
+		
+		public Object getMem(int seq) {
+			ColumnBatch batch = this.batch;
+			int r = batch.selection == null ? seq : batch.selection[seq];
+			IArray []columns = batch.columns;
+			Record row = this.row;
+			
+			for (int f = 0, fcount = columns.length; f < fcount; ++f) {
+				row.setNormalFieldValue(f, columns[f].get(r));
+			}
+			
+			return row;
+		}
+		
+		public Object getFieldValue(int row, int field) {
+			ColumnBatch batch = this.batch;
+			int r = batch.selection == null ? row : batch.selection[row];
+			return batch.columns[field].get(r);
+		}
+		
+		public IArray getFieldValueArray(String fieldName) {
+			int field = ds.getFieldIndex(fieldName);
+			if (field == -1) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException(fieldName + mm.getMessage("ds.fieldNotExist"));
+			} else {
+				return batch.getColumn(field);
+			}
+		}
+		
+		public IArray getFieldValueArray(int field) {
+			return batch.getColumn(field);
+		}
+	}
+}
@@ -24,6 +24,7 @@ public class Context {
 
 	private Random random; // ֵ
 	private Param iterateParam = new Param(KeyWord.ITERATEPARAM, Param.VAR, null); // 
+	private Profiler profiler; // ִձʾ
 	
 	/**
 	 * Ķ
@@ -350,6 +351,7 @@ public class Context {
 		ctx.dbSessions = dbSessions;
 		ctx.dbsfs = dbsfs;
 		ctx.defDsName = defDsName;
+		ctx.profiler = profiler;
 
 		ParamList paramList = this.paramList;
 		ParamList paramList2 = ctx.paramList;
@@ -370,8 +372,48 @@ public class Context {
 		dbSessions = ctx.dbSessions;
 		dbsfs = ctx.dbsfs;
 		defDsName = ctx.defDsName;
+		profiler = ctx.profiler;
 	}
 
+	/**
+	 * ȡִ
+	 * @return Profilerûʱؿ
+	 */
+	public Profiler getProfiler() {
+		if (profiler != null && !profiler.isStopped()) {
+			return profiler;
+		} else if (parent != null) {
+			return parent.getProfiler();
+		} else {
+			return null;
+		}
+	}
+	
+	/**
+	 * ִΪĲøĵ
+	 * @param profiler ִ
+	 */
+	public void setProfiler(Profiler profiler) {
+		this.profiler = profiler;
+	}
+	
+	/**
+	 * ֹͣʹõҲֹ֮ͣ
+	 */
+	public void stopProfiler() {
+		Profiler profiler = getProfiler();
+		if (profiler == null) {
+			return;
+		}
+		
+		profiler.stop();
+		for (Context ctx = this; ctx != null; ctx = ctx.parent) {
+			if (ctx.profiler == profiler) {
+				ctx.profiler = null;
+			}
+		}
+	}
+	
 	/**
 	 * ȡ
 	 * @return Param
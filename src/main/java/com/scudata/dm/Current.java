@@ -9,6 +9,7 @@ public class Current implements IComputeItem {
 	private Sequence sequence;
 	private int curIndex; // ǰڽмԪص1ʼ
 	private boolean isInStack = true; // Ƿڼջ
+	private boolean isReadOnly = false; // Ƿ񲻻޸еĳԱ
 
 	public Current(Sequence sequence) {
 		this.sequence = sequence;
@@ -56,6 +57,23 @@ public class Current implements IComputeItem {
 		isInStack = false;
 	}
 	
+	/**
+	 * üǷ񲻻޸еĳԱʽûиֵʱΪtrue
+	 * ʱx[a:b].f()ʽĴھۺϿ
+	 * @param isReadOnly
+	 */
+	public void setReadOnly(boolean isReadOnly) {
+		this.isReadOnly = isReadOnly;
+	}
+	
+	/**
+	 * ؼǷ񲻻޸еĳԱ
+	 * @return boolean
+	 */
+	public boolean isReadOnly() {
+		return isReadOnly;
+	}
+	
 	/**
 	 * жϵǰǷ͸ͬһ
 	 * @param seq
@@ -48,6 +48,18 @@ public class Env {
 	
 	// ǷǨע͸еĵԪ
 	private static boolean adjustNoteCell = true;
+	
+	// ʽмٴκ룬0ʾ룬Ĭϲ
+	private static int compileThreshold = 0;
+	
+	// 첽ļ߳
+	private static int readThreadCount = 4;
+	
+	// ÿԤĿ
+	private static int readAheadDepth = 4;
+	
+	// 򡢷鲢ʱļʱһ鲢·ʱȷ鲢ɽٵʱļ
+	private static int mergeFanIn = 128;
 
 	private static String DEFAULT_TASK = "_default_task_";
 	private static Map<String,Integer> areaNo = Collections.synchronizedMap(new HashMap<String,Integer>());
@@ -397,14 +409,14 @@ public class Env {
 
 	/**
 	 * ȡļ鲢ļС
-	 * 
+	 * ÿԤgetReadAheadDepth()飬ԿڴҪٰԤ
 	 * @param fcount int
 	 * @return int
 	 */
 	public static int getMergeFileBufSize(int fcount) {
 		Runtime rt = Runtime.getRuntime();
 		long size = (rt.maxMemory() - rt.totalMemory() + rt.freeMemory() - 1024 * 1024 * 128)
-				/ fcount / 2;
+				/ fcount / 2 / readAheadDepth;
 		if (size >= FILE_BUFSIZE)
 			return FILE_BUFSIZE;
 
@@ -612,4 +624,68 @@ public class Env {
 	public static void setAdjustNoteCell(boolean adjustNoteCell) {
 		Env.adjustNoteCell = adjustNoteCell;
 	}
+	
+	/**
+	 * ȡʽмٴκػĽڵ
+	 * @return 0ʾ
+	 */
+	public static int getCompileThreshold() {
+		return compileThreshold;
+	}
+	
+	/**
+	 * ñʽмٴκػĽڵ
+	 * @param n 0ʾ
+	 */
+	public static void setCompileThreshold(int n) {
+		compileThreshold = n;
+	}
+	
+	/**
+	 * ȡ첽ļ߳Щ߳Ԥ
+	 * @return int
+	 */
+	public static int getReadThreadCount() {
+		return readThreadCount;
+	}
+	
+	/**
+	 * 첽ļ߳ʱЧСʱֹ̲߳ͣ
+	 * @param n ߳
+	 */
+	public static void setReadThreadCount(int n) {
+		readThreadCount = n > 1 ? n : 1;
+	}
+	
+	/**
+	 * ȡÿԤĿ1鿪ʼҪȴʱԤ
+	 * @return int
+	 */
+	public static int getReadAheadDepth() {
+		return readAheadDepth;
+	}
+	
+	/**
+	 * ÿԤĿ֮󴴽Ч
+	 * @param n 
+	 */
+	public static void setReadAheadDepth(int n) {
+		readAheadDepth = n > 1 ? n : 1;
+	}
+	
+	/**
+	 * ȡ鲢ʱļʱһ鲢·
+	 * @return int
+	 */
+	public static int getMergeFanIn() {
+		return mergeFanIn;
+	}
+	
+	/**
+	 * ù鲢ʱļʱһ鲢·ʱļֵʱֶֹ鲢
+	 * @param n ·СΪ2
+	 */
+	public static void setMergeFanIn(int n) {
+		mergeFanIn = n > 2 ? n : 2;
+	}
 }
@@ -11,6 +11,7 @@ import java.util.Arrays;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.cursor.ICursor;
+import com.scudata.dw.BlockCodec;
 import com.scudata.dw.ColComTable;
 import com.scudata.dw.ColumnMetaData;
 import com.scudata.dw.ColPhyTable;
@@ -250,6 +251,11 @@ public class FileGroup implements Externalizable {
 				} else {
 					newGroupTable.setCompress(baseTable.getGroupTable().isCompress());
 				}
+				
+				int codec = BlockCodec.getCodec(opt);
+				newGroupTable.setCompressCodec(codec == -1 ? baseTable.getGroupTable().getCompressCodec() : codec);
+				newGroupTable.setIntegerEncoding(baseTable.getGroupTable().isIntegerEncoding() || 
+						(opt != null && opt.indexOf('e') != -1));
 			} else {
 				newGroupTable = new RowComTable(newFile, colNames, null, newOpt, blockSize, ctx);
 			}
@@ -414,6 +420,13 @@ public class FileGroup implements Externalizable {
 			if (uncompress) {
 				newOpt += 'u';
 			}
+			
+			int codec = BlockCodec.getCodec(opt);
+			newOpt += BlockCodec.getOption(codec == -1 ? baseTable.getGroupTable().getCompressCodec() : codec);
+			if (baseTable.getGroupTable().isIntegerEncoding() || (opt != null && opt.indexOf('e') != -1)) {
+				newOpt += 'e';
+			}
+
 			try {
 				//д
 				PhyTableGroup newTableGroup = newFileGroup.create(colNames, distribute, newOpt, blockSize, ctx);
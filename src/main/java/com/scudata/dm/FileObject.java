@@ -656,7 +656,7 @@ public class FileObject implements Externalizable {
 	/**
 	 * ֶεļ
 	 * @param series Sequence
-	 * @param opt String ⣬cдɶŷָcsvļbļa׷д
+	 * @param opt String ⣬cдɶŷָcsvļbļa׷дjдjson lines
 	 * @param s Object excel sheetзָĬϵ
 	 */
 	public void exportSeries(Sequence series, String opt, Object s) {
@@ -668,7 +668,7 @@ public class FileObject implements Externalizable {
 	 * @param series Sequence
 	 * @param exps Expression[] Ҫֵʽձʾֶ
 	 * @param names String[] ֵʽӦ֣ʡֵʽ
-	 * @param opt String t⣬cдɶŷָcsvļbļa׷д
+	 * @param opt String t⣬cдɶŷָcsvļbļa׷дjдjson lines
 	 * @param s Object excel sheetзָĬϵ
 	 * @param ctx Context
 	 */
@@ -682,6 +682,9 @@ public class FileObject implements Externalizable {
 			BFileWriter writer = new BFileWriter(this, opt);
 			writer.export(series, exps, names, ctx);
 			return;
+		} else if (opt != null && opt.indexOf('j') != -1) {
+			exportJSON(series, null, exps, names, opt.indexOf('a') != -1, ctx);
+			return;
 		}
 		
 		boolean isTitle = false, isCsv = false, isAppend = false, isQuote = false, isQuoteEscape = false;
@@ -758,7 +761,7 @@ public class FileObject implements Externalizable {
 	 * @param cursor ICursor
 	 * @param exps Expression[] Ҫֵʽձʾֶ
 	 * @param names String[] ֵʽӦ֣ʡֵʽ
-	 * @param opt String ⣬cдɶŷָcsvļbļa׷д
+	 * @param opt String ⣬cдɶŷָcsvļbļa׷дjдjson lines
 	 * @param s Object зָ
 	 * @param ctx Context
 	 */
@@ -768,6 +771,9 @@ public class FileObject implements Externalizable {
 			BFileWriter writer = new BFileWriter(this, opt);
 			writer.export(cursor, exps, names, ctx);
 			return;
+		} else if (opt != null && opt.indexOf('j') != -1) {
+			exportJSON(null, cursor, exps, names, opt.indexOf('a') != -1, ctx);
+			return;
 		}
 		
 		boolean isTitle = false, isCsv = false, isAppend = false, isQuote = false, isQuoteEscape = false;
@@ -838,6 +844,54 @@ public class FileObject implements Externalizable {
 		}
 	}
 	
+	/**
+	 * лα갴json linesʽÿһjson
+	 * @param series УΪʱα
+	 * @param cursor α
+	 * @param exps Ҫֵʽձʾֶ
+	 * @param names ֵʽӦ֣ʡֵʽ
+	 * @param isAppend Ƿ׷д
+	 * @param ctx Context
+	 */
+	private void exportJSON(Sequence series, ICursor cursor, Expression []exps,
+			String []names, boolean isAppend, Context ctx) {
+		if (series == null && cursor == null) {
+			if (!isAppend) delete();
+			return;
+		}
+		
+		OutputStream os = getBufferedOutputStream(isAppend);
+		JSONExporter exporter = new JSONExporter(os);
+		try {
+			if (series != null) {
+				if (exps == null && series.dataStruct() == null) {
+					// евд⣬Ĭֶ
+					int fcount = getMaxMemberCount(series);
+					if (fcount > 0) {
+						String []fields = new String[fcount];
+						for (int f = 0; f < fcount; ++f) {
+							fields[f] = "_" + (f + 1);
+						}
+						
+						exporter.setFieldNames(fields);
+					}
+				}
+				
+				export_x(exporter, series, exps, names, true, ctx);
+			} else {
+				export_x(exporter, cursor, exps, names, true, ctx);
+			}
+		} catch (IOException e) {
+			throw new RQException(e.getMessage(), e);
+		} finally {
+			try {
+				exporter.close();
+			} catch (IOException e) {
+				throw new RQException(e.getMessage(), e);
+			}
+		}
+	}
+	
 	/**
 	 * 鵼α꣬ɿɰֶεĶļ
 	 * @param cursor α
@@ -3,6 +3,7 @@ package com.scudata.dm;
 import com.scudata.array.BoolArray;
 import com.scudata.array.IArray;
 import com.scudata.array.IntArray;
+import com.scudata.expression.Expression;
 
 /**
  * ڴ
@@ -85,4 +86,24 @@ abstract public class IndexTable {
 	public void findPos(Object[] keys, IntArray out) {
 		throw new RuntimeException();
 	}
+	
+	/**
+	 * ݼҶӦֵԭһγֵλã˷ΪֶεĹϣ
+	 * ֵظfindAllPosͬ
+	 * @param keys ֵ
+	 * @return
+	 */
+	public int[] findAllFirstPos(IArray []keys) {
+		return findAllPos(keys);
+	}
+	
+	/**
+	 * й
+	 * @param exp ˱ʽ
+	 * @param ctx
+	 * @return Table ļ¼ɵ֧ʱؿ
+	 */
+	public Table select(Expression exp, Context ctx) {
+		return null;
+	}
 }
@@ -1,20 +1,77 @@
 package com.scudata.dm;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 
 /**
- * ڶ԰й
+ * ڶ԰첽Ԥ
+ * ɶ̹߳ͬȴУÿͬһʱһ̶߳һŵβ֤
+ * ߳Env.getReadThreadCount()ṩгȵͳϢڼ
  * @author WangXiaoJun
  *
  */
-public final class InputStreamManager extends Thread {
+public final class InputStreamManager {
 	private static InputStreamManager manager;
-	
+
 	// ڵȴȡݵ
 	private LinkedList <BlockInputStream>bisList = new LinkedList<BlockInputStream>();
 
+	private ThreadGroup group; // ߳ڵ߳
+	private ArrayList<ReadThread> threadList = new ArrayList<ReadThread>(); // ߳
+	private int busyCount; // ڶݵ߳
+	private int maxQueueSize; // ȴгֹ󳤶
+	private long readCount; // ܹĿ
+	private long readBytes; // ֽܹ
+	private long waitCount; // ȡʱΪҪȴĴ
+
+	// ݵ߳
+	private class ReadThread extends Thread {
+		public ReadThread(int seq) {
+			super(group, "InputStreamManager-" + seq);
+			setDaemon(true);
+		}
+
+		public void run() {
+			LinkedList<BlockInputStream> bisList = InputStreamManager.this.bisList;
+			BlockInputStream bis = null;
+			int result = 0;
+
+			while (true) {
+				synchronized(bisList) {
+					if (bis != null) {
+						// ֵС0ʾҪٶˣֽΪ-result-1
+						busyCount--;
+						int count = result < 0 ? -result - 1 : result;
+						if (count > 0) {
+							readCount++;
+							readBytes += count;
+						}
+
+						// Ҫŵβȶ
+						if (result >= 0) {
+							addToQueue(bis);
+						}
+					}
+
+					while (bisList.size() == 0) {
+						try {
+							// ȴread
+							bisList.wait();
+						} catch (InterruptedException e) {
+						}
+					}
+
+					bis = bisList.removeFirst();
+					busyCount++;
+				}
+
+				result = bis.fillBuffers();
+			}
+		}
+	}
+
 	private InputStreamManager(ThreadGroup group) {
-		super(group, "InputStreamManager");
+		this.group = group;
 	}
 
 	/**
@@ -22,8 +79,8 @@ public final class InputStreamManager extends Thread {
 	 * @return InputStreamManager
 	 */
 	public synchronized static InputStreamManager getInstance() {
-		if (manager == null) { // || !manager.isAlive()
-			ThreadGroup group = currentThread().getThreadGroup();
+		if (manager == null) {
+			ThreadGroup group = Thread.currentThread().getThreadGroup();
 			while (true) {
 				ThreadGroup g = group.getParent();
 				if (g == null) {
@@ -34,52 +91,114 @@ public final class InputStreamManager extends Thread {
 			}
 
 			manager = new InputStreamManager(group);
-			manager.setDaemon(true);
-			manager.start();
 		}
 
 		return manager;
 	}
 
 	/**
-	 * жȡһ
+	 * жȡ
 	 * @param is
 	 */
 	public void read(BlockInputStream is) {
 		synchronized(bisList) {
-			bisList.add(is);
+			addToQueue(is);
+		}
+	}
+
+	private void addToQueue(BlockInputStream is) {
+		LinkedList<BlockInputStream> bisList = this.bisList;
+		bisList.add(is);
+		if (bisList.size() > maxQueueSize) {
+			maxQueueSize = bisList.size();
+		}
+
+		// ߳С趨ûпе߳ʱµĶ߳
+		ArrayList<ReadThread> threadList = this.threadList;
+		int threadCount = threadList.size();
+		if (threadCount < Env.getReadThreadCount() && busyCount + bisList.size() > threadCount) {
+			ReadThread thread = new ReadThread(threadCount + 1);
+			threadList.add(thread);
+			thread.start();
+		} else {
 			bisList.notify();
 		}
 	}
 
+	// ȡʱҪȴ߳
+	void addWaitCount() {
+		synchronized(bisList) {
+			waitCount++;
+		}
+	}
+
 	/**
-	 * ݺ
+	 * ȡȴݵ
+	 * @return int
 	 */
-	public void run() {
-		while (true) {
-			synchronized(bisList) {
-				if (bisList.size() == 0) {
-					try {
-						// ȴread
-						bisList.wait();
-					} catch (InterruptedException e) {
-					}
-				}
-			}
+	public int getQueueSize() {
+		synchronized(bisList) {
+			return bisList.size();
+		}
+	}
 
-			// ѭУֱеȡ
-			while (true) {
-				BlockInputStream bis;
-				synchronized(bisList) {
-					if (bisList.size() == 0) {
-						break;
-					}
-					
-					bis = bisList.removeFirst();
-				}
+	/**
+	 * ȡȴгֹ󳤶
+	 * @return int
+	 */
+	public int getMaxQueueSize() {
+		synchronized(bisList) {
+			return maxQueueSize;
+		}
+	}
 
-				bis.fillBuffers();
-			}
+	/**
+	 * ȡĶ߳
+	 * @return int
+	 */
+	public int getThreadCount() {
+		synchronized(bisList) {
+			return threadList.size();
+		}
+	}
+
+	/**
+	 * ȡڶݵ߳
+	 * @return int
+	 */
+	public int getBusyCount() {
+		synchronized(bisList) {
+			return busyCount;
+		}
+	}
+
+	/**
+	 * ȡܹĿ
+	 * @return long
+	 */
+	public long getReadCount() {
+		synchronized(bisList) {
+			return readCount;
+		}
+	}
+
+	/**
+	 * ȡֽܹ
+	 * @return long
+	 */
+	public long getReadBytes() {
+		synchronized(bisList) {
+			return readBytes;
+		}
+	}
+
+	/**
+	 * ȡȡʱΪҪȴĴ˵̲߳ߴ̵ƿ
+	 * @return long
+	 */
+	public long getWaitCount() {
+		synchronized(bisList) {
+			return waitCount;
 		}
 	}
 }
@@ -0,0 +1,94 @@
+package com.scudata.dm;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import com.scudata.common.Escape;
+import com.scudata.util.JSONUtil;
+
+/**
+ * ݰjson linesʽдÿһjson
+ * һεwriteLineдֶ֮ÿдһ
+ * @author RunQian
+ *
+ */
+public class JSONExporter implements ILineOutput {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final char LINE_SEPARATOR = '\n';
+	
+	private Writer writer; // UTF-8д
+	private String []names; // ŵֶ
+	private StringBuilder sb = new StringBuilder(1024); // ÿ
+	private char []chars = new char[1024]; // sbȡַдwriterÿַ
+	
+	/**
+	 * json linesд
+	 * @param os ҪԼӻ
+	 */
+	public JSONExporter(OutputStream os) {
+		this.writer = new OutputStreamWriter(os, UTF8);
+	}
+	
+	/**
+	 * ֶúwriteLineдĶ
+	 * @param fields ֶ
+	 */
+	public void setFieldNames(String []fields) {
+		int fcount = fields.length;
+		names = new String[fcount];
+		for (int f = 0; f < fcount; ++f) {
+			names[f] = Escape.addEscAndQuote(fields[f]);
+		}
+	}
+	
+	/**
+	 * дһݣûֶʱһΪֶ
+	 * @param items ֵɵ
+	 * @throws IOException
+	 */
+	public void writeLine(Object []items) throws IOException {
+		if (names == null) {
+			String []fields = new String[items.length];
+			for (int f = 0; f < fields.length; ++f) {
+				fields[f] = String.valueOf(items[f]);
+			}
+			
+			setFieldNames(fields);
+			return;
+		}
+		
+		StringBuilder sb = this.sb;
+		sb.setLength(0);
+		sb.append('{');
+		
+		String []names = this.names;
+		for (int f = 0, fcount = names.length; f < fcount; ++f) {
+			if (f > 0) sb.append(',');
+			sb.append(names[f]);
+			sb.append(':');
+			JSONUtil.toJSON(items[f], sb);
+		}
+		
+		sb.append('}');
+		sb.append(LINE_SEPARATOR);
+		
+		int len = sb.length();
+		if (chars.length < len) {
+			chars = new char[len];
+		}
+		
+		sb.getChars(0, len, chars, 0);
+		writer.write(chars, 0, len);
+	}
+	
+	/**
+	 * ر
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		writer.close();
+	}
+}
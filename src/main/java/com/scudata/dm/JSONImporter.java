@@ -0,0 +1,690 @@
+package com.scudata.dm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+
+import com.scudata.common.MessageManager;
+import com.scudata.common.ObjectCache;
+import com.scudata.common.RQException;
+import com.scudata.resources.EngineMessage;
+
+/**
+ * ֽʽjsonļļÿһjsonjson lines
+ * Ҫļڴ棬ֻѡֶΣֱֶ
+ * @author RunQian
+ *
+ */
+public final class JSONImporter {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private InputStream is; // 
+	private byte []buffer; // ÿζֽڻ
+	private int index; // һֽbufferе
+	private int count; // bufferʵֽĿ
+	private long position; // bufferֽеλ
+	private long lineStart; // Ļз֮λãǰеʼλ
+	
+	private byte [][]fieldBytes; // ѡֶutf-8룬Ϊʱõһֶ
+	private String []fieldNames; // ֶ
+	private int nextField; // һֶοܵţֶ˳̶ʱӿƥ
+	
+	private boolean isStart = true; // Ƿûпʼ
+	private boolean isArray = false; // Ƿ
+	private boolean isEof = false; // ǷѾ
+	
+	private char []chars = new char[256]; // ڽַ
+	
+	/**
+	 * jsonʽ
+	 * @param is 
+	 * @param fields ѡֶԵһֶΪ׼
+	 */
+	public JSONImporter(InputStream is, String []fields) {
+		this(is, fields, Env.FILE_BUFSIZE);
+	}
+	
+	/**
+	 * jsonʽ
+	 * @param is 
+	 * @param fields ѡֶԵһֶΪ׼
+	 * @param bufSize С
+	 */
+	public JSONImporter(InputStream is, String []fields, int bufSize) {
+		this.is = is;
+		buffer = new byte[bufSize];
+		if (fields != null) {
+			setFieldNames(fields);
+		}
+	}
+	
+	private void setFieldNames(String []fields) {
+		int fcount = fields.length;
+		fieldNames = fields;
+		fieldBytes = new byte[fcount][];
+		for (int f = 0; f < fcount; ++f) {
+			fieldBytes[f] = fields[f].getBytes(UTF8);
+		}
+	}
+	
+	/**
+	 * ȡֶûֶָʱڶһȷ
+	 * @return ֶ
+	 */
+	public String[] getFieldNames() {
+		return fieldNames;
+	}
+	
+	/**
+	 * Ƿ
+	 * @return
+	 */
+	public boolean isArray() {
+		return isArray;
+	}
+	
+	/**
+	 * ȡǰλ
+	 * @return
+	 */
+	public long getCurrentPosition() {
+		return position + index;
+	}
+	
+	/**
+	 * ȡǰеʼλãhasNext֮ʱΪһԪеʼλ
+	 * ֶζjson linesʱжԪһΣԪеʼλ(start, end]ڵڴ˶
+	 * @return
+	 */
+	public long getLineStart() {
+		return lineStart;
+	}
+	
+	/**
+	 * ָλãУֻjson lines
+	 * ʼλôposgetLineStartķֶιһ
+	 * @param pos λ
+	 * @throws IOException
+	 */
+	public void seek(long pos) throws IOException {
+		if (pos <= 0) {
+			return;
+		}
+		
+		isStart = false;
+		long rest = pos - getCurrentPosition();
+		while (rest > 0) {
+			if (index < count) {
+				int n = count - index;
+				if (n > rest) {
+					n = (int)rest;
+				}
+				
+				index += n;
+				rest -= n;
+			} else {
+				long n = is.skip(rest);
+				if (n <= 0) {
+					if (!readBuffer()) {
+						return;
+					}
+				} else {
+					position += n;
+					rest -= n;
+				}
+			}
+		}
+		
+		// 
+		int c;
+		while ((c = read()) != -1 && c != '\n') {
+		}
+		
+		lineStart = getCurrentPosition();
+	}
+	
+	/**
+	 * жǷ
+	 * @param is жر
+	 * @return
+	 */
+	public static boolean isArray(InputStream is) {
+		try {
+			JSONImporter importer = new JSONImporter(is, null, 1024);
+			return importer.skipWhitespace() == '[';
+		} catch (IOException e) {
+			throw new RQException(e.getMessage(), e);
+		} finally {
+			try {
+				is.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+	
+	private boolean readBuffer() throws IOException {
+		position += count;
+		index = 0;
+		count = 0;
+		
+		int n;
+		while ((n = is.read(buffer)) == 0) {
+		}
+		
+		if (n > 0) {
+			count = n;
+			return true;
+		} else {
+			return false;
+		}
+	}
+	
+	private int read() throws IOException {
+		if (index == count && !readBuffer()) {
+			return -1;
+		}
+		
+		return buffer[index++] & 0xff;
+	}
+	
+	private int peek() throws IOException {
+		if (index == count && !readBuffer()) {
+			return -1;
+		}
+		
+		return buffer[index] & 0xff;
+	}
+	
+	// հףһֽڵ
+	private int skipWhitespace() throws IOException {
+		while (true) {
+			if (index == count && !readBuffer()) {
+				return -1;
+			}
+			
+			int c = buffer[index] & 0xff;
+			if (c == '\n') {
+				index++;
+				lineStart = getCurrentPosition();
+			} else if (c == ' ' || c == '\r' || c == '\t') {
+				index++;
+			} else if (c == 0xEF && getCurrentPosition() == 0) {
+				// utf-8BOMͷ
+				read();
+				read();
+				read();
+			} else {
+				return c;
+			}
+		}
+	}
+	
+	/**
+	 * ԪؼķָǷԪ
+	 * @return trueУfalseѾ
+	 * @throws IOException
+	 */
+	public boolean hasNext() throws IOException {
+		if (isEof) {
+			return false;
+		}
+		
+		int c = skipWhitespace();
+		if (isStart) {
+			isStart = false;
+			if (c == '[') {
+				isArray = true;
+				index++;
+				c = skipWhitespace();
+			}
+		} else if (isArray && c == ',') {
+			index++;
+			c = skipWhitespace();
+		}
+		
+		if (c == -1 || (isArray && c == ']')) {
+			isEof = true;
+			return false;
+		} else {
+			return true;
+		}
+	}
+	
+	/**
+	 * һԪǷǶ
+	 * @return
+	 * @throws IOException
+	 */
+	public boolean isNextRecord() throws IOException {
+		return hasNext() && peek() == '{';
+	}
+	
+	/**
+	 * һѡֵֶǰҪȵhasNext
+	 * ûֶָʱԵһֶΪ׼ֶα
+	 * @param values ֵֶ飬ȵֶȱٵֵֶΪ
+	 * @return һζûֶָʱµֵ飬򷵻values
+	 * @throws IOException
+	 */
+	public Object[] readRecord(Object []values) throws IOException {
+		if (read() != '{') {
+			throwFormatError();
+		}
+		
+		if (fieldBytes == null) {
+			return readFirstRecord();
+		}
+		
+		byte [][]fieldBytes = this.fieldBytes;
+		int fcount = fieldBytes.length;
+		for (int f = 0; f < fcount; ++f) {
+			values[f] = null;
+		}
+		
+		int c = skipWhitespace();
+		if (c == '}') {
+			index++;
+			return values;
+		}
+		
+		while (true) {
+			if (read() != '"') {
+				throwFormatError();
+			}
+			
+			int f = matchField(fieldBytes);
+			if (skipWhitespace() != ':') {
+				throwFormatError();
+			}
+			
+			index++;
+			skipWhitespace();
+			if (f < 0) {
+				skipValue();
+			} else {
+				values[f] = readValue();
+			}
+			
+			c = skipWhitespace();
+			index++;
+			if (c == '}') {
+				return values;
+			} else if (c != ',') {
+				throwFormatError();
+			}
+			
+			skipWhitespace();
+		}
+	}
+	
+	/**
+	 * һԪ
+	 * @throws IOException
+	 */
+	public void skipNext() throws IOException {
+		skipValue();
+	}
+	
+	/**
+	 * һԪأǰҪȵhasNext
+	 * @return ¼лֵ
+	 * @throws IOException
+	 */
+	public Object readNext() throws IOException {
+		return readValue();
+	}
+	
+	private Object[] readFirstRecord() throws IOException {
+		ArrayList<String> nameList = new ArrayList<String>();
+		ArrayList<Object> valueList = new ArrayList<Object>();
+		readFields(nameList, valueList);
+		
+		String []names = new String[nameList.size()];
+		nameList.toArray(names);
+		setFieldNames(names);
+		return valueList.toArray();
+	}
+	
+	// ƥֶǰѶֶţûҵ-1
+	private int matchField(byte [][]fieldBytes) throws IOException {
+		// ȳ԰ֶ˳ƥ
+		int fcount = fieldBytes.length;
+		int next = nextField < fcount ? nextField : 0;
+		byte []bytes = fieldBytes[next];
+		int len = bytes.length;
+		
+		if (count - index > len && buffer[index + len] == '"') {
+			byte []buffer = this.buffer;
+			int start = index;
+			boolean match = true;
+			for (int i = 0; i < len; ++i) {
+				if (buffer[start + i] != bytes[i]) {
+					match = false;
+					break;
+				}
+			}
+			
+			if (match) {
+				index += len + 1;
+				nextField = next + 1;
+				return next;
+			}
+		}
+		
+		String name = readString();
+		for (int f = 0; f < fcount; ++f) {
+			if (name.equals(fieldNames[f])) {
+				nextField = f + 1;
+				return f;
+			}
+		}
+		
+		return -1;
+	}
+	
+	private void readFields(ArrayList<String> nameList, ArrayList<Object> valueList) throws IOException {
+		int c = skipWhitespace();
+		if (c == '}') {
+			index++;
+			return;
+		}
+		
+		while (true) {
+			if (read() != '"') {
+				throwFormatError();
+			}
+			
+			nameList.add(readString());
+			if (skipWhitespace() != ':') {
+				throwFormatError();
+			}
+			
+			index++;
+			skipWhitespace();
+			valueList.add(readValue());
+			
+			c = skipWhitespace();
+			index++;
+			if (c == '}') {
+				return;
+			} else if (c != ',') {
+				throwFormatError();
+			}
+			
+			skipWhitespace();
+		}
+	}
+	
+	// ֵǰĿհ
+	private Object readValue() throws IOException {
+		int c = read();
+		switch (c) {
+		case '"':
+			return readString();
+		case '{':
+			ArrayList<String> nameList = new ArrayList<String>();
+			ArrayList<Object> valueList = new ArrayList<Object>();
+			readFields(nameList, valueList);
+			
+			String []names = new String[nameList.size()];
+			nameList.toArray(names);
+			Record r = new Record(new DataStruct(names));
+			valueList.toArray(r.getFieldValues());
+			return r;
+		case '[':
+			return readSequence();
+		case 't':
+			readLiteral("rue");
+			return Boolean.TRUE;
+		case 'f':
+			readLiteral("alse");
+			return Boolean.FALSE;
+		case 'n':
+			readLiteral("ull");
+			return null;
+		default:
+			if (c == '-' || (c >= '0' && c <= '9')) {
+				return readNumber(c);
+			}
+			
+			throwFormatError();
+			return null;
+		}
+	}
+	
+	private Sequence readSequence() throws IOException {
+		Sequence seq = new Sequence();
+		int c = skipWhitespace();
+		if (c == ']') {
+			index++;
+			return seq;
+		}
+		
+		while (true) {
+			seq.add(readValue());
+			c = skipWhitespace();
+			index++;
+			if (c == ']') {
+				break;
+			} else if (c != ',') {
+				throwFormatError();
+			}
+			
+			skipWhitespace();
+		}
+		
+		// ת
+		DataStruct ds = seq.dataStruct();
+		if (ds != null && seq.isPmt()) {
+			int len = seq.length();
+			Table table = new Table(ds, len);
+			for (int i = 1; i <= len; ++i) {
+				Record r = (Record)seq.getMem(i);
+				r.setDataStruct(ds);
+				table.getMems().add(r);
+			}
+			
+			return table;
+		} else {
+			return seq;
+		}
+	}
+	
+	private void readLiteral(String rest) throws IOException {
+		for (int i = 0, len = rest.length(); i < len; ++i) {
+			if (read() != rest.charAt(i)) {
+				throwFormatError();
+			}
+		}
+	}
+	
+	private Object readNumber(int c) throws IOException {
+		char []chars = this.chars;
+		int len = 0;
+		boolean isNegative = c == '-';
+		boolean isInteger = true;
+		long value = 0;
+		
+		if (!isNegative) {
+			value = c - '0';
+		}
+		
+		chars[len++] = (char)c;
+		while (true) {
+			c = peek();
+			if (c >= '0' && c <= '9') {
+				value = value * 10 + (c - '0');
+			} else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+				isInteger = false;
+			} else {
+				break;
+			}
+			
+			if (len == chars.length) {
+				chars = enlarge(chars);
+			}
+			
+			chars[len++] = (char)c;
+			index++;
+		}
+		
+		if (isInteger) {
+			int digits = isNegative ? len - 1 : len;
+			if (digits < 19) {
+				if (isNegative) {
+					value = -value;
+				}
+				
+				if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+					return ObjectCache.getInteger((int)value);
+				} else {
+					return new Long(value);
+				}
+			} else {
+				return new BigDecimal(chars, 0, len);
+			}
+		} else {
+			try {
+				return new Double(new String(chars, 0, len));
+			} catch (NumberFormatException e) {
+				throwFormatError();
+				return null;
+			}
+		}
+	}
+	
+	// ǰѶ
+	private String readString() throws IOException {
+		char []chars = this.chars;
+		int len = 0;
+		
+		while (true) {
+			int c = read();
+			if (c == '"') {
+				break;
+			} else if (c == -1) {
+				throwFormatError();
+			}
+			
+			if (len + 2 > chars.length) {
+				chars = enlarge(chars);
+			}
+			
+			if (c < 0x80) {
+				if (c == '\\') {
+					c = read();
+					switch (c) {
+					case 'n':
+						chars[len++] = '\n';
+						break;
+					case 'r':
+						chars[len++] = '\r';
+						break;
+					case 't':
+						chars[len++] = '\t';
+						break;
+					case 'b':
+						chars[len++] = '\b';
+						break;
+					case 'f':
+						chars[len++] = '\f';
+						break;
+					case 'u':
+						int ch = 0;
+						for (int i = 0; i < 4; ++i) {
+							ch = (ch << 4) + Character.digit(read(), 16);
+						}
+						
+						chars[len++] = (char)ch;
+						break;
+					default:
+						chars[len++] = (char)c;
+					}
+				} else {
+					chars[len++] = (char)c;
+				}
+			} else if ((c & 0xE0) == 0xC0) {
+				chars[len++] = (char)(((c & 0x1F) << 6) | (read() & 0x3F));
+			} else if ((c & 0xF0) == 0xE0) {
+				int c2 = read();
+				int c3 = read();
+				chars[len++] = (char)(((c & 0x0F) << 12) | ((c2 & 0x3F) << 6) | (c3 & 0x3F));
+			} else {
+				int c2 = read();
+				int c3 = read();
+				int c4 = read();
+				int cp = ((c & 0x07) << 18) | ((c2 & 0x3F) << 12) | ((c3 & 0x3F) << 6) | (c4 & 0x3F);
+				chars[len++] = Character.highSurrogate(cp);
+				chars[len++] = Character.lowSurrogate(cp);
+			}
+		}
+		
+		this.chars = chars;
+		return new String(chars, 0, len);
+	}
+	
+	// ֵ
+	private void skipValue() throws IOException {
+		int c = skipWhitespace();
+		if (c == '"') {
+			index++;
+			skipString();
+		} else if (c == '{' || c == '[') {
+			index++;
+			int level = 1;
+			while (level > 0) {
+				c = read();
+				if (c == '"') {
+					skipString();
+				} else if (c == '{' || c == '[') {
+					level++;
+				} else if (c == '}' || c == ']') {
+					level--;
+				} else if (c == -1) {
+					throwFormatError();
+				}
+			}
+		} else {
+			// truefalsenull
+			while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' &&
+					c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+				index++;
+			}
+		}
+	}
+	
+	private void skipString() throws IOException {
+		while (true) {
+			int c = read();
+			if (c == '"') {
+				return;
+			} else if (c == '\\') {
+				read();
+			} else if (c == -1) {
+				throwFormatError();
+			}
+		}
+	}
+	
+	private char[] enlarge(char []chars) {
+		char []newChars = new char[chars.length * 2];
+		System.arraycopy(chars, 0, newChars, 0, chars.length);
+		this.chars = newChars;
+		return newChars;
+	}
+	
+	private void throwFormatError() {
+		MessageManager mm = EngineMessage.get();
+		throw new RQException("json" + mm.getMessage("function.invalidParam") + ": " + getCurrentPosition());
+	}
+	
+	/**
+	 * ر
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		is.close();
+	}
+}
@@ -0,0 +1,653 @@
+package com.scudata.dm;
+
+import com.scudata.array.BoolArray;
+import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
+import com.scudata.array.LongArray;
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.expression.Expression;
+import com.scudata.resources.EngineMessage;
+import com.scudata.thread.Job;
+import com.scudata.thread.MultithreadUtil;
+import com.scudata.thread.ThreadPool;
+import com.scudata.util.Variant;
+
+/**
+ * ΪĹϣڼһintlongֶιɵά
+ * Ŵƽ̹Уÿŵַͻڵ󣬲ʱûָת
+ * @author RunQian
+ *
+ */
+public class LongHashIndexTable extends IndexTable {
+	private static final int MAX_PART_COUNT = 64; // ̴߳ʱ
+	
+	// ̴߳ϣʱзֶμλÿֻ߳ԼǶеĹϣֵ
+	// һλͳÿڶкŰַrows
+	private static class HashJob extends Job {
+		private LongHashIndexTable table;
+		private long [][]keyColumns;
+		private int start; // ʼУ
+		private int end; // У
+		private int []slots; // ÿеĲλ
+		private int []partCounts; // ÿ
+		
+		private int []partPos; // rowsÿʼдλãΪʱһ
+		private int []rows;
+		
+		public HashJob(LongHashIndexTable table, long [][]keyColumns, int start, int end, int []slots) {
+			this.table = table;
+			this.keyColumns = keyColumns;
+			this.start = start;
+			this.end = end;
+			this.slots = slots;
+		}
+		
+		public void run() {
+			LongHashIndexTable table = this.table;
+			int []slots = this.slots;
+			int partSize = table.partSize;
+			
+			if (partPos == null) {
+				int []partCounts = new int[table.capacity / partSize];
+				long []curKeys = new long[table.keyCount];
+				for (int i = start; i < end; ++i) {
+					int s = table.slot(keyColumns, i, curKeys);
+					slots[i] = s;
+					partCounts[s / partSize]++;
+				}
+				
+				this.partCounts = partCounts;
+			} else {
+				int []partPos = this.partPos;
+				int []rows = this.rows;
+				for (int i = start; i < end; ++i) {
+					rows[partPos[slots[i] / partSize]++] = i;
+				}
+			}
+		}
+	}
+	
+	// ̴߳ϣʱÿֻ߳һĲλѷַ
+	private static class InsertJob extends Job {
+		private LongHashIndexTable table;
+		private long [][]keyColumns;
+		private int []slots;
+		private int []rows;
+		private int start; // rowsеʼλã
+		private int end; // λã
+		
+		public InsertJob(LongHashIndexTable table, long [][]keyColumns, int []slots, int []rows, int start, int end) {
+			this.table = table;
+			this.keyColumns = keyColumns;
+			this.slots = slots;
+			this.rows = rows;
+			this.start = start;
+			this.end = end;
+		}
+		
+		public void run() {
+			LongHashIndexTable table = this.table;
+			long [][]keyColumns = this.keyColumns;
+			int []slots = this.slots;
+			int []rows = this.rows;
+			int keyCount = table.keyCount;
+			long []curKeys = new long[keyCount];
+			
+			for (int j = start; j < end; ++j) {
+				int i = rows[j];
+				for (int k = 0; k < keyCount; ++k) {
+					curKeys[k] = keyColumns[k][i];
+				}
+				
+				table.put(curKeys, slots[i], i);
+			}
+		}
+	}
+	
+	private Sequence code; // ԴϣŵԪصλãҪλõԴȡԪ
+	private int keyCount; // ֶ
+	private int capacity; // λ
+	private int partSize; // ÿĲλ̽ⲻԽ
+	
+	private long []keys; // ÿλļֶμδ
+	private int []seqs; // ÿλӦļ¼еţ0ʾղλ
+	
+	private LongHashIndexTable(Sequence code, int keyCount) {
+		this.code = code;
+		this.keyCount = keyCount;
+	}
+	
+	/**
+	 * ɼֵ鴴ϣֵȫпֵʱؿ
+	 * @param code Դ
+	 * @param keyArrays ֵ飬ÿֶһȵԴг
+	 * @param useMultithread Ƿʹö̴߳
+	 * @return LongHashIndexTableܴʱnull
+	 */
+	public static LongHashIndexTable create(Sequence code, IArray []keyArrays, boolean useMultithread) {
+		int len = code.length();
+		int keyCount = keyArrays.length;
+		if (len == 0) {
+			return null;
+		}
+		
+		long [][]keyColumns = new long[keyCount][];
+		for (int k = 0; k < keyCount; ++k) {
+			keyColumns[k] = toLongs(keyArrays[k]);
+			if (keyColumns[k] == null) {
+				return null;
+			}
+		}
+		
+		LongHashIndexTable table = new LongHashIndexTable(code, keyCount);
+		int partCount = 1;
+		if (useMultithread && len > MultithreadUtil.SINGLE_PROSS_COUNT && Env.getParallelNum() > 1) {
+			partCount = Math.min(Env.getParallelNum(), MAX_PART_COUNT);
+		}
+		
+		if (partCount > 1 && table.createParallel(keyColumns, len, partCount)) {
+			return table;
+		}
+		
+		// ̴߳߶̴߳ʱֲ·
+		table.init(len, 1);
+		table.insert(keyColumns);
+		return table;
+	}
+	
+	// ̴߳ϣȰзֶβмλַкţٰв
+	// ÿֻһιϣʱfalse
+	private boolean createParallel(long [][]keyColumns, int len, int partCount) {
+		init(len, partCount);
+		int []slots = new int[len + 1];
+		int []rows = new int[len];
+		HashJob []hashJobs = new HashJob[partCount];
+		ThreadPool pool = ThreadPool.newInstance(partCount);
+		
+		try {
+			int blockSize = len / partCount;
+			int start = 1;
+			for (int p = 0; p < partCount; ++p) {
+				int end = p == partCount - 1 ? len + 1 : start + blockSize;
+				hashJobs[p] = new HashJob(this, keyColumns, start, end, slots);
+				pool.submit(hashJobs[p]);
+				start = end;
+			}
+			
+			for (int p = 0; p < partCount; ++p) {
+				hashJobs[p].join();
+			}
+			
+			// ÿÿдλã֤ڵ԰к
+			int []partStarts = new int[partCount + 1];
+			for (int part = 0, pos = 0; part < partCount; ++part) {
+				partStarts[part] = pos;
+				for (int p = 0; p < partCount; ++p) {
+					pos += hashJobs[p].partCounts[part];
+				}
+				
+				// ÿҪһղλ
+				if (pos - partStarts[part] >= partSize) {
+					return false;
+				}
+			}
+			
+			partStarts[partCount] = len;
+			int []curPos = partStarts.clone();
+			for (int p = 0; p < partCount; ++p) {
+				int []partCounts = hashJobs[p].partCounts;
+				int []partPos = new int[partCount];
+				for (int part = 0; part < partCount; ++part) {
+					partPos[part] = curPos[part];
+					curPos[part] += partCounts[part];
+				}
+				
+				hashJobs[p].partPos = partPos;
+				hashJobs[p].rows = rows;
+				pool.submit(hashJobs[p]);
+			}
+			
+			for (int p = 0; p < partCount; ++p) {
+				hashJobs[p].join();
+			}
+			
+			InsertJob []insertJobs = new InsertJob[partCount];
+			for (int part = 0; part < partCount; ++part) {
+				insertJobs[part] = new InsertJob(this, keyColumns, slots, rows, partStarts[part], partStarts[part + 1]);
+				pool.submit(insertJobs[part]);
+			}
+			
+			for (int part = 0; part < partCount; ++part) {
+				insertJobs[part].join();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		
+		return true;
+	}
+	
+	// ֵȡlong飬пֵзʱؿ
+	private static long[] toLongs(IArray array) {
+		int len = array.size();
+		long []values = new long[len + 1];
+		if (array instanceof IntArray || array instanceof LongArray) {
+			for (int i = 1; i <= len; ++i) {
+				if (array.isNull(i)) {
+					return null;
+				}
+				
+				values[i] = array.getLong(i);
+			}
+		} else {
+			for (int i = 1; i <= len; ++i) {
+				Object obj = array.get(i);
+				if (obj instanceof Integer || obj instanceof Long) {
+					values[i] = ((Number)obj).longValue();
+				} else {
+					return null;
+				}
+			}
+		}
+		
+		return values;
+	}
+	
+	private void init(int len, int partCount) {
+		// װӲ2/3Ϊ
+		int partSize = (int)(((long)len * 3 / 2 + partCount - 1) / partCount) + 1;
+		this.partSize = partSize;
+		this.capacity = partSize * partCount;
+		this.keys = new long[capacity * keyCount];
+		this.seqs = new int[capacity];
+	}
+	
+	private static int hash(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return (int)value;
+	}
+	
+	private static int hash(long []values) {
+		long h = values[0];
+		for (int k = 1; k < values.length; ++k) {
+			h = h * 31 + values[k];
+		}
+		
+		return hash(h);
+	}
+	
+	// ɹϣֵλ
+	private int slot(int hash) {
+		return (int)(((hash & 0xFFFFFFFFL) * capacity) >>> 32);
+	}
+	
+	// ȡiеļŵcurKeysУλ
+	private int slot(long [][]keyColumns, int i, long []curKeys) {
+		if (keyCount == 1) {
+			curKeys[0] = keyColumns[0][i];
+			return slot(hash(curKeys[0]));
+		} else {
+			for (int k = 0, keyCount = this.keyCount; k < keyCount; ++k) {
+				curKeys[k] = keyColumns[k][i];
+			}
+			
+			return slot(hash(curKeys));
+		}
+	}
+	
+	// ̲߳еļ
+	private void insert(long [][]keyColumns) {
+		int len = keyColumns[0].length - 1;
+		long []curKeys = new long[keyCount];
+		for (int i = 1; i <= len; ++i) {
+			put(curKeys, slot(keyColumns, i, curKeys), i);
+		}
+	}
+	
+	// Ӳλsʼڷ̽ղλѼŷŽȥ
+	private void put(long []curKeys, int s, int seq) {
+		int []seqs = this.seqs;
+		int keyCount = this.keyCount;
+		int partStart = s - s % partSize;
+		int partEnd = partStart + partSize;
+		
+		while (seqs[s] != 0) {
+			if (isEquals(s, curKeys)) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException(keyString(curKeys) + mm.getMessage("engine.dupKeys"));
+			}
+			
+			if (++s == partEnd) {
+				s = partStart;
+			}
+		}
+		
+		seqs[s] = seq;
+		System.arraycopy(curKeys, 0, keys, s * keyCount, keyCount);
+	}
+	
+	private boolean isEquals(int s, long []values) {
+		long []keys = this.keys;
+		int keyCount = this.keyCount;
+		int start = s * keyCount;
+		for (int k = 0; k < keyCount; ++k) {
+			if (keys[start + k] != values[k]) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private static String keyString(long []values) {
+		if (values.length == 1) {
+			return Long.toString(values[0]);
+		}
+		
+		StringBuffer sb = new StringBuffer();
+		sb.append('[');
+		for (int k = 0; k < values.length; ++k) {
+			if (k > 0) sb.append(',');
+			sb.append(values[k]);
+		}
+		
+		sb.append(']');
+		return sb.toString();
+	}
+	
+	/**
+	 * ȡϣ
+	 * @return
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	// ֶμţҲ0
+	private int findSeq(long key) {
+		int []seqs = this.seqs;
+		long []keys = this.keys;
+		int s = slot(hash(key));
+		int partStart = s - s % partSize;
+		int partEnd = partStart + partSize;
+		
+		while (seqs[s] != 0) {
+			if (keys[s] == key) {
+				return seqs[s];
+			}
+			
+			if (++s == partEnd) {
+				s = partStart;
+			}
+		}
+		
+		return 0;
+	}
+	
+	// ֶμţҲ0
+	private int findSeq(long []values) {
+		int []seqs = this.seqs;
+		int s = slot(hash(values));
+		int partStart = s - s % partSize;
+		int partEnd = partStart + partSize;
+		
+		while (seqs[s] != 0) {
+			if (isEquals(s, values)) {
+				return seqs[s];
+			}
+			
+			if (++s == partEnd) {
+				s = partStart;
+			}
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * ɼԪţҲ0
+	 * @param key ֵ
+	 */
+	public int findPos(Object key) {
+		if (keyCount == 1) {
+			if (key instanceof Integer || key instanceof Long) {
+				return findSeq(((Number)key).longValue());
+			} else {
+				return 0;
+			}
+		} else if (key instanceof Sequence && ((Sequence)key).length() == keyCount) {
+			// ֶμʱֵΪ
+			return findPos(((Sequence)key).toArray());
+		} else {
+			return 0;
+		}
+	}
+	
+	/**
+	 * ɼԪţҲ0
+	 * @param keys ֵ
+	 */
+	public int findPos(Object []keys) {
+		int keyCount = this.keyCount;
+		if (keyCount == 1) {
+			return findPos(keys[0]);
+		}
+		
+		long []values = new long[keyCount];
+		for (int k = 0; k < keyCount; ++k) {
+			Object key = keys[k];
+			if (key instanceof Integer || key instanceof Long) {
+				values[k] = ((Number)key).longValue();
+			} else {
+				return 0;
+			}
+		}
+		
+		return findSeq(values);
+	}
+	
+	/**
+	 * ɼԪأҲؿ
+	 * @param key ֵ
+	 */
+	public Object find(Object key) {
+		int seq = findPos(key);
+		return seq > 0 ? code.getMem(seq) : null;
+	}
+	
+	/**
+	 * ɼԪأҲؿ
+	 * @param keys ֵ
+	 */
+	public Object find(Object []keys) {
+		int seq = findPos(keys);
+		return seq > 0 ? code.getMem(seq) : null;
+	}
+	
+	/**
+	 * ݼҶӦֵλãظҵһ
+	 * @param key 
+	 * @param out
+	 */
+	public void findPos(Object key, IntArray out) {
+		int seq = findPos(key);
+		if (seq > 0) {
+			out.addInt(seq);
+		}
+	}
+	
+	/**
+	 * ݼҶӦֵλãظҵһ
+	 * @param keys ֵ
+	 * @param out
+	 */
+	public void findPos(Object[] keys, IntArray out) {
+		int seq = findPos(keys);
+		if (seq > 0) {
+			out.addInt(seq);
+		}
+	}
+	
+	/**
+	 * йԭ
+	 * @param exp ˱ʽ
+	 * @param ctx
+	 * @return Table ļ¼ɵ
+	 */
+	public Table select(Expression exp, Context ctx) {
+		Sequence code = this.code;
+		int len = code.length();
+		int []seqs = this.seqs;
+		
+		// ÿԪڵĲλֱòλļٴӼ¼ȡ
+		int []slots = new int[len + 1];
+		for (int s = 0, capacity = this.capacity; s < capacity; ++s) {
+			if (seqs[s] != 0) {
+				slots[seqs[s]] = s;
+			}
+		}
+		
+		Table result = new Table(code.dataStruct(), len);
+		IArray mems = result.getMems();
+		int []resultSlots = new int[len];
+		int newLen = 0;
+		
+		ComputeStack stack = ctx.getComputeStack();
+		Current current = new Current(code);
+		stack.push(current);
+		
+		try {
+			for (int i = 1; i <= len; ++i) {
+				current.setCurrent(i);
+				Object b = exp.calculate(ctx);
+				if (Variant.isTrue(b)) {
+					mems.add(code.getMem(i));
+					resultSlots[newLen++] = slots[i];
+				}
+			}
+		} finally {
+			stack.pop();
+		}
+		
+		result.trimToSize();
+		int keyCount = this.keyCount;
+		long []keys = this.keys;
+		LongHashIndexTable indexTable = new LongHashIndexTable(result, keyCount);
+		indexTable.init(newLen, 1);
+		long []curKeys = new long[keyCount];
+		
+		for (int i = 0; i < newLen; ++i) {
+			System.arraycopy(keys, resultSlots[i] * keyCount, curKeys, 0, keyCount);
+			indexTable.put(curKeys, indexTable.slot(hash(curKeys)), i + 1);
+		}
+		
+		result.setIndexTable(indexTable);
+		return result;
+	}
+	
+	/**
+	 * ԪأҲλΪ
+	 * @param keys ֵ
+	 * @return ҵԪɵ飬1ʼ
+	 */
+	public Object[] findAll(IArray keys) {
+		int []pos = findAllPos(keys);
+		Sequence code = this.code;
+		int len = keys.size();
+		Object []result = new Object[len + 1];
+		for (int i = 1; i <= len; ++i) {
+			if (pos[i] > 0) {
+				result[i] = code.getMem(pos[i]);
+			}
+		}
+		
+		return result;
+	}
+	
+	public int[] findAllPos(IArray keys) {
+		return findAllPos(keys, null);
+	}
+	
+	public int[] findAllPos(IArray keys, BoolArray signArray) {
+		int len = keys.size();
+		int []pos = new int[len + 1];
+		if (keyCount != 1) {
+			return pos;
+		}
+		
+		if (keys instanceof IntArray || keys instanceof LongArray) {
+			// ֱȡԭʼֵң
+			for (int i = 1; i <= len; ++i) {
+				if ((signArray == null || signArray.isTrue(i)) && !keys.isNull(i)) {
+					pos[i] = findSeq(keys.getLong(i));
+				}
+			}
+		} else {
+			for (int i = 1; i <= len; ++i) {
+				if (signArray == null || signArray.isTrue(i)) {
+					pos[i] = findPos(keys.get(i));
+				}
+			}
+		}
+		
+		return pos;
+	}
+	
+	public int[] findAllPos(IArray []keys) {
+		return findAllPos(keys, null);
+	}
+	
+	public int[] findAllPos(IArray []keys, BoolArray signArray) {
+		int keyCount = this.keyCount;
+		if (keyCount == 1) {
+			return findAllPos(keys[0], signArray);
+		}
+		
+		int len = keys[0].size();
+		int []pos = new int[len + 1];
+		if (keys.length != keyCount) {
+			return pos;
+		}
+		
+		// ֱȡԭʼֵң
+		boolean []isIntArrays = new boolean[keyCount];
+		for (int k = 0; k < keyCount; ++k) {
+			isIntArrays[k] = keys[k] instanceof IntArray || keys[k] instanceof LongArray;
+		}
+		
+		long []values = new long[keyCount];
+		Next:
+		for (int i = 1; i <= len; ++i) {
+			if (signArray != null && !signArray.isTrue(i)) {
+				continue;
+			}
+			
+			for (int k = 0; k < keyCount; ++k) {
+				IArray array = keys[k];
+				if (isIntArrays[k]) {
+					if (array.isNull(i)) {
+						continue Next;
+					}
+					
+					values[k] = array.getLong(i);
+				} else {
+					Object obj = array.get(i);
+					if (obj instanceof Integer || obj instanceof Long) {
+						values[k] = ((Number)obj).longValue();
+					} else {
+						continue Next;
+					}
+				}
+			}
+			
+			pos[i] = findSeq(values);
+		}
+		
+		return pos;
+	}
+}
@@ -0,0 +1,388 @@
+package com.scudata.dm;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ִõĺ¼αꡢʱͶȡֽ
+ * ùϵһͬһ߳ǶִеĶΪӽڵ㣬߳￪ʼĶڸ
+ * ڵ㰴֣ͬһڵͬĶִۼƵһڵ㣬ĴСִдҲñִеĶ
+ * ֻӼȡûִ֡ʱòĵĵײȡֻжһ̬̱߳
+ * ûִֹֻͣʱãӰ
+ * @author RunQian
+ *
+ */
+public class Profiler {
+	private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+	private static final boolean isCpuTimeSupported = isCpuTimeSupported();
+	
+	// ǰִ߳е֡
+	private static ThreadLocal<Frame> currentFrame = new ThreadLocal<Frame>();
+	
+	private static final AtomicInteger frameCount = new AtomicInteger(); // ִ߳е֡
+	
+	private Node root = new Node("root");
+	private volatile boolean isStopped = false;
+	
+	/**
+	 * 󼴴״ֱ̬stop
+	 */
+	public Profiler() {
+	}
+	
+	/**
+	 * Ľڵ㣬¼һۼƵִϢ
+	 */
+	public static class Node {
+		private String name; // ڵ
+		private ArrayList<Node> children; // ӽڵ㣬״ִе˳
+		private HashMap<String, Node> childMap; // ڵƵӽڵӳ
+		
+		private long calls; // ִд
+		private long rowsIn; // 
+		private long rowsOut; // 
+		private long wallTime; // ǽʱ䣬룬ӽڵ
+		private long cpuTime; // ߳CPUʱ䣬룬ӽڵ
+		private long bytesRead; // ڵֱӶȡֽ
+		
+		private Node(String name) {
+			this.name = name;
+		}
+		
+		private synchronized Node getChild(String name) {
+			if (childMap == null) {
+				childMap = new HashMap<String, Node>();
+				children = new ArrayList<Node>();
+			}
+			
+			Node node = childMap.get(name);
+			if (node == null) {
+				node = new Node(name);
+				childMap.put(name, node);
+				children.add(node);
+			}
+			
+			return node;
+		}
+		
+		private synchronized void add(long rowsIn, long rowsOut, long wallTime, long cpuTime) {
+			calls++;
+			this.rowsIn += rowsIn;
+			this.rowsOut += rowsOut;
+			this.wallTime += wallTime;
+			this.cpuTime += cpuTime;
+		}
+		
+		private synchronized void addBytesRead(long n) {
+			bytesRead += n;
+		}
+		
+		/**
+		 * ȡӽڵ
+		 * @return ӽڵ飬ûӽڵʱؿ
+		 */
+		public synchronized Node[] getChildren() {
+			if (children == null) {
+				return new Node[0];
+			} else {
+				Node []nodes = new Node[children.size()];
+				children.toArray(nodes);
+				return nodes;
+			}
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public long getCalls() {
+			return calls;
+		}
+		
+		public long getRowsIn() {
+			return rowsIn;
+		}
+		
+		public long getRowsOut() {
+			return rowsOut;
+		}
+		
+		/**
+		 * ȡǽʱ䣬ӽڵʱ
+		 * @return 
+		 */
+		public long getWallTime() {
+			return wallTime;
+		}
+		
+		/**
+		 * ȡȥͬһ߳ӽڵǽʱ
+		 * @return 
+		 */
+		public long getSelfTime() {
+			long time = wallTime;
+			for (Node node : getChildren()) {
+				time -= node.wallTime;
+			}
+			
+			return time > 0 ? time : 0;
+		}
+		
+		/**
+		 * ȡ߳CPUʱ䣬ӽڵʱ䣬JVM֧ʱΪ0
+		 * @return 
+		 */
+		public long getCpuTime() {
+			return cpuTime;
+		}
+		
+		public long getBytesRead() {
+			return bytesRead;
+		}
+	}
+	
+	/**
+	 * һִе֡enterexit
+	 */
+	public static class Frame {
+		private Profiler profiler;
+		private Node node;
+		private Frame prev; // ͬһ߳һ֡
+		private long startTime;
+		private long startCpuTime;
+		private long rowsIn; // ִйۼƵ
+		
+		private Frame(Profiler profiler, Node node, Frame prev) {
+			this.profiler = profiler;
+			this.node = node;
+			this.prev = prev;
+			this.startCpuTime = getCpuTime();
+			this.startTime = System.nanoTime();
+		}
+	}
+	
+	private static boolean isCpuTimeSupported() {
+		try {
+			return threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+		} catch (Throwable e) {
+			return false;
+		}
+	}
+	
+	private static long getCpuTime() {
+		return isCpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0;
+	}
+	
+	/**
+	 * Ƿִ
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		return frameCount.get() > 0;
+	}
+	
+	/**
+	 * ֹֹͣͣѼ¼ϢԿȡʹô
+	 */
+	public void stop() {
+		isStopped = true;
+	}
+	
+	/**
+	 * Ƿֹͣ
+	 * @return
+	 */
+	public boolean isStopped() {
+		return isStopped;
+	}
+	
+	/**
+	 * ȡҪʹõûʱõǰִ߳е
+	 * @param ctx ģɿ
+	 * @return ûʱؿ
+	 */
+	public static Profiler get(Context ctx) {
+		if (ctx != null) {
+			Profiler profiler = ctx.getProfiler();
+			if (profiler != null) {
+				return profiler;
+			}
+		}
+		
+		if (frameCount.get() == 0) {
+			return null;
+		}
+		
+		Frame frame = currentFrame.get();
+		return frame == null || frame.profiler.isStopped ? null : frame.profiler;
+	}
+	
+	/**
+	 * ʼִжͬһڵͬĶִۼƵһڵ
+	 * @param name ڵ
+	 * @return ֡
+	 */
+	public Frame enter(String name) {
+		Frame prev = currentFrame.get();
+		Node parent;
+		if (prev != null && prev.profiler == this) {
+			parent = prev.node;
+		} else {
+			parent = root;
+		}
+		
+		Frame frame = new Frame(this, parent.getChild(name), prev);
+		currentFrame.set(frame);
+		frameCount.incrementAndGet();
+		return frame;
+	}
+	
+	/**
+	 * ڵǰִ߳е¿ʼִжòĵĵײȡ
+	 * @param name ڵ
+	 * @return ֡ǰ߳ûʱؿ
+	 */
+	public static Frame enterCurrent(String name) {
+		if (frameCount.get() == 0) {
+			return null;
+		}
+		
+		Frame prev = currentFrame.get();
+		if (prev == null || prev.profiler.isStopped) {
+			return null;
+		} else {
+			return prev.profiler.enter(name);
+		}
+	}
+	
+	/**
+	 * ִУۼ֡ĺʱ
+	 * @param frame ֡ɿ
+	 * @param rowsIn 
+	 * @param rowsOut 
+	 */
+	public static void exit(Frame frame, long rowsIn, long rowsOut) {
+		if (frame == null) {
+			return;
+		}
+		
+		long time = System.nanoTime() - frame.startTime;
+		long cpuTime = getCpuTime() - frame.startCpuTime;
+		frame.node.add(frame.rowsIn + rowsIn, rowsOut, time, cpuTime);
+		currentFrame.set(frame.prev);
+		frameCount.decrementAndGet();
+	}
+	
+	/**
+	 * ǰִ߳е֡ۼֶεĶ
+	 * @param n 
+	 */
+	public static void addRowsIn(long n) {
+		if (frameCount.get() == 0) {
+			return;
+		}
+		
+		Frame frame = currentFrame.get();
+		if (frame != null) {
+			frame.rowsIn += n;
+		}
+	}
+	
+	/**
+	 * ǰִ߳еĽڵۼƶȡֽ
+	 * @param n ֽ
+	 */
+	public static void addBytesRead(long n) {
+		if (frameCount.get() == 0) {
+			return;
+		}
+		
+		Frame frame = currentFrame.get();
+		if (frame != null) {
+			frame.node.addBytesRead(n);
+		}
+	}
+	
+	/**
+	 * ȡĸڵ
+	 * @return Node
+	 */
+	public Node getRoot() {
+		return root;
+	}
+	
+	/**
+	 * Ѽ¼Ϣ
+	 */
+	public void reset() {
+		root = new Node("root");
+	}
+	
+	/**
+	 * תÿڵһ¼ȸ˳Уʱ䵥λΪ
+	 * @return Table
+	 */
+	public Table toTable() {
+		String []fields = new String[] {"level", "name", "calls", "rows_in", "rows_out",
+				"wall", "self", "cpu", "bytes"};
+		Table table = new Table(fields);
+		for (Node node : root.getChildren()) {
+			toTable(node, 1, table);
+		}
+		
+		return table;
+	}
+	
+	private static void toTable(Node node, int level, Table table) {
+		table.newLast(new Object[] {level, node.name, node.calls, node.rowsIn, node.rowsOut,
+				toMillis(node.wallTime), toMillis(node.getSelfTime()), toMillis(node.cpuTime), node.bytesRead});
+		for (Node child : node.getChildren()) {
+			toTable(child, level + 1, table);
+		}
+	}
+	
+	private static double toMillis(long nanos) {
+		return nanos / 1000 / 1000.0;
+	}
+	
+	/**
+	 * תıÿڵһ
+	 * @return String
+	 */
+	public String toString() {
+		StringBuffer sb = new StringBuffer(1024);
+		for (Node node : root.getChildren()) {
+			toString(node, 0, sb);
+		}
+		
+		return sb.toString();
+	}
+	
+	private static void toString(Node node, int level, StringBuffer sb) {
+		for (int i = 0; i < level; ++i) {
+			sb.append("  ");
+		}
+		
+		sb.append(node.name);
+		sb.append(" calls=").append(node.calls);
+		sb.append(" in=").append(node.rowsIn);
+		sb.append(" out=").append(node.rowsOut);
+		sb.append(" wall=").append(toMillis(node.wallTime)).append("ms");
+		sb.append(" self=").append(toMillis(node.getSelfTime())).append("ms");
+		if (isCpuTimeSupported) {
+			sb.append(" cpu=").append(toMillis(node.cpuTime)).append("ms");
+		}
+		
+		if (node.bytesRead > 0) {
+			sb.append(" bytes=").append(node.bytesRead);
+		}
+		
+		sb.append('\n');
+		for (Node child : node.getChildren()) {
+			toString(child, level + 1, sb);
+		}
+	}
+}
@@ -49,6 +49,7 @@ import com.scudata.expression.Node;
 import com.scudata.expression.UnknownSymbol;
 import com.scudata.expression.ValueList;
 import com.scudata.expression.fn.gather.ICount.ICountBitSet;
+import com.scudata.expression.fn.gather.ICount.ICountHLL;
 import com.scudata.expression.fn.gather.ICount.ICountPositionSet;
 import com.scudata.expression.operator.And;
 import com.scudata.expression.operator.DotOperator;
@@ -2556,13 +2557,17 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 
 	/**
 	 * еķظԪnull
-	 * @param opt o
+	 * @param opt oa㲻ظԪ
 	 * @return
 	 */
 	public int icount(String opt) {
 		IArray mems = getMems();
 		int size = mems.size();
-		if (opt != null && opt.indexOf('b') != -1) {
+		if (opt != null && opt.indexOf('a') != -1 && opt.indexOf('o') == -1) {
+			ICountHLL hll = new ICountHLL();
+			hll.add(this);
+			return hll.size();
+		} else if (opt != null && opt.indexOf('b') != -1) {
 			ICountBitSet  set = new ICountBitSet();
 			for (int i = 1; i <= size; ++i) {
 				Object obj = mems.get(i);
@@ -3997,6 +4002,7 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 			int size = length();
 			Sequence result = new Sequence(size);
 			IArray resultMems = result.getMems();
+			current.setReadOnly(exp.canCalculateAll());
 			stack.push(current);
 
 			try {
@@ -5962,11 +5968,9 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 			if (opt.indexOf('t') != -1) returnTable = true;
 			
 			if (opt.indexOf('i') != -1 && getIndexTable() != null) {
-				IndexTable index = getIndexTable();
-				if (index instanceof HashIndexTable) {
-					return ((HashIndexTable)index).select(exp, ctx);
-				} else if (index instanceof HashArrayIndexTable) {
-					return ((HashArrayIndexTable)index).select(exp, ctx);
+				Table result = getIndexTable().select(exp, ctx);
+				if (result != null) {
+					return result;
 				}
 			}
 		}
@@ -7578,6 +7582,7 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 		Current newCurrent = new Current(table);
 		stack.push(newCurrent);
 		Current current = new Current(this);
+		current.setReadOnly(isReadOnly(exps));
 		stack.push(current);
 
 		try {
@@ -7908,6 +7913,21 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 		return table;
 	}
 	
+	/**
+	 * жϱʽǷûиֵ㣬ûв޸еĳԱ
+	 * @param exps ʽ
+	 * @return boolean
+	 */
+	private static boolean isReadOnly(Expression []exps) {
+		for (Expression exp : exps) {
+			if (exp != null && !exp.canCalculateAll()) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
 	/**
 	 * Դеֶָչ
 	 * @param newDs ݽṹ
@@ -7930,6 +7950,7 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 		Current newCurrent = new Current(table);
 		stack.push(newCurrent);
 		Current current = new Current(this);
+		current.setReadOnly(isReadOnly(exps));
 		stack.push(current);
 
 		try {
@@ -8061,6 +8082,7 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 		Current newCurrent = new Current(table);
 		stack.push(newCurrent);
 		Current current = new Current(this);
+		current.setReadOnly(isReadOnly(exps));
 		stack.push(current);
 
 		try {
@@ -11860,12 +11882,40 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 				int []pkIndex = r.dataStruct().getPKIndex();
 				return new TimeIndexTable(this, pkIndex, capacity);
 			}
+			
+			int []pkIndex = r.dataStruct().getPKIndex();
+			if (pkIndex != null) {
+				it = newLongHashIndexTable(pkIndex, false);
+				if (it != null) {
+					return it;
+				}
+			}
 		}
 		
 		HashIndexTable hashIndexTable = new HashIndexTable(capacity);
 		hashIndexTable.create(this);
 		return hashIndexTable;
 	}
+	
+	/**
+	 * ֶָεֵ򴴽ϣ򷵻ؿ
+	 * @param fields ֶ
+	 * @param useMultithread Ƿö̴߳
+	 * @return LongHashIndexTable
+	 */
+	private LongHashIndexTable newLongHashIndexTable(int []fields, boolean useMultithread) {
+		if (dataStruct() == null) {
+			return null;
+		}
+		
+		int fcount = fields.length;
+		IArray []keyArrays = new IArray[fcount];
+		for (int f = 0; f < fcount; ++f) {
+			keyArrays[f] = getFieldValueArray(fields[f]);
+		}
+		
+		return LongHashIndexTable.create(this, keyArrays, useMultithread);
+	}
 
 	/**
 	 * һأв洴
@@ -11888,6 +11938,17 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 		if (exp == null) {
 			return newIndexTable(capacity);
 		} else {
+			DataStruct ds = dataStruct();
+			if (ds != null) {
+				int f = exp.getFieldIndex(ds);
+				if (f != -1) {
+					IndexTable it = newLongHashIndexTable(new int[] {f}, false);
+					if (it != null) {
+						return it;
+					}
+				}
+			}
+			
 			HashIndexTable it = new HashIndexTable(capacity);
 			it.create(this, exp, ctx);
 			return it;
@@ -11907,6 +11968,12 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 			if ((ds != null && ds.isSeqKey()) || (opt != null && opt.indexOf('n') != -1)) {
 				return new SeqIndexTable(this, fields[0]);
 			} else {
+				boolean useMultithread = opt != null && opt.indexOf('m') != -1;
+				IndexTable lit = newLongHashIndexTable(fields, useMultithread);
+				if (lit != null) {
+					return lit;
+				}
+				
 				HashIndexTable it = new HashIndexTable(capacity, opt);
 				it.create(this, fields[0], true);
 				return it;
@@ -11919,6 +11986,12 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 				}
 			}
 			
+			boolean useMultithread = opt != null && opt.indexOf('m') != -1;
+			IndexTable lit = newLongHashIndexTable(fields, useMultithread);
+			if (lit != null) {
+				return lit;
+			}
+			
 			HashArrayIndexTable it = new HashArrayIndexTable(capacity, opt);
 			it.create(this, fields, true);
 			return it;
@@ -11961,6 +12034,24 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 						return new TimeIndexTable(this, pkIndex, capacity);
 					}
 				}
+				
+				// ֶιɵļϣ
+				int fcount = exps.length;
+				int []fields = new int[fcount];
+				for (int f = 0; f < fcount; ++f) {
+					fields[f] = exps[f].getFieldIndex(ds);
+					if (fields[f] == -1) {
+						fields = null;
+						break;
+					}
+				}
+				
+				if (fields != null) {
+					IndexTable it = newLongHashIndexTable(fields, false);
+					if (it != null) {
+						return it;
+					}
+				}
 			}
 			
 			HashArrayIndexTable it = new HashArrayIndexTable(capacity);
@@ -1861,6 +1861,8 @@ public class Table extends Sequence {
 		if (indexTable != null) {
 			if (indexTable instanceof HashIndexTable) {
 				createIndexTable(((HashIndexTable)indexTable).getCapacity(), null);
+			} else if (indexTable instanceof LongHashIndexTable) {
+				createIndexTable(length(), null);
 			} else { // SerialBytesIndexTable
 				createIndexTable("s");
 			}
@@ -0,0 +1,614 @@
+package com.scudata.dm.cursor;
+
+import java.io.IOException;
+
+import com.scudata.common.Logger;
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.dm.BFileWriter;
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.ComputeStack;
+import com.scudata.dm.Context;
+import com.scudata.dm.Current;
+import com.scudata.dm.DataStruct;
+import com.scudata.dm.FileObject;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.Table;
+import com.scudata.dm.op.Operation;
+import com.scudata.expression.Expression;
+import com.scudata.resources.EngineMessage;
+import com.scudata.util.EnvUtil;
+import com.scudata.util.HashUtil;
+import com.scudata.util.Variant;
+
+/**
+ * αùϣӣҪȶα갴ֶ
+ * ڴɵڶαʱϣһα̽飻
+ * α갴ֶεĹϣֵдʱļٶÿݹϣ
+ * ֵֶظʱԷʽJoinxCursor2֤ͬ˳
+ * joinx@h(cs1:f1,x1;cs2:f2,x2)
+ * @author RunQian
+ *
+ */
+public class HashJoinxCursor extends ICursor {
+	private static final int PARTITION_BITS = 5;
+	private static final int PARTITION_COUNT = 1 << PARTITION_BITS; // 
+	
+	// ÿʹòͬĹϣʹϲ䵽ͬһ²ܹɢ
+	private static final int []MULTIPLIERS = new int[] {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F, 0x165667B1};
+	private static final int MAX_LEVEL = MULTIPLIERS.length - 1; // ٷ
+	
+	private ICursor cursor1; // һα꣬̽
+	private ICursor cursor2; // ڶα꣬ڽϣ
+	private Expression []exps1; // һαĹʽ
+	private Expression []exps2; // ڶαĹʽ
+	private DataStruct ds; // ݽṹ
+	private int type = 0; // 0:JOIN, 1:LEFTJOIN, 2:FULLJOIN
+	private int capacity; // ڴܹĵڶαļ¼Сڵ1ݿڴ
+	private int level; // 0Ϊԭʼα
+	private boolean isInit = false; // ǷѾϣ
+	private boolean isEnd = false; // Ƿȡ
+	
+	private Table result; // ѾɻûзصĽ
+	
+	// ڶαܹڴʱʹ
+	private HashUtil hashUtil; // ϣߣڼϣֵ
+	private Entry []entries; // ֵֶĹϣ
+	private boolean isProbeEnd = false; // һαǷѾ
+	private int restIndex = 0; // һαʣ¼Ĺϣλ
+	
+	// ڴ治ʱʹ
+	private FileObject []files1; // һαķļ
+	private FileObject []files2; // ڶαķļ
+	private int curPartition; // ǰӵķ
+	private HashJoinxCursor partitionCursor; // ǰα
+	
+	// ڶαйֵֶͬļ¼
+	private static class Entry {
+		Object []keys; // ֵֶ
+		int hash; // ֵֶĹϣֵ
+		Sequence records; // ڶαļ¼
+		int matchCount; // һαѾϵļ¼
+		Object lastRecord; // һαһϵļ¼
+		Entry next; // ϣֵͬһ
+		
+		Entry(Object []keys, int hash, Entry next) {
+			this.keys = keys;
+			this.hash = hash;
+			this.records = new Sequence(HashUtil.getInitGroupSize());
+			this.next = next;
+		}
+	}
+	
+	/**
+	 * αĹϣӶ
+	 * @param cursor1 һα
+	 * @param exps1 һαĹʽ
+	 * @param cursor2 ڶα
+	 * @param exps2 ڶαĹʽ
+	 * @param names ֶ
+	 * @param opt ѡ
+	 * @param ctx 
+	 */
+	public HashJoinxCursor(ICursor cursor1, Expression []exps1, ICursor cursor2, Expression []exps2,
+			String []names, String opt, Context ctx) {
+		this(cursor1, exps1, cursor2, exps2, names, opt, 0, ctx);
+	}
+	
+	/**
+	 * αĹϣӶ
+	 * @param cursor1 һα
+	 * @param exps1 һαĹʽ
+	 * @param cursor2 ڶα
+	 * @param exps2 ڶαĹʽ
+	 * @param names ֶ
+	 * @param opt ѡ
+	 * @param capacity ڴܹĵڶαļ¼ûݿڴ
+	 * @param ctx 
+	 */
+	public HashJoinxCursor(ICursor cursor1, Expression []exps1, ICursor cursor2, Expression []exps2,
+			String []names, String opt, int capacity, Context ctx) {
+		this.cursor1 = cursor1;
+		this.cursor2 = cursor2;
+		this.exps1 = exps1;
+		this.exps2 = exps2;
+		this.capacity = capacity;
+		this.ctx = ctx;
+		
+		if (names == null) {
+			names = new String[2];
+		}
+		
+		ds = new DataStruct(names);
+		setDataStruct(ds);
+		
+		if (opt != null) {
+			if (opt.indexOf('1') != -1) {
+				type = 1;
+			} else if (opt.indexOf('f') != -1) {
+				type = 2;
+			}
+		}
+	}
+	
+	// ڶԷ
+	private HashJoinxCursor(ICursor cursor1, Expression []exps1, ICursor cursor2, Expression []exps2,
+			DataStruct ds, int type, int capacity, int level, Context ctx) {
+		this.cursor1 = cursor1;
+		this.cursor2 = cursor2;
+		this.exps1 = exps1;
+		this.exps2 = exps2;
+		this.ds = ds;
+		this.type = type;
+		this.capacity = capacity;
+		this.level = level;
+		this.ctx = ctx;
+		setDataStruct(ds);
+	}
+	
+	// мʱҪı
+	// ̳õ˱ʽҪ½ʽ
+	public void resetContext(Context ctx) {
+		if (this.ctx != ctx) {
+			cursor1.resetContext(ctx);
+			cursor2.resetContext(ctx);
+			exps1 = Operation.dupExpressions(exps1, ctx);
+			exps2 = Operation.dupExpressions(exps2, ctx);
+			super.resetContext(ctx);
+		}
+	}
+	
+	// ֵֶĹϣֵԹϣȡ
+	private static int hashCode(Object []keys) {
+		int hash = keys[0] != null ? keys[0].hashCode() : 0;
+		for (int i = 1, count = keys.length; i < count; ++i) {
+			if (keys[i] != null) {
+				hash = 31 * hash + keys[i].hashCode();
+			} else {
+				hash = 31 * hash;
+			}
+		}
+		
+		return hash;
+	}
+	
+	// ϣֵָķ
+	private static int getPartition(int hash, int level) {
+		hash = (hash ^ (hash >>> 16)) * MULTIPLIERS[level];
+		return hash >>> (32 - PARTITION_BITS);
+	}
+	
+	private static boolean isEquals(Object []keys1, Object []keys2) {
+		for (int i = 0, count = keys1.length; i < count; ++i) {
+			if (!Variant.isEquals(keys1[i], keys2[i])) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	// еĹֵֶ
+	private Object [][]calcKeys(Sequence data, Expression []exps) {
+		int len = data.length();
+		int keyCount = exps.length;
+		Object [][]keys = new Object[len + 1][];
+		Context ctx = this.ctx;
+		ComputeStack stack = ctx.getComputeStack();
+		Current current = new Current(data);
+		stack.push(current);
+		
+		try {
+			for (int i = 1; i <= len; ++i) {
+				current.setCurrent(i);
+				Object []curKeys = new Object[keyCount];
+				for (int k = 0; k < keyCount; ++k) {
+					curKeys[k] = exps[k].calculate(ctx);
+				}
+				
+				keys[i] = curKeys;
+			}
+		} finally {
+			stack.pop();
+		}
+		
+		return keys;
+	}
+	
+	// Ƿܼȡڶαݵڴ
+	private boolean hasMemory(Runtime rt, Sequence data) {
+		if (level >= MAX_LEVEL || !(data.getMem(1) instanceof BaseRecord)) {
+			// ޻߳ԱǼ¼ʱٷ
+			return true;
+		} else if (capacity > 1) {
+			return data.length() < capacity;
+		} else {
+			return EnvUtil.memoryTest(rt, data);
+		}
+	}
+	
+	private void init() {
+		if (isInit) {
+			return;
+		}
+		
+		isInit = true;
+		result = new Table(ds, INITSIZE);
+		Runtime rt = Runtime.getRuntime();
+		if (level == 0 && capacity <= 1) {
+			EnvUtil.runGC(rt);
+		}
+		
+		Sequence data = cursor2.fetch(FETCHCOUNT);
+		if (data == null || data.length() == 0) {
+			entries = new Entry[1];
+			hashUtil = new HashUtil(1, false);
+			return;
+		}
+		
+		while (hasMemory(rt, data)) {
+			Sequence seq = cursor2.fetch(FETCHCOUNT);
+			if (seq == null || seq.length() == 0) {
+				createHashTable(data);
+				return;
+			} else {
+				data.getMems().addAll(seq.getMems());
+			}
+		}
+		
+		// ڴ治㣬αдʱļ
+		files2 = partition(data, cursor2, exps2);
+		data = null;
+		files1 = partition(null, cursor1, exps1);
+		curPartition = 0;
+	}
+	
+	// õڶαݽϣ
+	private void createHashTable(Sequence data) {
+		int len = data.length();
+		Object [][]keys = calcKeys(data, exps2);
+		HashUtil hashUtil = new HashUtil(len);
+		Entry []entries = new Entry[hashUtil.getCapacity()];
+		this.hashUtil = hashUtil;
+		this.entries = entries;
+		
+		for (int i = 1; i <= len; ++i) {
+			Object []curKeys = keys[i];
+			int hash = hashCode(curKeys);
+			int index = hashUtil.hashCode(hash);
+			Entry entry = entries[index];
+			
+			while (entry != null) {
+				if (entry.hash == hash && isEquals(entry.keys, curKeys)) {
+					break;
+				}
+				
+				entry = entry.next;
+			}
+			
+			if (entry == null) {
+				entry = new Entry(curKeys, hash, entries[index]);
+				entries[index] = entry;
+			}
+			
+			entry.records.add(data.getMem(i));
+		}
+	}
+	
+	// αݰֵֶĹϣֵдʱļdataΪѾ
+	private FileObject[] partition(Sequence data, ICursor cursor, Expression []exps) {
+		FileObject []files = new FileObject[PARTITION_COUNT];
+		BFileWriter []writers = new BFileWriter[PARTITION_COUNT];
+		Sequence []groups = new Sequence[PARTITION_COUNT];
+		MessageManager mm = EngineMessage.get();
+		String msg = mm.getMessage("engine.createTmpFile");
+		int level = this.level;
+		
+		try {
+			if (data == null) {
+				data = cursor.fetch(FETCHCOUNT);
+			}
+			
+			while (data != null && data.length() > 0) {
+				Object [][]keys = calcKeys(data, exps);
+				for (int i = 1, len = data.length(); i <= len; ++i) {
+					int p = getPartition(hashCode(keys[i]), level);
+					if (groups[p] == null) {
+						groups[p] = new Sequence(len / PARTITION_COUNT + 1);
+					}
+					
+					groups[p].add(data.getMem(i));
+				}
+				
+				for (int p = 0; p < PARTITION_COUNT; ++p) {
+					Sequence group = groups[p];
+					if (group == null || group.length() == 0) {
+						continue;
+					}
+					
+					if (writers[p] == null) {
+						FileObject fo = FileObject.createTempFileObject();
+						Logger.info(msg + fo.getFileName());
+						files[p] = fo;
+						writers[p] = new BFileWriter(fo, null);
+						writers[p].prepareWrite(((BaseRecord)group.getMem(1)).dataStruct(), false);
+					}
+					
+					writers[p].write(group);
+					group.clear();
+				}
+				
+				// ͷãԱ
+				data = null;
+				keys = null;
+				data = cursor.fetch(FETCHCOUNT);
+			}
+		} catch (IOException e) {
+			for (int p = 0; p < PARTITION_COUNT; ++p) {
+				if (writers[p] != null) {
+					writers[p].close();
+					files[p].delete();
+				}
+			}
+			
+			deleteFiles();
+			throw new RQException(e);
+		}
+		
+		// дɣرռļ
+		for (int p = 0; p < PARTITION_COUNT; ++p) {
+			if (writers[p] != null) {
+				writers[p].close();
+			}
+		}
+		
+		cursor.close();
+		return files;
+	}
+	
+	// һαݵϣвҹ¼
+	private void probe(int n) {
+		Table result = this.result;
+		Entry []entries = this.entries;
+		HashUtil hashUtil = this.hashUtil;
+		int type = this.type;
+		
+		while (result.length() < n) {
+			Sequence data = cursor1.fetch(FETCHCOUNT);
+			if (data == null || data.length() == 0) {
+				isProbeEnd = true;
+				return;
+			}
+			
+			Object [][]keys = calcKeys(data, exps1);
+			for (int i = 1, len = data.length(); i <= len; ++i) {
+				Object []curKeys = keys[i];
+				int hash = hashCode(curKeys);
+				Entry entry = entries[hashUtil.hashCode(hash)];
+				while (entry != null) {
+					if (entry.hash == hash && isEquals(entry.keys, curKeys)) {
+						break;
+					}
+					
+					entry = entry.next;
+				}
+				
+				Object r1 = data.getMem(i);
+				if (entry != null) {
+					// ظĹֵֶԣԷһ
+					Sequence records = entry.records;
+					int count = records.length();
+					int seq = ++entry.matchCount;
+					entry.lastRecord = r1;
+					
+					BaseRecord r = result.newLast();
+					r.setNormalFieldValue(0, r1);
+					r.setNormalFieldValue(1, records.getMem(seq < count ? seq : count));
+				} else if (type != 0) {
+					BaseRecord r = result.newLast();
+					r.setNormalFieldValue(0, r1);
+				}
+			}
+		}
+	}
+	
+	// һαڶαûԵļ¼
+	private void addRest(int n) {
+		Table result = this.result;
+		Entry []entries = this.entries;
+		int type = this.type;
+		int index = restIndex;
+		
+		for (int size = entries.length; index < size && result.length() < n; ++index) {
+			for (Entry entry = entries[index]; entry != null; entry = entry.next) {
+				Sequence records = entry.records;
+				int count = records.length();
+				if (entry.matchCount == 0) {
+					if (type == 2) {
+						for (int i = 1; i <= count; ++i) {
+							BaseRecord r = result.newLast();
+							r.setNormalFieldValue(1, records.getMem(i));
+						}
+					}
+				} else {
+					for (int i = entry.matchCount + 1; i <= count; ++i) {
+						BaseRecord r = result.newLast();
+						r.setNormalFieldValue(0, entry.lastRecord);
+						r.setNormalFieldValue(1, records.getMem(i));
+					}
+				}
+			}
+			
+			entries[index] = null;
+		}
+		
+		restIndex = index;
+		if (index == entries.length) {
+			isEnd = true;
+		}
+	}
+	
+	// ζÿ
+	private void joinPartitions(int n) {
+		Table result = this.result;
+		while (result.length() < n) {
+			if (partitionCursor == null) {
+				if (curPartition == PARTITION_COUNT) {
+					files1 = null;
+					files2 = null;
+					isEnd = true;
+					return;
+				}
+				
+				FileObject file1 = files1[curPartition];
+				FileObject file2 = files2[curPartition];
+				files1[curPartition] = null;
+				files2[curPartition] = null;
+				curPartition++;
+				
+				if (file1 == null && (file2 == null || type != 2)) {
+					// һαڴ˷ûݣȫⲻ
+					if (file2 != null) {
+						file2.delete();
+					}
+					
+					continue;
+				} else if (file2 == null && type == 0) {
+					file1.delete();
+					continue;
+				}
+				
+				ICursor cs1 = file1 == null ? new MemoryCursor(null) : new BFileCursor(file1, null, "x", ctx);
+				ICursor cs2 = file2 == null ? new MemoryCursor(null) : new BFileCursor(file2, null, "x", ctx);
+				partitionCursor = new HashJoinxCursor(cs1, exps1, cs2, exps2, ds, type, capacity, level + 1, ctx);
+			}
+			
+			Sequence seq = partitionCursor.fetch(n - result.length());
+			if (seq == null || seq.length() == 0) {
+				partitionCursor.close();
+				partitionCursor = null;
+			} else {
+				result.getMems().addAll(seq.getMems());
+			}
+		}
+	}
+	
+	/**
+	 * ȡָݷ
+	 * @param n 
+	 * @return Sequence
+	 */
+	protected Sequence get(int n) {
+		if (n < 1 || (isInit && result == null)) {
+			return null;
+		}
+		
+		init();
+		Table result = this.result;
+		if (!isEnd && result.length() < n) {
+			if (files1 != null) {
+				joinPartitions(n);
+			} else {
+				if (!isProbeEnd) {
+					probe(n);
+				}
+				
+				if (isProbeEnd && result.length() < n) {
+					addRest(n);
+				}
+			}
+		}
+		
+		int len = result.length();
+		if (len > n) {
+			return result.split(1, n);
+		} else if (len > 0) {
+			this.result = new Table(ds, INITSIZE);
+			return result;
+		} else {
+			return null;
+		}
+	}
+	
+	/**
+	 * ָ
+	 * @param n 
+	 * @return long ʵ
+	 */
+	protected long skipOver(long n) {
+		long count = 0;
+		while (count < n) {
+			int rest = n - count > FETCHCOUNT ? FETCHCOUNT : (int)(n - count);
+			Sequence seq = get(rest);
+			if (seq == null || seq.length() == 0) {
+				break;
+			}
+			
+			count += seq.length();
+		}
+		
+		return count;
+	}
+	
+	// ɾûӵķļ
+	private void deleteFiles() {
+		if (files1 != null) {
+			for (FileObject file : files1) {
+				if (file != null) {
+					file.delete();
+				}
+			}
+			
+			files1 = null;
+		}
+		
+		if (files2 != null) {
+			for (FileObject file : files2) {
+				if (file != null) {
+					file.delete();
+				}
+			}
+			
+			files2 = null;
+		}
+	}
+	
+	/**
+	 * رα
+	 */
+	public synchronized void close() {
+		super.close();
+		if (cursor1 != null) {
+			cursor1.close();
+			cursor2.close();
+			
+			if (partitionCursor != null) {
+				partitionCursor.close();
+				partitionCursor = null;
+			}
+			
+			deleteFiles();
+			entries = null;
+			result = null;
+			isEnd = true;
+		}
+	}
+	
+	/**
+	 * α
+	 * @return ǷɹtrueαԴͷȡfalseԴͷȡ
+	 */
+	public boolean reset() {
+		close();
+		
+		if (!cursor1.reset() || !cursor2.reset()) {
+			return false;
+		} else {
+			isInit = false;
+			isEnd = false;
+			isProbeEnd = false;
+			restIndex = 0;
+			return true;
+		}
+	}
+}
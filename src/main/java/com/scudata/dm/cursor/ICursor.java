@@ -7,11 +7,13 @@ import com.scudata.cellset.INormalCell;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.BaseRecord;
+import com.scudata.dm.ColumnBatch;
 import com.scudata.dm.ComputeStack;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
 import com.scudata.dm.IResource;
 import com.scudata.dm.Param;
+import com.scudata.dm.Profiler;
 import com.scudata.dm.Sequence;
 import com.scudata.dm.Table;
 import com.scudata.dm.Current;
@@ -50,6 +52,13 @@ abstract public class ICursor extends Operable implements IResource {
 	private boolean isDecrease = false; // ӵǷʹݱ٣select
 	private boolean isFinished = false; // Ƿfinish
 	
+	// ȡʱ㴦ݽṹԴݽṹĸıʱ¼
+	private DataStruct batchSrcDataStruct;
+	private ArrayList<Operation> batchOpList;
+	private int batchOpCount;
+	private Context batchCtx;
+	private DataStruct batchDataStruct;
+	
 	/**
 	 * ȡαĬȡС
 	 * @return
@@ -152,13 +161,22 @@ abstract public class ICursor extends Operable implements IResource {
 	}
 	
 	protected Sequence doOperation(Sequence result, ArrayList<Operation> opList, Context ctx) {
+		Profiler profiler = Profiler.get(ctx);
+		if (profiler != null && result != null) {
+			Profiler.addRowsIn(result.length());
+		}
+		
 		for (Operation op : opList) {
 			if (result == null || result.length() == 0) {
 				return null;
 			}
 			
 			try {
-				result = op.process(result, ctx);
+				if (profiler == null) {
+					result = op.process(result, ctx);
+				} else {
+					result = process(profiler, op, result, ctx);
+				}
 			} catch (RQException e) {
 				INormalCell cell = op.getCurrentCell();
 				if (cell != null) {
@@ -181,11 +199,45 @@ abstract public class ICursor extends Operable implements IResource {
 		return result;
 	}
 	
+	// ԰дŵִи
+	private ColumnBatch doOperation(ColumnBatch batch, ArrayList<Operation> opList, Context ctx) {
+		for (Operation op : opList) {
+			if (batch.length() == 0) {
+				return batch;
+			}
+			
+			try {
+				batch = op.process(batch, ctx);
+			} catch (RQException e) {
+				INormalCell cell = op.getCurrentCell();
+				if (cell != null) {
+					MessageManager mm = EngineMessage.get();
+					e.setMessage(mm.getMessage("error.cell", cell.getCellId()) + e.getMessage());
+				}
+				
+				throw e;
+			} catch (RuntimeException e) {
+				INormalCell cell = op.getCurrentCell();
+				if (cell != null) {
+					MessageManager mm = EngineMessage.get();
+					throw new RQException(mm.getMessage("error.cell", cell.getCellId()) + e.getMessage(), e);
+				} else {
+					throw e;
+				}
+			}
+		}
+		
+		return batch;
+	}
+	
 	protected Sequence finish(ArrayList<Operation> opList, Context ctx) {
 		isFinished = true;
+		Profiler profiler = Profiler.get(ctx);
 		Sequence result = null;
 		for (Operation op : opList) {
-			if (result == null || result.length() == 0) {
+			if (profiler != null) {
+				result = finish(profiler, op, result, ctx);
+			} else if (result == null || result.length() == 0) {
 				result = op.finish(ctx);
 			} else {
 				result = op.process(result, ctx);
@@ -203,7 +255,78 @@ abstract public class ICursor extends Operable implements IResource {
 		return result;
 	}
 	
+	// ȡе
+	private static String getProfileName(Operation op) {
+		INormalCell cell = op.getCurrentCell();
+		if (cell == null) {
+			return op.getClass().getSimpleName();
+		} else {
+			return op.getClass().getSimpleName() + "(" + cell.getCellId() + ")";
+		}
+	}
+	
+	// ִи㲢¼ͺʱ
+	private static Sequence process(Profiler profiler, Operation op, Sequence seq, Context ctx) {
+		Profiler.Frame frame = profiler.enter(getProfileName(op));
+		Sequence result = null;
+		try {
+			result = op.process(seq, ctx);
+			return result;
+		} finally {
+			Profiler.exit(frame, seq.length(), result == null ? 0 : result.length());
+		}
+	}
+	
+	// 㲢¼ͺʱseqΪǰʱ
+	private static Sequence finish(Profiler profiler, Operation op, Sequence seq, Context ctx) {
+		Profiler.Frame frame = profiler.enter(getProfileName(op));
+		int rowsIn = 0;
+		Sequence result = null;
+		try {
+			if (seq == null || seq.length() == 0) {
+				result = op.finish(ctx);
+			} else {
+				rowsIn = seq.length();
+				result = op.process(seq, ctx);
+				Sequence tmp = op.finish(ctx);
+				if (tmp != null) {
+					if (result != null) {
+						result = append(result, tmp);
+					} else {
+						result = tmp;
+					}
+				}
+			}
+			
+			return result;
+		} finally {
+			Profiler.exit(frame, rowsIn, result == null ? 0 : result.length());
+		}
+	}
+	
+	/**
+	 * ȡָļ¼¼ᱣαУ´ȡʱԻȡ
+	 * @param n Ҫȡļ¼
+	 * @return Sequence
+	 */
 	public synchronized Sequence peek(int n) {
+		Profiler profiler = Profiler.get(ctx);
+		if (profiler == null) {
+			return peekData(n);
+		}
+		
+		Profiler.Frame frame = profiler.enter(getClass().getSimpleName());
+		Sequence result = null;
+		try {
+			result = peekData(n);
+			return result;
+		} finally {
+			int rowsOut = result == null ? 0 : result.length();
+			Profiler.exit(frame, opList == null ? rowsOut : 0, rowsOut);
+		}
+	}
+	
+	private Sequence peekData(int n) {
 		ArrayList<Operation> opList = this.opList;
 		if (opList == null) {
 			if (cache == null) {
@@ -268,9 +391,44 @@ abstract public class ICursor extends Operable implements IResource {
 	 * @return Sequence
 	 */
 	public Sequence fuzzyFetch(int n) {
+		Profiler profiler = Profiler.get(ctx);
+		if (profiler == null) {
+			return fuzzyFetchData(n);
+		}
+		
+		Profiler.Frame frame = profiler.enter(getClass().getSimpleName());
+		Sequence result = null;
+		try {
+			result = fuzzyFetchData(n);
+			return result;
+		} finally {
+			int rowsOut = result == null ? 0 : result.length();
+			Profiler.exit(frame, opList == null ? rowsOut : 0, rowsOut);
+		}
+	}
+	
+	private Sequence fuzzyFetchData(int n) {
 		if (cache == null) {
 			Sequence result = null;
 			ArrayList<Operation> opList = this.opList;
+			if (opList != null && getFetchBatchDataStruct() != null) {
+				// ִи㣬ֻԽɼ¼
+				do {
+					ColumnBatch batch = fetchBatch(n);
+					if (batch == null) {
+						return result;
+					}
+					
+					Table table = batch.toTable();
+					if (result == null) {
+						result = table;
+					} else {
+						result = append(result, table);
+					}
+				} while (result.length() < n);
+				
+				return result;
+			}
 			
 			do {
 				Sequence cur = fuzzyGet(n);
@@ -332,6 +490,23 @@ abstract public class ICursor extends Operable implements IResource {
 			return null;
 		}
 		
+		Profiler profiler = Profiler.get(ctx);
+		if (profiler == null) {
+			return fetchData(n);
+		}
+		
+		Profiler.Frame frame = profiler.enter(getClass().getSimpleName());
+		Sequence result = null;
+		try {
+			result = fetchData(n);
+			return result;
+		} finally {
+			int rowsOut = result == null ? 0 : result.length();
+			Profiler.exit(frame, opList == null ? rowsOut : 0, rowsOut);
+		}
+	}
+	
+	private Sequence fetchData(int n) {
 		ArrayList<Operation> opList = this.opList;
 		Sequence result = cache;
 		if (opList == null) {
@@ -366,6 +541,23 @@ abstract public class ICursor extends Operable implements IResource {
 			size = FETCHCOUNT;
 		}
 		
+		if (getFetchBatchDataStruct() != null) {
+			// ִи㣬ֻԽɼ¼
+			while (result == null || result.length() < n) {
+				ColumnBatch batch = fetchBatch(size);
+				if (batch == null) {
+					return result;
+				}
+				
+				Table table = batch.toTable();
+				if (result == null) {
+					result = table;
+				} else {
+					result = append(result, table);
+				}
+			}
+		}
+		
 		while (result == null || result.length() < n) {
 			Sequence cur = get(size);
 			if (cur == null) {
@@ -966,6 +1158,86 @@ abstract public class ICursor extends Operable implements IResource {
 	 */
 	protected abstract Sequence get(int n);
 
+	/**
+	 * ذȡʱݽṹܲ¼ֱӰȡʱʵִ˷getBatch
+	 * @return DataStructְ֧ȡʱnull
+	 */
+	protected DataStruct getBatchDataStruct() {
+		return null;
+	}
+	
+	/**
+	 * ȡҪgetBatchDataStructһʵ
+	 * @param n Ҫȡļ¼ûȡʱصn
+	 * @return ColumnBatchȡʱnull
+	 */
+	protected ColumnBatch getBatch(int n) {
+		MessageManager mm = EngineMessage.get();
+		throw new RQException(mm.getMessage("engine.batchUnsupported", getClass().getName()));
+	}
+	
+	/**
+	 * ȡȡʱݽṹα͸ӵ㶼ܰдʱſ԰ȡ
+	 * @return DataStructܰȡʱnull
+	 */
+	public synchronized DataStruct getFetchBatchDataStruct() {
+		// ʱҪ¼ִиͳÿ
+		if (cache != null || ctx == null || Profiler.get(ctx) != null) {
+			return null;
+		}
+		
+		DataStruct ds = getBatchDataStruct();
+		ArrayList<Operation> opList = this.opList;
+		if (ds == null || opList == null) {
+			return ds;
+		}
+		
+		int opCount = opList.size();
+		if (ds == batchSrcDataStruct && opList == batchOpList && opCount == batchOpCount && ctx == batchCtx) {
+			return batchDataStruct;
+		}
+		
+		batchSrcDataStruct = ds;
+		batchOpList = opList;
+		batchOpCount = opCount;
+		batchCtx = ctx;
+		
+		for (Operation op : opList) {
+			ds = op.getBatchDataStruct(ds, ctx);
+			if (ds == null) {
+				break;
+			}
+		}
+		
+		batchDataStruct = ds;
+		return ds;
+	}
+	
+	/**
+	 * ȡִиӵ㣬в¼صܲn
+	 * ֻgetFetchBatchDataStructطǿʱܵ
+	 * @param n 
+	 * @return ColumnBatchȡʱnull
+	 */
+	public synchronized ColumnBatch fetchBatch(int n) {
+		ArrayList<Operation> opList = this.opList;
+		while (true) {
+			ColumnBatch batch = getBatch(n);
+			if (batch == null) {
+				close();
+				return null;
+			}
+			
+			if (opList != null) {
+				batch = doOperation(batch, opList, ctx);
+			}
+			
+			if (batch.length() > 0) {
+				return batch;
+			}
+		}
+	}
+	
 	/**
 	 * ģȡ¼صļ¼Բͬ
 	 * @param n Ҫȡļ¼
@@ -1039,8 +1311,22 @@ abstract public class ICursor extends Operable implements IResource {
 	public Table groups(Expression[] exps, String[] names, Expression[] calcExps, String[] calcNames, 
 			String opt, Context ctx) {
 		IGroupsResult groups = IGroupsResult.instance(exps, names, calcExps, calcNames, opt, ctx);
-		groups.push(this);
-		return groups.getResultTable();
+		Profiler profiler = Profiler.get(ctx);
+		if (profiler == null) {
+			groups.push(this);
+			return groups.getResultTable();
+		}
+		
+		// Ϊαϲڵ㣬αȡʱ
+		Profiler.Frame frame = profiler.enter("groups");
+		Table result = null;
+		try {
+			groups.push(this);
+			result = groups.getResultTable();
+			return result;
+		} finally {
+			Profiler.exit(frame, 0, result == null ? 0 : result.length());
+		}
 	}
 	
 	/**
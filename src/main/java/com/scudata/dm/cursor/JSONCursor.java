@@ -0,0 +1,309 @@
+package com.scudata.dm.cursor;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.Context;
+import com.scudata.dm.DataStruct;
+import com.scudata.dm.FileObject;
+import com.scudata.dm.JSONImporter;
+import com.scudata.dm.Record;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.Table;
+import com.scudata.resources.EngineMessage;
+
+/**
+ * jsonļα꣬ļÿһjsonjson lines
+ * ߶߽Ҫļڴ棬ֶָʱֻѡֶ
+ * @author RunQian
+ *
+ */
+public class JSONCursor extends ICursor {
+	private FileObject fileObject; // ļ
+	private JSONImporter importer; // json
+	private DataStruct ds; // ݽṹ
+	
+	private long start; // ȡʼλãҪͷȥβڲжļ
+	private long end = -1; // ȡĽλãҪͷȥβڲжļ
+	private int segSeq; // κţ1ʼ
+	private int segCount; // ֶ
+	
+	private String []selFields; // ѡֶ
+	private String opt; // ѡ
+	private boolean isEnd = false;
+	
+	/**
+	 * һjsonļα
+	 * @param fileObject jsonļ
+	 * @param segSeq κţ1ʼ
+	 * @param segCount ֶ1ʱļҪjson linesʽļֻɵһζ
+	 * @param fields ѡֶ飬ԵһֶΪ׼
+	 * @param opt ѡ
+	 * @param ctx
+	 */
+	public JSONCursor(FileObject fileObject, int segSeq, int segCount,
+			String []fields, String opt, Context ctx) {
+		if (segCount > 1) {
+			if (segSeq < 1 || segSeq > segCount) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException(segSeq + mm.getMessage("function.invalidParam"));
+			}
+			
+			long size = fileObject.size();
+			long blockSize = size / segCount;
+			if (segSeq == segCount) {
+				end = size;
+				start = blockSize * (segSeq - 1);
+			} else {
+				end = blockSize * segSeq;
+				start = blockSize * (segSeq - 1);
+			}
+		}
+		
+		this.fileObject = fileObject;
+		this.segSeq = segSeq;
+		this.segCount = segCount;
+		this.opt = opt;
+		this.ctx = ctx;
+		
+		if (fields != null) {
+			selFields = new String[fields.length];
+			System.arraycopy(fields, 0, selFields, 0, fields.length);
+			ds = new DataStruct(selFields);
+		}
+	}
+	
+	/**
+	 * ȡļαӦļ
+	 * @return FileObject
+	 */
+	public FileObject getFileObject() {
+		return fileObject;
+	}
+	
+	/**
+	 * ȡαѡ
+	 * @return String
+	 */
+	public String getOption() {
+		return opt;
+	}
+	
+	/**
+	 * ļһֶڶ·α·ʹͬݽṹ
+	 * @param fileObject jsonļ
+	 * @return ֶ飬һԪزǶʱؿ
+	 */
+	public static String[] getFieldNames(FileObject fileObject) {
+		InputStream in = fileObject.getInputStream();
+		try {
+			JSONImporter importer = new JSONImporter(in, null);
+			if (importer.isNextRecord()) {
+				importer.readRecord(null);
+				return importer.getFieldNames();
+			} else {
+				return null;
+			}
+		} catch (IOException e) {
+			throw new RQException(e.getMessage(), e);
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+	
+	private JSONImporter open() {
+		if (importer != null) {
+			return importer;
+		} else if (fileObject == null || isEnd) {
+			return null;
+		}
+		
+		if (segCount > 1 && JSONImporter.isArray(fileObject.getInputStream())) {
+			// ʱ޷ֶΣɵһζȫ
+			if (segSeq > 1) {
+				isEnd = true;
+				return null;
+			}
+			
+			start = 0;
+			end = -1;
+		}
+		
+		if (ctx != null) ctx.addResource(this);
+		InputStream in = null;
+		
+		try {
+			in = fileObject.getBlockInputStream();
+			importer = new JSONImporter(in, selFields);
+			importer.seek(start);
+			return importer;
+		} catch (Exception e) {
+			close();
+			if (in != null && importer == null) {
+				try {
+					in.close();
+				} catch (IOException ie) {
+				}
+			}
+			
+			if (e instanceof RQException) {
+				throw (RQException)e;
+			} else {
+				throw new RQException(e.getMessage(), e);
+			}
+		}
+	}
+	
+	/**
+	 * ȡָݷ
+	 * @param n 
+	 * @return Sequence
+	 */
+	protected Sequence get(int n) {
+		if (n < 1) return null;
+		JSONImporter importer = open();
+		if (importer == null) return null;
+		
+		try {
+			return fetch(importer, n);
+		} catch (IOException e) {
+			close();
+			throw new RQException(e.getMessage(), e);
+		}
+	}
+	
+	private Sequence fetch(JSONImporter importer, int n) throws IOException {
+		long end = this.end;
+		int initSize = n > INITSIZE ? INITSIZE : n;
+		Table table = null;
+		Sequence seq = null;
+		
+		for (int i = 0; i < n; ++i) {
+			// հٰԪеʼλжǷ񳬳ΣseekĹһ
+			if (!importer.hasNext() || (end != -1 && importer.getLineStart() > end)) {
+				break;
+			}
+			
+			if (importer.isNextRecord()) {
+				if (ds == null) {
+					Object []values = importer.readRecord(null);
+					ds = new DataStruct(importer.getFieldNames());
+					setDataStruct(ds);
+					if (seq == null) {
+						table = new Table(ds, initSize);
+						table.newLast(values);
+					} else {
+						seq.add(new Record(ds, values));
+					}
+				} else if (seq != null) {
+					// ֵһʱس
+					Record r = new Record(ds);
+					importer.readRecord(r.getFieldValues());
+					seq.add(r);
+				} else {
+					if (table == null) {
+						table = new Table(ds, initSize);
+					}
+					
+					BaseRecord r = table.newLast();
+					importer.readRecord(r.getFieldValues());
+				}
+			} else {
+				if (seq == null) {
+					seq = new Sequence(initSize);
+					if (table != null) {
+						seq.addAll(table);
+						table = null;
+					}
+				}
+				
+				seq.add(importer.readNext());
+			}
+		}
+		
+		if (table != null && table.length() > 0) {
+			return table;
+		} else if (seq != null && seq.length() > 0) {
+			return seq;
+		} else {
+			close();
+			return null;
+		}
+	}
+	
+	/**
+	 * ָ
+	 * @param n 
+	 * @return long ʵ
+	 */
+	protected long skipOver(long n) {
+		if (n < 1) return 0;
+		
+		JSONImporter importer = open();
+		if (importer == null) return 0;
+		
+		try {
+			long end = this.end;
+			for (long i = 0; i < n; ++i) {
+				if (!importer.hasNext() || (end != -1 && importer.getLineStart() > end)) {
+					return i;
+				}
+				
+				importer.skipNext();
+			}
+		} catch (IOException e) {
+			close();
+			throw new RQException(e.getMessage(), e);
+		}
+		
+		return n;
+	}
+	
+	/**
+	 * رα
+	 */
+	public synchronized void close() {
+		super.close();
+		if (fileObject != null) {
+			isEnd = true;
+			if (importer != null) {
+				if (ctx != null) ctx.removeResource(this);
+				try {
+					importer.close();
+				} catch (IOException e) {
+				}
+				
+				importer = null;
+			}
+		}
+	}
+	
+	protected void finalize() throws Throwable {
+		close();
+	}
+	
+	/**
+	 * α
+	 * @return ǷɹtrueαԴͷȡfalseԴͷȡ
+	 */
+	public boolean reset() {
+		close();
+		
+		if (fileObject != null) {
+			isEnd = false;
+			if (selFields == null) {
+				ds = null;
+			}
+			
+			return true;
+		} else {
+			return false;
+		}
+	}
+}
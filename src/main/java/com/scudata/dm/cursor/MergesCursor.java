@@ -6,6 +6,8 @@ import com.scudata.dm.Current;
 import com.scudata.dm.Sequence;
 import com.scudata.dm.op.Operation;
 import com.scudata.expression.Expression;
+import com.scudata.util.LoserTree;
+import com.scudata.util.LoserTreeNode_Exps;
 import com.scudata.util.Variant;
 
 /**
@@ -34,8 +36,8 @@ public class MergesCursor extends ICursor {
 	private Object [][]values;
 	/** ǰڸԻ **/
 	private int []seqs;	
-	/** еǰԪأС **/
-	private int []items; 		// еĵǰԪشС
+	/** conjʽİÿһ·αΪһڵ㣬ıʽֵȽ **/
+	private LoserTree loserTree;
 	
 	/** ǰԪص **/
 	private int []ranks; // ǰԪص01-1unionisectdiffxorʹ
@@ -110,56 +112,6 @@ public class MergesCursor extends ICursor {
 		}
 	}
 
-	/**
-	 * ѡһҪȡݡûݿɶ򷵻false;
-	 *		ոȡݵα꣬лǰݡα껺еݾȡٴλһݡ
-	 *		ոձлݣԱʽ㡣
-	 *		ݸα굱ǰݶԱʽļѡһҪȡ
-	 * 
-	 * @return	true	ǰȡ
-	 * 			false	ǰݿȡ
-	 */
-	private boolean popTop() {
-		int []items = this.items;
-		int count = items.length;
-		int item = items[0];
-		Sequence table = tables[item];
-
-		// ոȡݵα꣬ˣͶȡµݡ
-		int next = seqs[item] + 1;
-		if (next > table.length()) {
-			ComputeStack stack = ctxs[item].getComputeStack();
-			stack.pop();
-			
-			table = cursors[item].fuzzyFetch(FETCHCOUNT_M);
-			if (table == null || table.length() == 0) {
-				for (int j = 1; j < count; ++j) {
-					items[j - 1] = items[j];
-				}
-
-				tables[item] = null;
-				values[item] = null;
-				items[count - 1] = -1;
-
-				return items[0] != -1;
-			}
-
-			currents[item] = new Current(table, 1);
-			stack.push(currents[item]);
-			tables[item] = table;
-			next = 1;
-		}
-
-		// л굱ǰݣԱʽ㡣
-		seqs[item] = next;
-		currents[item].setCurrent(next);
-		calc(dupExps[item], ctxs[item], values[item]);
-		
-		// ѡһҪȡݡ
-		topChange(values, items);
-		return true;
-	}
-
 	/**
 	 * ų·αеظݡ
 	 * 		
@@ -307,44 +259,6 @@ public class MergesCursor extends ICursor {
 		return r;
 	}
 	
-	/**
-	 * ѡ·αһҪȡݡ
-	 * 
-	 * @param values	α굱ǰݸݱʽļ
-	 * @param items		α굱ǰݣڻе
-	 */
-	private void topChange(Object [][]values, int []items) {
-		int item = items[0];
-		Object []obj = values[item];
-		if (items[1] == -1 || compareArrays(obj, values[items[1]]) <= 0) {
-			return;
-		}
-
-		int low = 2;
-		int high = values.length - 1;
-		while (low <= high) {
-			int mid = (low + high) >> 1;
-			if (items[mid] == -1) {
-				high = mid - 1;
-			} else {
-				int cmp = compareArrays(obj, values[items[mid]]);
-				if (cmp < 0) {
-					high = mid - 1;
-				} else if (cmp > 0) {
-					low = mid + 1;
-				} else {
-					System.arraycopy(items, 1, items, 0, mid - 1);
-					items[mid - 1] = item;
-					return; // key found
-				}
-			}
-		}
-
-		// key not found
-		System.arraycopy(items, 1, items, 0, low - 1);
-		items[low - 1] = item;
-	}
-	
 	private static void calc(Expression []exps, Context ctx, Object []outValues) {
 		for (int i = 0, len = exps.length; i < len; ++i) {
 			outValues[i] = exps[i].calculate(ctx);
@@ -355,12 +269,21 @@ public class MergesCursor extends ICursor {
 	 * αĻֱӷء
 	 */
 	private void getData() {
+		if (type == 'c') {
+			if (loserTree == null) {
+				LoserTreeNode_Exps []nodes = LoserTreeNode_Exps.createNodes(cursors, exps, ctx, isNullMin);
+				loserTree = new LoserTree(nodes);
+			}
+			
+			return;
+		}
+		
 		if (tables != null) return;
-
+		
 		ICursor []cursors = this.cursors;
 		Expression[] exps = this.exps;
 		Context ctx = this.ctx;
-
+		
 		int tcount = cursors.length;
 		tables = new Sequence[tcount];
 		values = new Object[tcount][];
@@ -370,78 +293,41 @@ public class MergesCursor extends ICursor {
 		currents = new Current[tcount];
 		dupExps = new Expression[tcount][];
 		
-		if (type == 'c') {
-			items = new int[tcount]; // еĵǰԪشС
-			for (int i = 0; i < tcount; ++i) {
-				ctxs[i] = ctx.newComputeContext();
-				dupExps[i] = Operation.dupExpressions(exps, ctxs[i]);
-				Sequence table = cursors[i].fuzzyFetch(FETCHCOUNT_M);
-				if (table != null && table.length() > 0) {
-					Object []curValues = new Object[exps.length];
-					currents[i] = new Current(table, 1);
-					ctxs[i].getComputeStack().push(currents[i]);
-					calc(dupExps[i], ctxs[i], curValues);
-					
-					tables[i] = table;
-					values[i] = curValues;
-					seqs[i] = 1;
-					items[i] = i;
-
-					for (int j = 0; j < i; ++j) {
-						if (items[j] == -1) {
-							items[j] = i;
-							items[i] = -1;
-							break;
-						} else if (compareArrays(curValues, values[items[j]]) < 0) {
-							for (int k = i; k > j; --k) {
-								items[k] = items[k - 1];
-							}
-
-							items[j] = i;
-							break;
-						}
-					}
-				} else {
-					items[i] = -1;
-				}
-			}
-		} else {
-			ranks = new int[tcount]; // еĵǰԪص
-			for (int i = 0; i < tcount; ++i) {
-				ctxs[i] = ctx.newComputeContext();
-				dupExps[i] = Operation.dupExpressions(exps, ctxs[i]);
-				Sequence table = cursors[i].fuzzyFetch(FETCHCOUNT_M);
-				if (table != null && table.length() > 0) {
-					Object []curValues = new Object[exps.length];
-					currents[i] = new Current(table, 1);
-					ctxs[i].getComputeStack().push(currents[i]);
-					calc(dupExps[i], ctxs[i], curValues);
-
-					tables[i] = table;
-					values[i] = curValues;
-					seqs[i] = 1;
-					ranks[i] = 0;
+		ranks = new int[tcount]; // еĵǰԪص
+		for (int i = 0; i < tcount; ++i) {
+			ctxs[i] = ctx.newComputeContext();
+			dupExps[i] = Operation.dupExpressions(exps, ctxs[i]);
+			Sequence table = cursors[i].fuzzyFetch(FETCHCOUNT_M);
+			if (table != null && table.length() > 0) {
+				Object []curValues = new Object[exps.length];
+				currents[i] = new Current(table, 1);
+				ctxs[i].getComputeStack().push(currents[i]);
+				calc(dupExps[i], ctxs[i], curValues);
+
+				tables[i] = table;
+				values[i] = curValues;
+				seqs[i] = 1;
+				ranks[i] = 0;
 
-					for (int j = 0; j < i; ++j) {
-						if (ranks[j] == 0) {
-							int cmp = compareArrays(curValues, values[j]);
-							if (cmp < 0) {
-								ranks[j] = 1;
-								for (++j; j < i; ++j) {
-									if (ranks[j] == 0) {
-										ranks[j] = 1;
-									}
+				for (int j = 0; j < i; ++j) {
+					if (ranks[j] == 0) {
+						int cmp = compareArrays(curValues, values[j]);
+						if (cmp < 0) {
+							ranks[j] = 1;
+							for (++j; j < i; ++j) {
+								if (ranks[j] == 0) {
+									ranks[j] = 1;
 								}
-							} else if (cmp > 0) {
-								ranks[i] = 1;
 							}
-
-							break;
+						} else if (cmp > 0) {
+							ranks[i] = 1;
 						}
+
+						break;
 					}
-				} else {
-					ranks[i] = -1;
 				}
+			} else {
+				ranks[i] = -1;
 			}
 		}
 	}
@@ -597,7 +483,7 @@ public class MergesCursor extends ICursor {
 	 * ȡָ
 	 * 		жȡ١
 	 * 		uidȡʽget_uiʵ֡
-	 * 		ҪΪcʽȡ̡Уķʽȡݡ
+	 * 		ҪΪcʽȡ̡Уðķʽȡݡ
 	 * @param	n	Ҫȡ
 	 */
 	protected Sequence get(int n) {
@@ -610,14 +496,12 @@ public class MergesCursor extends ICursor {
 			// uidģʽµȡ
 			if (type != 'c') return get_uid(n);
 			
-			int []items = this.items;
-			if (items[0] == -1) {
+			LoserTree loserTree = this.loserTree;
+			if (!loserTree.hasNext()) {
 				return null;
 			}
 	
 			// ݻ
-			Sequence []tables = this.tables;
-			int []seqs = this.seqs;
 			Sequence table;
 			if (n > INITSIZE) {
 				table = new Sequence(INITSIZE);
@@ -626,14 +510,8 @@ public class MergesCursor extends ICursor {
 			}
 	
 			// ѭȡ仺ѭжԸ·αȡ鲢
-			for (int i = 0; i < n; ++i) {
-				int item = items[0];
-				Object r = tables[item].getMem(seqs[item]);
-				table.add(r);
-	
-				if (!popTop()) {
-					break;
-				}
+			for (int i = 0; i < n && loserTree.hasNext(); ++i) {
+				table.add(loserTree.pop());
 			}
 	
 			return table;
@@ -656,14 +534,12 @@ public class MergesCursor extends ICursor {
 	
 			if (type != 'c') return skip_uid(n);
 	
-			int []items = this.items;
-			if (items[0] == -1) {
-				return 0;
-			}
-	
+			LoserTree loserTree = this.loserTree;
 			for (long i = 0; i < n; ++i) {
-				if (!popTop()) {
-					return i + 1;
+				if (loserTree.hasNext()) {
+					loserTree.pop();
+				} else {
+					return i;
 				}
 			}
 	
@@ -687,7 +563,7 @@ public class MergesCursor extends ICursor {
 			tables = null;
 			values = null;
 			seqs = null;
-			items = null;
+			loserTree = null;
 			isEnd = true;
 		}
 	}
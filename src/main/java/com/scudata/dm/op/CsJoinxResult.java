@@ -98,9 +98,19 @@ public class CsJoinxResult implements IResult {
 	 * @return ICursor
 	 */
 	public ICursor getResultCursor() {
+		int keyCount = exps.length;
+		Expression []keyExps = new Expression[keyCount];
+		for (int i = 0, q = 1; i < keyCount; ++i, ++q) {
+			keyExps[i] = new Expression(ctx, "#" + q);
+		}
+		
 		ArrayList<ICursor> cursorList = this.cursorList;
 		int size = cursorList.size();
 		if (size > 0) {
+			// ʱļ̫ʱȷ鲢
+			CursorUtil.mergeTempFiles(cursorList, keyExps, null, ctx);
+			size = cursorList.size();
+			
 			int bufSize = Env.getMergeFileBufSize(size);
 			for (int i = 0; i < size; ++i) {
 				BFileCursor bfc = (BFileCursor)cursorList.get(i);
@@ -120,14 +130,8 @@ public class CsJoinxResult implements IResult {
 		} else if (size == 1) {
 			return (ICursor)cursorList.get(0);
 		} else {
-			int keyCount = exps.length;
 			ICursor []cursors = new ICursor[size];
 			cursorList.toArray(cursors);
-			Expression []keyExps = new Expression[keyCount];
-			for (int i = 0, q = 1; i < keyCount; ++i, ++q) {
-				keyExps[i] = new Expression(ctx, "#" + q);
-			}
-
 			MergesCursor mc = new MergesCursor(cursors, keyExps, ctx);
 			return mc;
 		}
@@ -1,7 +1,11 @@
 package com.scudata.dm.op;
 
+import java.util.Arrays;
+
+import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
+import com.scudata.dm.ColumnBatch;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
 import com.scudata.dm.Sequence;
@@ -56,6 +60,14 @@ public class Derive extends Operation  {
 				throw new RQException(mm.getMessage("engine.needPurePmt"));
 			}
 			
+			getNewDataStruct(ds);
+		}
+		
+		return newDs;
+	}
+	
+	private DataStruct getNewDataStruct(DataStruct ds) {
+		if (newDs == null) {
 			Expression[] exps = this.exps;
 			int colCount = exps.length;
 			for (int i = 0; i < colCount; ++i) {
@@ -103,4 +115,46 @@ public class Derive extends Operation  {
 			return seq.derive(newDs, exps, opt, ctx);
 		}
 	}
+	
+	/**
+	 * жܷдŵݣ򷵻شݽṹ
+	 * @param ds Դݽṹ
+	 * @param ctx 
+	 * @return DataStruct ݽṹܰдʱnull
+	 */
+	public DataStruct getBatchDataStruct(DataStruct ds, Context ctx) {
+		if (exps == null || level > 1 || opt != null) {
+			return null;
+		}
+		
+		DataStruct newDs = getNewDataStruct(ds);
+		String []totalNames = newDs.getFieldNames();
+		for (int i = 0; i < exps.length; ++i) {
+			// ʽǰֶ
+			DataStruct curDs = new DataStruct(Arrays.copyOf(totalNames, oldColCount + i));
+			if (!ColumnBatch.canCalculate(exps[i], curDs, ctx)) {
+				return null;
+			}
+		}
+		
+		return newDs;
+	}
+	
+	/**
+	 * α굱ǰȡİдŵݣֶΰм
+	 * @param batch 
+	 * @param ctx 
+	 * @return ColumnBatch
+	 */
+	public ColumnBatch process(ColumnBatch batch, Context ctx) {
+		DataStruct newDs = getNewDataStruct(batch.getDataStruct());
+		Expression[] exps = this.exps;
+		for (int i = 0; i < exps.length; ++i) {
+			IArray array = batch.calculateAll(exps[i], ctx);
+			batch.addColumn(names[i], array);
+		}
+		
+		batch.setDataStruct(newDs);
+		return batch;
+	}
 }
@@ -30,6 +30,18 @@ public class FilterJoin extends Operation {
 	private boolean containNull; // еάǷǿ
 	private boolean isMerge; // Ƿʹù鲢йбֶ
 	
+	public Expression[][] getExps() {
+		return exps;
+	}
+	
+	public Sequence[] getCodes() {
+		return codes;
+	}
+	
+	public Expression[][] getDataExps() {
+		return dataExps;
+	}
+	
 	public FilterJoin(Expression[][] exps, Sequence[] codes, Expression[][] dataExps) {
 		this(null, exps, codes, dataExps, null);
 	}
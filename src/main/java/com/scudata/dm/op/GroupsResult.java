@@ -5,6 +5,7 @@ import com.scudata.common.MessageManager;
 import com.scudata.common.ObjectCache;
 import com.scudata.common.RQException;
 import com.scudata.dm.BaseRecord;
+import com.scudata.dm.ColumnBatch;
 import com.scudata.dm.ComputeStack;
 import com.scudata.dm.Context;
 import com.scudata.dm.Current;
@@ -395,12 +396,34 @@ public class GroupsResult extends IGroupsResult {
 		}
 	}
 
+	/**
+	 * жܷհдŵݣͻֻȡֵֶʱſ
+	 * @param ds ݵݽṹ
+	 * @return trueԣfalse
+	 */
+	public boolean canPushBatch(DataStruct ds) {
+		return ColumnBatch.canCalculate(exps, ds, ctx) && ColumnBatch.canGather(gathers, ds, ctx);
+	}
+	
+	/**
+	 * ͹İдŵݣмʱͬһ¼
+	 * @param batch 
+	 * @param ctx 
+	 */
+	public void push(ColumnBatch batch, Context ctx) {
+		push(batch.toSequence(), ctx);
+	}
+	
 	/**
 	 * ͹αݣۻյĽ
 	 * @param cursor α
 	 */
 	public void push(ICursor cursor) {
 		Context ctx = this.ctx;
+		if (pushBatch(cursor, ctx)) {
+			return;
+		}
+		
 		if (hashUtil != null) {
 			while (true) {
 				// αȡһݡ
@@ -28,6 +28,7 @@ import com.scudata.dm.cursor.MergesCursor;
 import com.scudata.expression.Expression;
 import com.scudata.expression.Node;
 import com.scudata.resources.EngineMessage;
+import com.scudata.util.CursorUtil;
 import com.scudata.util.HashUtil;
 
 /**
@@ -401,9 +402,19 @@ public class GroupxResult implements IResult {
 		ListBase1 []groups = this.groups;
 		if (groups == null) return null;
 		
+		int keyCount = exps.length;
+		Expression []keyExps = new Expression[keyCount];
+		for (int i = 0, q = 1; i < keyCount; ++i, ++q) {
+			keyExps[i] = new Expression(ctx, "#" + q);
+		}
+		
 		ArrayList<ICursor> cursorList = this.cursorList;
 		int size = cursorList.size();
 		if (size > 0) {
+			// ʱļ̫ʱȷ鲢ֻ鲢λܣͳһλ
+			CursorUtil.mergeTempFiles(cursorList, keyExps, null, ctx);
+			size = cursorList.size();
+			
 			int bufSize = Env.getMergeFileBufSize(size);
 			for (int i = 0; i < size; ++i) {
 				BFileCursor bfc = (BFileCursor)cursorList.get(i);
@@ -432,14 +443,8 @@ public class GroupxResult implements IResult {
 		} else if (size == 1) {
 			return (ICursor)cursorList.get(0);
 		} else {
-			int keyCount = exps.length;
 			ICursor []cursors = new ICursor[size];
 			cursorList.toArray(cursors);
-			Expression []keyExps = new Expression[keyCount];
-			for (int i = 0, q = 1; i < keyCount; ++i, ++q) {
-				keyExps[i] = new Expression(ctx, "#" + q);
-			}
-
 			MergesCursor mc = new MergesCursor(cursors, keyExps, ctx);
 			int valCount = calcExps == null ? 0 : calcExps.length;
 			Expression []valExps = new Expression[valCount];
@@ -1,6 +1,7 @@
 package com.scudata.dm.op;
 
 import com.scudata.array.IntArray;
+import com.scudata.dm.ColumnBatch;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
 import com.scudata.dm.GroupsSyncReader;
@@ -203,6 +204,46 @@ abstract public class IGroupsResult implements IResult {
 	 * @param cursor α
 	 */
 	abstract public void push(ICursor cursor);
+	
+	/**
+	 * жܷհдŵݣͻֻȡֵֶʱſ
+	 * @param ds ݵݽṹ
+	 * @return trueԣfalse
+	 */
+	public boolean canPushBatch(DataStruct ds) {
+		return false;
+	}
+	
+	/**
+	 * ͹İдŵݣۻյĽ
+	 * @param batch 
+	 * @param ctx 
+	 */
+	public void push(ColumnBatch batch, Context ctx) {
+		push(batch.toTable(), ctx);
+	}
+	
+	/**
+	 * αͷ鶼֧ʱдαȡۻյĽ
+	 * @param cursor α
+	 * @param ctx 
+	 * @return trueѴfalseܰд
+	 */
+	protected boolean pushBatch(ICursor cursor, Context ctx) {
+		DataStruct ds = cursor.getFetchBatchDataStruct();
+		if (ds == null || !canPushBatch(ds)) {
+			return false;
+		}
+		
+		while (true) {
+			ColumnBatch batch = cursor.fetchBatch(ICursor.FETCHCOUNT);
+			if (batch == null) {
+				return true;
+			}
+			
+			push(batch, ctx);
+		}
+	}
 
 	/**
 	 * ͹αݣۻյĽ
@@ -48,6 +48,30 @@ public class Join extends Operation {
 	private boolean containNull; // ǷеĴΪ
 	private boolean isMerge; // Ƿʹù鲢йбֶ
 	
+	public String getFname() {
+		return fname;
+	}
+	
+	public Expression[][] getExps() {
+		return exps;
+	}
+	
+	public Sequence[] getCodes() {
+		return codes;
+	}
+	
+	public Expression[][] getDataExps() {
+		return dataExps;
+	}
+	
+	public String[][] getNewNames() {
+		return newNames;
+	}
+	
+	public boolean isIsect() {
+		return isIsect;
+	}
+	
 	public Join(String fname, Expression[][] exps, Sequence[] codes,
 			  Expression[][] dataExps, Expression[][] newExps,
 			  String[][] newNames, String opt) {
@@ -2,10 +2,15 @@ package com.scudata.dm.op;
 
 import com.scudata.cellset.ICellSet;
 import com.scudata.cellset.INormalCell;
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.dm.ColumnBatch;
 import com.scudata.dm.Context;
+import com.scudata.dm.DataStruct;
 import com.scudata.dm.Sequence;
 import com.scudata.expression.Expression;
 import com.scudata.expression.Function;
+import com.scudata.resources.EngineMessage;
 
 /**
  * α͹ܵӳټ㺯
@@ -58,6 +63,27 @@ public abstract class Operation {
 	 */
 	public abstract Sequence process(Sequence seq, Context ctx);
 	
+	/**
+	 * жܷдŵݣ򷵻شݽṹ
+	 * @param ds Դݽṹ
+	 * @param ctx 
+	 * @return DataStruct ݽṹܰдʱnull
+	 */
+	public DataStruct getBatchDataStruct(DataStruct ds, Context ctx) {
+		return null;
+	}
+	
+	/**
+	 * α굱ǰȡİдŵݣgetBatchDataStructطǿʱŻᱻ
+	 * @param batch 
+	 * @param ctx 
+	 * @return ColumnBatch
+	 */
+	public ColumnBatch process(ColumnBatch batch, Context ctx) {
+		MessageManager mm = EngineMessage.get();
+		throw new RQException(mm.getMessage("engine.batchUnsupported", getClass().getName()));
+	}
+	
 	/**
 	 * ȡǷԪ˺ټ¼
 	 * ˺αľȷȡӵĲʹ¼ֻ谴ȡ
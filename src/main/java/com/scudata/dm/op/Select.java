@@ -1,8 +1,11 @@
 package com.scudata.dm.op;
 
+import com.scudata.array.IArray;
+import com.scudata.dm.ColumnBatch;
 import com.scudata.dm.ComputeStack;
 import com.scudata.dm.Context;
 import com.scudata.dm.Current;
+import com.scudata.dm.DataStruct;
 import com.scudata.dm.Sequence;
 import com.scudata.expression.Expression;
 import com.scudata.expression.Function;
@@ -165,6 +168,32 @@ public class Select extends Operation {
 		}
 	}
 	
+	/**
+	 * жܷдŵݣ򷵻شݽṹ
+	 * @param ds Դݽṹ
+	 * @param ctx 
+	 * @return DataStruct ݽṹܰдʱnull
+	 */
+	public DataStruct getBatchDataStruct(DataStruct ds, Context ctx) {
+		if (pipe == null && !isContinuous && !isOrg && ColumnBatch.canCalculate(fltExp, ds, ctx)) {
+			return ds;
+		} else {
+			return null;
+		}
+	}
+	
+	/**
+	 * α굱ǰȡİдŵݣֻ޸ѡ¼
+	 * @param batch 
+	 * @param ctx 
+	 * @return ColumnBatch
+	 */
+	public ColumnBatch process(ColumnBatch batch, Context ctx) {
+		IArray signArray = batch.calculateAll(fltExp, ctx);
+		batch.select(signArray);
+		return batch;
+	}
+	
 	public Sequence finish(Context ctx) {
 		if (pipe != null) {
 			pipe.finish(ctx);
@@ -14,6 +14,7 @@ import com.scudata.dm.cursor.ICursor;
 import com.scudata.dm.cursor.MergesCursor;
 import com.scudata.expression.Expression;
 import com.scudata.resources.EngineMessage;
+import com.scudata.util.CursorUtil;
 import com.scudata.util.EnvUtil;
 
 /**
@@ -113,6 +114,8 @@ public class SortxResult implements IResult {
 		
 		data = null;
 		
+		// ʱļ̫ʱȷ鲢
+		CursorUtil.mergeTempFiles(cursorList, exps, opt, ctx);
 		int size = cursorList.size();
 		int bufSize = Env.getMergeFileBufSize(size);
 		for (int i = 0; i < size; ++i) {
@@ -8,12 +8,14 @@ import com.scudata.dm.BaseRecord;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
 import com.scudata.dm.IndexTable;
+import com.scudata.dm.LongHashIndexTable;
 import com.scudata.dm.Record;
 import com.scudata.dm.Sequence;
 import com.scudata.expression.CurrentSeq;
 import com.scudata.expression.Expression;
 import com.scudata.expression.Function;
 import com.scudata.resources.EngineMessage;
+import com.scudata.util.CursorUtil;
 import com.scudata.util.Variant;
 
 /**
@@ -299,6 +301,11 @@ public class Switch extends Operation {
 					}
 				} else {
 					if (timeName == null) {
+						if (indexTable instanceof LongHashIndexTable && 
+								CursorUtil.batchSwitch(data, fkName, (LongHashIndexTable)indexTable)) {
+							continue;
+						}
+						
 						for (int i = 1; i <= len; ++i) {
 							Object obj = mems.get(i);
 							if (obj instanceof BaseRecord) {
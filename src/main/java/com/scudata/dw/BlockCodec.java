@@ -0,0 +1,273 @@
+package com.scudata.dw;
+
+import java.util.ArrayList;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.resources.EngineMessage;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * ݿѹ㷨㷨żͷÿ߳ÿ㷨һʵ
+ * LZ4ʽĿѹдΪ㷨дΪںһֽڵ㷨ţ
+ * Բͬ㷨ѹĿԻͬһļ
+ * DeflateõDeflaterInflaterռñڴ棬߳ߣÿѹѹʱӳã黹
+ * @author runqian
+ *
+ */
+public abstract class BlockCodec {
+	public static final int LZ4 = 0; // Ĭϣѹѹ
+	public static final int LZ4HC = 1; // ѹȵLZ4д䣬ʽͬLZ4
+	public static final int DEFLATE = 2; // JDKԴDeflateѹߣʺ
+	
+	private static final int CODEC_COUNT = 3;
+	
+	private static ThreadLocal<BlockCodec[]> local = new ThreadLocal<BlockCodec[]>() {
+		protected synchronized BlockCodec[] initialValue() {
+			return new BlockCodec[CODEC_COUNT];
+		}
+	};
+	
+	protected int count; // ѹĳ
+	
+	/**
+	 * ȡǰָ߳㷨ʵ
+	 * @param codec 㷨
+	 * @return
+	 */
+	public static BlockCodec instance(int codec) {
+		if (codec < 0 || codec >= CODEC_COUNT) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(codec + mm.getMessage("function.invalidParam"));
+		}
+		
+		BlockCodec []codecs = local.get();
+		if (codecs[codec] == null) {
+			switch (codec) {
+			case LZ4HC:
+				codecs[codec] = new LZ4Codec(LZ4Factory.fastestInstance().highCompressor());
+				break;
+			case DEFLATE:
+				codecs[codec] = new DeflateCodec();
+				break;
+			default:
+				codecs[codec] = new LZ4Codec(null);
+			}
+		}
+		
+		return codecs[codec];
+	}
+	
+	/**
+	 * ѡȡѹ㷨hDeflatelLZ4HC
+	 * @param opt ѡ
+	 * @return 㷨ţѡûָʱ-1
+	 */
+	public static int getCodec(String opt) {
+		if (opt == null) {
+			return -1;
+		} else if (opt.indexOf('h') != -1) {
+			return DEFLATE;
+		} else if (opt.indexOf('l') != -1) {
+			return LZ4HC;
+		} else {
+			return -1;
+		}
+	}
+	
+	/**
+	 * ȡѹ㷨Ӧѡؽʱԭ㷨
+	 * @param codec 㷨
+	 * @return ѡLZ4ʱΪմ
+	 */
+	public static String getOption(int codec) {
+		switch (codec) {
+		case DEFLATE:
+			return "h";
+		case LZ4HC:
+			return "l";
+		default:
+			return "";
+		}
+	}
+	
+	/**
+	 * 㷨ѹĿǷLZ4ʽLZ4ʽĿͰ汾治ܶ
+	 * @param codec 㷨
+	 * @return
+	 */
+	public static boolean isLZ4Codec(int codec) {
+		return codec == LZ4 || codec == LZ4HC;
+	}
+	
+	/**
+	 * ѹĳ
+	 * @return
+	 */
+	public int getCount() {
+		return count;
+	}
+	
+	/**
+	 * ѹǷLZ4ʽﲻҪ㷨
+	 * @return
+	 */
+	public abstract boolean isLZ4Format();
+	
+	/**
+	 * ѹֽ飬ֽ鳤ȿܴʵʳȣҪgetCountȡʵʳ
+	 * @param bytes
+	 * @return
+	 */
+	public abstract byte[] compress(byte []bytes);
+	
+	/**
+	 * ѹsrcCountΪѹ󳤶
+	 * @param bytes
+	 * @param buffer
+	 * @param srcCount
+	 */
+	public abstract void decompress(byte []bytes, byte []buffer, int srcCount);
+	
+	private static class LZ4Codec extends BlockCodec {
+		private LZ4Compressor compressor; // ʱLZ4UtilĿѹ
+		
+		public LZ4Codec(LZ4Compressor compressor) {
+			this.compressor = compressor;
+		}
+		
+		public boolean isLZ4Format() {
+			return true;
+		}
+		
+		public byte[] compress(byte []bytes) {
+			if (compressor == null) {
+				LZ4Util lz4 = LZ4Util.instance();
+				byte []buffer = lz4.compress(bytes);
+				count = lz4.getCount();
+				return buffer;
+			} else {
+				byte []buffer = new byte[compressor.maxCompressedLength(bytes.length)];
+				count = compressor.compress(bytes, buffer);
+				return buffer;
+			}
+		}
+		
+		public void decompress(byte []bytes, byte []buffer, int srcCount) {
+			LZ4Util.instance().decompress(bytes, buffer, srcCount);
+		}
+	}
+	
+	private static class DeflateCodec extends BlockCodec {
+		private static final int MAX_POOL_SIZE = 16; // ౣʵ꼴ͷ
+		private static ArrayList<Deflater> deflaterPool = new ArrayList<Deflater>();
+		private static ArrayList<Inflater> inflaterPool = new ArrayList<Inflater>();
+		
+		private static Deflater getDeflater() {
+			synchronized(deflaterPool) {
+				int size = deflaterPool.size();
+				if (size > 0) {
+					return deflaterPool.remove(size - 1);
+				}
+			}
+			
+			return new Deflater(Deflater.BEST_COMPRESSION, true);
+		}
+		
+		private static void releaseDeflater(Deflater deflater) {
+			deflater.reset();
+			synchronized(deflaterPool) {
+				if (deflaterPool.size() < MAX_POOL_SIZE) {
+					deflaterPool.add(deflater);
+					return;
+				}
+			}
+			
+			deflater.end();
+		}
+		
+		private static Inflater getInflater() {
+			synchronized(inflaterPool) {
+				int size = inflaterPool.size();
+				if (size > 0) {
+					return inflaterPool.remove(size - 1);
+				}
+			}
+			
+			return new Inflater(true);
+		}
+		
+		private static void releaseInflater(Inflater inflater) {
+			inflater.reset();
+			synchronized(inflaterPool) {
+				if (inflaterPool.size() < MAX_POOL_SIZE) {
+					inflaterPool.add(inflater);
+					return;
+				}
+			}
+			
+			inflater.end();
+		}
+		
+		public boolean isLZ4Format() {
+			return false;
+		}
+		
+		public byte[] compress(byte []bytes) {
+			Deflater deflater = getDeflater();
+			try {
+				deflater.setInput(bytes);
+				deflater.finish();
+				
+				byte []buffer = new byte[bytes.length + (bytes.length >> 3) + 64];
+				int count = 0;
+				while (!deflater.finished()) {
+					if (count == buffer.length) {
+						byte []tmp = new byte[buffer.length * 2];
+						System.arraycopy(buffer, 0, tmp, 0, count);
+						buffer = tmp;
+					}
+					
+					count += deflater.deflate(buffer, count, buffer.length - count);
+				}
+				
+				this.count = count;
+				return buffer;
+			} finally {
+				releaseDeflater(deflater);
+			}
+		}
+		
+		public void decompress(byte []bytes, byte []buffer, int srcCount) {
+			Inflater inflater = getInflater();
+			inflater.setInput(bytes);
+			
+			try {
+				int count = 0;
+				while (count < srcCount) {
+					int n = inflater.inflate(buffer, count, srcCount - count);
+					if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+						break;
+					}
+					
+					count += n;
+				}
+				
+				// 鱻ضʱѹĳȲܰѻһĲݵɽ
+				if (count != srcCount) {
+					MessageManager mm = EngineMessage.get();
+					throw new RQException(mm.getMessage("license.fileFormatError"));
+				}
+			} catch (DataFormatException e) {
+				throw new RQException(e.getMessage(), e);
+			} finally {
+				releaseInflater(inflater);
+			}
+		}
+	}
+}
@@ -3,9 +3,13 @@ package com.scudata.dw;
 import java.io.IOException;
 import java.io.InputStream;
 
+import com.scudata.dm.Profiler;
 import com.scudata.dm.Sequence;
 
 public class BlockLinkReader extends InputStream {
+	// нѹĽڵ
+	private static final String PROFILE_DECOMPRESS = "decompress";
+	
 	private BlockLink blockLink;
 	private IBlockStorage storage;
 	
@@ -17,7 +21,6 @@ public class BlockLinkReader extends InputStream {
 	private int caret; // blockеλ
 	
 	private byte[] readBuffer = new byte[32];
-	private LZ4Util lz4 = LZ4Util.instance();
 	private byte []decompressBuffer;
 	
 	private boolean isPureStorage;//°汾Ĵд洢ʽ
@@ -121,16 +124,28 @@ public class BlockLinkReader extends InputStream {
 		int srcCount = readInt32();
 		if (storage.isCompress()) {
 			int count = readInt32();
-			if (count > 0) {
-				byte []buffer = new byte[count];
+			if (count != 0) {
+				// Ϊʱѹ㷨ţLZ4ʽ
+				int codec = BlockCodec.LZ4;
+				if (count < 0) {
+					codec = read();
+					count = -count;
+				}
 				
+				byte []buffer = new byte[count];
 				readFully(buffer, 0, count);
 	
 				if (srcCount > decompressBuffer.length) {
 					decompressBuffer = new byte[srcCount];
 				}
 				
-				lz4.decompress(buffer, decompressBuffer, srcCount);
+				Profiler.Frame frame = Profiler.enterCurrent(PROFILE_DECOMPRESS);
+				try {
+					BlockCodec.instance(codec).decompress(buffer, decompressBuffer, srcCount);
+				} finally {
+					Profiler.exit(frame, 0, 0);
+				}
+				
 				return decompressBuffer;
 			} else {
 				byte []buffer = new byte[srcCount];
@@ -13,7 +13,6 @@ public class BlockLinkWriter extends OutputStream {
 	private byte []block; // 
 	private int caret; // ڿеλ
 	
-	private LZ4Util lz4 = LZ4Util.instance();
 	
 	public BlockLinkWriter(BlockLink blockLink, boolean isAppend) throws IOException {
 		this.blockLink = blockLink;
@@ -88,13 +87,21 @@ public class BlockLinkWriter extends OutputStream {
 	public long writeDataBlock(byte[] bytes) throws IOException {
 		int srcCount = bytes.length;
 		if (storage.isCompress()) {
-			byte []buffer = lz4.compress(bytes);
-			int count = lz4.getCount();
+			BlockCodec codec = BlockCodec.instance(storage.getCompressCodec());
+			byte []buffer = codec.compress(bytes);
+			int count = codec.getCount();
 			long pos = blockLink.lastBlockPos + caret;
 			
 			if (((double)count / srcCount) < CompressThreshold) {
 				writeInt32(srcCount);
-				writeInt32(count);
+				if (codec.isLZ4Format()) {
+					writeInt32(count);
+				} else {
+					// LZ4ʽĿ鳤дΪ㷨
+					writeInt32(-count);
+					write(storage.getCompressCodec());
+				}
+				
 				write(buffer, 0, count);
 			} else {
 				writeInt32(srcCount);
@@ -113,12 +120,17 @@ public class BlockLinkWriter extends OutputStream {
 	public long copyDataBlock(BlockLinkReader colReader) throws IOException {
 		int srcCount = colReader.readInt32();
 		int count = colReader.readInt32();
-		byte []buffer = new byte[count];
-		colReader.readFully(buffer, 0, count);
-		
 		long pos = blockLink.lastBlockPos + caret;
 		writeInt32(srcCount);
 		writeInt32(count);
+		
+		if (count < 0) {
+			write(colReader.read());
+			count = -count;
+		}
+		
+		byte []buffer = new byte[count];
+		colReader.readFully(buffer, 0, count);
 		write(buffer, 0, count);
 		return pos;
 	}
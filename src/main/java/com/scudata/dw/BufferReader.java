@@ -1223,4 +1223,27 @@ public class BufferReader {
 	public IArray getEmptyArray(int count) {
 		return new ObjectArray(count);
 	}
+	
+	/**
+	 * ȡcount׷ӵarray棬arrayɶֵʱObjectArray
+	 * @param array 
+	 * @param count 
+	 * @return ׷Ӻ飬ܲǴ
+	 * @throws IOException
+	 */
+	public IArray readArray(IArray array, int count) throws IOException {
+		if (!(array instanceof ObjectArray)) {
+			ObjectArray objectArray = new ObjectArray(array.size() + count);
+			objectArray.addAll(array);
+			array = objectArray;
+		} else {
+			array.ensureCapacity(array.size() + count);
+		}
+		
+		for (int i = 0; i < count; ++i) {
+			array.push(readObject());
+		}
+		
+		return array;
+	}
 }
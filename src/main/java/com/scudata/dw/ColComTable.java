@@ -19,6 +19,8 @@ import com.scudata.resources.EngineMessage;
  *
  */
 public class ColComTable extends ComTable {
+	private static final int VERSION = 5; // ܶļ汾
+	
 	/**
 	 * Ѿڵ
 	 * @param file
@@ -66,7 +68,7 @@ public class ColComTable extends ComTable {
 	 * @param file ļ
 	 * @param colNames 
 	 * @param distribute ֲʽ
-	 * @param opt uѹݣpһֶηֶ
+	 * @param opt uѹݣpһֶηֶΣhDeflateѹlLZ4HCѹ
 	 * @param ctx 
 	 * @throws IOException
 	 */
@@ -79,7 +81,7 @@ public class ColComTable extends ComTable {
 	 * @param file ļ
 	 * @param colNames 
 	 * @param distribute ֲʽ
-	 * @param opt uѹݣpһֶηֶ
+	 * @param opt uѹݣpһֶηֶΣhDeflateѹlLZ4HCѹ
 	 * @param blockSize С
 	 * @param ctx 
 	 * @throws IOException
@@ -104,6 +106,17 @@ public class ColComTable extends ComTable {
 		if (opt != null && opt.indexOf('u') != -1) {
 			setCompress(false);
 		}
+		// ѹ㷨
+		int codec = BlockCodec.getCodec(opt);
+		if (codec != -1) {
+			setCompressCodec(codec);
+		}
+		
+		// Ƿʹòֵλѹγ̱
+		if (opt != null && opt.indexOf('e') != -1) {
+			setIntegerEncoding(true);
+		}
+		
 		// Ƿʹ
 		if (opt != null && opt.indexOf('v') != -1) {
 			setCheckDataPure(true);
@@ -215,6 +228,7 @@ public class ColComTable extends ComTable {
 			headerBlockLink.readExternal(reader);
 			
 			reader.read(reserve); // λ
+			checkVersion();
 			freePos = reader.readLong40();
 			fileSize = reader.readLong40();
 			
@@ -289,6 +303,7 @@ public class ColComTable extends ComTable {
 			headerBlockLink.readExternal(reader);
 			
 			reader.read(reserve); // λ
+			checkVersion();
 			freePos = reader.readLong40();
 			fileSize = reader.readLong40();
 			
@@ -347,7 +362,13 @@ public class ColComTable extends ComTable {
 			writer.writeInt32(blockSize);
 			headerBlockLink.writeExternal(writer);
 			
-			reserve[0] = 4; // 1룬2ӷֲ3Ԥ飬4ʽ洢ֵͣȣ
+			// 1룬2ӷֲ3Ԥ飬4ʽ洢ֵͣȣ5롢LZ4ʽѹ㷨
+			// ֻ˵Ͱ汾治ܶĸʽʱдɰ汾5
+			if (isIntegerEncoding() || !BlockCodec.isLZ4Codec(getCompressCodec())) {
+				reserve[0] = 5;
+			} else {
+				reserve[0] = 4;
+			}
 			writer.write(reserve); // λ
 			
 			writer.writeLong40(freePos);
@@ -435,4 +456,12 @@ public class ColComTable extends ComTable {
 	public boolean isPureFormat() {
 		return reserve[0] > 3;
 	}
+	
+	// ļ汾ܶ߰汾дļ
+	private void checkVersion() {
+		if (reserve[0] > VERSION) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(mm.getMessage("dw.newVersion"));
+		}
+	}
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 
 import com.scudata.array.IArray;
 import com.scudata.array.LongArray;
@@ -54,6 +55,7 @@ public class ColPhyTable extends PhyTable {
 	private transient String []allKeyColNames; // ֶ飨
 	
 	private transient ColumnMetaData guideColumn;//
+	private transient HashMap<ColumnMetaData, Object[]> maxMinValues; // еСֵܣļķü
 	protected int sortedColStartIndex;//ֶθ
 	
 	private static final String GUIDE_COLNAME = "_guidecol";
@@ -859,7 +861,7 @@ public class ColPhyTable extends PhyTable {
 				bufferWriters[i] = columns[i].getColDataBufferWriter();
 				Sequence dict = columns[i].getDict();
 				jobs[i] = new DataBlockWriterJob(bufferWriters[i], data, dict, i, 1, end, 
-						maxValues, minValues, startValues, dataTypeInfo);
+						maxValues, minValues, startValues, dataTypeInfo, groupTable.isIntegerEncoding());
 				pool.submit(jobs[i]);
 			}
 			
@@ -1036,7 +1038,7 @@ public class ColPhyTable extends PhyTable {
 				bufferWriters[i] = columns[i].getColDataBufferWriter();
 				Sequence dict = columns[i].getDict();
 				jobs[i] = new DataBlockWriterJob(bufferWriters[i], data, dict, i, start, end, 
-						maxValues, minValues, startValues, dataTypeInfo);
+						maxValues, minValues, startValues, dataTypeInfo, groupTable.isIntegerEncoding());
 				pool.submit(jobs[i]);
 			}
 			
@@ -1684,6 +1686,11 @@ public class ColPhyTable extends PhyTable {
 		
 		// дݣ浽ļ
 		finishAppend();
+		
+		// ׷ӵܵ
+		if (parent == null) {
+			updateCuboids();
+		}
 	}
 	
 	protected void appendSegmentBlock(int recordCount) throws IOException {
@@ -1841,6 +1848,123 @@ public class ColPhyTable extends PhyTable {
 		}
 	}
 	
+	/**
+	 * п¼СֵжϹǷļ¼ļķü
+	 * вʱݲпСֵʱtrue
+	 * @param filter 
+	 * @param ctx 
+	 * @return false϶ûļ¼true
+	 */
+	public boolean canMatch(Expression filter, Context ctx) {
+		try {
+			appendCache();
+		} catch (IOException e) {
+			throw new RQException(e);
+		}
+		
+		if (filter == null || getModifyRecords() != null) {
+			return true;
+		}
+		
+		IFilter []filters = getSortedFieldFilters(filter, ctx);
+		if (filters == null) {
+			return true;
+		}
+		
+		for (IFilter f : filters) {
+			Object []values = getMinMaxValues(f.getColumn());
+			if (values == null) {
+				// û
+				return false;
+			} else if (!f.match(values[0], values[1])) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * п¼СֵжָǷֵָļ鰴ʱķü
+	 * @param colName 
+	 * @param value ֵ
+	 * @return false϶ûУtrue
+	 */
+	public boolean canMatch(String colName, Object value) {
+		try {
+			appendCache();
+		} catch (IOException e) {
+			throw new RQException(e);
+		}
+		
+		ColumnMetaData column = getColumn(colName);
+		if (column == null || !column.hasMaxMinValues() || getModifyRecords() != null) {
+			return true;
+		}
+		
+		Object []values = getMinMaxValues(column);
+		return values != null && Variant.compare(value, values[0], true) >= 0 && 
+				Variant.compare(value, values[1], true) <= 0;
+	}
+	
+	/**
+	 * ȡеСֵֵɸпСֵܵõп
+	 * @param column УҪСֵ
+	 * @return Object[] {Сֵ, ֵ, п}ûʱؿ
+	 */
+	private synchronized Object[] getMinMaxValues(ColumnMetaData column) {
+		int blockCount = getDataBlockCount();
+		if (blockCount == 0) {
+			return null;
+		}
+		
+		if (maxMinValues == null) {
+			maxMinValues = new HashMap<ColumnMetaData, Object[]>();
+		} else {
+			Object []values = maxMinValues.get(column);
+			if (values != null && ((Integer)values[2]).intValue() == blockCount) {
+				return values;
+			}
+		}
+		
+		ObjectReader segmentReader = column.getSegmentReader();
+		Object minValue = null;
+		Object maxValue = null;
+		
+		try {
+			for (int b = 0; b < blockCount; ++b) {
+				segmentReader.readLong40();
+				Object curMin = segmentReader.readObject();
+				Object curMax = segmentReader.readObject();
+				segmentReader.skipObject();
+				
+				if (b == 0) {
+					minValue = curMin;
+					maxValue = curMax;
+				} else {
+					if (Variant.compare(curMin, minValue, true) < 0) {
+						minValue = curMin;
+					}
+					
+					if (Variant.compare(curMax, maxValue, true) > 0) {
+						maxValue = curMax;
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new RQException(e.getMessage(), e);
+		} finally {
+			try {
+				segmentReader.close();
+			} catch (IOException e) {
+			}
+		}
+		
+		Object []values = new Object[] {minValue, maxValue, blockCount};
+		maxMinValues.put(column, values);
+		return values;
+	}
+	
 	/**
 	 * Ķ·α
 	 * @param exps ȡֶαʽexpsΪnullʱfieldsȡ
@@ -3591,7 +3715,7 @@ public class ColPhyTable extends PhyTable {
 				bufferWriters[i] = columns[i].getColDataBufferWriter();
 				Sequence dict = columns[i].getDict();
 				DataBlockWriterJob.writeDataBlock(bufferWriters[i], data, dict, i, 1, end, 
-						maxValues, minValues, startValues, dataTypeInfo);
+						maxValues, minValues, startValues, dataTypeInfo, groupTable.isIntegerEncoding());
 				
 				//ͳ
 				boolean doCheck = groupTable.isCheckDataPure();
@@ -4512,7 +4636,7 @@ public class ColPhyTable extends PhyTable {
 	/**
 	 * еСֵ
 	 * @param key
-	 * @return
+	 * @return Object[] {ֵ, Сֵ}
 	 * @throws IOException
 	 */
 	public Object[] getMaxMinValue(String key) throws IOException {
@@ -4531,28 +4655,12 @@ public class ColPhyTable extends PhyTable {
 			return ((BaseRecord)seq.get(1)).getFieldValues();
 		}
 		
-		ObjectReader segmentReader = column.getSegmentReader();
-		
-		int blockCount = getDataBlockCount();
-		Object max, min, obj;
-		segmentReader.readLong40();
-		min = segmentReader.readObject();
-		max = segmentReader.readObject();
-		segmentReader.skipObject();
-		
-		for (int i = 1; i < blockCount; ++i) {
-			segmentReader.readLong40();
-			obj = segmentReader.readObject();
-			if (Variant.compare(obj, min) < 0) {
-				min = obj;
-			}
-			obj = segmentReader.readObject();
-			if (Variant.compare(obj, max) > 0) {
-				max = obj;
-			}
-			segmentReader.skipObject();
+		Object []values = getMinMaxValues(column);
+		if (values == null) {
+			return null;
+		} else {
+			return new Object[] {values[1], values[0]};
 		}
-		return new Object[] {max, min};
 	}
 	
 	/**
@@ -4887,6 +4995,11 @@ public class ColPhyTable extends PhyTable {
 		appendCache = null;
 		// дݣ浽ļ
 		finishAppend();
+		
+		// ׷ӵܵ
+		if (parent == null) {
+			updateCuboids();
+		}
 	}
 	
 	/**
@@ -5288,7 +5401,8 @@ public class ColPhyTable extends PhyTable {
 				BufferWriter bufferWriter = col.getColDataBufferWriter();
 				Sequence dict = col.getDict();
 				int len = data.length();
-				DataBlockWriterJob.writeDataBlock(bufferWriter, data, dict, 0, 1, len, maxValues, minValues, startValues, dataTypeInfo);
+				DataBlockWriterJob.writeDataBlock(bufferWriter, data, dict, 0, 1, len, maxValues, minValues, startValues, 
+						dataTypeInfo, groupTable.isIntegerEncoding());
 				
 				//ͳ
 				boolean doCheck = groupTable.isCheckDataPure();
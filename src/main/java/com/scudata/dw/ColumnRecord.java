@@ -0,0 +1,353 @@
+package com.scudata.dw;
+
+import java.io.IOException;
+
+import com.scudata.array.IArray;
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.DataStruct;
+import com.scudata.dm.Record;
+import com.scudata.dm.Sequence;
+import com.scudata.resources.EngineMessage;
+import com.scudata.util.Variant;
+
+/**
+ * дڱļ¼ֻ¼ڵкţֵֶдд洢
+ * ڱıṹʱ¼д洢֮ͨ¼
+ * @author RunQian
+ *
+ */
+public class ColumnRecord extends Record {
+	private static final long serialVersionUID = 0x03310005;
+	
+	private ColumnStore store; // д洢Ϊձʾд洢
+	private int row; // д洢ек
+	
+	/**
+	 * д¼
+	 * @param ds ݽṹ
+	 * @param store д洢
+	 * @param row кţ1ʼ
+	 */
+	ColumnRecord(DataStruct ds, ColumnStore store, int row) {
+		this.ds = ds;
+		this.store = store;
+		this.row = row;
+	}
+	
+	/**
+	 * ֵֶȡд洢
+	 */
+	void detach() {
+		if (store != null) {
+			values = store.getValues(row);
+			store = null;
+		}
+	}
+	
+	// лͨ¼
+	private Object writeReplace() {
+		return new Record(ds, getFieldValues());
+	}
+	
+	public byte[] serialize() throws IOException {
+		if (store == null) {
+			return super.serialize();
+		} else {
+			return new Record(ds, getFieldValues()).serialize();
+		}
+	}
+	
+	public int getFieldCount() {
+		if (store == null) {
+			return super.getFieldCount();
+		} else {
+			return store.getFieldCount();
+		}
+	}
+	
+	/**
+	 * ֶεֵδд洢ʱصֵĸ
+	 * @return Object[]
+	 */
+	public Object []getFieldValues() {
+		if (store == null) {
+			return super.getFieldValues();
+		} else {
+			return store.getValues(row);
+		}
+	}
+	
+	public Object getFieldValue(int index) {
+		ColumnStore store = this.store;
+		if (store == null) {
+			return super.getFieldValue(index);
+		}
+		
+		int fcount = store.getFieldCount();
+		if (index < 0) {
+			int i = index + fcount;
+			if (i < 0) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException(index + mm.getMessage("ds.fieldNotExist"));
+			}
+			
+			return store.get(row, i);
+		} else if (index < fcount) {
+			return store.get(row, index);
+		} else {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(index + 1 + mm.getMessage("ds.fieldNotExist"));
+		}
+	}
+	
+	public Object getFieldValue2(int index) {
+		ColumnStore store = this.store;
+		if (store == null) {
+			return super.getFieldValue2(index);
+		}
+		
+		int fcount = store.getFieldCount();
+		if (index < 0) {
+			int i = index + fcount;
+			return i >= 0 ? store.get(row, i) : null;
+		} else if (index < fcount) {
+			return store.get(row, index);
+		} else {
+			return null;
+		}
+	}
+	
+	public Object getNormalFieldValue(int index) {
+		if (store == null) {
+			return super.getNormalFieldValue(index);
+		} else {
+			return store.get(row, index);
+		}
+	}
+	
+	public void getNormalFieldValue(int index, IArray out) {
+		if (store == null) {
+			super.getNormalFieldValue(index, out);
+		} else {
+			out.push(store.get(row, index));
+		}
+	}
+	
+	public void setNormalFieldValue(int index, Object val) {
+		if (store == null) {
+			super.setNormalFieldValue(index, val);
+		} else {
+			store.set(row, index, val);
+		}
+	}
+	
+	public Object getFieldValue(String name) {
+		if (store == null) {
+			return super.getFieldValue(name);
+		}
+		
+		int index = dataStruct().getFieldIndex(name);
+		if (index != -1) {
+			return store.get(row, index);
+		} else {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(name + mm.getMessage("ds.fieldNotExist"));
+		}
+	}
+	
+	public void set(int index, Object val) {
+		ColumnStore store = this.store;
+		if (store == null) {
+			super.set(index, val);
+			return;
+		}
+		
+		int fcount = store.getFieldCount();
+		if (index < 0) {
+			int i = index + fcount;
+			if (i < 0) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException(index + mm.getMessage("ds.fieldNotExist"));
+			}
+			
+			store.set(row, i, val);
+		} else if (index < fcount) {
+			store.set(row, index, val);
+		} else {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(index + 1 + mm.getMessage("ds.fieldNotExist"));
+		}
+	}
+	
+	public void set2(int index, Object val) {
+		ColumnStore store = this.store;
+		if (store == null) {
+			super.set2(index, val);
+			return;
+		}
+		
+		int fcount = store.getFieldCount();
+		if (index < 0) {
+			int i = index + fcount;
+			if (i >= 0) {
+				store.set(row, i, val);
+			}
+		} else if (index < fcount) {
+			store.set(row, index, val);
+		}
+	}
+	
+	public int compare(BaseRecord r) {
+		if (store == null) {
+			return super.compare(r);
+		} else if (r == this) {
+			return 0;
+		} else if (r == null) {
+			return 1;
+		}
+		
+		int len1 = store.getFieldCount();
+		int len2 = r.getFieldCount();
+		int minLen = len1 > len2 ? len2 : len1;
+		
+		for (int i = 0; i < minLen; ++i) {
+			int result = Variant.compare(store.get(row, i), r.getNormalFieldValue(i), true);
+			if (result != 0) {
+				return result;
+			}
+		}
+		
+		return len1 == len2 ? 0 : (len1 > len2 ? 1 : -1);
+	}
+	
+	public boolean isEquals(BaseRecord r) {
+		if (store == null) {
+			return super.isEquals(r);
+		} else if (r == null) {
+			return false;
+		} else if (r == this) {
+			return true;
+		}
+		
+		int count = store.getFieldCount();
+		if (r.getFieldCount() != count) {
+			return false;
+		}
+		
+		for (int i = 0; i < count; ++i) {
+			if (!Variant.isEquals(store.get(row, i), r.getNormalFieldValue(i))) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	public boolean isEquals(BaseRecord r, int []index) {
+		if (store == null) {
+			return super.isEquals(r, index);
+		}
+		
+		for (int i = 0; i < index.length; ++i) {
+			if (!Variant.isEquals(store.get(row, index[i]), r.getNormalFieldValue(index[i]))) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	public String toString(String opt) {
+		if (store == null) {
+			return super.toString(opt);
+		} else {
+			return new Record(ds, getFieldValues()).toString(opt);
+		}
+	}
+	
+	public void set(BaseRecord r) {
+		setStart(0, r.getFieldValues());
+	}
+	
+	public void setStart(int index, BaseRecord r) {
+		setStart(index, r.getFieldValues());
+	}
+	
+	public void setStart(int index, Object []objs) {
+		setStart(index, objs, objs.length);
+	}
+	
+	public void setStart(int index, Object []objs, int len) {
+		if (store == null) {
+			super.setStart(index, objs, len);
+		} else {
+			for (int i = 0; i < len; ++i) {
+				store.set(row, index + i, objs[i]);
+			}
+		}
+	}
+	
+	public Object value() {
+		if (store == null) {
+			return super.value();
+		} else {
+			return new Record(ds, getFieldValues()).value();
+		}
+	}
+	
+	public void paste(BaseRecord sr, boolean isName) {
+		if (store == null) {
+			super.paste(sr, isName);
+			return;
+		} else if (sr == null) {
+			return;
+		}
+		
+		Object[] vals = sr.getFieldValues();
+		if (isName) {
+			DataStruct ds = dataStruct();
+			String []srcNames = sr.dataStruct().getFieldNames();
+			for (int i = 0, count = srcNames.length; i < count; ++i) {
+				int index = ds.getFieldIndex(srcNames[i]);
+				if (index >= 0) {
+					store.set(row, index, vals[i]);
+				}
+			}
+		} else {
+			int fcount = store.getFieldCount();
+			setStart(0, vals, fcount > vals.length ? vals.length : fcount);
+		}
+	}
+	
+	public void paste(Sequence series) {
+		if (series != null) {
+			paste(series, 1);
+		}
+	}
+	
+	public void paste(Sequence series, int start) {
+		if (store == null) {
+			super.paste(series, start);
+			return;
+		}
+		
+		int fcount = series.length() - start + 1;
+		if (fcount > store.getFieldCount()) {
+			fcount = store.getFieldCount();
+		}
+		
+		for (int f = 0; f < fcount; ++f) {
+			store.set(row, f, series.get(f + start));
+		}
+	}
+	
+	public boolean checkReference() {
+		if (store == null) {
+			return super.checkReference();
+		} else {
+			return new Record(ds, getFieldValues()).checkReference();
+		}
+	}
+}
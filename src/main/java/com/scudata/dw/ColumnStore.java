@@ -0,0 +1,283 @@
+package com.scudata.dw;
+
+import java.util.Date;
+
+import com.scudata.array.BoolArray;
+import com.scudata.array.DateArray;
+import com.scudata.array.DoubleArray;
+import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
+import com.scudata.array.LongArray;
+import com.scudata.array.ObjectArray;
+import com.scudata.array.StringArray;
+
+/**
+ * д洢ڱݣÿֶεֵһͷ
+ * Ͳֵû洢Ϊÿֵɶ
+ * ֵֶͲһʱиΪ飬кŴ1ʼɾ¼ʱ
+ * ʹöڴʱֵдֱڴҪcloseͷ
+ * @author RunQian
+ *
+ */
+class ColumnStore {
+	private IArray []columns; // ֶεֵΪձʾеֵĿǰΪ
+	private DirectColumn []directColumns; // ڶڴУʹöڴʱΪ
+	private int size; // ѷ
+	
+	/**
+	 * д洢
+	 * @param fcount ֶ
+	 */
+	public ColumnStore(int fcount) {
+		columns = new IArray[fcount];
+	}
+	
+	/**
+	 * д洢
+	 * @param fcount ֶ
+	 * @param isDirect ֵǷڶڴ
+	 */
+	public ColumnStore(int fcount, boolean isDirect) {
+		columns = new IArray[fcount];
+		if (isDirect) {
+			directColumns = new DirectColumn[fcount];
+		}
+	}
+	
+	/**
+	 * Ƿʹöڴ
+	 * @return boolean
+	 */
+	public boolean isDirect() {
+		return directColumns != null;
+	}
+	
+	/**
+	 * ȡֶ
+	 * @return int
+	 */
+	public int getFieldCount() {
+		return columns.length;
+	}
+	
+	/**
+	 * ׷һ
+	 * @param values ֵֶȿСֶ
+	 * @return int ек
+	 */
+	public int addRow(Object []values) {
+		IArray []columns = this.columns;
+		DirectColumn []directColumns = this.directColumns;
+		int row = ++size;
+		int count = values.length < columns.length ? values.length : columns.length;
+		
+		for (int f = 0; f < count; ++f) {
+			Object val = values[f];
+			if (directColumns != null && directColumns[f] != null) {
+				if (directColumns[f].isMatch(val)) {
+					directColumns[f].add(val);
+					continue;
+				}
+				
+				toHeap(f);
+			}
+			
+			IArray column = columns[f];
+			if (column == null) {
+				if (val != null) {
+					newColumn(f, val, row - 1);
+					add(f, val);
+				}
+			} else if (isMatch(column, val)) {
+				column.add(val);
+			} else {
+				column = column.toObjectArray();
+				columns[f] = column;
+				column.add(val);
+			}
+		}
+		
+		for (int f = count, fcount = columns.length; f < fcount; ++f) {
+			if (columns[f] != null) {
+				columns[f].add(null);
+			} else if (directColumns != null && directColumns[f] != null) {
+				directColumns[f].add(null);
+			}
+		}
+		
+		return row;
+	}
+	
+	/**
+	 * ȡֵֶ
+	 * @param row кţ1ʼ
+	 * @param field ֶţ0ʼ
+	 * @return Object
+	 */
+	public Object get(int row, int field) {
+		IArray column = columns[field];
+		if (column != null) {
+			return column.get(row);
+		} else if (directColumns != null && directColumns[field] != null) {
+			return directColumns[field].get(row);
+		} else {
+			return null;
+		}
+	}
+	
+	/**
+	 * ֵֵֶͺеͲͬʱиΪ
+	 * @param row кţ1ʼ
+	 * @param field ֶţ0ʼ
+	 * @param val ֵֶ
+	 */
+	public void set(int row, int field, Object val) {
+		if (directColumns != null && directColumns[field] != null) {
+			if (directColumns[field].isMatch(val)) {
+				directColumns[field].set(row, val);
+				return;
+			}
+			
+			toHeap(field);
+		}
+		
+		IArray column = columns[field];
+		if (column == null) {
+			if (val == null) {
+				return;
+			}
+			
+			newColumn(field, val, size);
+			column = columns[field];
+			if (column == null) {
+				directColumns[field].set(row, val);
+				return;
+			}
+		} else if (!isMatch(column, val)) {
+			column = column.toObjectArray();
+			columns[field] = column;
+		}
+		
+		column.set(row, val);
+	}
+	
+	/**
+	 * ȡһеֵֶ
+	 * @param row кţ1ʼ
+	 * @return Object[]
+	 */
+	public Object[] getValues(int row) {
+		int fcount = columns.length;
+		Object []values = new Object[fcount];
+		for (int f = 0; f < fcount; ++f) {
+			values[f] = get(row, f);
+		}
+		
+		return values;
+	}
+	
+	/**
+	 * ͷŸжĿռ
+	 */
+	public void trimToSize() {
+		for (IArray column : columns) {
+			if (column != null) {
+				column.trimToSize();
+			}
+		}
+	}
+	
+	/**
+	 * ͷŶڴ棬֮ٷ
+	 */
+	public void close() {
+		DirectColumn []directColumns = this.directColumns;
+		if (directColumns != null) {
+			for (DirectColumn column : directColumns) {
+				if (column != null) {
+					column.close();
+				}
+			}
+		}
+	}
+	
+	// ͲһµֵΪڵĶ
+	private void toHeap(int field) {
+		DirectColumn column = directColumns[field];
+		columns[field] = column.toObjectArray();
+		directColumns[field] = null;
+		column.close();
+	}
+	
+	private void add(int field, Object val) {
+		if (columns[field] != null) {
+			columns[field].add(val);
+		} else {
+			directColumns[field].add(val);
+		}
+	}
+	
+	/**
+	 * ׸ǿֵͲУǰΪ
+	 * @param field ֶ
+	 * @param val ׸ǿֵ
+	 * @param count ҪΪյ
+	 */
+	private void newColumn(int field, Object val, int count) {
+		if (directColumns != null) {
+			DirectColumn column = DirectColumn.newInstance(val);
+			if (column != null) {
+				for (int i = 0; i < count; ++i) {
+					column.add(null);
+				}
+				
+				directColumns[field] = column;
+				return;
+			}
+		}
+		
+		int capacity = count > 8 ? count : 8;
+		IArray column;
+		if (val instanceof Integer) {
+			column = new IntArray(capacity);
+		} else if (val instanceof Long) {
+			column = new LongArray(capacity);
+		} else if (val instanceof Double) {
+			column = new DoubleArray(capacity);
+		} else if (val instanceof String) {
+			column = new StringArray(capacity);
+		} else if (val instanceof Date) {
+			column = new DateArray(capacity);
+		} else if (val instanceof Boolean) {
+			column = new BoolArray(capacity);
+		} else {
+			column = new ObjectArray(capacity);
+		}
+		
+		for (int i = 0; i < count; ++i) {
+			column.add(null);
+		}
+		
+		columns[field] = column;
+	}
+	
+	private static boolean isMatch(IArray column, Object val) {
+		if (val == null || column instanceof ObjectArray) {
+			return true;
+		} else if (column instanceof IntArray) {
+			return val instanceof Integer;
+		} else if (column instanceof LongArray) {
+			return val instanceof Long;
+		} else if (column instanceof DoubleArray) {
+			return val instanceof Double;
+		} else if (column instanceof StringArray) {
+			return val instanceof String;
+		} else if (column instanceof DateArray) {
+			return val instanceof Date;
+		} else if (column instanceof BoolArray) {
+			return val instanceof Boolean;
+		} else {
+			return false;
+		}
+	}
+}
@@ -17,6 +17,7 @@ import com.scudata.dm.FileObject;
 import com.scudata.dm.IFile;
 import com.scudata.dm.LocalFile;
 import com.scudata.dm.LongArray;
+import com.scudata.dm.Profiler;
 import com.scudata.dm.cursor.ICursor;
 import com.scudata.resources.EngineMessage;
 import com.scudata.util.FileSyncManager;
@@ -35,6 +36,7 @@ abstract public class ComTable implements IBlockStorage {
 	// ļ׺_SFΪ.ext
 	public static final String SF_SUFFIX = ".ext"; //ļ׺
 	protected static int MIN_BLOCK_SIZE = 1024 * 4;
+	private static final String PROFILE_READ = "read"; // жĽڵ
 	
 	protected File file;
 	protected RandomAccessFile raf;
@@ -327,8 +329,14 @@ abstract public class ComTable implements IBlockStorage {
 	 * ȡһ
 	 */
 	public synchronized void loadBlock(long pos, byte []block) throws IOException {
-		raf.seek(pos);
-		raf.readFully(block);
+		Profiler.Frame frame = Profiler.enterCurrent(PROFILE_READ);
+		try {
+			raf.seek(pos);
+			raf.readFully(block);
+			Profiler.addBytesRead(block.length);
+		} finally {
+			Profiler.exit(frame, 0, 0);
+		}
 	}
 
 	public void saveBlock(long pos, byte []block) throws IOException {
@@ -585,6 +593,10 @@ abstract public class ComTable implements IBlockStorage {
 				} else {
 					newGroupTable.setCompress(isCompress());
 				}
+				
+				int codec = BlockCodec.getCodec(opt);
+				newGroupTable.setCompressCodec(codec == -1 ? getCompressCodec() : codec);
+				newGroupTable.setIntegerEncoding(isIntegerEncoding() || (opt != null && opt.indexOf('e') != -1));
 			} else {
 				newGroupTable = new RowComTable(newFile, colNames, distribute, newOpt, blockSize, ctx);
 			}
@@ -887,6 +899,13 @@ abstract public class ComTable implements IBlockStorage {
 		if (uncompress) {
 			newOpt += 'u';
 		}
+		
+		int codec = BlockCodec.getCodec(opt);
+		newOpt += BlockCodec.getOption(codec == -1 ? getCompressCodec() : codec);
+		if (isIntegerEncoding() || (opt != null && opt.indexOf('e') != -1)) {
+			newOpt += 'e';
+		}
+
 		try {
 			//д
 			PhyTableGroup newTableGroup = fileGroup.create(colNames, distribute, newOpt, blockSize, ctx);
@@ -1209,6 +1228,26 @@ abstract public class ComTable implements IBlockStorage {
 		}
 	}
 	
+	// дݿʱõѹ㷨ɰ汾ļֽΪ0LZ4
+	public int getCompressCodec() {
+		return reserve[3];
+	}
+	
+	// дݿʱõѹ㷨дĿ鲻Ӱ
+	public void setCompressCodec(int codec) {
+		reserve[3] = (byte)codec;
+	}
+	
+	// Ƿòֵλѹγ̱룬ɰ汾ļֽΪ0
+	public boolean isIntegerEncoding() {
+		return reserve[4] == 1;
+	}
+	
+	// Ƿòֵλѹγ̱룬úͰ汾治ܶļ
+	public void setIntegerEncoding(boolean isIntegerEncoding) {
+		reserve[4] = (byte)(isIntegerEncoding ? 1 : 0);
+	}
+	
 	// Ƿݴ
 	public boolean isCheckDataPure() {
 		return reserve[2] == 1;
@@ -7,6 +7,7 @@ import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 
 import com.scudata.common.DateFactory;
@@ -64,6 +65,24 @@ public class Cuboid extends RowComTable {
 
 	protected CuboidTable baseTable;
 	
+	// Ŀ¼棬Ϊļľ·ļ޸ʱС˾¶
+	private static HashMap<String, CuboidInfo> catalog = new HashMap<String, CuboidInfo>();
+	
+	// Ԫݣƥʱôļ
+	private static class CuboidInfo {
+		private long lastModified; // ļ޸ʱ
+		private long length; // ļС
+		private String []fields; // ֶΣǰάֶ
+		private int kcount; // άֶ
+		
+		public CuboidInfo(long lastModified, long length, String []fields, int kcount) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.fields = fields;
+			this.kcount = kcount;
+		}
+	}
+	
 	/**
 	 * ,鱸ݱ־
 	 * @param file ļ
@@ -241,10 +260,71 @@ public class Cuboid extends RowComTable {
 			raf.getChannel().force(true);
 			commitTransaction(0);
 		}
+		
+		invalidateCatalog(file);
 	}
 
 	public void save() throws IOException {
 		super.save();
+		invalidateCatalog(file);
+	}
+	
+	/**
+	 * ȡԪݣûлļѸıʱļ
+	 * @param file ļ
+	 * @return
+	 * @throws IOException
+	 */
+	private static CuboidInfo getCuboidInfo(File file) throws IOException {
+		String key = file.getAbsolutePath();
+		long lastModified = file.lastModified();
+		long length = file.length();
+		synchronized(catalog) {
+			CuboidInfo info = catalog.get(key);
+			if (info != null && info.lastModified == lastModified && info.length == length) {
+				return info;
+			}
+		}
+		
+		Cuboid table = new Cuboid(file, null);
+		CuboidInfo info;
+		try {
+			table.checkPassword("cuboid");
+			PhyTable baseTable = table.getBaseTable();
+			info = new CuboidInfo(lastModified, length, baseTable.getAllColNames(), 
+					baseTable.getAllSortedColNames().length);
+		} finally {
+			table.close();
+		}
+		
+		synchronized(catalog) {
+			catalog.put(key, info);
+		}
+		
+		return info;
+	}
+	
+	/**
+	 * ļдĿ¼Ԫ
+	 * @param file ļ
+	 */
+	static void invalidateCatalog(File file) {
+		if (file == null) return;
+		synchronized(catalog) {
+			catalog.remove(file.getAbsolutePath());
+		}
+	}
+	
+	// 壬Ļ
+	private static PhyTable openCuboid(File file) throws IOException {
+		Cuboid table = new Cuboid(file, null);
+		try {
+			table.checkPassword("cuboid");
+			return table.getBaseTable();
+		} catch (RuntimeException e) {
+			table.close();
+			throw e;
+		}
 	}
 	
 	public void setCount(long count) {
@@ -351,6 +431,13 @@ public class Cuboid extends RowComTable {
 	
 	private static Sequence cgroups_(String []expNames, String []names, String []newExpNames, String []newNames,
 			PhyTable srcTable,	Expression w, boolean hasM, int n, String option,  Context ctx) {
+		if (newExpNames != null) {
+			Sequence result = cgroupsAvg(expNames, names, newExpNames, newNames, srcTable, w, hasM, n, option, ctx);
+			if (result != null) {
+				return result;
+			}
+		}
+		
 		Expression []exps = null;
 		if (expNames != null) {
 			int len = expNames.length;
@@ -415,10 +502,11 @@ public class Cuboid extends RowComTable {
 						table = (CuboidTable) tableList.get(idx);
 					}
 
-					//ԤǷµ
+					//ԤǷµģʱضļͷҪȡ
 					if (((Cuboid) table.groupTable).getSrcCount() != srcTable.getActualRecordCount()) {
 						try {
 							((Cuboid) table.groupTable).update(srcTable);
+							table = (CuboidTable) table.groupTable.getBaseTable();
 						} catch (Exception e) {
 							if (table != null)
 								table.close();
@@ -557,6 +645,18 @@ public class Cuboid extends RowComTable {
 				}
 			} else {
 				PhyTable table = (PhyTable) obj;
+				
+				//ԤǷµģԭ׷ʱʧܻ׷ӻ
+				//ʱضļͷҪȡ
+				if (((Cuboid) table.groupTable).getSrcCount() != srcTable.getActualRecordCount()) {
+					try {
+						((Cuboid) table.groupTable).update(srcTable);
+						table = table.groupTable.getBaseTable();
+					} catch (Exception e) {
+						throw new RQException(e.getMessage(), e);
+					}
+				}
+				
 				Expression[] fieldExps = new Expression[fcount];
 				for (int i = exps.length; i < fcount; i++) {
 					fieldExps[i] = new Expression("'" + newExpNames[i - exps.length] + "'");
@@ -619,6 +719,134 @@ public class Cuboid extends RowComTable {
 		}
 	}
 	
+	/**
+	 * ܱʽavg(x)ʱsum(x)count(x)ʱپۺϳ
+	 * @return ܲûпõʱؿ
+	 */
+	private static Sequence cgroupsAvg(String []expNames, String []names, String []newExpNames, String []newNames,
+			PhyTable srcTable,	Expression w, boolean hasM, int n, String option,  Context ctx) {
+		int count = newExpNames.length;
+		ArrayList<String> aggList = new ArrayList<String>();
+		int []sumIndex = new int[count]; // aggListеλãavgʱΪʽλ
+		int []countIndex = new int[count]; // aggListеλãavgʱΪ-1
+		boolean hasAvg = false;
+		
+		for (int i = 0; i < count; ++i) {
+			String exp = newExpNames[i];
+			String param = getAvgParam(exp);
+			if (param != null) {
+				hasAvg = true;
+				sumIndex[i] = addAggregate(aggList, "sum(" + param + ")");
+				countIndex[i] = addAggregate(aggList, "count(" + param + ")");
+			} else if (exp.indexOf("avg(") != -1) {
+				return null;
+			} else {
+				sumIndex[i] = addAggregate(aggList, exp);
+				countIndex[i] = -1;
+			}
+		}
+		
+		if (!hasAvg) {
+			return null;
+		}
+		
+		String []aggNames = new String[aggList.size()];
+		aggList.toArray(aggNames);
+		ArrayList<File> files = new ArrayList<File>();
+		ArrayList<File> files2 = new ArrayList<File>();
+		if (matchCuboids(srcTable, expNames, aggNames, w, ctx, files, files2) == null && 
+				files.size() == 0 && files2.size() == 0) {
+			return null;
+		}
+		
+		Sequence seq = cgroups_(expNames, names == null ? null : names.clone(), aggNames, 
+				new String[aggNames.length], srcTable, w, hasM, n, option, ctx);
+		int keyCount = expNames == null ? 0 : expNames.length;
+		DataStruct srcDs = seq.dataStruct();
+		String []fieldNames = new String[keyCount + count];
+		for (int i = 0; i < keyCount; ++i) {
+			fieldNames[i] = srcDs.getFieldName(i);
+		}
+		
+		for (int i = 0; i < count; ++i) {
+			if (newNames != null && newNames[i] != null) {
+				fieldNames[keyCount + i] = newNames[i];
+			} else {
+				fieldNames[keyCount + i] = newExpNames[i];
+			}
+		}
+		
+		int len = seq.length();
+		Table result = new Table(fieldNames, len);
+		for (int r = 1; r <= len; ++r) {
+			BaseRecord srcRecord = (BaseRecord)seq.getMem(r);
+			BaseRecord record = result.newLast();
+			for (int i = 0; i < keyCount; ++i) {
+				record.setNormalFieldValue(i, srcRecord.getNormalFieldValue(i));
+			}
+			
+			for (int i = 0; i < count; ++i) {
+				Object value = srcRecord.getNormalFieldValue(keyCount + sumIndex[i]);
+				if (countIndex[i] != -1) {
+					Object c = srcRecord.getNormalFieldValue(keyCount + countIndex[i]);
+					long cnt = c instanceof Number ? ((Number)c).longValue() : 0;
+					if (cnt == 0) {
+						value = null;
+					} else if (cnt <= Integer.MAX_VALUE) {
+						value = Variant.avg(value, (int)cnt);
+					} else {
+						value = Variant.divide(value, c);
+					}
+				}
+				
+				record.setNormalFieldValue(keyCount + i, value);
+			}
+		}
+		
+		String []pk = srcDs.getPrimary();
+		if (pk != null) {
+			result.setPrimary(pk);
+		}
+		
+		return result;
+	}
+	
+	// ʽavg(x)򷵻x򷵻ؿ
+	private static String getAvgParam(String exp) {
+		int len = exp.length();
+		if (!exp.startsWith("avg(") || exp.charAt(len - 1) != ')') {
+			return null;
+		}
+		
+		int depth = 0;
+		for (int i = 3; i < len; ++i) {
+			char c = exp.charAt(i);
+			if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+				if (depth == 0) {
+					return i == len - 1 ? exp.substring(4, i) : null;
+				}
+			} else if (c == '"' || c == '\'') {
+				return null; // Ĳ
+			}
+		}
+		
+		return null;
+	}
+	
+	// ۺϱʽʱظӣλ
+	private static int addAggregate(ArrayList<String> aggList, String exp) {
+		int index = aggList.indexOf(exp);
+		if (index == -1) {
+			aggList.add(exp);
+			return aggList.size() - 1;
+		} else {
+			return index;
+		}
+	}
+	
 	/**
 	 * Ⱥcgroups
 	 * @param exps ʽ
@@ -888,11 +1116,55 @@ public class Cuboid extends RowComTable {
 	 */
 	public static Object findCuboid(PhyTable srcTable, String names[], String expNames[], 
 			Expression w, Context ctx) {
+		ArrayList<File> files = new ArrayList<File>();
+		ArrayList<File> files2 = new ArrayList<File>();
+		File file = matchCuboids(srcTable, names, expNames, w, ctx, files, files2);
+		
+		try {
+			if (file != null) {
+				//ƥ䣬ر
+				return openCuboid(file);
+			}
+			
+			//ȥƥȵ͵ģ2ģȥ1ģ
+			if (files2.size() != 0) {
+				files = files2;
+			}
+		} catch (Exception e) {
+			throw new RQException(e.getMessage(), e);
+		}
+		
+		ArrayList<PhyTable> tableList = new ArrayList<PhyTable>();
+		try {
+			for (File f : files) {
+				tableList.add(openCuboid(f));
+			}
+		} catch (Exception e) {
+			for (PhyTable tbl : tableList) {
+				tbl.close();
+			}
+			throw new RQException(e.getMessage(), e);
+		}
+		
+		return tableList;
+	}
+	
+	/**
+	 * Ŀ¼ƥ壬ļ
+	 * @param srcTable ԭ
+	 * @param names Ҫֶ
+	 * @param expNames ۺϱʽ
+	 * @param w ˱ʽ
+	 * @param ctx
+	 * @param files ƥļ
+	 * @param files2 ֶƥļ
+	 * @return ȫƥļû򷵻ؿ
+	 */
+	private static File matchCuboids(PhyTable srcTable, String names[], String expNames[], 
+			Expression w, Context ctx, ArrayList<File> files, ArrayList<File> files2) {
 		String dir = srcTable.getGroupTable().getFile().getAbsolutePath() + "_";
 		String cuboids[] = srcTable.getCuboids();
-		ArrayList<PhyTable> tableList = new ArrayList<PhyTable>();
-		if (cuboids == null) return tableList;
-		ArrayList<PhyTable> tableList2 = new ArrayList<PhyTable>();
+		if (cuboids == null) return null;
 		
 		//expsavgپۺ
 		boolean flag = false;//ʾپۺ
@@ -903,6 +1175,9 @@ public class Cuboid extends RowComTable {
 			if (exp.indexOf("top(") != -1) {
 				flag = true;//return tableList;
 			}
+			if (exp.indexOf("icount(") != -1 || exp.indexOf("icount@") != -1) {
+				flag = true;//ظɸĽۼ
+			}
 		}
 		
 		ArrayList<String> filterFields = null;
@@ -914,12 +1189,9 @@ public class Cuboid extends RowComTable {
 				continue;
 			}
 			File file = fo.getLocalFile().file();
-			RowComTable table = null;
 			try {
-				table = new Cuboid(file, null);
-				table.checkPassword("cuboid");
-				PhyTable baseTable = table.getBaseTable();
-				String fields[] = baseTable.getAllColNames();
+				CuboidInfo info = getCuboidInfo(file);
+				String fields[] = info.fields;
 				if (w != null) {
 					filterFields = new ArrayList<String>();
 					fieldList = new ArrayList<String>();
@@ -928,40 +1200,20 @@ public class Cuboid extends RowComTable {
 					}
 					parseFilter(fieldList, w.getHome(), filterFields);
 				}
-				int match = check(fields, baseTable.getAllSortedColNames().length, names, expNames, filterFields, ctx);
+				int match = check(fields, info.kcount, names, expNames, filterFields, ctx);
 				if (match == 1 && !flag) {
-					tableList.add(baseTable);
+					files.add(file);
 				} else if ( match == 2 && !flag) {
-					tableList2.add(baseTable);
+					files2.add(file);
 				} else if (match == 3) {
-					//ƥ䣬ر
-					for (PhyTable tbl : tableList) {
-						tbl.close();
-					}
-					for (PhyTable tbl : tableList2) {
-						tbl.close();
-					}
-					return baseTable;
-				} else {
-					table.close();
+					return file;
 				}
 			} catch (Exception e) {
-				if (table != null) table.close();
-				for (PhyTable tbl : tableList) {
-					tbl.close();
-				}
 				throw new RQException(e.getMessage(), e);
 			}
 		}
-
-		//ȥƥȵ͵ģ2ģȥ1ģ
-		if (tableList2.size() != 0) {
-			for (PhyTable tbl : tableList) {
-				tbl.close();
-			}
-			return tableList2;
-		}
-		return tableList;
+		
+		return null;
 	}
 	
 	/**
@@ -988,6 +1240,9 @@ public class Cuboid extends RowComTable {
 			if (exp.indexOf("top(") != -1) {
 				return tableList;
 			}
+			if (exp.indexOf("icount(") != -1 || exp.indexOf("icount@") != -1) {
+				return tableList;
+			}
 		}
 		
 		ArrayList<String> filterFields = null;
@@ -1741,16 +1996,37 @@ public class Cuboid extends RowComTable {
 	
 	/**
 	 * ԭº»
+	 * Ĳѯͬʱ岻µģضļͷжϣݻ
+	 * ºbaseTableỻµĶ
 	 * @param srcTable
 	 * @throws IOException
 	 */
 	public void update(PhyTable srcTable) throws IOException {
+		Object syncObj = getSyncObject();
+		synchronized(syncObj) {
+			readHeader();
+			if (getSrcCount() < srcTable.getActualRecordCount()) {
+				updateData(srcTable);
+			}
+		}
+	}
+	
+	private void updateData(PhyTable srcTable) throws IOException {
 		//1 ԭδܵĲֽл
 		
 		//õҪܵ
 		long count = srcTable.getActualRecordCount();
 		count = count - getSrcCount();
 		if (count <= 0) return;
+		//ѯʱ򿪵ûģԭ
+		Context ctx = this.ctx;
+		if (ctx == null) {
+			ctx = srcTable.groupTable.ctx;
+			if (ctx == null) {
+				ctx = new Context();
+			}
+		}
+		
 		//㻺
 		int fcount = exps == null ? 0 : exps.length;
 		if (newExps != null) fcount += newExps.length;
@@ -6,9 +6,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import com.scudata.array.ConstArray;
 import com.scudata.array.IArray;
+import com.scudata.array.ObjectArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
+import com.scudata.dm.ColumnBatch;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
 import com.scudata.dm.ObjectReader;
@@ -16,7 +19,10 @@ import com.scudata.dm.Record;
 import com.scudata.dm.Sequence;
 import com.scudata.dm.Table;
 import com.scudata.dm.cursor.ICursor;
+import com.scudata.dm.op.FilterJoin;
+import com.scudata.dm.op.Join;
 import com.scudata.dm.op.New;
+import com.scudata.dm.op.Operable;
 import com.scudata.dm.op.Operation;
 import com.scudata.dm.op.Select;
 import com.scudata.dm.op.Switch;
@@ -1039,6 +1045,43 @@ public class Cursor extends IDWCursor {
 		}
 	}
 	
+	/**
+	 * йʱеĶȡֶεǰ
+	 * @param columns ѡֶζӦ
+	 */
+	private void initFilterReaders(ColumnMetaData []columns) {
+		ArrayList<ColumnMetaData> list = new ArrayList<ColumnMetaData>();
+		for (IFilter filter : filters) {
+			list.add(filter.getColumn());
+		}
+		
+		for (ColumnMetaData col : columns) {
+			if (col == null) {
+				list.add(col);
+			} else if (!list.contains(col)) {
+				list.add(col);
+			}
+		}
+		
+		int colCount = list.size();
+		colReaders = new BlockLinkReader[colCount];
+		segmentReaders = new ObjectReader[colCount];
+		seqs = new int [colCount];
+		this.columns = new ColumnMetaData[colCount];
+		list.toArray(this.columns);
+		
+		for (int i = 0; i < colCount; ++i) {
+			ColumnMetaData col = list.get(i);
+			if (col != null) {
+				colReaders[i] = col.getColReader(true);
+				segmentReaders[i] = col.getSegmentReader();
+				seqs[i] = ds.getFieldIndex(col.getColName());
+			} else {
+				seqs[i] = -1;
+			}
+		}
+	}
+	
 	private void init() {
 		try {
 			table.appendCache();
@@ -1115,36 +1158,8 @@ public class Cursor extends IDWCursor {
 				}
 			}
 		} else {
-			ArrayList<ColumnMetaData> list = new ArrayList<ColumnMetaData>();
-			for (IFilter filter : filters) {
-				list.add(filter.getColumn());
-			}
-			
-			for (ColumnMetaData col : columns) {
-				if (col == null) {
-					list.add(col);
-				} else if (!list.contains(col)) {
-					list.add(col);
-				}
-			}
-			
-			colCount = list.size();
-			colReaders = new BlockLinkReader[colCount];
-			segmentReaders = new ObjectReader[colCount];
-			seqs = new int [colCount];
-			this.columns = new ColumnMetaData[colCount];
-			list.toArray(this.columns);
-			
-			for (int i = 0; i < colCount; ++i) {
-				ColumnMetaData col = list.get(i);
-				if (col != null) {
-					colReaders[i] = col.getColReader(true);
-					segmentReaders[i] = col.getSegmentReader();
-					seqs[i] = ds.getFieldIndex(col.getColName());
-				} else {
-					seqs[i] = -1;
-				}
-			}
+			initFilterReaders(columns);
+			colCount = this.columns.length;
 		}
 
 		modifyRecords = table.getModifyRecords();
@@ -1714,6 +1729,193 @@ public class Cursor extends IDWCursor {
 		}
 	}
 	
+	/**
+	 * ذȡʱݽṹ޸ġֶαʽлʱְ֧ȡ
+	 * @return DataStructְ֧ȡʱnull
+	 */
+	protected DataStruct getBatchDataStruct() {
+		if (isClosed || cache != null || colReaders == null || exps != null || gathers != null || 
+				findFilters != null || appendIndex > 0 || hasModify()) {
+			return null;
+		} else {
+			return ds;
+		}
+	}
+	
+	/**
+	 * ȡÿζ飬ֱֵӷ¼
+	 * @param n Ҫȡļ¼ûȡʱصn
+	 * @return ColumnBatchȡʱnull
+	 */
+	protected ColumnBatch getBatch(int n) {
+		isFirstSkip = false;
+		if (isClosed || n < 1) {
+			return null;
+		}
+		
+		int curBlock = this.curBlock;
+		int endBlock = this.endBlock;
+		BlockLinkReader rowCountReader = this.rowCountReader;
+		BlockLinkReader []colReaders = this.colReaders;
+		int colCount = colReaders.length;
+		DataStruct ds = this.ds;
+		IFilter []filters = this.filters;
+		
+		int fcount = ds.getFieldCount();
+		IArray []values = new IArray[fcount];
+		for (int f = 0; f < fcount; ++f) {
+			values[f] = new ObjectArray(n);
+		}
+		
+		int count = 0;
+		try {
+			if (filters == null) {
+				while (curBlock < endBlock && count < n) {
+					curBlock++;
+					int recordCount = rowCountReader.readInt32();
+					
+					// жȡ
+					for (int f = 0; f < colCount; ++f) {
+						BufferReader reader = colReaders[f].readBlockData(recordCount);
+						values[f] = reader.readArray(values[f], recordCount);
+					}
+					
+					count += recordCount;
+				}
+			} else {
+				ColumnMetaData []columns = this.columns;
+				int []seqs = this.seqs;
+				ObjectReader []segmentReaders = this.segmentReaders;
+				int filterCount = filters.length;
+				long []positions = new long[colCount];
+				BufferReader []bufReaders = new BufferReader[colCount];
+				Object []fvalues = new Object[filterCount]; // ǰֶεֵ
+				
+				while (curBlock < endBlock && count < n) {
+					curBlock++;
+					int recordCount = rowCountReader.readInt32();
+					boolean sign = true;
+					int f = 0;
+					for (; f < filterCount; ++f) {
+						positions[f] = segmentReaders[f].readLong40();
+						if (columns[f].hasMaxMinValues()) {
+							Object minValue = segmentReaders[f].readObject();
+							Object maxValue = segmentReaders[f].readObject();
+							segmentReaders[f].skipObject();
+							if (!filters[f].match(minValue, maxValue)) {
+								++f;
+								sign = false;
+								break;
+							}
+						}
+					}
+					
+					for (; f < colCount; ++f) {
+						positions[f] = segmentReaders[f].readLong40();
+						if (columns[f].hasMaxMinValues()) {
+							segmentReaders[f].skipObject();
+							segmentReaders[f].skipObject();
+							segmentReaders[f].skipObject();
+						}
+					}
+					
+					if (!sign) {
+						continue;
+					}
+					
+					int []nextRows = new int[colCount]; // ÿbufReadersһҪ
+					for (f = 0; f < colCount; ++f) {
+						bufReaders[f] = null;
+					}
+					
+					Next:
+					for (int i = 0; i < recordCount; ++i) {
+						for (f = 0; f < filterCount; ++f) {
+							if (bufReaders[f] == null) {
+								bufReaders[f] = colReaders[f].readBlockData(positions[f], recordCount);
+							}
+							
+							for (int j = nextRows[f]; j < i; ++j) {
+								bufReaders[f].skipObject();
+							}
+							
+							nextRows[f] = i + 1;
+							fvalues[f] = bufReaders[f].readObject();
+							if (!filters[f].match(fvalues[f])) {
+								continue Next;
+							}
+						}
+						
+						for (f = 0; f < filterCount; ++f) {
+							if (seqs[f] != -1) {
+								values[seqs[f]].add(fvalues[f]);
+							}
+						}
+						
+						for (; f < colCount; ++f) {
+							if (bufReaders[f] == null) {
+								bufReaders[f] = colReaders[f].readBlockData(positions[f], recordCount);
+							}
+							
+							for (int j = nextRows[f]; j < i; ++j) {
+								bufReaders[f].skipObject();
+							}
+							
+							nextRows[f] = i + 1;
+							if (seqs[f] != -1) {
+								values[seqs[f]].add(bufReaders[f].readObject());
+							} else {
+								bufReaders[f].skipObject();
+							}
+						}
+						
+						count++;
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new RQException(e.getMessage(), e);
+		}
+		
+		this.curBlock = curBlock;
+		if (count == 0) {
+			return null;
+		}
+		
+		for (int f = 0; f < fcount; ++f) {
+			if (values[f].size() < count) {
+				// ûѡֶȡֵΪ
+				values[f] = new ConstArray(null, count);
+			}
+		}
+		
+		if (filters == null) {
+			ColumnBatch batch = new RecordSeqBatch(ds, values, count, prevRecordSeq);
+			prevRecordSeq += count;
+			return batch;
+		} else {
+			return new ColumnBatch(ds, values, count);
+		}
+	}
+	
+	/**
+	 * ȡݣɼ¼ʱϼ¼
+	 */
+	private static class RecordSeqBatch extends ColumnBatch {
+		private long prevRecordSeq; // еǰһ¼
+		
+		public RecordSeqBatch(DataStruct ds, IArray []columns, int size, long prevRecordSeq) {
+			super(ds, columns, size);
+			this.prevRecordSeq = prevRecordSeq;
+		}
+		
+		protected Record newRecord(DataStruct ds, int row) {
+			ComTableRecord r = new ComTableRecord(ds);
+			r.setRecordSeq(prevRecordSeq + row);
+			return r;
+		}
+	}
+	
 	//ֶαʽʱ
 	private Sequence getData2(int n) {
 		if (isClosed || n < 1) {
@@ -3143,6 +3345,197 @@ public class Cursor extends IDWCursor {
 		}
 	}
 	
+	/**
+	 * 㣬switch@ijoin@iάĹɹƵϣ
+	 * ȡʱÿСֵ飬ڶ֮ǰȥϵļ¼
+	 * У㱾Ȼα
+	 * @param op 
+	 * @param ctx 
+	 * @return Operable
+	 */
+	public Operable addOperation(Operation op, Context ctx) {
+		if (op instanceof Switch || op instanceof Join || op instanceof FilterJoin) {
+			addJoinFilters(op, ctx);
+		}
+		
+		return super.addOperation(op, ctx);
+	}
+	
+	private void addJoinFilters(Operation op, Context ctx) {
+		// ֻԻûʼȡѡֶûиֶα
+		if (!isFirstSkip || isClosed || cache != null || colReaders == null || exps != null || 
+				gathers != null || hasModify() || (names != null && !Arrays.equals(names, fields))) {
+			return;
+		}
+		
+		// ColumnOrĹ֮ǻĹϵټ
+		if (filters != null) {
+			for (IFilter filter : filters) {
+				if (filter.isMultiFieldOr()) {
+					return;
+				}
+			}
+		}
+		
+		// ֮ǰӵֻǹ㣬±ı˵ֶ
+		ArrayList<String> changedFields = new ArrayList<String>();
+		if (opList != null) {
+			for (Operation prev : opList) {
+				if (prev instanceof Switch) {
+					for (String name : ((Switch)prev).getFkNames()) {
+						changedFields.add(name);
+					}
+				} else if (prev instanceof Join) {
+					Join join = (Join)prev;
+					if (join.getFname() != null) {
+						return;
+					}
+					
+					for (String []newNames : join.getNewNames()) {
+						for (String name : newNames) {
+							changedFields.add(name);
+						}
+					}
+				} else if (!(prev instanceof FilterJoin)) {
+					return;
+				}
+			}
+		}
+		
+		ArrayList<String> keyList = new ArrayList<String>();
+		ArrayList<Sequence> codeList = new ArrayList<Sequence>();
+		ArrayList<Expression> expList = new ArrayList<Expression>();
+		
+		if (op instanceof Switch) {
+			Switch sw = (Switch)op;
+			if (!sw.isIsect()) {
+				return;
+			}
+			
+			String []fkNames = sw.getFkNames();
+			String []timeFkNames = sw.getTimeFkNames();
+			Sequence []codes = sw.getCodes();
+			Expression []exps = sw.getExps();
+			for (int i = 0; i < fkNames.length; ++i) {
+				if (timeFkNames == null || timeFkNames[i] == null) {
+					keyList.add(fkNames[i]);
+					codeList.add(codes[i]);
+					expList.add(exps == null ? null : exps[i]);
+				}
+			}
+		} else {
+			Expression [][]exps;
+			Sequence []codes;
+			Expression [][]dataExps;
+			if (op instanceof Join) {
+				Join join = (Join)op;
+				if (!join.isIsect()) {
+					return;
+				}
+				
+				exps = join.getExps();
+				codes = join.getCodes();
+				dataExps = join.getDataExps();
+			} else {
+				FilterJoin join = (FilterJoin)op;
+				exps = join.getExps();
+				codes = join.getCodes();
+				dataExps = join.getDataExps();
+			}
+			
+			for (int i = 0; i < exps.length; ++i) {
+				if (exps[i] == null || exps[i].length != 1 || !(exps[i][0].getHome() instanceof UnknownSymbol)) {
+					continue;
+				}
+				
+				if (dataExps == null || dataExps[i] == null) {
+					expList.add(null);
+				} else if (dataExps[i].length == 1) {
+					expList.add(dataExps[i][0]);
+				} else {
+					continue;
+				}
+				
+				keyList.add(((UnknownSymbol)exps[i][0].getHome()).getName());
+				codeList.add(codes[i]);
+			}
+		}
+		
+		ArrayList<IFilter> filterList = new ArrayList<IFilter>();
+		ArrayList<FindFilter> findFilterList = new ArrayList<FindFilter>();
+		if (filters != null) {
+			for (int i = 0; i < filters.length; ++i) {
+				filterList.add(filters[i]);
+				findFilterList.add(findFilters == null ? null : findFilters[i]);
+			}
+		}
+		
+		ColPhyTable table = this.table;
+		boolean isChanged = false;
+		
+		Next:
+		for (int k = 0, count = keyList.size(); k < count; ++k) {
+			String key = keyList.get(k);
+			Sequence code = codeList.get(k);
+			if (code == null || changedFields.contains(key) || ds.getFieldIndex(key) < 0) {
+				continue;
+			}
+			
+			ColumnMetaData column = table.getColumn(key);
+			if (column == null) {
+				continue;
+			}
+			
+			int pri = table.getColumnFilterPriority(column);
+			IFilter filter = JoinKeyFilter.create(column, pri, code, expList.get(k), ctx);
+			if (filter == null) {
+				continue;
+			}
+			
+			isChanged = true;
+			for (int i = 0, size = filterList.size(); i < size; ++i) {
+				IFilter prev = filterList.get(i);
+				if (prev.isSameColumn(filter)) {
+					filterList.set(i, new LogicAnd(prev, filter));
+					continue Next;
+				}
+			}
+			
+			filterList.add(filter);
+			findFilterList.add(null);
+		}
+		
+		if (!isChanged) {
+			return;
+		}
+		
+		// رվɵķֶζȡµĹ´еĶȡ
+		try {
+			if (segmentReaders != null) {
+				for (ObjectReader reader : segmentReaders) {
+					if (reader != null) {
+						reader.close();
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new RQException(e.getMessage(), e);
+		}
+		
+		ColumnMetaData []columns = this.columns;
+		int total = filterList.size();
+		filters = new IFilter[total];
+		findFilters = new FindFilter[total];
+		filterList.toArray(filters);
+		findFilterList.toArray(findFilters);
+		
+		rowCountReader = table.getSegmentReader();
+		initFilterReaders(columns);
+		if (isSegment) {
+			setSegment(startBlock, endBlock);
+		}
+	}
+	
 	public boolean reset() {
 		close();
 		
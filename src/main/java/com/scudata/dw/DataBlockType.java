@@ -45,6 +45,14 @@ public class DataBlockType {
 	
 	public static final int CONST = 0x60;
 	
+	// 룬ֻڿͷеԼΪINTLONGϵ
+	public static final int INT_DELTA = 0x19;//ֵӲֵλѹʺļʱ
+	public static final int INT_BITPACK = 0x1A;//ȥСֵλѹʺȡֵΧС
+	public static final int INT_RLE = 0x1B;//γ̱룬ʺظֵ
+	public static final int LONG_DELTA = 0x29;
+	public static final int LONG_BITPACK = 0x2A;
+	public static final int LONG_RLE = 0x2B;
+	
 	public static final int OBJECT = 0x7E;
 	public static final int DICT = 0x7F;
 	public static final int EMPTY = 0xFF;
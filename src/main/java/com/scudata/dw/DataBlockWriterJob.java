@@ -22,9 +22,11 @@ public class DataBlockWriterJob  extends Job {
 	private Object[] minValues;
 	private Object[] startValues;
 	private int[] dataType;
+	private boolean isIntegerEncoding;
 	
 	public DataBlockWriterJob(BufferWriter bufferWriter, Sequence data, Sequence dict, int col,
-			int start, int end, Object[] maxValues, Object[] minValues, Object[] startValues, int[] dataType) {
+			int start, int end, Object[] maxValues, Object[] minValues, Object[] startValues, int[] dataType, 
+			boolean isIntegerEncoding) {
 		//this.isDim = true;
 		this.bufferWriter = bufferWriter;
 		this.data = data;
@@ -36,12 +38,13 @@ public class DataBlockWriterJob  extends Job {
 		this.minValues = minValues;
 		this.startValues = startValues;
 		this.dataType = dataType;
+		this.isIntegerEncoding = isIntegerEncoding;
 	}
 	
 	public void run() {
 		try {
 			writeDataBlock(bufferWriter, data, dict, col, start, end, 
-						maxValues, minValues, startValues, dataType);
+						maxValues, minValues, startValues, dataType, isIntegerEncoding);
 		} catch (IOException e) {
 			throw new RQException(e);
 		}
@@ -54,11 +57,12 @@ public class DataBlockWriterJob  extends Job {
 	 * @param col к
 	 * @param start ʼλ
 	 * @param end λ
+	 * @param isIntegerEncoding Ƿòֵλѹγ̱
 	 * @return 
 	 * @throws IOException
 	 */
 	private static void writeDataBlock(BufferWriter bufferWriter, Sequence data, Sequence dict, 
-			int col, int start, int end, int[] dataType) throws IOException {
+			int col, int start, int end, int[] dataType, boolean isIntegerEncoding) throws IOException {
 		BaseRecord r;
 		boolean writeNull = false;
 		boolean isConst = false;
@@ -67,6 +71,10 @@ public class DataBlockWriterJob  extends Job {
 		DataBlockType blockType = DataBlockType.getDataBlockType(data, col, start, end);
 		dataType[col] = blockType.getDataType();
 		
+		if (isIntegerEncoding && blockType != null && writeIntegerBlock(bufferWriter, mems, col, start, end, blockType)) {
+			return;
+		}
+		
 		if (blockType == null || blockType.getType() == DataBlockType.OBJECT) {
 			bufferWriter.write(DataBlockType.OBJECT);
 			for (int i = start; i <= end; ++i) {
@@ -266,7 +274,8 @@ public class DataBlockWriterJob  extends Job {
 	
 	//ҪͳMAXMINʱ
 	public static void writeDataBlock(BufferWriter bufferWriter, Sequence data, Sequence dict, int col, int start, int end, 
-			Object[] maxValues, Object[] minValues, Object[] startValues, int[] dataType) throws IOException {
+			Object[] maxValues, Object[] minValues, Object[] startValues, int[] dataType, 
+			boolean isIntegerEncoding) throws IOException {
 		BaseRecord r;
 		IArray mems = data.getMems();
 		for (int i = start; i <= end; ++i) {
@@ -291,7 +300,218 @@ public class DataBlockWriterJob  extends Job {
 				maxValues[col] = null;
 			}
 		}
-		writeDataBlock(bufferWriter, data, dict, col, start, end, dataType);
+		writeDataBlock(bufferWriter, data, dict, col, start, end, dataType, isIntegerEncoding);
+	}
+	
+	/**
+	 * ûпֵ鳢òֵλѹγ̱дԭдСʱŲ
+	 * @param bufferWriter
+	 * @param mems 
+	 * @param col к
+	 * @param start ʼλ
+	 * @param end λ
+	 * @param blockType ԭйĿ
+	 * @return trueдfalseûд
+	 * @throws IOException
+	 */
+	private static boolean writeIntegerBlock(BufferWriter bufferWriter, IArray mems, int col, 
+			int start, int end, DataBlockType blockType) throws IOException {
+		if (blockType.isHasNull()) {
+			return false;
+		}
+		
+		int type = blockType.getType();
+		int dataType = type == DataBlockType.DICT ? blockType.getDataType() : type;
+		int count = end - start + 1;
+		int plainSize;
+		switch (dataType) {
+		case DataBlockType.INT8:
+		case DataBlockType.LONG8:
+			plainSize = count;
+			break;
+		case DataBlockType.INT16:
+		case DataBlockType.LONG16:
+			plainSize = count * 2;
+			break;
+		case DataBlockType.INT32:
+		case DataBlockType.LONG32:
+			plainSize = count * 4;
+			break;
+		case DataBlockType.LONG64:
+			plainSize = count * 8;
+			break;
+		default:
+			return false;
+		}
+		
+		if (type == DataBlockType.DICT) {
+			plainSize = count; // ֵÿֵռһֽ
+		}
+		
+		long []values = new long[count];
+		for (int i = start, q = 0; i <= end; ++i, ++q) {
+			Object obj = ((BaseRecord)mems.get(i)).getNormalFieldValue(col);
+			if (obj instanceof Number) {
+				values[q] = ((Number)obj).longValue();
+			} else {
+				return false;
+			}
+		}
+		
+		// ͳȡֵΧֵΧγ
+		long min = values[0], max = values[0];
+		long minDelta = 0, maxDelta = 0;
+		int runCount = 1, runLen = 1, maxRunLen = 1;
+		for (int i = 1; i < count; ++i) {
+			long v = values[i];
+			if (v < min) {
+				min = v;
+			} else if (v > max) {
+				max = v;
+			}
+			
+			long d = v - values[i - 1];
+			if (i == 1) {
+				minDelta = maxDelta = d;
+			} else if (d < minDelta) {
+				minDelta = d;
+			} else if (d > maxDelta) {
+				maxDelta = d;
+			}
+			
+			if (d == 0) {
+				runLen++;
+			} else {
+				if (runLen > maxRunLen) {
+					maxRunLen = runLen;
+				}
+				
+				runCount++;
+				runLen = 1;
+			}
+		}
+		
+		if (runLen > maxRunLen) {
+			maxRunLen = runLen;
+		}
+		
+		int valueBits = getBitWidth(max - min);
+		int bitpackSize = 9 + getPackedSize(count, valueBits);
+		int deltaSize = 17 + getPackedSize(count - 1, getBitWidth(maxDelta - minDelta));
+		int rleSize = 22 + getPackedSize(runCount, valueBits) + getPackedSize(runCount, getBitWidth(maxRunLen - 1));
+		
+		int encodeType;
+		if (rleSize <= deltaSize && rleSize <= bitpackSize) {
+			if (rleSize >= plainSize) return false;
+			encodeType = DataBlockType.INT_RLE;
+		} else if (deltaSize <= bitpackSize) {
+			if (deltaSize >= plainSize) return false;
+			encodeType = DataBlockType.INT_DELTA;
+		} else {
+			if (bitpackSize >= plainSize) return false;
+			encodeType = DataBlockType.INT_BITPACK;
+		}
+		
+		boolean isLong = (dataType & 0xF0) == DataBlockType.LONG;
+		if (isLong) {
+			encodeType += DataBlockType.LONG - DataBlockType.INT;
+		}
+		
+		bufferWriter.write(encodeType);
+		switch (encodeType) {
+		case DataBlockType.INT_BITPACK:
+		case DataBlockType.LONG_BITPACK:
+			writePacked(bufferWriter, values, 0, count);
+			break;
+		case DataBlockType.INT_DELTA:
+		case DataBlockType.LONG_DELTA:
+			bufferWriter.writeLittleEndianLong(values[0]);
+			for (int i = count - 1; i > 0; --i) {
+				values[i] -= values[i - 1];
+			}
+			
+			writePacked(bufferWriter, values, 1, count - 1);
+			break;
+		default:
+			// γ̱룺γγ̵ֵγ̵ĳȼ1
+			long []runValues = new long[runCount];
+			long []runLens = new long[runCount];
+			runValues[0] = values[0];
+			for (int i = 1, r = 0; i < count; ++i) {
+				if (values[i] == runValues[r]) {
+					runLens[r]++;
+				} else {
+					r++;
+					runValues[r] = values[i];
+				}
+			}
+			
+			bufferWriter.writeLittleEndianInt(runCount);
+			writePacked(bufferWriter, runValues, 0, runCount);
+			writePacked(bufferWriter, runLens, 0, runCount);
+		}
+		
+		return true;
+	}
+	
+	// ȡ޷Ҫλ
+	private static int getBitWidth(long range) {
+		return 64 - Long.numberOfLeadingZeros(range);
+	}
+	
+	// ȡcountbitsλѹռֽ
+	private static int getPackedSize(int count, int bits) {
+		return (int)(((long)count * bits + 7) >>> 3);
+	}
+	
+	/**
+	 * valuesָΧȥСֵλѹдʽΪСֵλѹֽ
+	 * @param bufferWriter
+	 * @param values 
+	 * @param start ʼλã
+	 * @param count 
+	 * @throws IOException
+	 */
+	private static void writePacked(BufferWriter bufferWriter, long []values, int start, int count) throws IOException {
+		if (count == 0) {
+			bufferWriter.writeLittleEndianLong(0);
+			bufferWriter.write(0);
+			return;
+		}
+		
+		int end = start + count;
+		long min = values[start], max = min;
+		for (int i = start + 1; i < end; ++i) {
+			if (values[i] < min) {
+				min = values[i];
+			} else if (values[i] > max) {
+				max = values[i];
+			}
+		}
+		
+		int bits = getBitWidth(max - min);
+		bufferWriter.writeLittleEndianLong(min);
+		bufferWriter.write(bits);
+		if (bits == 0) {
+			return;
+		}
+		
+		// λǰηֽ
+		byte []packed = new byte[getPackedSize(count, bits)];
+		long pos = 0;
+		for (int i = start; i < end; ++i) {
+			long v = values[i] - min;
+			for (int remain = bits; remain > 0;) {
+				int offset = (int)(pos & 7);
+				int n = Math.min(8 - offset, remain);
+				packed[(int)(pos >>> 3)] |= (byte)((v & ((1 << n) - 1)) << offset);
+				v >>>= n;
+				remain -= n;
+				pos += n;
+			}
+		}
+		
+		bufferWriter.write(packed);
 	}
 	
 	/**
@@ -0,0 +1,249 @@
+package com.scudata.dw;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.scudata.array.ObjectArray;
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.resources.EngineMessage;
+
+/**
+ * ڶڴĶУڴ洢͸
+ * ݰηֱڴ棬رʱͷţ
+ * кŴ1ʼֵλͼ
+ * @author RunQian
+ *
+ */
+class DirectColumn {
+	public static final int TYPE_INT = 1;
+	public static final int TYPE_LONG = 2;
+	public static final int TYPE_DOUBLE = 3;
+	
+	private static final int SEGMENT_SHIFT = 16; // ÿεΪ216η
+	private static final int SEGMENT_ROWS = 1 << SEGMENT_SHIFT;
+	private static final int SEGMENT_MASK = SEGMENT_ROWS - 1;
+	
+	private int type; // 
+	private int shift; // ÿռֽλ
+	private ByteBuffer []segments; // ֶεֱڴ棬رպΪ
+	private long []nullSigns; // ֵǣûпֵʱΪ
+	private int size; // 
+	
+	private DirectColumn(int type) {
+		this.type = type;
+		shift = type == TYPE_INT ? 2 : 3;
+		segments = new ByteBuffer[4];
+	}
+	
+	/**
+	 * ֵͲУͲܴڶʱؿ
+	 * @param val ǿֵ
+	 * @return DirectColumn
+	 */
+	public static DirectColumn newInstance(Object val) {
+		if (val instanceof Integer) {
+			return new DirectColumn(TYPE_INT);
+		} else if (val instanceof Long) {
+			return new DirectColumn(TYPE_LONG);
+		} else if (val instanceof Double) {
+			return new DirectColumn(TYPE_DOUBLE);
+		} else {
+			return null;
+		}
+	}
+	
+	/**
+	 * Уڴż¼
+	 * @return DirectColumn
+	 */
+	public static DirectColumn newIntColumn() {
+		return new DirectColumn(TYPE_INT);
+	}
+	
+	/**
+	 * жֵǷܴ
+	 * @param val ֵ
+	 * @return boolean
+	 */
+	public boolean isMatch(Object val) {
+		switch (type) {
+		case TYPE_INT:
+			return val == null || val instanceof Integer;
+		case TYPE_LONG:
+			return val == null || val instanceof Long;
+		default:
+			return val == null || val instanceof Double;
+		}
+	}
+	
+	/**
+	 * ȡ
+	 * @return int
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * ׷һֵֵҪisMatch
+	 * @param val ֵ
+	 */
+	public void add(Object val) {
+		int row = ++size;
+		int seg = (row - 1) >>> SEGMENT_SHIFT;
+		ByteBuffer []segments = getSegments();
+		if (seg == segments.length) {
+			ByteBuffer []tmp = new ByteBuffer[seg * 2];
+			System.arraycopy(segments, 0, tmp, 0, seg);
+			this.segments = segments = tmp;
+		}
+		
+		if (segments[seg] == null) {
+			segments[seg] = ByteBuffer.allocateDirect(SEGMENT_ROWS << shift).order(ByteOrder.nativeOrder());
+		}
+		
+		set(row, val);
+	}
+	
+	/**
+	 * ȡֵ
+	 * @param row кţ1ʼ
+	 * @return Object
+	 */
+	public Object get(int row) {
+		ByteBuffer []segments = getSegments();
+		int index = row - 1;
+		long []nullSigns = this.nullSigns;
+		if (nullSigns != null && (index >>> 6) < nullSigns.length &&
+				(nullSigns[index >>> 6] & (1L << index)) != 0) {
+			return null;
+		}
+		
+		ByteBuffer buffer = segments[index >>> SEGMENT_SHIFT];
+		int pos = (index & SEGMENT_MASK) << shift;
+		switch (type) {
+		case TYPE_INT:
+			return buffer.getInt(pos);
+		case TYPE_LONG:
+			return buffer.getLong(pos);
+		default:
+			return buffer.getDouble(pos);
+		}
+	}
+	
+	/**
+	 * ȡֻûпֵ
+	 * @param row кţ1ʼ
+	 * @return int
+	 */
+	public int getInt(int row) {
+		int index = row - 1;
+		return getSegments()[index >>> SEGMENT_SHIFT].getInt((index & SEGMENT_MASK) << 2);
+	}
+	
+	/**
+	 * ֵֵҪisMatch
+	 * @param row кţ1ʼ
+	 * @param val ֵ
+	 */
+	public void set(int row, Object val) {
+		ByteBuffer []segments = getSegments();
+		int index = row - 1;
+		if (val == null) {
+			if (nullSigns == null) {
+				nullSigns = new long[(size >>> 6) + 1];
+			} else if ((index >>> 6) >= nullSigns.length) {
+				long []tmp = new long[(size >>> 6) * 2 + 1];
+				System.arraycopy(nullSigns, 0, tmp, 0, nullSigns.length);
+				nullSigns = tmp;
+			}
+			
+			nullSigns[index >>> 6] |= 1L << index;
+			return;
+		} else if (nullSigns != null && (index >>> 6) < nullSigns.length) {
+			nullSigns[index >>> 6] &= ~(1L << index);
+		}
+		
+		ByteBuffer buffer = segments[index >>> SEGMENT_SHIFT];
+		int pos = (index & SEGMENT_MASK) << shift;
+		switch (type) {
+		case TYPE_INT:
+			buffer.putInt(pos, (Integer)val);
+			break;
+		case TYPE_LONG:
+			buffer.putLong(pos, (Long)val);
+			break;
+		default:
+			buffer.putDouble(pos, (Double)val);
+		}
+	}
+	
+	/**
+	 * ֵƵڵĶ飬ڸıе
+	 * @return ObjectArray
+	 */
+	public ObjectArray toObjectArray() {
+		int size = this.size;
+		ObjectArray array = new ObjectArray(size + 8);
+		for (int i = 1; i <= size; ++i) {
+			array.push(get(i));
+		}
+		
+		return array;
+	}
+	
+	/**
+	 * ͷŶڴ棬֮ٷ
+	 */
+	public void close() {
+		ByteBuffer []segments = this.segments;
+		if (segments == null) {
+			return;
+		}
+		
+		this.segments = null;
+		nullSigns = null;
+		for (ByteBuffer buffer : segments) {
+			if (buffer != null) {
+				free(buffer);
+			}
+		}
+	}
+	
+	private ByteBuffer[] getSegments() {
+		ByteBuffer []segments = this.segments;
+		if (segments == null) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(mm.getMessage("dw.memoryTableClosed"));
+		}
+		
+		return segments;
+	}
+	
+	// ͷֱڴ棬ͷʧʱ
+	private static void free(ByteBuffer buffer) {
+		try {
+			// jdk9ϰ汾
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			invokeCleaner.invoke(field.get(null), buffer);
+			return;
+		} catch (Throwable e) {
+		}
+		
+		try {
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			if (cleaner != null) {
+				cleaner.getClass().getMethod("clean").invoke(cleaner);
+			}
+		} catch (Throwable e) {
+		}
+	}
+}
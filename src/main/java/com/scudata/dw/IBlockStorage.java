@@ -14,5 +14,6 @@ public interface IBlockStorage extends IResource {
 	long applyNewBlock() throws IOException; // 
 	StructManager getStructManager();
 	boolean isCompress(); // Ƿѹ洢
+	int getCompressCodec(); // ѹ㷨ȡֵΪBlockCodecеĳ
 	boolean isPureFormat(); // Ƿд洢
 }
\ No newline at end of file
@@ -0,0 +1,307 @@
+package com.scudata.dw;
+
+import com.scudata.array.BoolArray;
+import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.Context;
+import com.scudata.dm.Sequence;
+import com.scudata.expression.CurrentSeq;
+import com.scudata.expression.Expression;
+import com.scudata.expression.Relation;
+import com.scudata.util.HashUtil;
+import com.scudata.util.Variant;
+
+/**
+ * άɵʱڰswitch@ijoin@iƵα
+ * Сֵλͼˣò¡ˣУ
+ * ֻǰȥϵļ¼ɸӵ
+ * @author RunQian
+ *
+ */
+public class JoinKeyFilter extends IFilter {
+	private static final int MAX_BITS = 1 << 26; // λͼռ8Mֽ
+	private static final int BITS_PER_KEY = 256; // ȡֵΧĴ˱ʱʹλͼ
+	private static final int MAX_SCAN_BITS = 1 << 16; // λͼжϿȡֵʱλ
+	
+	private Expression right; // бʽڰм
+	private boolean isInteger; // Ƿ
+	private long minValue; // Сֵ
+	private long maxValue; // ֵ
+	private long []bits; // λͼȡֵΧ̫ʱΪnull
+	
+	private Class<?> keyType; // ͣĿǰִֻ֧
+	private long []bloom; // ¡
+	private int bloomMask; // ¡λ1
+	private boolean hasNull; // Ƿпֵ
+	
+	private JoinKeyFilter(ColumnMetaData column, int priority) {
+		super(column, priority);
+		right = new Expression(column.getColName());
+	}
+	
+	/**
+	 * άĹɹ
+	 * @param column ֶζӦ
+	 * @param priority ȼ
+	 * @param code ά
+	 * @param exp άĹʽʡ
+	 * @param ctx 
+	 * @return JoinKeyFilterɹʱnull
+	 */
+	public static JoinKeyFilter create(ColumnMetaData column, int priority, Sequence code, Expression exp, Context ctx) {
+		int len = code.length();
+		if (len == 0) {
+			return null;
+		}
+		
+		JoinKeyFilter filter = new JoinKeyFilter(column, priority);
+		if (exp != null && exp.getHome() instanceof CurrentSeq) {
+			// Ź
+			filter.isInteger = true;
+			filter.minValue = 1;
+			filter.maxValue = len;
+			return filter;
+		}
+		
+		IArray keys;
+		if (exp == null) {
+			Object obj = code.ifn();
+			if (obj instanceof BaseRecord) {
+				int []pks = ((BaseRecord)obj).dataStruct().getPKIndex();
+				if (pks == null || pks.length != 1) {
+					return null;
+				}
+				
+				keys = code.getFieldValueArray(pks[0]);
+			} else {
+				keys = code.getMems();
+			}
+		} else {
+			keys = code.calc(exp, ctx).getMems();
+		}
+		
+		if (filter.init(keys)) {
+			return filter;
+		} else {
+			return null;
+		}
+	}
+	
+	private boolean init(IArray keys) {
+		int len = keys.size();
+		boolean isInteger = true;
+		long minValue = Long.MAX_VALUE;
+		long maxValue = Long.MIN_VALUE;
+		Class<?> keyType = null;
+		int count = 0;
+		
+		for (int i = 1; i <= len; ++i) {
+			Object key = keys.get(i);
+			if (key == null) {
+				hasNull = true;
+				continue;
+			}
+			
+			count++;
+			if (key instanceof Integer || key instanceof Long) {
+				long n = ((Number)key).longValue();
+				if (n < minValue) {
+					minValue = n;
+				}
+				
+				if (n > maxValue) {
+					maxValue = n;
+				}
+			} else {
+				isInteger = false;
+			}
+			
+			if (keyType == null) {
+				keyType = key.getClass();
+			} else if (keyType != key.getClass()) {
+				keyType = Object.class;
+			}
+		}
+		
+		if (count == 0) {
+			return false;
+		}
+		
+		if (isInteger) {
+			this.isInteger = true;
+			this.minValue = minValue;
+			this.maxValue = maxValue;
+			
+			long range = maxValue - minValue + 1;
+			if (range > 0 && range <= MAX_BITS && range <= (long)count * BITS_PER_KEY) {
+				long []bits = new long[(int)((range + 63) >>> 6)];
+				for (int i = 1; i <= len; ++i) {
+					Object key = keys.get(i);
+					if (key != null) {
+						long d = ((Number)key).longValue() - minValue;
+						bits[(int)(d >>> 6)] |= 1L << d;
+					}
+				}
+				
+				this.bits = bits;
+			} else {
+				createBloom(count);
+				for (int i = 1; i <= len; ++i) {
+					Object key = keys.get(i);
+					if (key != null) {
+						addBloom(HashUtil.hashCode(((Number)key).longValue()));
+					}
+				}
+			}
+		} else if (keyType == String.class) {
+			// ͵ֵʱϣֵһȣ羫ȲͬBigDecimalֻԴ¡
+			this.keyType = keyType;
+			createBloom(count);
+			for (int i = 1; i <= len; ++i) {
+				Object key = keys.get(i);
+				if (key != null) {
+					addBloom(key.hashCode());
+				}
+			}
+		} else {
+			return false;
+		}
+		
+		return true;
+	}
+	
+	private void createBloom(int count) {
+		// ÿռ8λϣ
+		int size = 64;
+		while (size < MAX_BITS && size / 8 < count) {
+			size <<= 1;
+		}
+		
+		bloom = new long[size >>> 6];
+		bloomMask = size - 1;
+	}
+	
+	private static int hash1(int h) {
+		h *= 0x9E3779B1;
+		return h ^ (h >>> 16);
+	}
+	
+	private static int hash2(int h) {
+		h *= 0x85EBCA77;
+		return h ^ (h >>> 13);
+	}
+	
+	private void addBloom(int hash) {
+		int i1 = hash1(hash) & bloomMask;
+		int i2 = hash2(hash) & bloomMask;
+		bloom[i1 >>> 6] |= 1L << i1;
+		bloom[i2 >>> 6] |= 1L << i2;
+	}
+	
+	private boolean matchBloom(int hash) {
+		int i1 = hash1(hash) & bloomMask;
+		if ((bloom[i1 >>> 6] & (1L << i1)) == 0) {
+			return false;
+		}
+		
+		int i2 = hash2(hash) & bloomMask;
+		return (bloom[i2 >>> 6] & (1L << i2)) != 0;
+	}
+	
+	private boolean match(long n) {
+		if (n < minValue || n > maxValue) {
+			return false;
+		} else if (bits != null) {
+			long d = n - minValue;
+			return (bits[(int)(d >>> 6)] & (1L << d)) != 0;
+		} else if (bloom != null) {
+			return matchBloom(HashUtil.hashCode(n));
+		} else {
+			return true;
+		}
+	}
+	
+	public boolean match(Object value) {
+		if (value == null) {
+			return hasNull;
+		} else if (isInteger) {
+			if (value instanceof Integer || value instanceof Long) {
+				return match(((Number)value).longValue());
+			} else {
+				return true;
+			}
+		} else if (value.getClass() == keyType) {
+			return matchBloom(value.hashCode());
+		} else {
+			return true;
+		}
+	}
+	
+	public boolean match(Object minValue, Object maxValue) {
+		if (isInteger && (minValue instanceof Integer || minValue instanceof Long) &&
+				(maxValue instanceof Integer || maxValue instanceof Long)) {
+			long start = Math.max(((Number)minValue).longValue(), this.minValue);
+			long end = Math.min(((Number)maxValue).longValue(), this.maxValue);
+			if (start > end) {
+				return false;
+			} else if (bits == null || end - start >= MAX_SCAN_BITS) {
+				return true;
+			}
+			
+			// ȡֵǷй
+			long []bits = this.bits;
+			for (long d = start - this.minValue, last = end - this.minValue; d <= last; ++d) {
+				if ((bits[(int)(d >>> 6)] & (1L << d)) != 0) {
+					return true;
+				}
+			}
+			
+			return false;
+		} else if (minValue != null && Variant.isEquals(minValue, maxValue)) {
+			return match(minValue);
+		} else {
+			return true;
+		}
+	}
+	
+	public IArray calculateAll(Context ctx) {
+		IArray values = right.calculateAll(ctx);
+		int len = values.size();
+		boolean []result = new boolean[len + 1];
+		
+		if (isInteger && values instanceof IntArray) {
+			IntArray ints = (IntArray)values;
+			for (int i = 1; i <= len; ++i) {
+				result[i] = ints.isNull(i) ? hasNull : match((long)ints.getInt(i));
+			}
+		} else {
+			for (int i = 1; i <= len; ++i) {
+				result[i] = match(values.get(i));
+			}
+		}
+		
+		BoolArray resultArray = new BoolArray(result, len);
+		resultArray.setTemporary(true);
+		return resultArray;
+	}
+	
+	public IArray calculateAnd(Context ctx, IArray leftResult) {
+		// isTrueصʱBollArrayֱ޸
+		BoolArray resultArray = leftResult.isTrue();
+		boolean []resultDatas = resultArray.getDatas();
+		IArray values = right.calculateAll(ctx);
+		
+		for (int i = 1, len = values.size(); i <= len; ++i) {
+			if (resultDatas[i]) {
+				resultDatas[i] = match(values.get(i));
+			}
+		}
+		
+		return resultArray;
+	}
+	
+	public int isValueRangeMatch(Context ctx) {
+		return Relation.PARTICALMATCH;
+	}
+}
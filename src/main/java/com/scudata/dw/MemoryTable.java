@@ -12,6 +12,7 @@ import com.scudata.dm.BaseRecord;
 import com.scudata.dm.CompressIndexTable;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
+import com.scudata.dm.IResource;
 import com.scudata.dm.IndexTable;
 import com.scudata.dm.Record;
 import com.scudata.dm.Sequence;
@@ -33,7 +34,7 @@ import com.scudata.resources.EngineMessage;
  * @author runqian
  *
  */
-public class MemoryTable extends Table {
+public class MemoryTable extends Table implements IResource {
 	private static final long serialVersionUID = 0x03310004;
 	
 	// зֲʽڽڵǷֲģûҪҪȽϽڵݵķΧǷغ
@@ -42,6 +43,8 @@ public class MemoryTable extends Table {
 	
 	private int []segmentFields; // ɶ·αʱڷֶεֶ
 	private List<MemoryTableIndex> indexs;
+	private ColumnStore columnStore; // д洢ʱֵֶд洢ʱΪ
+	private Context ctx; // Ǽ˱ڱΪԴģcloseʱƳ
 	
 	/**
 	 * лʱʹ
@@ -105,6 +108,171 @@ public class MemoryTable extends Table {
 		this.setIndexTable(indexTable);
 	}
 
+	/**
+	 * αɰд洢ڱ¼ֻкţֵֶʹ
+	 * @param cursor α
+	 * @return MemoryTable αûʱؿ
+	 */
+	public static MemoryTable createColumnTable(ICursor cursor) {
+		return createColumnTable(cursor, false);
+	}
+	
+	/**
+	 * αɰд洢ڱ
+	 * @param cursor α
+	 * @param isDirect ֵǷڶڴ棬ʹöڴڱҪcloseͷ
+	 * @return MemoryTable αûʱؿ
+	 */
+	public static MemoryTable createColumnTable(ICursor cursor, boolean isDirect) {
+		Sequence data = cursor.fetch(ICursor.FETCHCOUNT);
+		if (data == null || data.length() == 0) {
+			return null;
+		}
+		
+		DataStruct ds = data.dataStruct();
+		if (ds == null) {
+			// Ǵʱд洢
+			Sequence seq = cursor.fetch();
+			if (seq != null) {
+				data.addAll(seq);
+			}
+			
+			return new MemoryTable(data.derive("o"));
+		}
+		
+		MemoryTable table = new MemoryTable(ds, ICursor.INITSIZE);
+		table.columnStore = new ColumnStore(ds.getFieldCount(), isDirect);
+		
+		while (data != null && data.length() > 0) {
+			table.addColumnRecords(data);
+			data = cursor.fetch(ICursor.FETCHCOUNT);
+		}
+		
+		table.columnStore.trimToSize();
+		table.mems.trimToSize();
+		return table;
+	}
+	
+	/**
+	 * յİд洢ڱ
+	 * @param ds ݽṹ
+	 * @param isDirect ֵǷڶڴ
+	 * @return MemoryTable
+	 */
+	public static MemoryTable createColumnTable(DataStruct ds, boolean isDirect) {
+		MemoryTable table = new MemoryTable(ds);
+		table.columnStore = new ColumnStore(ds.getFieldCount(), isDirect);
+		return table;
+	}
+	
+	/**
+	 * Ƿǰд洢ڱ
+	 * @return
+	 */
+	public boolean isColumnTable() {
+		return columnStore != null;
+	}
+	
+	/**
+	 * ֵǷڶڴ
+	 * @return
+	 */
+	public boolean isDirect() {
+		return columnStore != null && columnStore.isDirect();
+	}
+	
+	/**
+	 * ڱǼΪĵԴĹرԴߵcloseʱͷŶڴ
+	 * @param ctx 
+	 */
+	public void setContext(Context ctx) {
+		this.ctx = ctx;
+		ctx.addResource(this);
+	}
+	
+	/**
+	 * ͷкռõĶڴ棬֮ٷ
+	 */
+	public void close() {
+		if (ctx != null) {
+			ctx.removeResource(this);
+			ctx = null;
+		}
+		
+		if (columnStore != null) {
+			columnStore.close();
+		}
+		
+		if (indexs != null) {
+			for (MemoryTableIndex index : indexs) {
+				index.close();
+			}
+		}
+	}
+	
+	public BaseRecord newLast() {
+		if (columnStore == null) {
+			return super.newLast();
+		} else {
+			return newLast(new Object[0]);
+		}
+	}
+	
+	public BaseRecord newLast(Object []initVals) {
+		if (columnStore == null) {
+			return super.newLast(initVals);
+		}
+		
+		int row = columnStore.addRow(initVals);
+		ColumnRecord r = new ColumnRecord(ds, columnStore, row);
+		mems.add(r);
+		return r;
+	}
+	
+	// Ѽ¼ֵֶд洢׷ӶӦд¼
+	private void addColumnRecords(Sequence data) {
+		IArray addMems = data.getMems();
+		int addCount = addMems.size();
+		IArray mems = this.mems;
+		mems.ensureCapacity(mems.size() + addCount);
+		
+		DataStruct ds = this.ds;
+		ColumnStore store = columnStore;
+		for (int i = 1; i <= addCount; ++i) {
+			BaseRecord r = (BaseRecord)addMems.get(i);
+			int row = store.addRow(r.getFieldValues());
+			mems.add(new ColumnRecord(ds, store, row));
+		}
+	}
+	
+	// ıṹǰ¼д洢֮д洢
+	private void toRowTable() {
+		if (columnStore == null) {
+			return;
+		}
+		
+		IArray mems = this.mems;
+		for (int i = 1, len = mems.size(); i <= len; ++i) {
+			Object obj = mems.get(i);
+			if (obj instanceof ColumnRecord) {
+				((ColumnRecord)obj).detach();
+			}
+		}
+		
+		columnStore.close();
+		columnStore = null;
+	}
+	
+	public void alter(String []fields) {
+		toRowTable();
+		super.alter(fields);
+	}
+	
+	public void alter(String []fields, String []oldFields) {
+		toRowTable();
+		super.alter(fields, oldFields);
+	}
+	
 	/**
 	 * Ƿѹѹʱ
 	 * @return
@@ -118,6 +286,11 @@ public class MemoryTable extends Table {
 	 * @param table
 	 */
 	public Sequence append(Sequence table) {
+		if (columnStore != null) {
+			addColumnRecords(table);
+			return this;
+		}
+		
 		IArray addMems = table.getMems();
 
 		// ļ¼к
@@ -224,7 +397,13 @@ public class MemoryTable extends Table {
 					}
 				}
 			} else if (isInsert) {
-				r = new Record(ds, r.getFieldValues());
+				if (columnStore == null) {
+					r = new Record(ds, r.getFieldValues());
+				} else {
+					int row = columnStore.addRow(r.getFieldValues());
+					r = new ColumnRecord(ds, columnStore, row);
+				}
+				
 				mems.add(r);
 				if (result != null) {
 					result.add(r);
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 
+import com.scudata.common.Logger;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
@@ -1715,9 +1716,11 @@ abstract public class PhyTable implements IPhyTable {
 	}
 	
 	/**
-	 * Cuboid
+	 * ԭ׷ӵܵCuboid
+	 * ʱԭѾύĳCuboidʧʱ쳣ɾ»һ
 	 */
 	public void updateCuboids() {
+		String []cuboids = this.cuboids;
 		if (cuboids == null) return;
 		String dir = groupTable.getFile().getAbsolutePath() + "_";
 		for (String cuboid: cuboids) {
@@ -1733,11 +1736,14 @@ abstract public class PhyTable implements IPhyTable {
 				table.update(this);
 				table.close();
 			} catch (Exception e) {
+				Logger.error(cuboid + ": " + e.getMessage(), e);
 				if (table != null) table.close();
-				for (PhyTable tbl : tableList) {
-					tbl.close();
+				
+				try {
+					deleteCuboid(cuboid);
+				} catch (Exception ex) {
+					Logger.error(cuboid + ": " + ex.getMessage(), ex);
 				}
-				throw new RQException(e.getMessage(), e);
 			}
 		}
 	}
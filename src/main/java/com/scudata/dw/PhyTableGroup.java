@@ -3,14 +3,18 @@ package com.scudata.dw;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.BFileWriter;
+import com.scudata.dm.BaseRecord;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
 import com.scudata.dm.Env;
 import com.scudata.dm.FileObject;
+import com.scudata.dm.Record;
 import com.scudata.dm.Sequence;
 import com.scudata.dm.Table;
 import com.scudata.dm.cursor.BFileCursor;
@@ -19,7 +23,20 @@ import com.scudata.dm.cursor.ICursor;
 import com.scudata.dm.cursor.MergeCursor;
 import com.scudata.dm.cursor.MergeCursor2;
 import com.scudata.dm.cursor.MultipathCursors;
+import com.scudata.expression.ArgNode;
+import com.scudata.expression.ConstParam;
+import com.scudata.expression.Constant;
 import com.scudata.expression.Expression;
+import com.scudata.expression.IParam;
+import com.scudata.expression.Node;
+import com.scudata.expression.UnknownSymbol;
+import com.scudata.expression.ValueList;
+import com.scudata.expression.VarParam;
+import com.scudata.expression.mfn.sequence.Contain;
+import com.scudata.expression.operator.And;
+import com.scudata.expression.operator.DotOperator;
+import com.scudata.expression.operator.Equals;
+import com.scudata.expression.operator.Or;
 import com.scudata.resources.EngineMessage;
 
 /**
@@ -296,6 +313,7 @@ public class PhyTableGroup implements IPhyTable {
 	
 	public ICursor cursor(Expression []exps, String []fields, Expression filter, 
 			String []fkNames, Sequence []codes, String[] opts, String opt, Context ctx) {
+		IPhyTable []tables = getTables(filter, ctx);
 		int count = tables.length;
 		ICursor []cursors = new ICursor[count];
 		for (int i = 0; i < count; ++i) {
@@ -328,6 +346,7 @@ public class PhyTableGroup implements IPhyTable {
 			return cursor(exps, fields, filter, fkNames, codes, opts, opt, ctx);
 		}
 		
+		IPhyTable []tables = getTables(filter, ctx);
 		int tableCount = tables.length;
 		ArrayList<ICursor> []lists = new ArrayList[pathCount];
 		
@@ -413,7 +432,7 @@ public class PhyTableGroup implements IPhyTable {
 		if (size == 0) {
 			return null;
 		} else if (size == 1) {
-			return list.get(1);
+			return list.get(0);
 		} else {
 			ICursor []cursors = new ICursor[size];
 			list.toArray(cursors);
@@ -427,6 +446,7 @@ public class PhyTableGroup implements IPhyTable {
 			return cursor(exps, fields, filter, fkNames, codes, opts, opt, ctx);
 		}
 		
+		IPhyTable []tables = getTables(filter, ctx);
 		int count = tables.length;
 		ArrayList<ICursor> list = new ArrayList<ICursor>(count);
 		for (int i = 0; i < count; ++i) {
@@ -452,9 +472,15 @@ public class PhyTableGroup implements IPhyTable {
 	}
 	
 	public Table finds(Sequence values) throws IOException {
+		IPhyTable []tables = this.tables;
+		Sequence []tableValues = splitFindValues(values);
 		Table result = null;
-		for (IPhyTable table : tables) {
-			Table cur = table.finds(values);
+		for (int i = 0; i < tables.length; ++i) {
+			if (tableValues[i] == null) {
+				continue;
+			}
+			
+			Table cur = tables[i].finds(tableValues[i]);
 			if (cur != null) {
 				if (result == null) {
 					result = cur;
@@ -464,7 +490,7 @@ public class PhyTableGroup implements IPhyTable {
 			}
 		}
 		
-		if (opt == null || opt.indexOf('o' ) == -1) {
+		if (result != null && (opt == null || opt.indexOf('o' ) == -1)) {
 			String []sortFields = getAllSortedColNames();
 			result.sortFields(sortFields);
 		}
@@ -473,9 +499,15 @@ public class PhyTableGroup implements IPhyTable {
 	}
 	
 	public Table finds(Sequence values, String []selFields) throws IOException {
+		IPhyTable []tables = this.tables;
+		Sequence []tableValues = splitFindValues(values);
 		Table result = null;
-		for (IPhyTable table : tables) {
-			Table cur = table.finds(values, selFields);
+		for (int i = 0; i < tables.length; ++i) {
+			if (tableValues[i] == null) {
+				continue;
+			}
+			
+			Table cur = tables[i].finds(tableValues[i], selFields);
 			if (cur != null) {
 				if (result == null) {
 					result = cur;
@@ -490,6 +522,7 @@ public class PhyTableGroup implements IPhyTable {
 	public ICursor icursor(String []fields, Expression filter, String iname, String opt, Context ctx) {
 		boolean sort = true;
 		int[] sortFields = null;
+		IPhyTable []tables = getTables(filter, ctx);
 		int count = tables.length;
 		ArrayList<ICursor> list = new ArrayList<ICursor>(count);
 		for (int i = 0; i < count; ++i) {
@@ -532,6 +565,295 @@ public class PhyTableGroup implements IPhyTable {
 		}
 	}
 
+	/**
+	 * üȡļ¼ķ
+	 * ÷ֲʽ漰ķţøпСֵųķ
+	 * @param filter 
+	 * @param ctx 
+	 * @return 飬һԱ㷵صαݽṹ
+	 */
+	private IPhyTable[] getTables(Expression filter, Context ctx) {
+		IPhyTable []tables = this.tables;
+		if (filter == null) {
+			return tables;
+		}
+		
+		HashSet<Integer> partSet = null;
+		String field = getDistributeField(ctx);
+		if (field != null) {
+			partSet = getPartitions(filter.getHome(), field, ctx);
+		}
+		
+		int count = tables.length;
+		ArrayList<IPhyTable> list = new ArrayList<IPhyTable>(count);
+		for (int i = 0; i < count; ++i) {
+			if (partSet != null && !partSet.contains(partitions[i])) {
+				continue;
+			}
+			
+			IPhyTable table = tables[i];
+			if (table instanceof ColPhyTable && !((ColPhyTable)table).canMatch(filter, ctx)) {
+				continue;
+			}
+			
+			list.add(table);
+		}
+		
+		if (list.size() == count) {
+			return tables;
+		} else if (list.size() == 0) {
+			return new IPhyTable[] {tables[0]};
+		} else {
+			IPhyTable []result = new IPhyTable[list.size()];
+			list.toArray(result);
+			return result;
+		}
+	}
+	
+	/**
+	 * ʱҪҵֵֻ֣зܺеֵŻָ
+	 * @param values ֵ
+	 * @return ҪҵֵΪձʾ˷Ҫ
+	 */
+	private Sequence[] splitFindValues(Sequence values) {
+		IPhyTable []tables = this.tables;
+		int count = tables.length;
+		Sequence []result = new Sequence[count];
+		int len = values.length();
+		String []sortFields = getAllSortedColNames();
+		if (len == 0 || sortFields == null || sortFields.length == 0) {
+			for (int i = 0; i < count; ++i) {
+				result[i] = values;
+			}
+			
+			return result;
+		}
+		
+		// ֲʽֻ˵һʱֵڵķ
+		String keyName = sortFields[0];
+		HashMap<Integer, Integer> partMap = null;
+		if (keyName.equals(getDistributeField(ctx))) {
+			partMap = new HashMap<Integer, Integer>(count * 2);
+			for (int i = 0; i < count; ++i) {
+				partMap.put(partitions[i], i);
+			}
+		}
+		
+		for (int v = 1; v <= len; ++v) {
+			Object value = values.getMem(v);
+			Object key = getFirstKeyValue(value);
+			Integer p = partMap == null ? null : calcPartition(key, keyName, ctx);
+			
+			if (p == null) {
+				for (int i = 0; i < count; ++i) {
+					if (canMatch(tables[i], keyName, key)) {
+						addFindValue(result, i, value, len);
+					}
+				}
+			} else {
+				Integer i = partMap.get(p);
+				if (i != null && canMatch(tables[i], keyName, key)) {
+					addFindValue(result, i, value, len);
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	private static void addFindValue(Sequence []result, int i, Object value, int len) {
+		if (result[i] == null) {
+			result[i] = new Sequence(len);
+		}
+		
+		result[i].add(value);
+	}
+	
+	private static boolean canMatch(IPhyTable table, String keyName, Object key) {
+		return !(table instanceof ColPhyTable) || ((ColPhyTable)table).canMatch(keyName, key);
+	}
+	
+	// ȡҪҵֵĵһֵ
+	private static Object getFirstKeyValue(Object value) {
+		if (value instanceof Sequence) {
+			Sequence seq = (Sequence)value;
+			return seq.length() > 0 ? seq.getMem(1) : null;
+		} else if (value instanceof BaseRecord) {
+			BaseRecord r = (BaseRecord)value;
+			int []keyIndex = r.dataStruct().getPKIndex();
+			return keyIndex == null ? null : r.getNormalFieldValue(keyIndex[0]);
+		} else {
+			return value;
+		}
+	}
+	
+	/**
+	 * ȡֲʽõֶΣֲַֻ֧ʽֻһֶε
+	 * @param ctx 
+	 * @return ֶ֧ʱؿ
+	 */
+	private String getDistributeField(Context ctx) {
+		Expression distribute = this.distribute;
+		if (distribute == null || distribute.getHome() == null) {
+			return null;
+		}
+		
+		ArrayList<String> fields = new ArrayList<String>();
+		distribute.getUsedFields(ctx, fields);
+		if (fields.size() == 1) {
+			return fields.get(0);
+		} else {
+			return null;
+		}
+	}
+	
+	/**
+	 * ÷ֲʽֶȡֵָʱڵķ
+	 * @param value ֵֶ
+	 * @param field ֲʽõֶ
+	 * @param ctx 
+	 * @return ţ㲻ʱؿ
+	 */
+	private Integer calcPartition(Object value, String field, Context ctx) {
+		try {
+			DataStruct ds = new DataStruct(new String[] {field});
+			Record r = new Record(ds, new Object[] {value});
+			Object obj = r.calc(distribute, ctx);
+			if (obj instanceof Number) {
+				return ((Number)obj).intValue();
+			} else {
+				return null;
+			}
+		} catch (Exception e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * ݹԷֲֶεĵֵжķ
+	 * ֻʶfield==vv.contain(field)Լǵ롢ϣvǳ
+	 * @param node Ľڵ
+	 * @param field ֲʽõֶ
+	 * @param ctx 
+	 * @return żϣؿձʾ޷ȷҪз
+	 */
+	private HashSet<Integer> getPartitions(Node node, String field, Context ctx) {
+		if (node instanceof And) {
+			HashSet<Integer> left = getPartitions(node.getLeft(), field, ctx);
+			HashSet<Integer> right = getPartitions(node.getRight(), field, ctx);
+			if (left == null) {
+				return right;
+			} else if (right != null) {
+				left.retainAll(right);
+			}
+			
+			return left;
+		} else if (node instanceof Or) {
+			HashSet<Integer> left = getPartitions(node.getLeft(), field, ctx);
+			if (left == null) {
+				return null;
+			}
+			
+			HashSet<Integer> right = getPartitions(node.getRight(), field, ctx);
+			if (right == null) {
+				return null;
+			}
+			
+			left.addAll(right);
+			return left;
+		} else if (node instanceof Equals) {
+			Node valueNode;
+			if (isField(node.getLeft(), field)) {
+				valueNode = node.getRight();
+			} else if (isField(node.getRight(), field)) {
+				valueNode = node.getLeft();
+			} else {
+				return null;
+			}
+			
+			if (!isConstant(valueNode)) {
+				return null;
+			}
+			
+			Object value;
+			try {
+				value = valueNode.calculate(ctx);
+			} catch (Exception e) {
+				return null;
+			}
+			
+			Integer p = calcPartition(value, field, ctx);
+			if (p == null) {
+				return null;
+			}
+			
+			HashSet<Integer> result = new HashSet<Integer>();
+			result.add(p);
+			return result;
+		} else if (node instanceof DotOperator && node.getRight() instanceof Contain) {
+			IParam param = ((Contain)node.getRight()).getParam();
+			if (param == null || !param.isLeaf() || !isField(param.getLeafExpression().getHome(), field) || 
+					!isConstant(node.getLeft())) {
+				return null;
+			}
+			
+			Object obj;
+			try {
+				obj = node.getLeft().calculate(ctx);
+			} catch (Exception e) {
+				return null;
+			}
+			
+			if (!(obj instanceof Sequence)) {
+				return null;
+			}
+			
+			Sequence seq = (Sequence)obj;
+			HashSet<Integer> result = new HashSet<Integer>();
+			for (int i = 1, len = seq.length(); i <= len; ++i) {
+				Integer p = calcPartition(seq.getMem(i), field, ctx);
+				if (p == null) {
+					return null;
+				}
+				
+				result.add(p);
+			}
+			
+			return result;
+		} else {
+			return null;
+		}
+	}
+	
+	private static boolean isField(Node node, String field) {
+		return node instanceof UnknownSymbol && ((UnknownSymbol)node).getName().equals(field);
+	}
+	
+	// жϽڵǷǲڼ¼ֵֵֻڹǰ
+	private static boolean isConstant(Node node) {
+		if (node instanceof Constant || node instanceof ConstParam ||
+				node instanceof VarParam || node instanceof ArgNode) {
+			return true;
+		} else if (node instanceof ValueList) {
+			IParam param = ((ValueList)node).getParam();
+			if (param == null) {
+				return true;
+			}
+			
+			ArrayList<Expression> list = new ArrayList<Expression>();
+			param.getAllLeafExpression(list);
+			for (Expression exp : list) {
+				if (exp == null || !isConstant(exp.getHome())) {
+					return false;
+				}
+			}
+			
+			return true;
+		} else {
+			return false;
+		}
+	}
+	
 	/**
 	 * ȡֶ
 	 * @return ֶ
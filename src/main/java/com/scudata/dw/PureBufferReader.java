@@ -28,6 +28,7 @@ public class PureBufferReader extends BufferReader {
 	private int[] pos;
 	private Object constValue;
 	private boolean[] isNull;
+	private IArray values;//ֵ
 	private int dataIndex = 0;//άisNull
 	
 	public PureBufferReader(StructManager structManager, byte[] buffer, int recordCount, Sequence columnDict) {
@@ -115,6 +116,14 @@ public class PureBufferReader extends BufferReader {
 				}
 				this.pos = pos;
 				return;
+			case DataBlockType.INT_DELTA:
+			case DataBlockType.INT_BITPACK:
+			case DataBlockType.INT_RLE:
+			case DataBlockType.LONG_DELTA:
+			case DataBlockType.LONG_BITPACK:
+			case DataBlockType.LONG_RLE:
+				values = decodeIntegerBlock(recordCount);
+				return;
 			case DataBlockType.INT:
 			case DataBlockType.LONG:
 			case DataBlockType.DOUBLE:
@@ -137,6 +146,90 @@ public class PureBufferReader extends BufferReader {
 		}
 	}
 	
+	/**
+	 * Ѳֵλѹγ̱IntArrayLongArray
+	 * @param recordCount ¼
+	 * @return
+	 */
+	private IArray decodeIntegerBlock(int recordCount) {
+		long []datas = new long[recordCount + 1];
+		switch (blockType) {
+		case DataBlockType.INT_BITPACK:
+		case DataBlockType.LONG_BITPACK:
+			readPacked(datas, 1, recordCount);
+			break;
+		case DataBlockType.INT_DELTA:
+		case DataBlockType.LONG_DELTA:
+			datas[1] = readLittleEndianLong64();
+			readPacked(datas, 2, recordCount - 1);
+			for (int i = 2; i <= recordCount; ++i) {
+				datas[i] += datas[i - 1];
+			}
+			break;
+		default:
+			int runCount = readLittleEndianInt32();
+			long []runValues = new long[runCount];
+			long []runLens = new long[runCount];
+			readPacked(runValues, 0, runCount);
+			readPacked(runLens, 0, runCount);
+			for (int r = 0, i = 1; r < runCount; ++r) {
+				long v = runValues[r];
+				for (long n = runLens[r]; n >= 0; --n) {
+					datas[i++] = v;
+				}
+			}
+		}
+		
+		if ((blockType & 0xF0) == DataBlockType.LONG) {
+			return new LongArray(datas, null, recordCount);
+		}
+		
+		int []intDatas = new int[recordCount + 1];
+		for (int i = 1; i <= recordCount; ++i) {
+			intDatas[i] = (int)datas[i];
+		}
+		
+		return new IntArray(intDatas, null, recordCount);
+	}
+	
+	/**
+	 * λѹvaluesָΧʽΪСֵλѹֽ
+	 * @param values 
+	 * @param start ʼλã
+	 * @param count 
+	 */
+	private void readPacked(long []values, int start, int count) {
+		long min = readLittleEndianLong64();
+		int bits = buffer[index++] & 0xff;
+		int end = start + count;
+		if (bits == 0) {
+			for (int i = start; i < end; ++i) {
+				values[i] = min;
+			}
+			
+			return;
+		}
+		
+		byte []buffer = this.buffer;
+		int index = this.index;
+		long pos = 0;
+		for (int i = start; i < end; ++i) {
+			long v = 0;
+			for (int got = 0; got < bits;) {
+				int offset = (int)(pos & 7);
+				int n = Math.min(8 - offset, bits - got);
+				long b = ((buffer[index + (int)(pos >>> 3)] & 0xff) >>> offset) & ((1 << n) - 1);
+				v |= b << got;
+				got += n;
+				pos += n;
+			}
+			
+			values[i] = min + v;
+		}
+		
+		this.index = index + (int)((pos + 7) >>> 3);
+	}
+	
 	private int readLittleEndianInt16() {
 		byte[] in = buffer;
 		int offset = index;
@@ -281,6 +374,13 @@ public class PureBufferReader extends BufferReader {
 		case DataBlockType.DICT:
 			dataIndex++;
 			return dict.get(pos[dataIndex]);
+		case DataBlockType.INT_DELTA:
+		case DataBlockType.INT_BITPACK:
+		case DataBlockType.INT_RLE:
+		case DataBlockType.LONG_DELTA:
+		case DataBlockType.LONG_BITPACK:
+		case DataBlockType.LONG_RLE:
+			return values.get(++dataIndex);
 		case DataBlockType.INT:
 		case DataBlockType.LONG:
 		case DataBlockType.DOUBLE:
@@ -336,6 +436,12 @@ public class PureBufferReader extends BufferReader {
 			}
 			return;
 		case DataBlockType.DICT:
+		case DataBlockType.INT_DELTA:
+		case DataBlockType.INT_BITPACK:
+		case DataBlockType.INT_RLE:
+		case DataBlockType.LONG_DELTA:
+		case DataBlockType.LONG_BITPACK:
+		case DataBlockType.LONG_RLE:
 			dataIndex++;
 			return;
 		case DataBlockType.INT:
@@ -476,6 +582,16 @@ public class PureBufferReader extends BufferReader {
 			dataIndex++;
 			array.set(index, dict.get(pos[dataIndex]));
 			return;
+		case DataBlockType.INT_DELTA:
+		case DataBlockType.INT_BITPACK:
+		case DataBlockType.INT_RLE:
+			((IntArray)array).setInt(index, values.getInt(++dataIndex));
+			return;
+		case DataBlockType.LONG_DELTA:
+		case DataBlockType.LONG_BITPACK:
+		case DataBlockType.LONG_RLE:
+			((LongArray)array).setLong(index, values.getLong(++dataIndex));
+			return;
 		case DataBlockType.INT:
 			if (super.isNull()) {
 				super.readObject();
@@ -505,6 +621,32 @@ public class PureBufferReader extends BufferReader {
 		}
 	}
 	
+	/**
+	 * ȡcount׷ӵarray棬ʱ룬
+	 * ӿͷʼʱֱӷػ׷ӽIntArrayLongArray
+	 * @param array 
+	 * @param count 
+	 * @return ׷Ӻ飬ܲǴ
+	 * @throws IOException
+	 */
+	public IArray readArray(IArray array, int count) throws IOException {
+		IArray values = this.values;
+		if (values == null || dataIndex != 0 || count != values.size()) {
+			return super.readArray(array, count);
+		}
+		
+		if (array.size() == 0) {
+			dataIndex = count;
+			return values;
+		} else if (array.getClass() == values.getClass()) {
+			dataIndex = count;
+			array.addAll(values);
+			return array;
+		} else {
+			return super.readArray(array, count);
+		}
+	}
+	
 	/**
 	 * ݿͻһ
 	 * @param count
@@ -525,12 +667,18 @@ public class PureBufferReader extends BufferReader {
 		case DataBlockType.INT8:
 		case DataBlockType.INT16:
 		case DataBlockType.INT32:
+		case DataBlockType.INT_DELTA:
+		case DataBlockType.INT_BITPACK:
+		case DataBlockType.INT_RLE:
 			return new IntArray(count);
 		case DataBlockType.LONG:
 		case DataBlockType.LONG8:
 		case DataBlockType.LONG16:
 		case DataBlockType.LONG32:
 		case DataBlockType.LONG64:
+		case DataBlockType.LONG_DELTA:
+		case DataBlockType.LONG_BITPACK:
+		case DataBlockType.LONG_RLE:
 			return new LongArray(count);
 		case DataBlockType.DOUBLE:
 		case DataBlockType.DOUBLE64:
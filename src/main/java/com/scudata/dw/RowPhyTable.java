@@ -1093,6 +1093,11 @@ public class RowPhyTable extends PhyTable {
 		
 		// дݣ浽ļ
 		finishAppend();
+		
+		// ׷ӵܵ
+		if (parent == null) {
+			updateCuboids();
+		}
 	}
 
 	protected void appendSegmentBlock(int recordCount) throws IOException {
@@ -2871,6 +2876,11 @@ public class RowPhyTable extends PhyTable {
 		// дݣ浽ļ
 		finishAppend();
 		appendCache = null;
+		
+		// ׷ӵܵ
+		if (parent == null) {
+			updateCuboids();
+		}
 	}
 
 	public ICursor cursor(String[] fields, Expression filter, String[] fkNames, Sequence[] codes, 
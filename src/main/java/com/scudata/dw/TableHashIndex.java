@@ -3,6 +3,7 @@ package com.scudata.dw;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 
 import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
@@ -25,6 +26,9 @@ import com.scudata.expression.*;
 import com.scudata.expression.mfn.sequence.Contain;
 import com.scudata.expression.operator.*;
 import com.scudata.resources.EngineMessage;
+import com.scudata.thread.Job;
+import com.scudata.thread.MultithreadUtil;
+import com.scudata.thread.ThreadPool;
 import com.scudata.util.EnvUtil;
 import com.scudata.util.Variant;
 
@@ -1661,12 +1665,24 @@ public class TableHashIndex implements ITableIndex {
 	 * @return ¼Ż¼ַ
 	 */
 	public LongArray select(Object []vals, String opt, Context ctx) {
-		if (indexFile == null || vals == null || indexFile.size() == 0) {
+		if (indexFile == null || vals == null || vals.length == 0 || indexFile.size() == 0) {
 			return new LongArray();
 		}
 		
 		Arrays.sort(vals);
-		int len = vals.length;
+		
+		// ȥظĲѯֵõظĵַ
+		int len = 1;
+		for (int i = 1; i < vals.length; ++i) {
+			if (!Variant.isEquals(vals[i], vals[len - 1])) {
+				vals[len++] = vals[i];
+			}
+		}
+		
+		if (len < vals.length) {
+			vals = Arrays.copyOf(vals, len);
+		}
+		
 		LongArray posArray = new LongArray(len * 2);
 		boolean hasModify = srcTable.getModifyRecords() != null;//Ƿв
 		if (isDirectPos) {
@@ -1739,75 +1755,234 @@ public class TableHashIndex implements ITableIndex {
 			}
 		}
 		
-		InputStream is = indexFile.getInputStream();
-		ObjectReader reader = new ObjectReader(is, BUFFER_SIZE);
-		
-		try {
-			if (hashPos == 0) {
+		if (hashPos == 0) {
+			InputStream is = indexFile.getInputStream();
+			ObjectReader reader = new ObjectReader(is, BUFFER_SIZE);
+			try {
 				readHeader(reader);
+			} catch (IOException e) {
+				throw new RQException(e.getMessage(), e);
+			} finally {
+				try {
+					reader.close();
+				} catch (IOException ie){};
 			}
-			int icount = ifields.length;
-			long pos;
-			long hashPos = this.hashPos;
-			int posCount = positionCount;
+		}
+		
+		selectByHash(vals, posArray);
+		return posArray;
+	}
+	
+	/**
+	 * ҶֵȰϣ˳ϣȡͰַٰͰַÿͰֻһ
+	 * ֵ϶ʱϣ۷ֶö̲߳ңÿ߳Լ
+	 * @param vals źĲѯֵ
+	 * @param posArray vals˳ҵļ¼ź͵ַ
+	 */
+	private void selectByHash(Object []vals, LongArray posArray) {
+		int len = vals.length;
+		int icount = ifields.length;
+		int capacity = this.capacity;
+		Object [][]valArrays = icount == 1 ? null : new Object[len][];
+		
+		// 32λǹϣۣ32λֵţͬһ۵ֵ
+		long []probes = new long[len];
+		for (int i = 0; i < len; ++i) {
+			int slot;
+			if (icount == 1) {
+				slot = hash(vals[i].hashCode(), capacity);
+			} else {
+				valArrays[i] = ((Sequence)vals[i]).toArray();
+				slot = hashCode(valArrays[i], capacity);
+			}
+			
+			probes[i] = ((long)slot << 32) | i;
+		}
+		
+		Arrays.sort(probes);
+		LongArray []results = new LongArray[len];
+		int parallelNum = Env.getParallelNum();
+		int singleCount = MultithreadUtil.getSingleThreadProssCount();
+		
+		if (len <= singleCount || parallelNum < 2) {
+			new HashProbeJob(vals, valArrays, probes, 0, len, results).run();
+		} else {
+			int threadCount = (len - 1) / singleCount + 1;
+			if (threadCount > parallelNum) {
+				threadCount = parallelNum;
+			}
+			
+			ThreadPool pool = ThreadPool.instance();
+			HashProbeJob []jobs = new HashProbeJob[threadCount];
+			int jobCount = 0;
+			int start = 0;
+			int end; // 
 			
-			for (Object val : vals) {
-				Object[] valArray = null;
-				if (icount == 1) {
-					pos = hash(val.hashCode(), capacity);
+			for (int i = 0; i < threadCount && start < len; ++i) {
+				if (i + 1 == threadCount) {
+					end = len;
 				} else {
-					valArray = ((Sequence)val).toArray();
-					pos = hashCode(valArray, capacity);
-				}
-				pos = hashPos + pos * POSITION_SIZE;
-				reader.seek(pos);
-				pos = reader.readLong40();
-				if (pos == 0) {
-					reader.close();
-					is = indexFile.getInputStream();
-					reader = new ObjectReader(is, BUFFER_SIZE);
-					continue;
+					end = start + len / threadCount;
+					
+					// ͬһϣ۵ֵֵͬһ񣬱֤ÿͰֻһ
+					while (end < len && (int)(probes[end] >> 32) == (int)(probes[end - 1] >> 32)) {
+						end++;
+					}
 				}
 				
-				reader.seek(pos);
-				int count = reader.readInt();
-				Object []objs = new Object[icount];
-				for (int i = 0; i < count; ++i) {
-					for (int f = 0; f < icount; ++f) {
-						objs[f] = reader.readObject();
-					}
-					int cmp;
-					if (icount == 1) {
-						cmp = Variant.compare(objs[0], val);
-					} else {
-						cmp = Variant.compareArrays(objs, valArray);
+				jobs[jobCount] = new HashProbeJob(vals, valArrays, probes, start, end, results);
+				pool.submit(jobs[jobCount++]); // ύ
+				start = end;
+			}
+			
+			// ȴִ
+			for (int i = 0; i < jobCount; ++i) {
+				jobs[i].join();
+			}
+		}
+		
+		for (LongArray result : results) {
+			if (result != null) {
+				for (int i = 0, size = result.size(); i < size; ++i) {
+					posArray.add(result.get(i));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Ұϣźһֵ
+	 * @author runqian
+	 *
+	 */
+	private class HashProbeJob extends Job {
+		private Object []vals; // ѯֵ
+		private Object [][]valArrays; // ֶʱÿѯֵӦ
+		private long []probes; // 32λǹϣۣ32λֵ
+		private int start; // ʼλã
+		private int end; // λã
+		private LongArray []results; // ÿѯֵҵļ¼ź͵ַ
+		
+		public HashProbeJob(Object []vals, Object [][]valArrays, long []probes, int start, int end, LongArray []results) {
+			this.vals = vals;
+			this.valArrays = valArrays;
+			this.probes = probes;
+			this.start = start;
+			this.end = end;
+			this.results = results;
+		}
+		
+		public void run() {
+			try {
+				probe();
+			} catch (IOException e) {
+				throw new RQException(e.getMessage(), e);
+			}
+		}
+		
+		private void probe() throws IOException {
+			long []probes = this.probes;
+			int end = this.end;
+			int count = end - start;
+			int []groupStarts = new int[count]; // ÿprobesеʼλ
+			int []groupEnds = new int[count]; // ÿprobesеĽλã
+			final long []bucketPos = new long[count]; // ÿ۵Ͱַ
+			int groupCount = 0;
+			
+			// ǵģϣֻǰһ
+			long hashPos = TableHashIndex.this.hashPos;
+			ObjectReader reader = new ObjectReader(indexFile.getInputStream(), BUFFER_SIZE);
+			try {
+				for (int i = start; i < end;) {
+					int slot = (int)(probes[i] >> 32);
+					int next = i + 1;
+					while (next < end && (int)(probes[next] >> 32) == slot) {
+						next++;
 					}
-					if (cmp == 0) {
-						posArray.add(reader.readLong());
-						for (int j = 0; j < posCount; ++j) {
-							posArray.add(reader.readLong());
-						}
-					} else {
-						reader.readLong();
-						for (int j = 0; j < posCount; ++j) {
-							reader.readLong();
-						}
+					
+					reader.seek(hashPos + (long)slot * POSITION_SIZE);
+					long pos = reader.readLong40();
+					if (pos != 0) {
+						groupStarts[groupCount] = i;
+						groupEnds[groupCount] = next;
+						bucketPos[groupCount] = pos;
+						groupCount++;
 					}
+					
+					i = next;
 				}
+			} finally {
 				reader.close();
-				is = indexFile.getInputStream();
-				reader = new ObjectReader(is, BUFFER_SIZE);
 			}
 			
-		} catch (IOException e) {
-			throw new RQException(e.getMessage(), e);
-		} finally {
+			if (groupCount == 0) {
+				return;
+			}
+			
+			// ͰַǰһͰ
+			Integer []order = new Integer[groupCount];
+			for (int g = 0; g < groupCount; ++g) {
+				order[g] = g;
+			}
+			
+			Arrays.sort(order, new Comparator<Integer>() {
+				public int compare(Integer o1, Integer o2) {
+					return Long.compare(bucketPos[o1], bucketPos[o2]);
+				}
+			});
+			
+			Object []vals = this.vals;
+			Object [][]valArrays = this.valArrays;
+			LongArray []results = this.results;
+			int icount = ifields.length;
+			int posCount = positionCount + 1;
+			Object []objs = new Object[icount];
+			long []positions = new long[posCount];
+			
+			reader = new ObjectReader(indexFile.getInputStream(), BUFFER_SIZE);
 			try {
+				for (int g : order) {
+					int groupStart = groupStarts[g];
+					int groupEnd = groupEnds[g];
+					reader.seek(bucketPos[g]);
+					int recordCount = reader.readInt();
+					
+					for (int r = 0; r < recordCount; ++r) {
+						for (int f = 0; f < icount; ++f) {
+							objs[f] = reader.readObject();
+						}
+						
+						for (int p = 0; p < posCount; ++p) {
+							positions[p] = reader.readLong();
+						}
+						
+						for (int i = groupStart; i < groupEnd; ++i) {
+							int index = (int)probes[i];
+							int cmp;
+							if (icount == 1) {
+								cmp = Variant.compare(objs[0], vals[index]);
+							} else {
+								cmp = Variant.compareArrays(objs, valArrays[index]);
+							}
+							
+							if (cmp == 0) {
+								LongArray result = results[index];
+								if (result == null) {
+									result = new LongArray(posCount);
+									results[index] = result;
+								}
+								
+								for (int p = 0; p < posCount; ++p) {
+									result.add(positions[p]);
+								}
+							}
+						}
+					}
+				}
+			} finally {
 				reader.close();
-			} catch (IOException ie){};
+			}
 		}
-
-		return posArray;
 	}
 
 	public LongArray select(Sequence vals, String opt, Context ctx) {
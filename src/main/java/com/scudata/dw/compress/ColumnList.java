@@ -16,7 +16,6 @@ import com.scudata.common.RQException;
 import com.scudata.dm.BaseRecord;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
-import com.scudata.dm.HashIndexTable;
 import com.scudata.dm.IndexTable;
 import com.scudata.dm.Record;
 import com.scudata.dm.Sequence;
@@ -299,7 +298,7 @@ public class ColumnList implements IArray {
 				if (indexTable != null) {
 					for (int i = 1; i <= len; ++i) {
 						Object key = oldColumn.getData(i);
-						int seq = ((HashIndexTable)indexTable).findPos(key);
+						int seq = indexTable.findPos(key);
 						column.addData(seq);
 					}
 				} else { // #
@@ -407,7 +406,7 @@ public class ColumnList implements IArray {
 				if (indexTable != null) {
 					for (int i = 1; i <= len; ++i) {
 						Object key = oldColumn.getData(i);
-						int seq = ((HashIndexTable)indexTable).findPos(key);
+						int seq = indexTable.findPos(key);
 						if (isDiff) {
 							// ҲʱԴֵ
 							if (seq > 0) {
@@ -0,0 +1,134 @@
+package com.scudata.expression;
+
+import com.scudata.dm.Context;
+import com.scudata.util.Variant;
+
+/**
+ * м϶ıʽɵĻ࣬ExpressionCompilerࡣ
+ * ɵĴľ̬㣬߿·͵Variant
+ * ͽִһ
+ * @author RunQian
+ *
+ */
+public abstract class CompiledNode {
+	/**
+	 * ʽֵ
+	 * @param ctx 
+	 * @return Object
+	 */
+	public abstract Object calculate(Context ctx);
+	
+	/**
+	 * ӷӵĽΪlongֹ
+	 */
+	public static Object add(Object o1, Object o2) {
+		if (o1 instanceof Integer) {
+			if (o2 instanceof Integer) {
+				return new Long((long)((Integer)o1).intValue() + ((Integer)o2).intValue());
+			}
+		} else if (o1 instanceof Long) {
+			if (o2 instanceof Long) {
+				return new Long(((Long)o1).longValue() + ((Long)o2).longValue());
+			}
+		} else if (o1 instanceof Double) {
+			if (o2 instanceof Double) {
+				return new Double(((Double)o1).doubleValue() + ((Double)o2).doubleValue());
+			}
+		}
+		
+		return Variant.add(o1, o2);
+	}
+	
+	/**
+	 * 
+	 */
+	public static Object subtract(Object o1, Object o2) {
+		if (o1 instanceof Integer) {
+			if (o2 instanceof Integer) {
+				return new Integer(((Integer)o1).intValue() - ((Integer)o2).intValue());
+			}
+		} else if (o1 instanceof Long) {
+			if (o2 instanceof Long) {
+				return new Long(((Long)o1).longValue() - ((Long)o2).longValue());
+			}
+		} else if (o1 instanceof Double) {
+			if (o2 instanceof Double) {
+				return new Double(((Double)o1).doubleValue() - ((Double)o2).doubleValue());
+			}
+		}
+		
+		return Variant.subtract(o1, o2);
+	}
+	
+	/**
+	 * ˷˵ĽΪlongֹ
+	 */
+	public static Object multiply(Object o1, Object o2) {
+		if (o1 instanceof Integer) {
+			if (o2 instanceof Integer) {
+				return new Long((long)((Integer)o1).intValue() * ((Integer)o2).intValue());
+			}
+		} else if (o1 instanceof Long) {
+			if (o2 instanceof Long) {
+				return new Long(((Long)o1).longValue() * ((Long)o2).longValue());
+			}
+		} else if (o1 instanceof Double) {
+			if (o2 instanceof Double) {
+				return new Double(((Double)o1).doubleValue() * ((Double)o2).doubleValue());
+			}
+		}
+		
+		return Variant.multiply(o1, o2);
+	}
+	
+	/**
+	 * ȽϴСVariant.compare(o1, o2, true)һ
+	 */
+	public static int compare(Object o1, Object o2) {
+		if (o1 instanceof Integer) {
+			if (o2 instanceof Integer) {
+				int n1 = ((Integer)o1).intValue();
+				int n2 = ((Integer)o2).intValue();
+				return n1 < n2 ? -1 : (n1 == n2 ? 0 : 1);
+			}
+		} else if (o1 instanceof Long) {
+			if (o2 instanceof Long) {
+				long n1 = ((Long)o1).longValue();
+				long n2 = ((Long)o2).longValue();
+				return n1 < n2 ? -1 : (n1 == n2 ? 0 : 1);
+			}
+		} else if (o1 instanceof Double) {
+			if (o2 instanceof Double) {
+				return Double.compare(((Double)o1).doubleValue(), ((Double)o2).doubleValue());
+			}
+		} else if (o1 instanceof String) {
+			if (o2 instanceof String) {
+				int cmp = ((String)o1).compareTo((String)o2);
+				return cmp < 0 ? -1 : (cmp > 0 ? 1 : 0);
+			}
+		}
+		
+		return Variant.compare(o1, o2, true);
+	}
+	
+	/**
+	 * жǷȣVariant.isEqualsһ
+	 */
+	public static boolean isEquals(Object o1, Object o2) {
+		if (o1 instanceof Integer) {
+			if (o2 instanceof Integer) {
+				return ((Integer)o1).intValue() == ((Integer)o2).intValue();
+			}
+		} else if (o1 instanceof String) {
+			if (o2 instanceof String) {
+				return o1.equals(o2);
+			}
+		} else if (o1 instanceof Long) {
+			if (o2 instanceof Long) {
+				return ((Long)o1).longValue() == ((Long)o2).longValue();
+			}
+		}
+		
+		return Variant.isEquals(o1, o2);
+	}
+}
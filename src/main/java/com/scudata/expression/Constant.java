@@ -20,6 +20,15 @@ public class Constant extends Node {
 		this.value = value;
 	}
 
+	public Node duplicate(Context ctx) {
+		// пܱ޸ģҪ²
+		if (value instanceof Sequence) {
+			return null;
+		} else {
+			return this;
+		}
+	}
+	
 	public byte calcExpValueType(Context ctx) {
 		if (value instanceof DBObject) {
 			return Expression.TYPE_DB;
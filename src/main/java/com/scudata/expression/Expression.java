@@ -18,6 +18,7 @@ import com.scudata.dm.Context;
 import com.scudata.dm.Current;
 import com.scudata.dm.DBObject;
 import com.scudata.dm.DataStruct;
+import com.scudata.dm.Env;
 import com.scudata.dm.KeyWord;
 import com.scudata.dm.Param;
 import com.scudata.dm.ParamList;
@@ -54,6 +55,9 @@ public class Expression {
 	// ǷԼȫֵиֵʱֻһм
 	private boolean canCalculateAll;
 	
+	private CompiledNode compiledHome; // мﵽֵɵĽڵ
+	private int calcCount; // мĴٳԱʱΪ-1
+	
 	/**
 	 * ʽ
 	 * @param str ıʽ
@@ -135,6 +139,14 @@ public class Expression {
 		canCalculateAll = node.canCalculateAll();
 	}
 	
+	// øƳĽڵʽڶ̼߳
+	private Expression(ICellSet cs, String expStr, Node home) {
+		this.cs = cs;
+		this.expStr = expStr;
+		this.home = home;
+		canCalculateAll = home.canCalculateAll();
+	}
+	
 	/**
 	 * ȡýڵ
 	 * @return Node
@@ -157,6 +169,15 @@ public class Expression {
 	 * @return 
 	 */
 	public Object calculate(Context ctx) {
+		if (compiledHome != null) {
+			return compiledHome.calculate(ctx);
+		} else if (calcCount >= 0 && ++calcCount == Env.getCompileThreshold()) {
+			compiledHome = ExpressionCompiler.compile(home);
+			if (compiledHome == null) {
+				calcCount = -1;
+			}
+		}
+		
 		return home.calculate(ctx);
 	}
 
@@ -279,6 +300,8 @@ public class Expression {
 	 */
 	public void optimize(Context ctx) {
 		home = home.optimize(ctx);
+		compiledHome = null;
+		calcCount = 0;
 	}
 
 	/**
@@ -1161,6 +1184,12 @@ public class Expression {
 	 */
 	public Expression newExpression(Context ctx) {
 		if (expStr != null) {
+			// ڵ㶼ָ֧ʱֱӸѽĽڵ㣬½
+			Node node = home.duplicate(ctx);
+			if (node != null) {
+				return new Expression(cs, expStr, node);
+			}
+			
 			return new Expression(cs, ctx, expStr, true, false);
 		} else {
 			return new Expression(home);
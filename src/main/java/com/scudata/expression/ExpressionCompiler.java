@@ -0,0 +1,687 @@
+package com.scudata.expression;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.scudata.common.Logger;
+import com.scudata.dm.Context;
+import com.scudata.expression.operator.Add;
+import com.scudata.expression.operator.And;
+import com.scudata.expression.operator.Divide;
+import com.scudata.expression.operator.Equals;
+import com.scudata.expression.operator.Greater;
+import com.scudata.expression.operator.Multiply;
+import com.scudata.expression.operator.Not;
+import com.scudata.expression.operator.NotEquals;
+import com.scudata.expression.operator.NotGreater;
+import com.scudata.expression.operator.NotSmaller;
+import com.scudata.expression.operator.Or;
+import com.scudata.expression.operator.Smaller;
+import com.scudata.expression.operator.Subtract;
+
+/**
+ * ѱʽеȽϺ߼CompiledNode࣬ʽһ
+ * JVMڵΪҶӽڵ㣬ɵĴֱӵǵcalculate
+ * ͬṹıʽɵ࣬ʧʱؿգɵ߼ִ
+ * һαǰø͵ֵȽÿִкͽִеĽһʱٱ
+ * @author RunQian
+ *
+ */
+public final class ExpressionCompiler {
+	private static final int MAX_CLASS_COUNT = 1024; // ɵ
+	
+	private static final String BASE_CLASS = "com/scudata/expression/CompiledNode";
+	private static final String CALC_DESC = "(Lcom/scudata/dm/Context;)Ljava/lang/Object;";
+	private static final String OBJECT_DESC = "Ljava/lang/Object;";
+	
+	// õָֽ
+	private static final int ICONST_0 = 0x03;
+	private static final int ICONST_1 = 0x04;
+	private static final int SIPUSH = 0x11;
+	private static final int ALOAD_0 = 0x2a;
+	private static final int ALOAD_1 = 0x2b;
+	private static final int AALOAD = 0x32;
+	private static final int IXOR = 0x82;
+	private static final int IFEQ = 0x99;
+	private static final int IFNE = 0x9a;
+	private static final int IFLT = 0x9b;
+	private static final int IFGE = 0x9c;
+	private static final int IFGT = 0x9d;
+	private static final int IFLE = 0x9e;
+	private static final int GOTO = 0xa7;
+	private static final int ARETURN = 0xb0;
+	private static final int RETURN = 0xb1;
+	private static final int GETFIELD = 0xb4;
+	private static final int PUTFIELD = 0xb5;
+	private static final int INVOKEVIRTUAL = 0xb6;
+	private static final int INVOKESPECIAL = 0xb7;
+	private static final int INVOKESTATIC = 0xb8;
+	private static final int CHECKCAST = 0xc0;
+	
+	// ʽṹӦĹ캯
+	private static HashMap<String, Constructor<?>> classMap = new HashMap<String, Constructor<?>>();
+	private static int classSeq = 0;
+	private static Boolean isChecked; // ִкͽִеĽǷһ£ձʾû
+	
+	// õıʽÿֿɱԼ
+	private static final String []CHECK_EXPS = new String[] {
+		"a+b", "a-b", "a*b", "a/b", "a==b", "a!=b", "a>b", "a>=b", "a<b", "a<=b",
+		"a&&b", "a||b", "!a", "!(a&&b)||a>b", "a+1", "a*2>b-1", "a==\"1\"", "a/2.5<=b"};
+	
+	// õֵintlongı߽硢ֵͷǲֵ
+	private static final Object []CHECK_VALUES = new Object[] {
+		null, Boolean.TRUE, Boolean.FALSE, new Integer(0), new Integer(1), new Integer(-3),
+		new Integer(Integer.MAX_VALUE), new Integer(Integer.MIN_VALUE), new Long(0), new Long(1),
+		new Long(Long.MAX_VALUE), new Long(Long.MIN_VALUE), new Double(0), new Double(-0.0),
+		new Double(2.5), new Double(Double.NaN), new BigDecimal("1"), new BigDecimal("-2.50"), 
+		"1", "abc", ""};
+	
+	private ArrayList<Object> args = new ArrayList<Object>(); // Ҷӽڵֵ˳
+	private ArrayList<String> argTypes = new ArrayList<String>(); // ҶӽڵӦֶ
+	private StringBuffer key = new StringBuffer(); // ʽĽṹ
+	
+	private ConstPool pool = new ConstPool();
+	private ByteBuffer code;
+	private int stack; // ǰջ
+	private int maxStack;
+	private int argIndex;
+	private ArrayList<int[]> jumps = new ArrayList<int[]>(); // תָλúͱǩ
+	private ArrayList<Integer> labels = new ArrayList<Integer>(); // ǩλ
+	
+	private ExpressionCompiler() {
+	}
+	
+	/**
+	 * ʽڵ
+	 * @param home ʽڵ
+	 * @return CompiledNode ڵ㲻ǿɱʧʱؿ
+	 */
+	public static CompiledNode compile(Node home) {
+		if (getOperator(home) == 0 || !isChecked()) {
+			return null;
+		}
+		
+		return doCompile(home);
+	}
+	
+	private static synchronized boolean isChecked() {
+		if (isChecked == null) {
+			isChecked = Boolean.valueOf(check());
+		}
+		
+		return isChecked.booleanValue();
+	}
+	
+	/**
+	 * ø͵ֱִֵкͽִÿֿɱ㣬ȽϽǷͬ
+	 * intlongֵԼ롢򡢷ǶԷǲֵж
+	 * @return trueͬfalseвͬĽ߱ʧ
+	 */
+	public static boolean check() {
+		Context ctx = new Context();
+		ctx.setParamValue("a", null);
+		ctx.setParamValue("b", null);
+		
+		for (String str : CHECK_EXPS) {
+			Node home = new Expression(ctx, str).getHome();
+			CompiledNode node = doCompile(home);
+			if (node == null) {
+				Logger.warn("ExpressionCompiler: " + str + " can't be compiled");
+				return false;
+			}
+			
+			for (Object a : CHECK_VALUES) {
+				ctx.setParamValue("a", a);
+				for (Object b : CHECK_VALUES) {
+					ctx.setParamValue("b", b);
+					Object result1, result2;
+					try {
+						result1 = home.calculate(ctx);
+					} catch (Throwable e) {
+						result1 = e.getClass();
+					}
+					
+					try {
+						result2 = node.calculate(ctx);
+					} catch (Throwable e) {
+						result2 = e.getClass();
+					}
+					
+					if (!isSame(result1, result2)) {
+						Logger.warn("ExpressionCompiler: " + str + ", a=" + a + ", b=" + b + 
+								", interpreted " + result1 + ", compiled " + result2);
+						return false;
+					}
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	// ȽϽֵͣintlongΪͬ
+	private static boolean isSame(Object o1, Object o2) {
+		if (o1 == null || o2 == null) {
+			return o1 == o2;
+		} else {
+			return o1.getClass() == o2.getClass() && o1.equals(o2);
+		}
+	}
+	
+	private static CompiledNode doCompile(Node home) {
+		try {
+			ExpressionCompiler compiler = new ExpressionCompiler();
+			compiler.scan(home);
+			String key = compiler.key.toString();
+			
+			Constructor<?> constructor;
+			synchronized(classMap) {
+				constructor = classMap.get(key);
+				if (constructor == null) {
+					if (classMap.size() >= MAX_CLASS_COUNT) {
+						return null;
+					}
+					
+					String name = "com.scudata.expression.CompiledExp" + (++classSeq);
+					byte []bytes = compiler.generate(home, name.replace('.', '/'));
+					Loader loader = new Loader(CompiledNode.class.getClassLoader());
+					constructor = loader.define(name, bytes).getConstructor(Object[].class);
+					classMap.put(key, constructor);
+				}
+			}
+			
+			Object []args = compiler.args.toArray();
+			return (CompiledNode)constructor.newInstance(new Object[] {args});
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+	
+	// ӦַɱĽڵ㷵0
+	private static char getOperator(Node node) {
+		if (node instanceof Add) {
+			return '+';
+		} else if (node instanceof Subtract) {
+			return '-';
+		} else if (node instanceof Multiply) {
+			return '*';
+		} else if (node instanceof Divide) {
+			return '/';
+		} else if (node instanceof And) {
+			return '&';
+		} else if (node instanceof Or) {
+			return '|';
+		} else if (node instanceof Not) {
+			return '!';
+		} else if (node instanceof Equals) {
+			return '=';
+		} else if (node instanceof NotEquals) {
+			return '#';
+		} else if (node instanceof Greater) {
+			return '>';
+		} else if (node instanceof NotSmaller) {
+			return 'g';
+		} else if (node instanceof Smaller) {
+			return '<';
+		} else if (node instanceof NotGreater) {
+			return 'l';
+		} else {
+			return 0;
+		}
+	}
+	
+	// ռҶӽڵ㲢ʽṹ
+	private void scan(Node node) {
+		char op = getOperator(node);
+		if (op != 0) {
+			key.append(op).append('(');
+			if (op != '!') {
+				scan(node.getLeft());
+				key.append(',');
+			}
+			
+			scan(node.getRight());
+			key.append(')');
+		} else if (node instanceof Constant) {
+			args.add(((Constant)node).value);
+			argTypes.add(null);
+			key.append('C');
+		} else {
+			// ڵɷʱþ͵ãJVM
+			Class<?> cls = node.getClass();
+			String type = "com/scudata/expression/Node";
+			if (Modifier.isPublic(cls.getModifiers()) && cls.getEnclosingClass() == null) {
+				try {
+					if (Class.forName(cls.getName(), false, CompiledNode.class.getClassLoader()) == cls) {
+						type = cls.getName().replace('.', '/');
+					}
+				} catch (ClassNotFoundException e) {
+				}
+			}
+			
+			args.add(node);
+			argTypes.add(type);
+			key.append('[').append(type).append(']');
+		}
+	}
+	
+	private static String getFieldDesc(String type) {
+		return type == null ? OBJECT_DESC : "L" + type + ";";
+	}
+	
+	// ļ
+	private byte[] generate(Node home, String className) {
+		int thisClass = pool.classRef(className);
+		int superClass = pool.classRef(BASE_CLASS);
+		int codeName = pool.utf8("Code");
+		int count = args.size();
+		
+		// 캯ѲҶӽڵ㸳ֶ
+		code = new ByteBuffer();
+		code.write1(ALOAD_0);
+		code.write1(INVOKESPECIAL);
+		code.write2(pool.methodRef(BASE_CLASS, "<init>", "()V"));
+		for (int i = 0; i < count; ++i) {
+			String type = argTypes.get(i);
+			code.write1(ALOAD_0);
+			code.write1(ALOAD_1);
+			code.write1(SIPUSH);
+			code.write2(i);
+			code.write1(AALOAD);
+			if (type != null) {
+				code.write1(CHECKCAST);
+				code.write2(pool.classRef(type));
+			}
+			
+			code.write1(PUTFIELD);
+			code.write2(pool.fieldRef(className, "f" + i, getFieldDesc(type)));
+		}
+		
+		code.write1(RETURN);
+		ByteBuffer init = code;
+		
+		// 㺯
+		code = new ByteBuffer();
+		stack = 0;
+		maxStack = 0;
+		argIndex = 0;
+		emitValue(home, className);
+		code.write1(ARETURN);
+		patchJumps();
+		ByteBuffer calc = code;
+		
+		ByteBuffer out = new ByteBuffer();
+		int initName = pool.utf8("<init>");
+		int initDesc = pool.utf8("([Ljava/lang/Object;)V");
+		int calcName = pool.utf8("calculate");
+		int calcDesc = pool.utf8(CALC_DESC);
+		int []fieldNames = new int[count];
+		int []fieldDescs = new int[count];
+		for (int i = 0; i < count; ++i) {
+			fieldNames[i] = pool.utf8("f" + i);
+			fieldDescs[i] = pool.utf8(getFieldDesc(argTypes.get(i)));
+		}
+		
+		out.write4(0xCAFEBABE);
+		out.write2(0);
+		out.write2(49); // ҪStackMapTable
+		out.write2(pool.count);
+		out.write(pool.buffer);
+		out.write2(0x0031); // public final super
+		out.write2(thisClass);
+		out.write2(superClass);
+		out.write2(0);
+		
+		out.write2(count);
+		for (int i = 0; i < count; ++i) {
+			out.write2(0x0012); // private final
+			out.write2(fieldNames[i]);
+			out.write2(fieldDescs[i]);
+			out.write2(0);
+		}
+		
+		out.write2(2);
+		writeMethod(out, initName, initDesc, codeName, init, 3, 2);
+		writeMethod(out, calcName, calcDesc, codeName, calc, maxStack, 2);
+		out.write2(0);
+		return out.toByteArray();
+	}
+	
+	private static void writeMethod(ByteBuffer out, int name, int desc, int codeName,
+			ByteBuffer code, int maxStack, int maxLocals) {
+		out.write2(0x0001); // public
+		out.write2(name);
+		out.write2(desc);
+		out.write2(1);
+		out.write2(codeName);
+		out.write4(12 + code.size());
+		out.write2(maxStack);
+		out.write2(maxLocals);
+		out.write4(code.size());
+		out.write(code);
+		out.write2(0);
+		out.write2(0);
+	}
+	
+	private void push(int n) {
+		stack += n;
+		if (stack > maxStack) {
+			maxStack = stack;
+		}
+	}
+	
+	private void invokeStatic(String owner, String name, String desc, int stackChange) {
+		code.write1(INVOKESTATIC);
+		code.write2(pool.methodRef(owner, name, desc));
+		push(stackChange);
+	}
+	
+	// ɼڵֵĴ룬Ϊ
+	private void emitValue(Node node, String className) {
+		char op = getOperator(node);
+		String method = null;
+		String owner = BASE_CLASS;
+		switch (op) {
+		case 0:
+			// Ҷӽڵ
+			int i = argIndex++;
+			String type = argTypes.get(i);
+			code.write1(ALOAD_0);
+			push(1);
+			code.write1(GETFIELD);
+			code.write2(pool.fieldRef(className, "f" + i, getFieldDesc(type)));
+			if (type != null) {
+				code.write1(ALOAD_1);
+				push(1);
+				code.write1(INVOKEVIRTUAL);
+				code.write2(pool.methodRef(type, "calculate", CALC_DESC));
+				push(-1);
+			}
+			
+			return;
+		case '+':
+			method = "add";
+			break;
+		case '-':
+			method = "subtract";
+			break;
+		case '*':
+			method = "multiply";
+			break;
+		case '/':
+			method = "divide";
+			owner = "com/scudata/util/Variant";
+			break;
+		default:
+			emitBoolean(node, className);
+			invokeStatic("java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;", 0);
+			return;
+		}
+		
+		emitValue(node.getLeft(), className);
+		emitValue(node.getRight(), className);
+		invokeStatic(owner, method, "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", -1);
+	}
+	
+	// ɼڵٵĴ룬Ϊint͵01Variant.isTrueһ
+	private void emitBoolean(Node node, String className) {
+		char op = getOperator(node);
+		int falseJump; // ȽϽΪʱתָ
+		switch (op) {
+		case '&':
+			int falseLabel = newLabel();
+			int endLabel = newLabel();
+			emitBoolean(node.getLeft(), className);
+			jump(IFEQ, falseLabel);
+			push(-1);
+			emitBoolean(node.getRight(), className);
+			jump(GOTO, endLabel);
+			push(-1);
+			setLabel(falseLabel);
+			code.write1(ICONST_0);
+			push(1);
+			setLabel(endLabel);
+			return;
+		case '|':
+			int trueLabel = newLabel();
+			endLabel = newLabel();
+			emitBoolean(node.getLeft(), className);
+			jump(IFNE, trueLabel);
+			push(-1);
+			emitBoolean(node.getRight(), className);
+			jump(GOTO, endLabel);
+			push(-1);
+			setLabel(trueLabel);
+			code.write1(ICONST_1);
+			push(1);
+			setLabel(endLabel);
+			return;
+		case '!':
+			emitBoolean(node.getRight(), className);
+			code.write1(ICONST_1);
+			code.write1(IXOR);
+			push(1);
+			push(-1);
+			return;
+		case '=':
+		case '#':
+			emitValue(node.getLeft(), className);
+			emitValue(node.getRight(), className);
+			invokeStatic(BASE_CLASS, "isEquals", "(Ljava/lang/Object;Ljava/lang/Object;)Z", -1);
+			if (op == '#') {
+				code.write1(ICONST_1);
+				code.write1(IXOR);
+				push(1);
+				push(-1);
+			}
+			
+			return;
+		case '>':
+			falseJump = IFLE;
+			break;
+		case 'g':
+			falseJump = IFLT;
+			break;
+		case '<':
+			falseJump = IFGE;
+			break;
+		case 'l':
+			falseJump = IFGT;
+			break;
+		default:
+			emitValue(node, className);
+			invokeStatic("com/scudata/util/Variant", "isTrue", "(Ljava/lang/Object;)Z", 0);
+			return;
+		}
+		
+		int falseLabel = newLabel();
+		int endLabel = newLabel();
+		emitValue(node.getLeft(), className);
+		emitValue(node.getRight(), className);
+		invokeStatic(BASE_CLASS, "compare", "(Ljava/lang/Object;Ljava/lang/Object;)I", -1);
+		jump(falseJump, falseLabel);
+		push(-1);
+		code.write1(ICONST_1);
+		push(1);
+		jump(GOTO, endLabel);
+		push(-1);
+		setLabel(falseLabel);
+		code.write1(ICONST_0);
+		push(1);
+		setLabel(endLabel);
+	}
+	
+	private int newLabel() {
+		labels.add(-1);
+		return labels.size() - 1;
+	}
+	
+	private void setLabel(int label) {
+		labels.set(label, code.size());
+	}
+	
+	private void jump(int opcode, int label) {
+		jumps.add(new int[] {code.size(), label});
+		code.write1(opcode);
+		code.write2(0);
+	}
+	
+	// תָƫ
+	private void patchJumps() {
+		for (int []jump : jumps) {
+			int offset = labels.get(jump[1]) - jump[0];
+			if (offset > Short.MAX_VALUE) {
+				throw new IllegalStateException();
+			}
+			
+			code.set2(jump[0] + 1, offset);
+		}
+	}
+	
+	// 
+	private static class ConstPool {
+		ByteBuffer buffer = new ByteBuffer();
+		int count = 1;
+		HashMap<String, Integer> map = new HashMap<String, Integer>();
+		
+		int utf8(String str) {
+			String key = "U" + str;
+			Integer index = map.get(key);
+			if (index != null) {
+				return index;
+			}
+			
+			buffer.write1(1);
+			try {
+				byte []bytes = str.getBytes("UTF-8");
+				buffer.write2(bytes.length);
+				buffer.write(bytes, bytes.length);
+			} catch (java.io.UnsupportedEncodingException e) {
+				throw new IllegalStateException(e);
+			}
+			
+			map.put(key, count);
+			return count++;
+		}
+		
+		int classRef(String name) {
+			String key = "C" + name;
+			Integer index = map.get(key);
+			if (index != null) {
+				return index;
+			}
+			
+			int nameIndex = utf8(name);
+			buffer.write1(7);
+			buffer.write2(nameIndex);
+			map.put(key, count);
+			return count++;
+		}
+		
+		private int memberRef(int tag, String owner, String name, String desc) {
+			String key = tag + owner + '.' + name + ':' + desc;
+			Integer index = map.get(key);
+			if (index != null) {
+				return index;
+			}
+			
+			int ownerIndex = classRef(owner);
+			int nameIndex = utf8(name);
+			int descIndex = utf8(desc);
+			buffer.write1(12); // NameAndType
+			buffer.write2(nameIndex);
+			buffer.write2(descIndex);
+			int nameAndType = count++;
+			
+			buffer.write1(tag);
+			buffer.write2(ownerIndex);
+			buffer.write2(nameAndType);
+			map.put(key, count);
+			return count++;
+		}
+		
+		int fieldRef(String owner, String name, String desc) {
+			return memberRef(9, owner, name, desc);
+		}
+		
+		int methodRef(String owner, String name, String desc) {
+			return memberRef(10, owner, name, desc);
+		}
+	}
+	
+	// дֽڻ
+	private static class ByteBuffer {
+		byte []bytes = new byte[256];
+		int size;
+		
+		void ensureCapacity(int n) {
+			if (size + n > bytes.length) {
+				byte []tmp = new byte[Math.max(bytes.length * 2, size + n)];
+				System.arraycopy(bytes, 0, tmp, 0, size);
+				bytes = tmp;
+			}
+		}
+		
+		void write1(int b) {
+			ensureCapacity(1);
+			bytes[size++] = (byte)b;
+		}
+		
+		void write2(int n) {
+			if (n > 0xFFFF) {
+				throw new IllegalStateException();
+			}
+			
+			ensureCapacity(2);
+			bytes[size++] = (byte)(n >>> 8);
+			bytes[size++] = (byte)n;
+		}
+		
+		void write4(int n) {
+			ensureCapacity(4);
+			bytes[size++] = (byte)(n >>> 24);
+			bytes[size++] = (byte)(n >>> 16);
+			bytes[size++] = (byte)(n >>> 8);
+			bytes[size++] = (byte)n;
+		}
+		
+		void write(byte []src, int len) {
+			ensureCapacity(len);
+			System.arraycopy(src, 0, bytes, size, len);
+			size += len;
+		}
+		
+		void write(ByteBuffer src) {
+			write(src.bytes, src.size);
+		}
+		
+		void set2(int pos, int n) {
+			bytes[pos] = (byte)(n >>> 8);
+			bytes[pos + 1] = (byte)n;
+		}
+		
+		int size() {
+			return size;
+		}
+		
+		byte[] toByteArray() {
+			byte []result = new byte[size];
+			System.arraycopy(bytes, 0, result, 0, size);
+			return result;
+		}
+	}
+	
+	// ÿɵõ
+	private static class Loader extends ClassLoader {
+		public Loader(ClassLoader parent) {
+			super(parent);
+		}
+		
+		public Class<?> define(String name, byte []bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
@@ -269,6 +269,7 @@ public final class FunctionLib {
 		addFunction("system", "com.scudata.expression.fn.SystemExec");
 		addFunction("output", "com.scudata.expression.fn.Output");
 		addFunction("jvm", "com.scudata.expression.fn.JVM");
+		addFunction("profile", "com.scudata.expression.fn.Profile");
 		addFunction("sleep", "com.scudata.expression.fn.Sleep");
 		addFunction("lock", "com.scudata.expression.fn.Lock");
 		addFunction("invoke", "com.scudata.expression.fn.Invoke");
@@ -510,6 +511,7 @@ public final class FunctionLib {
 		addMemberFunction("archive", "com.scudata.expression.mfn.vdb.Archive");
 		addMemberFunction("purge", "com.scudata.expression.mfn.vdb.Purge");
 		addMemberFunction("copy", "com.scudata.expression.mfn.vdb.Copy");
+		addMemberFunction("index", "com.scudata.expression.mfn.vdb.Index");
 		
 		// α
 		addMemberFunction("cursor", "com.scudata.expression.mfn.db.CreateCursor");
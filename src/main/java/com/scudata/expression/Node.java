@@ -232,6 +232,15 @@ public abstract class Node {
 	public Node optimize(Context ctx) {
 		return this;
 	}
+	
+	/**
+	 * ƽڵڶ̼߳㣬ƳĽڵ㲻ϴμµ״̬ʡȥ½ʽ
+	 * @param ctx ߳ʹõļ
+	 * @return Node ָ֧ʱؿգʱҪ½ʽ
+	 */
+	public Node duplicate(Context ctx) {
+		return null;
+	}
 
 	/**
 	 * Եǰڵиֵ
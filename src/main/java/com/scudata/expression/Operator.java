@@ -52,6 +52,31 @@ public abstract class Operator extends Node {
 		if (right != null) right.getUsedCells(resultList);
 	}
 
+	/**
+	 * ҽڵ㸴Ƶ²ڵ
+	 * @param op ²ڵ
+	 * @param ctx 
+	 * @return Node нڵ㲻ָ֧ʱؿ
+	 */
+	protected Node duplicate(Operator op, Context ctx) {
+		op.priority = priority;
+		if (left != null) {
+			op.left = left.duplicate(ctx);
+			if (op.left == null) {
+				return null;
+			}
+		}
+		
+		if (right != null) {
+			op.right = right.duplicate(ctx);
+			if (op.right == null) {
+				return null;
+			}
+		}
+		
+		return op;
+	}
+	
 	public Node optimize(Context ctx) {
 		if (left != null) left = left.optimize(ctx);
 		if (right != null) right = right.optimize(ctx);
@@ -49,6 +49,10 @@ public class UnknownSymbol extends Node {
 	public String getName() {
 		return name;
 	}
+	
+	public Node duplicate(Context ctx) {
+		return new UnknownSymbol(name);
+	}
 
 	protected boolean containParam(String name) {
 		return name.equals(this.name);
@@ -3,12 +3,15 @@ package com.scudata.expression;
 import com.scudata.array.BoolArray;
 import com.scudata.array.ConstArray;
 import com.scudata.array.IArray;
+import com.scudata.common.DBSession;
 import com.scudata.dm.Context;
 import com.scudata.dm.DBObject;
 import com.scudata.dm.FileObject;
+import com.scudata.dm.KeyWord;
 import com.scudata.dm.Param;
 import com.scudata.dm.ParamList;
 import com.scudata.dm.Sequence;
+import com.scudata.util.EnvUtil;
 import com.scudata.util.Variant;
 
 /**
@@ -23,6 +26,21 @@ public class VarParam extends Node {
 		this.param = param;
 	}
 
+	public Node duplicate(Context ctx) {
+		// 󶨵µļ
+		String name = param.getName();
+		if (KeyWord.isIterateParam(name)) {
+			return new VarParam(ctx.getIterateParam());
+		}
+		
+		Param var = EnvUtil.getParam(name, ctx);
+		if (var != null && var.getKind() == Param.VAR && !(var.getValue() instanceof DBSession)) {
+			return new VarParam(var);
+		} else {
+			return null;
+		}
+	}
+	
 	public Object calculate(Context ctx) {
 		return param.getValue();
 	}
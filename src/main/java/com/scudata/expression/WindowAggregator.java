@@ -0,0 +1,415 @@
+package com.scudata.expression;
+
+import com.scudata.array.IArray;
+import com.scudata.array.ObjectArray;
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.ComputeStack;
+import com.scudata.dm.Context;
+import com.scudata.dm.Current;
+import com.scudata.dm.DataStruct;
+import com.scudata.dm.Sequence;
+import com.scudata.expression.mfn.sequence.Avg;
+import com.scudata.expression.mfn.sequence.Count;
+import com.scudata.expression.mfn.sequence.Max;
+import com.scudata.expression.mfn.sequence.Min;
+import com.scudata.expression.mfn.sequence.Sum;
+import com.scudata.resources.EngineMessage;
+import com.scudata.util.EnvUtil;
+import com.scudata.util.Variant;
+
+/**
+ * x[a:b].f()ʽĴھۺ㣬fΪsumavgmaxmincount
+ * мʱڵֹλͨǵģĳԱۼӵڵĻֵϣƳĳԱӻֵ
+ * maxminõάO(n)ģҪΪÿв
+ * λò򴰿ںʱͷ㵱ǰڣĺΪӼĴͬܺĩλ
+ * @author RunQian
+ *
+ */
+public class WindowAggregator {
+	private static final int SUM = 1;
+	private static final int AVG = 2;
+	private static final int MAX = 3;
+	private static final int MIN = 4;
+	private static final int COUNT = 5;
+	
+	private Move move; // ڽڵ
+	private String fieldName; // ֶΪʱʾ~
+	private int type; // ۺ
+	
+	private Current current; // ϴμ
+	private int prevIndex; // ϴμ
+	private int start = 1; // ǰڵʼλã
+	private int end = 0; // ǰڵĽλã
+	
+	private DataStruct prevDs; // һ¼ݽṹ
+	private int col; // ֶһ¼
+	
+	// sumavgcountõĴڻֵ
+	private int numberCount; // ֵԱ
+	private int doubleCount; // Ա
+	private int otherCount; // ֵ͵ĳԱеĻֱӼ
+	private long longSum; // Աĺ
+	private double doubleSum; // Աĺ
+	private double compensation; // Ӽٴڻʱۻ
+	private long seqSum; // ֵԱλõĺֻͣһֵԱʱҳ
+	private int trueCount; // ȡֵΪĳԱ
+	
+	// maxminõĵУųԱλãǵǰڵֵ
+	private int []queue;
+	private int head;
+	private int tail;
+	
+	private WindowAggregator(Move move, String fieldName, int type) {
+		this.move = move;
+		this.fieldName = fieldName;
+		this.type = type;
+		
+		if (type == MAX || type == MIN) {
+			queue = new int[64];
+		}
+	}
+	
+	/**
+	 * ǿĴھۺ򴴽WindowAggregator
+	 * @param left ڵ
+	 * @param right Ҳڵ
+	 * @return WindowAggregatorǴھۺʱnull
+	 */
+	public static WindowAggregator create(Node left, Node right) {
+		if (!(left instanceof Move)) {
+			return null;
+		}
+		
+		Move move = (Move)left;
+		IParam param = move.getParam();
+		if (param == null || param.isLeaf() || param.getSubSize() != 2) {
+			return null;
+		}
+		
+		String fieldName;
+		Node node = move.getLeft();
+		if (node instanceof UnknownSymbol) {
+			fieldName = ((UnknownSymbol)node).getName();
+		} else if (node instanceof CurrentElement && ((CurrentElement)node).getLeft() == null) {
+			fieldName = null;
+		} else {
+			return null;
+		}
+		
+		// ҳƥĳԱ
+		Sequence seq = new Sequence(0);
+		for (; right != null; right = right.getNextFunction()) {
+			if (right.isLeftTypeMatch(seq)) {
+				break;
+			}
+		}
+		
+		if (!(right instanceof Function)) {
+			return null;
+		}
+		
+		Function fn = (Function)right;
+		if (fn.getParam() != null || fn.getOption() != null) {
+			return null;
+		}
+		
+		int type;
+		if (fn instanceof Sum) {
+			type = SUM;
+		} else if (fn instanceof Avg) {
+			type = AVG;
+		} else if (fn instanceof Max) {
+			type = MAX;
+		} else if (fn instanceof Min) {
+			type = MIN;
+		} else if (fn instanceof Count) {
+			type = COUNT;
+		} else {
+			return null;
+		}
+		
+		return new WindowAggregator(move, fieldName, type);
+	}
+	
+	/**
+	 * ȡеѭǰʱnull
+	 * @param ctx 
+	 * @param checkReadOnly ǷҪڼвᱻ޸
+	 * @return Current
+	 */
+	public Current getCurrent(Context ctx, boolean checkReadOnly) {
+		ComputeStack stack = ctx.getComputeStack();
+		if (stack.isStackEmpty()) {
+			return null;
+		}
+		
+		Object top = stack.getTopObject();
+		if (!(top instanceof Current)) {
+			return null;
+		}
+		
+		Current current = (Current)top;
+		if (checkReadOnly && !current.isReadOnly()) {
+			return null;
+		} else if (current == this.current || fieldName == null) {
+			return current;
+		}
+		
+		// ֶҲǱ
+		if (EnvUtil.getParam(fieldName, ctx) != null) {
+			return null;
+		}
+		
+		Object obj = current.getCurrent();
+		if (obj == null) {
+			return current;
+		} else if (obj instanceof BaseRecord && ((BaseRecord)obj).getFieldIndex(fieldName) != -1) {
+			return current;
+		} else {
+			return null;
+		}
+	}
+	
+	/**
+	 * еĴھۺֵ
+	 * @param current еѭǰ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Current current, Context ctx) {
+		int len = current.length();
+		ObjectArray array = new ObjectArray(len);
+		array.setTemporary(true);
+		
+		for (int i = 1; i <= len; ++i) {
+			current.setCurrent(i);
+			array.push(calculate(current, ctx));
+		}
+		
+		return array;
+	}
+	
+	/**
+	 * 㵱ǰеĴھۺֵ
+	 * @param current еѭǰ
+	 * @param ctx 
+	 * @return Object
+	 */
+	public Object calculate(Current current, Context ctx) {
+		int index = current.getCurrentIndex();
+		int []range = move.calculateIndexRange(current, ctx);
+		if (range == null) {
+			clear(current, index, index + 1);
+			release(index);
+			return type == COUNT ? new Integer(0) : null;
+		}
+		
+		int newStart = range[0];
+		int newEnd = range[1];
+		if (current != this.current || index != prevIndex + 1 || newStart < start || newEnd < end || newStart > end) {
+			clear(current, index, newStart);
+		} else {
+			prevIndex = index;
+		}
+		
+		// ³Ա
+		for (int i = end + 1; i <= newEnd; ++i) {
+			add(i, getValue(i));
+		}
+		
+		end = newEnd;
+		
+		// ƳǰĳԱ
+		if (type == MAX || type == MIN) {
+			int []queue = this.queue;
+			while (head < tail && queue[head] < newStart) {
+				head++;
+			}
+		} else {
+			for (int i = start; i < newStart; ++i) {
+				remove(i, getValue(i));
+			}
+		}
+		
+		start = newStart;
+		Object result = getResult();
+		release(index);
+		return result;
+	}
+	
+	// еһкУ⻺ѭǰϴμ޷ͷ
+	private void release(int index) {
+		if (index >= current.length()) {
+			current = null;
+		}
+	}
+	
+	private void clear(Current current, int index, int start) {
+		this.current = current;
+		this.prevIndex = index;
+		this.start = start;
+		this.end = start - 1;
+		
+		numberCount = 0;
+		doubleCount = 0;
+		otherCount = 0;
+		longSum = 0;
+		doubleSum = 0;
+		compensation = 0;
+		seqSum = 0;
+		trueCount = 0;
+		head = 0;
+		tail = 0;
+	}
+	
+	private Object getValue(int i) {
+		Object obj = current.get(i);
+		if (fieldName == null || obj == null) {
+			return obj;
+		} else if (!(obj instanceof BaseRecord)) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(mm.getMessage("engine.needPmt"));
+		}
+		
+		BaseRecord r = (BaseRecord)obj;
+		if (r.dataStruct() != prevDs) {
+			prevDs = r.dataStruct();
+			col = prevDs.getFieldIndex(fieldName);
+			if (col < 0) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException(fieldName + mm.getMessage("ds.fieldNotExist"));
+			}
+		}
+		
+		return r.getFieldValue(col);
+	}
+	
+	private void add(int i, Object value) {
+		if (type == COUNT) {
+			if (Variant.isTrue(value)) {
+				trueCount++;
+			}
+		} else if (type == MAX || type == MIN) {
+			if (value == null) {
+				return;
+			}
+			
+			// ȥβٳΪֵĳԱֵȵıǰģȽϵĽһ
+			int []queue = this.queue;
+			int tail = this.tail;
+			if (type == MAX) {
+				while (tail > head && Variant.compare(getValue(queue[tail - 1]), value, true) < 0) {
+					tail--;
+				}
+			} else {
+				while (tail > head && Variant.compare(getValue(queue[tail - 1]), value, true) > 0) {
+					tail--;
+				}
+			}
+			
+			if (tail == queue.length) {
+				int size = tail - head;
+				if (size * 2 > queue.length) {
+					int []tmp = new int[queue.length * 2];
+					System.arraycopy(queue, head, tmp, 0, size);
+					this.queue = queue = tmp;
+				} else {
+					System.arraycopy(queue, head, queue, 0, size);
+				}
+				
+				head = 0;
+				tail = size;
+			}
+			
+			queue[tail] = i;
+			this.tail = tail + 1;
+		} else if (value instanceof Number) {
+			numberCount++;
+			seqSum += i;
+			if (value instanceof Integer || value instanceof Long) {
+				longSum += ((Number)value).longValue();
+			} else if (value instanceof Double) {
+				doubleCount++;
+				addDouble(((Double)value).doubleValue());
+			} else {
+				otherCount++;
+			}
+		}
+	}
+	
+	private void remove(int i, Object value) {
+		if (type == COUNT) {
+			if (Variant.isTrue(value)) {
+				trueCount--;
+			}
+		} else if (value instanceof Number) {
+			numberCount--;
+			seqSum -= i;
+			if (value instanceof Integer || value instanceof Long) {
+				longSum -= ((Number)value).longValue();
+			} else if (value instanceof Double) {
+				if (--doubleCount == 0) {
+					// ûиʱ㣬ֹۻ
+					doubleSum = 0;
+					compensation = 0;
+				} else {
+					addDouble(-((Double)value).doubleValue());
+				}
+			} else {
+				otherCount--;
+			}
+		}
+	}
+	
+	// Neumaier㷨ۼӣÿμӷǵcompensation
+	private void addDouble(double d) {
+		double sum = doubleSum;
+		double t = sum + d;
+		if (Math.abs(sum) >= Math.abs(d)) {
+			compensation += (sum - t) + d;
+		} else {
+			compensation += (d - t) + sum;
+		}
+		
+		doubleSum = t;
+	}
+	
+	private Object getSum() {
+		if (numberCount == 0) {
+			return null;
+		} else if (numberCount == 1) {
+			return getValue((int)seqSum);
+		} else if (otherCount > 0) {
+			// BigDecimalʱԭķ
+			Sequence seq = new Sequence(end - start + 1);
+			for (int i = start; i <= end; ++i) {
+				seq.add(getValue(i));
+			}
+			
+			return seq.sum();
+		} else if (doubleCount == 0) {
+			return new Long(longSum);
+		} else {
+			return new Double(doubleSum + compensation + longSum);
+		}
+	}
+	
+	private Object getResult() {
+		switch (type) {
+		case SUM:
+			return getSum();
+		case AVG:
+			return Variant.avg(getSum(), numberCount);
+		case COUNT:
+			return new Integer(trueCount);
+		default:
+			if (head < tail) {
+				return getValue(queue[head]);
+			} else {
+				return null;
+			}
+		}
+	}
+}
@@ -21,6 +21,7 @@ import com.scudata.util.CursorUtil;
  * joinx(csi:Fi,xj,..;)
  * αcsiĽʹù鲢㣬α꣬xjȫʡʹ. xjûʹxjֵӡ
  * ֶ֧·α꣬ʱ·ͬcsiҲ
+ * @h αʱùϣӣڴ治ʱֶεĹϣֵдʱļ֤˳
  * @author runqian
  *
  */
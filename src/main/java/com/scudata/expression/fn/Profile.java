@@ -0,0 +1,58 @@
+package com.scudata.expression.fn;
+
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.dm.Context;
+import com.scudata.dm.Profiler;
+import com.scudata.expression.Function;
+import com.scudata.expression.Node;
+import com.scudata.resources.EngineMessage;
+
+/**
+ * profile() صǰִĽûʱؿ
+ * @b ʼǰļ¼true
+ * @e ֹͣ
+ * @s ı
+ * @author RunQian
+ *
+ */
+public class Profile extends Function {
+	public Node optimize(Context ctx) {
+		return this;
+	}
+	
+	/**
+	 * ʽЧԣЧ׳쳣
+	 */
+	public void checkValidity() {
+		if (param != null) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("profile" + mm.getMessage("function.invalidParam"));
+		}
+	}
+	
+	public Object calculate(Context ctx) {
+		if (option != null && option.indexOf('b') != -1) {
+			// ֹͣǰȻһֱ״̬
+			ctx.stopProfiler();
+			ctx.setProfiler(new Profiler());
+			return Boolean.TRUE;
+		}
+		
+		Profiler profiler = ctx.getProfiler();
+		if (profiler == null) {
+			return null;
+		}
+		
+		if (option != null && option.indexOf('e') != -1) {
+			// ڸϣҪֹͣ
+			ctx.stopProfiler();
+		}
+		
+		if (option != null && option.indexOf('s') != -1) {
+			return profiler.toString();
+		} else {
+			return profiler.toTable();
+		}
+	}
+}
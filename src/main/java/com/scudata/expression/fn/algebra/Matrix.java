@@ -4,6 +4,9 @@ import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.RealMatrix;
 //import org.ejml.simple.SimpleMatrix;
 
+import com.scudata.array.DoubleArray;
+import com.scudata.array.IArray;
+import com.scudata.array.NumberArray;
 import com.scudata.common.Logger;
 import com.scudata.dm.BaseRecord;
 import com.scudata.dm.Sequence;
@@ -61,9 +64,9 @@ public class Matrix {
 				this.cols = tab.dataStruct().getFieldCount();
 				this.rows = rows;
 				this.A = new double[rows][this.cols];
-				for (int i = 1; i <= rows; i++) {
-					double[] row = getRow(tab.getRecord(i), this.cols);
-					this.A[i-1] = row;
+				// ȡֵֶ飬ֱֵȡԭʼֵҪ¼ȡ
+				for (int c = 0; c < this.cols; c++) {
+					setColumn(c, tab.getFieldValueArray(c));
 				}
 			}
 			else {
@@ -115,6 +118,34 @@ public class Matrix {
 		}
 	}
 	
+	/**
+	 * ֵֶһеֵֵȫ0
+	 * @param c		кţ0ʼ
+	 * @param array	ֵֶ
+	 */
+	private void setColumn(int c, IArray array) {
+		double[][] A = this.A;
+		int rows = this.rows;
+		if (array instanceof DoubleArray) {
+			double[] datas = ((DoubleArray) array).getDatas();
+			boolean[] signs = ((DoubleArray) array).getSigns();
+			for (int r = 0; r < rows; r++) {
+				A[r][c] = signs != null && signs[r+1] ? 0 : datas[r+1];
+			}
+		}
+		else if (array instanceof NumberArray) {
+			NumberArray numbers = (NumberArray) array;
+			for (int r = 0; r < rows; r++) {
+				A[r][c] = numbers.isNull(r+1) ? 0 : numbers.getDouble(r+1);
+			}
+		}
+		else {
+			for (int r = 0; r < rows; r++) {
+				A[r][c] = getNumber(array.get(r+1));
+			}
+		}
+	}
+	
 	/**
 	 * ȡһһάΪdouble飬ֵȫ0
 	 * @param seq
@@ -874,22 +905,9 @@ public class Matrix {
 		if (B.rows != this.cols) {
 			throw new IllegalArgumentException("Matrix inner dimensions must agree.");
 		}
-		Matrix X = new Matrix(this.rows, B.cols);
-		double[] BVectorCol = new double[this.cols];
-		for (int c = 0; c < B.cols; c++) {
-			for (int k = 0; k < this.cols; k++) {
-				BVectorCol[k] = B.A[k][c];
-			}
-			for (int r = 0; r < this.rows; r++) {
-				double[] AVectorRow = A[r];
-				double s = 0;
-				for (int k = 0; k < this.cols; k++) {
-					s += AVectorRow[k] * BVectorCol[k];
-				}
-				X.A[r][c] = s;
-			}
-		}
-		return X;
+		// ֿ㣬ʱ̲߳
+		double[][] C = MatrixKernel.multiply(this.A, B.A, this.rows, this.cols, B.cols);
+		return new Matrix(C, this.rows, B.cols);
 	}
 
 	/**
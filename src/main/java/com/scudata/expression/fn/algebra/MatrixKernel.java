@@ -0,0 +1,138 @@
+package com.scudata.expression.fn.algebra;
+
+import com.scudata.dm.Env;
+import com.scudata.thread.Job;
+import com.scudata.thread.ThreadPool;
+
+/**
+ * ļģѾ󿽳ȵֿ㣬ʱ̲߳
+ * ÿԪصۼ˳ʱͬ뵥̼߳һ
+ * @author RunQian
+ *
+ */
+final class MatrixKernel {
+	// ۼάȵķֿСֿBһԷڻ
+	private static final int BLOCK_K = 128;
+	// еķֿС
+	private static final int BLOCK_J = 256;
+	// ˼Ӵֵʱö߳
+	private static final long PARALLEL_FLOPS = 1L << 22;
+	
+	private MatrixKernel() {
+	}
+	
+	// ве
+	private static class MultiplyJob extends Job {
+		private double[][] A;
+		private double[] B;
+		private double[][] C;
+		private int inner, cols;
+		private int rowStart, rowEnd; // ʼУУ
+		
+		public MultiplyJob(double[][] A, double[] B, double[][] C, int inner, int cols, int rowStart, int rowEnd) {
+			this.A = A;
+			this.B = B;
+			this.C = C;
+			this.inner = inner;
+			this.cols = cols;
+			this.rowStart = rowStart;
+			this.rowEnd = rowEnd;
+		}
+		
+		public void run() {
+			multiply(A, B, C, inner, cols, rowStart, rowEnd);
+		}
+	}
+	
+	/**
+	 * Ƿֵö̼߳
+	 * @param work ˼Ӵ
+	 * @param units ɲֵԪ
+	 * @return
+	 */
+	static boolean isParallel(long work, int units) {
+		return work >= PARALLEL_FLOPS && units > 1 && Env.getParallelNum() > 1;
+	}
+	
+	/**
+	 * ˣC = A * B
+	 * @param A	rows*innerľ
+	 * @param B	inner*colsľ
+	 * @param rows	A
+	 * @param inner	AB
+	 * @param cols	B
+	 * @return	rows*colsĽ
+	 */
+	static double[][] multiply(double[][] A, double[][] B, int rows, int inner, int cols) {
+		// Bȵ
+		double[] packB = new double[inner * cols];
+		for (int k = 0; k < inner; k++) {
+			System.arraycopy(B[k], 0, packB, k * cols, cols);
+		}
+		
+		double[][] C = new double[rows][cols];
+		long work = (long)rows * inner * cols;
+		if (!isParallel(work, rows)) {
+			multiply(A, packB, C, inner, cols, 0, rows);
+			return C;
+		}
+		
+		int threadCount = Math.min(Env.getParallelNum(), rows);
+		int singleCount = rows / threadCount;
+		ThreadPool pool = ThreadPool.instance();
+		MultiplyJob[] jobs = new MultiplyJob[threadCount];
+		int start = 0;
+		for (int i = 0; i < threadCount; i++) {
+			int end = i + 1 == threadCount ? rows : start + singleCount;
+			jobs[i] = new MultiplyJob(A, packB, C, inner, cols, start, end);
+			pool.submit(jobs[i]);
+			start = end;
+		}
+		
+		for (int i = 0; i < threadCount; i++) {
+			jobs[i].join();
+		}
+		
+		return C;
+	}
+	
+	// ֿ[rowStart, rowEnd)
+	private static void multiply(double[][] A, double[] B, double[][] C, int inner, int cols, int rowStart, int rowEnd) {
+		for (int k0 = 0; k0 < inner; k0 += BLOCK_K) {
+			int k1 = Math.min(k0 + BLOCK_K, inner);
+			for (int j0 = 0; j0 < cols; j0 += BLOCK_J) {
+				int j1 = Math.min(j0 + BLOCK_J, cols);
+				for (int r = rowStart; r < rowEnd; r++) {
+					double[] a = A[r];
+					double[] c = C[r];
+					for (int k = k0; k < k1; k++) {
+						double v = a[k];
+						int offset = k * cols;
+						for (int j = j0; j < j1; j++) {
+							c[j] += v * B[offset + j];
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Ⱦתȴţÿһ
+	 * @param A	
+	 * @param rows	
+	 * @param cols	
+	 * @return	colsΪrows
+	 */
+	static double[][] toColumns(double[][] A, int rows, int cols) {
+		double[][] columns = new double[cols][rows];
+		for (int r = 0; r < rows; r++) {
+			double[] row = A[r];
+			for (int c = 0; c < cols; c++) {
+				columns[c][r] = row[c];
+			}
+		}
+		
+		return columns;
+	}
+}
@@ -1,5 +1,9 @@
 package com.scudata.expression.fn.algebra;
 
+import com.scudata.dm.Env;
+import com.scudata.thread.Job;
+import com.scudata.thread.ThreadPool;
+
 /**
  * Ƿֽ⴦
  * @author bd
@@ -8,51 +12,104 @@ public class QRDecomposition {
 	// QRֽrows*colsľԷֽΪQǾRˣrows>=cols
 	// 		QΪcols*cols󣬼Q^T*Q=Q*Q^T=I
 	//		RΪrows*colsǾֵ¼·0
+	// дţQR[c][r]Ϊrеcеֵʱ
 	private double[][] QR;
 	private int rows, cols;
 	//
 	private double[] Rdiag;
 	
+	// һHouseholder任
+	private static class TransformJob extends Job {
+		private double[][] QR;
+		private int k, rows;
+		private int colStart, colEnd; // ʼУУ
+		
+		public TransformJob(double[][] QR, int k, int rows, int colStart, int colEnd) {
+			this.QR = QR;
+			this.k = k;
+			this.rows = rows;
+			this.colStart = colStart;
+			this.colEnd = colEnd;
+		}
+		
+		public void run() {
+			transform(QR, k, rows, colStart, colEnd);
+		}
+	}
+	
 	protected QRDecomposition(Matrix A) {
 		// QRֽʼ.
-		this.QR = A.getArrayCopy();
 		this.rows = A.getRows();
 		this.cols = A.getCols();
+		this.QR = MatrixKernel.toColumns(A.getArray(), this.rows, this.cols);
 		this.Rdiag = new double[this.cols];
 
 		// ѭ
 		for (int k = 0; k < this.cols; k++) {
+			double[] colk = QR[k];
 			double nrm = 0d;
 			// 㱾
 			for (int r = k; r < this.rows; r++) {
-				nrm = Math.hypot(nrm, QR[r][k]);
+				nrm = Math.hypot(nrm, colk[r]);
 			}
 			if (nrm != 0d) {
 				// Form k-th Householder vector.
-				if (QR[k][k] < 0) {
+				if (colk[k] < 0) {
 					nrm = -nrm;
 				}
 				for (int r = k; r < this.rows; r++) {
-					QR[r][k] /= nrm;
+					colk[r] /= nrm;
 				}
-				QR[k][k] += 1.0;
+				colk[k] += 1.0;
 
 				// Apply transformation to remaining columns.
-				for (int c = k + 1; c < this.cols; c++) {
-					double s = 0d;
-					for (int r = k; r < this.rows; r++) {
-						s += QR[r][k] * QR[r][c];
-					}
-					s = -s / QR[k][k];
-					for (int r = k; r < this.rows; r++) {
-						QR[r][c] += s * QR[r][k];
-					}
+				int restCols = this.cols - k - 1;
+				if (MatrixKernel.isParallel(2L * (this.rows - k) * restCols, restCols)) {
+					transformParallel(k, restCols);
+				}
+				else {
+					transform(QR, k, this.rows, k + 1, this.cols);
 				}
 			}
 			Rdiag[k] = -nrm;
 		}
 	}
 	
+	// õkеHouseholder任[colStart, colEnd)
+	private static void transform(double[][] QR, int k, int rows, int colStart, int colEnd) {
+		double[] colk = QR[k];
+		for (int c = colStart; c < colEnd; c++) {
+			double[] colc = QR[c];
+			double s = 0d;
+			for (int r = k; r < rows; r++) {
+				s += colk[r] * colc[r];
+			}
+			s = -s / colk[k];
+			for (int r = k; r < rows; r++) {
+				colc[r] += s * colk[r];
+			}
+		}
+	}
+	
+	// еı任໥ָ߳
+	private void transformParallel(int k, int restCols) {
+		int threadCount = Math.min(Env.getParallelNum(), restCols);
+		int singleCount = restCols / threadCount;
+		ThreadPool pool = ThreadPool.instance();
+		TransformJob[] jobs = new TransformJob[threadCount];
+		int start = k + 1;
+		for (int i = 0; i < threadCount; i++) {
+			int end = i + 1 == threadCount ? this.cols : start + singleCount;
+			jobs[i] = new TransformJob(QR, k, this.rows, start, end);
+			pool.submit(jobs[i]);
+			start = end;
+		}
+		
+		for (int i = 0; i < threadCount; i++) {
+			jobs[i].join();
+		}
+	}
+	
 	/**
 	 * ʹQRֽжϾǷ
 	 * @return	Ƿ
@@ -83,24 +140,26 @@ public class QRDecomposition {
 		int nx = B.getCols();
 		double[][] X = B.getArrayCopy();
 		for (int k = 0; k < this.cols; k++) {
+			double[] colk = QR[k];
 			for (int c = 0; c < nx; c++) {
 				double s = 0d;
 				for (int r = k; r < this.rows; r++) {
-					s += QR[r][k] * X[r][c];
+					s += colk[r] * X[r][c];
 				}
-				s = -s / QR[k][k];
+				s = -s / colk[k];
 				for (int r = k; r < this.rows; r++) {
-					X[r][c] += s * QR[r][k];
+					X[r][c] += s * colk[r];
 				}
 			}
 		}
 		for (int k = this.cols - 1; k >= 0; k--) {
+			double[] colk = QR[k];
 			for (int c = 0; c < nx; c++) {
 				X[k][c] /= Rdiag[k];
 			}
 			for (int r = 0; r < k; r++) {
 				for (int c = 0; c < nx; c++) {
-					X[r][c] -= X[k][c] * QR[r][k];
+					X[r][c] -= X[k][c] * colk[r];
 				}
 			}
 		}
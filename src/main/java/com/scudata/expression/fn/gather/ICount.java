@@ -24,6 +24,7 @@ import com.scudata.util.Variant;
 /**
  * ȡظԪظȥȡֵΪfalseԪ
  * icount(x1,)
+ * @a HyperLogLog㲻ظڲظֵܶķ
  * @author RunQian
  *
  */
@@ -31,6 +32,7 @@ public class ICount extends Gather {
 	private Expression exp; // ʽ
 	private boolean isSorted = false; // Ƿ񰴱ʽ
 	private boolean optB = false; // ʹλģʽ
+	private boolean optA = false; // ģʽ
 	
 	// icountмϢ
 	public static class ICountInfo implements Serializable {
@@ -372,6 +374,237 @@ public class ICount extends Gather {
 		}
 	}
 	
+	//HyperLogLog㲻ظڴ̶ҿԺϲ@aѡ
+	public static class ICountHLL implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		private static final int P = 14; // ĴΪ2^P׼Լ0.8%
+		private static final int M = 1 << P; // Ĵ
+		private static final int MAX_SPARSE_SIZE = 2048; // ϡ󳤶ȣתɳܼĴ
+		
+		private byte []registers; // ģʽµļĴ
+		private int []sparse; // ϡģʽµĹϣԱΪ(Ĵ+1)<<8|rank
+		private int sparseCount; // ϡģʽʹõļĴ
+		
+		public ICountHLL() {
+			sparse = new int[16];
+		}
+		
+		/**
+		 * һֵֵлICountHLL
+		 * @param val ֵ
+		 */
+		public void add(Object val) {
+			if (val instanceof ICountHLL) {
+				addAll((ICountHLL)val);
+			} else if (val instanceof Sequence) {
+				IArray mems = ((Sequence)val).getMems();
+				for (int i = 1, len = mems.size(); i <= len; ++i) {
+					Object obj = mems.get(i);
+					if (obj != null) {
+						addHash(hash(obj));
+					}
+				}
+			} else if (val != null) {
+				addHash(hash(val));
+			}
+		}
+		
+		public void addLong(long val) {
+			addHash(mix(val));
+		}
+		
+		/**
+		 * ϲһICountHLL൱ϵĲ
+		 * @param other
+		 */
+		public void addAll(ICountHLL other) {
+			if (other == null || other == this) {
+				return;
+			}
+			
+			if (other.registers != null) {
+				if (registers == null) {
+					toDense();
+				}
+				
+				byte []registers = this.registers;
+				byte []otherRegisters = other.registers;
+				for (int i = 0; i < M; ++i) {
+					if (otherRegisters[i] > registers[i]) {
+						registers[i] = otherRegisters[i];
+					}
+				}
+			} else {
+				for (int e : other.sparse) {
+					if (e != 0) {
+						setRegister((e >>> 8) - 1, e & 0xff);
+					}
+				}
+			}
+		}
+		
+		/**
+		 * عĲظ
+		 * @return
+		 */
+		public int size() {
+			double estimate;
+			if (registers == null) {
+				if (sparseCount == 0) {
+					return 0;
+				}
+				
+				// ϡģʽԼ
+				estimate = M * Math.log((double)M / (M - sparseCount));
+			} else {
+				byte []registers = this.registers;
+				double sum = 0;
+				int zeros = 0;
+				for (int i = 0; i < M; ++i) {
+					int r = registers[i];
+					if (r == 0) {
+						zeros++;
+						sum += 1.0;
+					} else {
+						sum += 1.0 / (1L << r);
+					}
+				}
+				
+				double alpha = 0.7213 / (1 + 1.079 / M);
+				estimate = alpha * M * M / sum;
+				if (estimate <= 2.5 * M && zeros != 0) {
+					estimate = M * Math.log((double)M / zeros);
+				}
+			}
+			
+			if (estimate >= Integer.MAX_VALUE) {
+				return Integer.MAX_VALUE;
+			} else {
+				return (int)Math.round(estimate);
+			}
+		}
+		
+		private void addHash(long hash) {
+			int index = (int)(hash >>> (64 - P));
+			
+			// λ1֤rank64-P+1
+			long w = (hash << P) | (1L << (P - 1));
+			setRegister(index, Long.numberOfLeadingZeros(w) + 1);
+		}
+		
+		private void setRegister(int index, int rank) {
+			byte []registers = this.registers;
+			if (registers != null) {
+				if (rank > registers[index]) {
+					registers[index] = (byte)rank;
+				}
+				
+				return;
+			}
+			
+			int []sparse = this.sparse;
+			int mask = sparse.length - 1;
+			int key = index + 1;
+			int pos = index & mask;
+			while (true) {
+				int e = sparse[pos];
+				if (e == 0) {
+					sparse[pos] = (key << 8) | rank;
+					if (++sparseCount * 2 > sparse.length) {
+						growSparse();
+					}
+					
+					return;
+				} else if ((e >>> 8) == key) {
+					if (rank > (e & 0xff)) {
+						sparse[pos] = (key << 8) | rank;
+					}
+					
+					return;
+				} else {
+					pos = (pos + 1) & mask;
+				}
+			}
+		}
+		
+		private void growSparse() {
+			int []oldSparse = sparse;
+			int newLen = oldSparse.length * 2;
+			if (newLen > MAX_SPARSE_SIZE) {
+				toDense();
+				return;
+			}
+			
+			int []sparse = new int[newLen];
+			int mask = newLen - 1;
+			for (int e : oldSparse) {
+				if (e != 0) {
+					int pos = ((e >>> 8) - 1) & mask;
+					while (sparse[pos] != 0) {
+						pos = (pos + 1) & mask;
+					}
+					
+					sparse[pos] = e;
+				}
+			}
+			
+			this.sparse = sparse;
+		}
+		
+		private void toDense() {
+			byte []registers = new byte[M];
+			if (sparse != null) {
+				for (int e : sparse) {
+					if (e != 0) {
+						int index = (e >>> 8) - 1;
+						int rank = e & 0xff;
+						if (rank > registers[index]) {
+							registers[index] = (byte)rank;
+						}
+					}
+				}
+			}
+			
+			this.registers = registers;
+			sparse = null;
+			sparseCount = 0;
+		}
+		
+		// 64λϣֵֵȵ͸ͬĹϣֵ
+		private static long hash(Object val) {
+			if (val instanceof Integer || val instanceof Long || val instanceof Short || val instanceof Byte) {
+				return mix(((Number)val).longValue());
+			} else if (val instanceof Double || val instanceof Float) {
+				double d = ((Number)val).doubleValue();
+				long l = (long)d;
+				return l == d ? mix(l) : mix(Double.doubleToLongBits(d));
+			} else if (val instanceof String) {
+				String str = (String)val;
+				long h = 0xcbf29ce484222325L;
+				for (int i = 0, len = str.length(); i < len; ++i) {
+					h ^= str.charAt(i);
+					h *= 0x100000001b3L;
+				}
+				
+				return mix(h);
+			} else if (val instanceof java.util.Date) {
+				return mix(((java.util.Date)val).getTime());
+			} else {
+				return mix(val.hashCode());
+			}
+		}
+		
+		private static long mix(long h) {
+			h ^= h >>> 33;
+			h *= 0xff51afd7ed558ccdL;
+			h ^= h >>> 33;
+			h *= 0xc4ceb9fe1a85ec53L;
+			h ^= h >>> 33;
+			return h;
+		}
+	}
+	
 	public Object calculate(Context ctx) {
 		IParam param = this.param;
 		if (param == null) {
@@ -382,7 +615,7 @@ public class ICount extends Gather {
 			if (obj instanceof Sequence) {
 				return ((Sequence)obj).icount(option);
 			} else {
-				if (Variant.isTrue(obj)) {
+				if (obj != null) {
 					return ObjectCache.getInteger(1);
 				} else {
 					return ObjectCache.getInteger(0);
@@ -396,7 +629,7 @@ public class ICount extends Gather {
 			IParam sub = param.getSub(i);
 			if (sub != null) {
 				Object obj = sub.getLeafExpression().calculate(ctx);
-				if (Variant.isTrue(obj)) {
+				if (obj != null) {
 					set.add(obj);
 				}
 			}
@@ -414,12 +647,24 @@ public class ICount extends Gather {
 		exp = param.getLeafExpression();
 		isSorted = option != null && option.indexOf('o') != -1;
 		optB = option != null && option.indexOf('b') != -1;
+		optA = option != null && option.indexOf('a') != -1 && !isSorted;
 	}
 
 	/**
 	 * һ¼ݣӵʱм
 	 */
 	public Object gather(Context ctx) {
+		if (optA) {
+			Object val = exp.calculate(ctx);
+			if (val instanceof ICountHLL) {
+				return val;
+			} else {
+				ICountHLL hll = new ICountHLL();
+				hll.add(val);
+				return hll;
+			}
+		}
+		
 		// ݰicountֶ
 		if (isSorted) {
 			Object val = exp.calculate(ctx);
@@ -463,6 +708,19 @@ public class ICount extends Gather {
 			return oldValue;
 		}
 		
+		if (optA) {
+			if (oldValue == null) {
+				if (val instanceof ICountHLL) {
+					return val;
+				}
+				
+				oldValue = new ICountHLL();
+			}
+			
+			((ICountHLL)oldValue).add(val);
+			return oldValue;
+		}
+		
 		// ݰicountֶ
 		if (isSorted) {
 			((ICountInfo)oldValue).put(val);
@@ -513,6 +771,9 @@ public class ICount extends Gather {
 		if (isSorted) {
 			String str = "icount@o(#" + q + ")";
 			return new Expression(str);
+		} else if (optA) {
+			String str = "icount@a(#" + q + ")";
+			return new Expression(str);
 		} else {
 			String str = "icount(#" + q + ")";
 			return new Expression(str);
@@ -583,6 +844,8 @@ public class ICount extends Gather {
 	public IArray finish(IArray array) {
 		if (optB) {
 			return finish_b(array);
+		} else if (optA) {
+			return finish_a(array);
 		}
 		
 		int size = array.size();
@@ -619,6 +882,8 @@ public class ICount extends Gather {
 			return ObjectCache.getInteger(((HashSet<Object>)val).size());
 		} else if (val instanceof Sequence) {
 			return ObjectCache.getInteger(((Sequence)val).length());
+		} else if (val instanceof ICountHLL) {
+			return ObjectCache.getInteger(((ICountHLL)val).size());
 		} else {
 			return ObjectCache.getInteger(0);
 		}
@@ -642,6 +907,8 @@ public class ICount extends Gather {
 	public IArray gather(IArray result, int []resultSeqs, Context ctx) {
 		if (optB) {
 			return gather_b(result, resultSeqs, ctx);
+		} else if (optA) {
+			return gather_a(result, resultSeqs, ctx);
 		}
 		
 		IArray array = exp.calculateAll(ctx);
@@ -869,6 +1136,61 @@ public class ICount extends Gather {
 		return result;
 	}
 	
+	private IArray finish_a(IArray array) {
+		int size = array.size();
+		IntArray result = new IntArray(size);
+		
+		for (int i = 1; i <= size; ++i) {
+			Object val = array.get(i);
+			if (val instanceof ICountHLL) {
+				result.pushInt(((ICountHLL)val).size());
+			} else {
+				result.pushInt(0);
+			}
+		}
+		
+		return result;
+	}
+	
+	private IArray gather_a(IArray result, int []resultSeqs, Context ctx) {
+		IArray array = exp.calculateAll(ctx);
+		if (result == null) {
+			result = new ObjectArray(Env.INITGROUPSIZE);
+		}
+		
+		if (array instanceof IntArray && ((IntArray)array).getSigns() == null) {
+			int []datas = ((IntArray)array).getDatas();
+			for (int i = 1, size = array.size(); i <= size; ++i) {
+				ICountHLL hll;
+				if (result.size() < resultSeqs[i]) {
+					hll = new ICountHLL();
+					result.add(hll);
+				} else {
+					hll = (ICountHLL)result.get(resultSeqs[i]);
+				}
+				
+				hll.addLong(datas[i]);
+			}
+		} else {
+			for (int i = 1, size = array.size(); i <= size; ++i) {
+				Object val = array.get(i);
+				if (result.size() < resultSeqs[i]) {
+					if (val instanceof ICountHLL) {
+						result.add(val);
+					} else {
+						ICountHLL hll = new ICountHLL();
+						hll.add(val);
+						result.add(hll);
+					}
+				} else {
+					((ICountHLL)result.get(resultSeqs[i])).add(val);
+				}
+			}
+		}
+		
+		return result;
+	}
+	
 	/**
 	 * ̷̳Ķλ
 	 * @param result һ̵߳ķ
@@ -878,7 +1200,15 @@ public class ICount extends Gather {
 	 * @return
 	 */
 	public void gather2(IArray result, IArray result2, int []seqs, Context ctx) {
-		if (optB) {
+		if (optA) {
+			for (int i = 1, len = result2.size(); i <= len; ++i) {
+				if (seqs[i] != 0) {
+					ICountHLL value1 = (ICountHLL) result.get(seqs[i]);
+					ICountHLL value2 = (ICountHLL) result2.get(i);
+					value1.addAll(value2);
+				}
+			}
+		} else if (optB) {
 			for (int i = 1, len = result2.size(); i <= len; ++i) {
 				if (seqs[i] != 0) {
 					ICountBitSet value1 = (ICountBitSet) result.get(seqs[i]);
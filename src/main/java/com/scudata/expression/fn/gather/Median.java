@@ -1,5 +1,8 @@
 package com.scudata.expression.fn.gather;
 
+import java.io.Serializable;
+
+import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
@@ -11,6 +14,8 @@ import com.scudata.resources.EngineMessage;
 
 /**
  * ۺϺMedian
+ * median(k:n, exp)
+ * @a t-digestλÿֻѹģԺϲ
  * 
  * @author ־
  *
@@ -19,6 +24,299 @@ public class Median extends Gather  {
 	int	parK = 0;	// ѡĸֶΡΪ0ʽֵΪ
 	int	parN = 0;	// ֶٶΣΪ0ʾֵΪա
 	private Expression exp;	// ʽ
+	private boolean optA = false; // ģʽ
+	
+	/**
+	 * ڹλt-digestѹ޸ģɺϲ
+	 * ĸԼĸÿĸǵķλȲ2*sqrt(q*(1-q))/
+	 * ԹķλϵϽԼΪ*sqrt(q*(1-q))/ĳ=200ʱ
+	 * λԼΪ0.79%p90ԼΪ0.47%p99ԼΪ0.16%p99.9ԼΪ0.05%ʵͨԶСϽ
+	 * ϲTDigest󰴺ϲ㣬Ͻ粻
+	 * Լ/У64ֵ鲻ϲģ뾫ȷλڵֵ֮
+	 * 鰴䣺ӺСʼBUFFER_SIZEڵһѹʱŷ䣬
+	 * Сֻռֵ൱ڴ棬ڴ治Լ(4+2*BUFFER_SIZE)double
+	 */
+	public static class TDigest implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		private static final double COMPRESSION = 200; // ѹϵĸ;
+		private static final int BUFFER_SIZE = 1000; // δϲݵĻС
+		private static final int INIT_BUFFER_SIZE = 4; // ʼС
+		
+		private double []means; // ĵľֵ
+		private double []weights; // ĵȨ
+		private int count; // 
+		
+		private double []bufMeans; // δϲ
+		private double []bufWeights; // δϲݵȨ
+		private int bufCount; // δϲ
+		
+		private double totalWeight; // Ȩأ
+		private double min = Double.POSITIVE_INFINITY; // Сֵ
+		private double max = Double.NEGATIVE_INFINITY; // ֵ
+		
+		public TDigest() {
+		}
+		
+		/**
+		 * ֵֵлTDigest
+		 * @param val ֵ
+		 */
+		public void add(Object val) {
+			if (val instanceof Number) {
+				add(((Number)val).doubleValue(), 1);
+			} else if (val instanceof TDigest) {
+				addAll((TDigest)val);
+			} else if (val instanceof Sequence) {
+				IArray mems = ((Sequence)val).getMems();
+				for (int i = 1, len = mems.size(); i <= len; ++i) {
+					Object obj = mems.get(i);
+					if (obj instanceof Number) {
+						add(((Number)obj).doubleValue(), 1);
+					} else if (obj != null) {
+						MessageManager mm = EngineMessage.get();
+						throw new RQException("median" + mm.getMessage("function.paramTypeError"));
+					}
+				}
+			} else if (val != null) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("median" + mm.getMessage("function.paramTypeError"));
+			}
+		}
+		
+		/**
+		 * ϲһTDigest
+		 * @param other
+		 */
+		public void addAll(TDigest other) {
+			if (other == this) {
+				return;
+			}
+			
+			for (int i = 0, count = other.count; i < count; ++i) {
+				add(other.means[i], other.weights[i]);
+			}
+			
+			for (int i = 0, count = other.bufCount; i < count; ++i) {
+				add(other.bufMeans[i], other.bufWeights[i]);
+			}
+			
+			if (other.min < min) {
+				min = other.min;
+			}
+			
+			if (other.max > max) {
+				max = other.max;
+			}
+		}
+		
+		private void add(double x, double w) {
+			if (Double.isNaN(x)) {
+				return;
+			}
+			
+			if (bufMeans == null) {
+				bufMeans = new double[INIT_BUFFER_SIZE];
+				bufWeights = new double[INIT_BUFFER_SIZE];
+			} else if (bufCount == bufMeans.length) {
+				if (bufCount < BUFFER_SIZE) {
+					// δBUFFER_SIZEǰԭʼֵ
+					int size = Math.min(bufCount * 2, BUFFER_SIZE);
+					double []newMeans = new double[size];
+					double []newWeights = new double[size];
+					System.arraycopy(bufMeans, 0, newMeans, 0, bufCount);
+					System.arraycopy(bufWeights, 0, newWeights, 0, bufCount);
+					bufMeans = newMeans;
+					bufWeights = newWeights;
+				} else {
+					compress();
+				}
+			}
+			
+			bufMeans[bufCount] = x;
+			bufWeights[bufCount++] = w;
+			totalWeight += w;
+			if (x < min) {
+				min = x;
+			}
+			
+			if (x > max) {
+				max = x;
+			}
+		}
+		
+		/**
+		 * ѻݺϲ
+		 */
+		private void compress() {
+			if (bufCount == 0) {
+				return;
+			}
+			
+			int n = count + bufCount;
+			double []m = new double[n];
+			double []w = new double[n];
+			if (count > 0) {
+				System.arraycopy(means, 0, m, 0, count);
+				System.arraycopy(weights, 0, w, 0, count);
+			}
+			
+			System.arraycopy(bufMeans, 0, m, count, bufCount);
+			System.arraycopy(bufWeights, 0, w, count, bufCount);
+			bufCount = 0;
+			sort(m, w, 0, n - 1);
+			
+			double total = totalWeight;
+			double []means = this.means;
+			double []weights = this.weights;
+			if (means == null) {
+				// ڵһѹʱ䣬
+				int capacity = Math.min(n, (int)COMPRESSION * 2 + 10);
+				means = new double[capacity];
+				weights = new double[capacity];
+			}
+			
+			int newCount = 0;
+			double weightSoFar = 0;
+			double limit = total * scaleToQ(qToScale(0) + 1);
+			double curMean = m[0];
+			double curWeight = w[0];
+			
+			for (int i = 1; i < n; ++i) {
+				if (weightSoFar + curWeight + w[i] <= limit) {
+					curWeight += w[i];
+					curMean += (m[i] - curMean) * w[i] / curWeight;
+				} else {
+					if (newCount == means.length) {
+						means = enlarge(means);
+						weights = enlarge(weights);
+					}
+					
+					means[newCount] = curMean;
+					weights[newCount++] = curWeight;
+					weightSoFar += curWeight;
+					limit = total * scaleToQ(qToScale(weightSoFar / total) + 1);
+					curMean = m[i];
+					curWeight = w[i];
+				}
+			}
+			
+			if (newCount == means.length) {
+				means = enlarge(means);
+				weights = enlarge(weights);
+			}
+			
+			means[newCount] = curMean;
+			weights[newCount++] = curWeight;
+			this.means = means;
+			this.weights = weights;
+			this.count = newCount;
+		}
+		
+		/**
+		 * عķλ
+		 * @param q λȡֵ[0,1]
+		 * @return
+		 */
+		public double quantile(double q) {
+			compress();
+			int count = this.count;
+			if (count == 0) {
+				return Double.NaN;
+			} else if (count == 1 || q <= 0) {
+				return q <= 0 ? min : means[0];
+			} else if (q >= 1) {
+				return max;
+			}
+			
+			double []means = this.means;
+			double []weights = this.weights;
+			double index = q * totalWeight;
+			
+			// ĵĵ֮Բֵ
+			double left = weights[0] / 2;
+			if (index <= left) {
+				return min + (means[0] - min) * index / left;
+			}
+			
+			for (int i = 0; i < count - 1; ++i) {
+				double right = left + (weights[i] + weights[i + 1]) / 2;
+				if (index <= right) {
+					return means[i] + (means[i + 1] - means[i]) * (index - left) / (right - left);
+				}
+				
+				left = right;
+			}
+			
+			double rest = totalWeight - left;
+			if (rest <= 0) {
+				return max;
+			} else {
+				return means[count - 1] + (max - means[count - 1]) * (index - left) / rest;
+			}
+		}
+		
+		public double size() {
+			return totalWeight;
+		}
+		
+		private static double qToScale(double q) {
+			return COMPRESSION * Math.asin(2 * q - 1) / (2 * Math.PI);
+		}
+		
+		private static double scaleToQ(double k) {
+			if (k >= COMPRESSION / 4) {
+				return 1;
+			} else {
+				return (Math.sin(k * 2 * Math.PI / COMPRESSION) + 1) / 2;
+			}
+		}
+		
+		private static double[] enlarge(double []array) {
+			double []newArray = new double[array.length * 2];
+			System.arraycopy(array, 0, newArray, 0, array.length);
+			return newArray;
+		}
+		
+		// ֵ
+		private static void sort(double []m, double []w, int low, int high) {
+			while (high - low > 16) {
+				double pivot = m[(low + high) >>> 1];
+				int i = low, j = high;
+				while (i <= j) {
+					while (m[i] < pivot) i++;
+					while (m[j] > pivot) j--;
+					if (i <= j) {
+						double t = m[i]; m[i] = m[j]; m[j] = t;
+						t = w[i]; w[i] = w[j]; w[j] = t;
+						i++;
+						j--;
+					}
+				}
+				
+				if (j - low < high - i) {
+					sort(m, w, low, j);
+					low = i;
+				} else {
+					sort(m, w, i, high);
+					high = j;
+				}
+			}
+			
+			for (int i = low + 1; i <= high; ++i) {
+				double mv = m[i], wv = w[i];
+				int j = i - 1;
+				while (j >= low && m[j] > mv) {
+					m[j + 1] = m[j];
+					w[j + 1] = w[j];
+					j--;
+				}
+				
+				m[j + 1] = mv;
+				w[j + 1] = wv;
+			}
+		}
+	}
 	
 	/**
 	 * median(k:n, exp)ֱknexp
@@ -32,6 +330,7 @@ public class Median extends Gather  {
 		IParam sub0 = param.getSub(0);
 		IParam sub1 = param.getSub(1);
 		exp = sub1.getLeafExpression();
+		optA = option != null && option.indexOf('a') != -1;
 		
 		// median knΪգʱȡֵ
 		if (null == sub0) {
@@ -91,6 +390,19 @@ public class Median extends Gather  {
 		if (val == null)
 			return oldValue;
 		
+		if (optA) {
+			if (oldValue == null) {
+				if (val instanceof TDigest) {
+					return val;
+				}
+				
+				oldValue = new TDigest();
+			}
+			
+			((TDigest)oldValue).add(val);
+			return oldValue;
+		}
+		
 		if(oldValue == null) {
 			if (val instanceof Sequence) {
 				return val;
@@ -117,6 +429,15 @@ public class Median extends Gather  {
 	 */
 	public Object gather(Context ctx) {
 		Object val = exp.calculate(ctx);
+		if (optA) {
+			if (val instanceof TDigest) {
+				return val;
+			}
+			
+			TDigest digest = new TDigest();
+			digest.add(val);
+			return digest;
+		}
 
 		if (val instanceof Sequence) {
 			return val;
@@ -132,7 +453,8 @@ public class Median extends Gather  {
 	 * @param	q	ԭʱӦС
 	 */
 	public Expression getRegatherExpression(int q) {
-		String str = "median("+parK+":"+parN+",#"+ + q + ")";
+		String str = optA ? "median@a(" : "median(";
+		str += parK+":"+parN+",#"+ + q + ")";
 		return new Expression(str);
 
 	}
@@ -153,7 +475,9 @@ public class Median extends Gather  {
 	 * ͳʱмݣս
 	 */
 	public Object finish(Object val) {
-		if (val == null || !(val instanceof Sequence)) {
+		if (val instanceof TDigest) {
+			return finish((TDigest)val);
+		} else if (val == null || !(val instanceof Sequence)) {
 			return val;
 		}
 	
@@ -161,6 +485,31 @@ public class Median extends Gather  {
 		return seq.median(1, seq.length(), parK, parN);	
 	}
 	
+	private Object finish(TDigest digest) {
+		if (digest.size() == 0) {
+			return null;
+		}
+		
+		int k = parK;
+		int n = parN;
+		if (n == 0) {
+			k = 1;
+			n = 2;
+		}
+		
+		if (k != 0) {
+			return digest.quantile((double)k / n);
+		}
+		
+		// kΪʱзֶε
+		Sequence seq = new Sequence(n - 1);
+		for (int i = 1; i < n; ++i) {
+			seq.add(digest.quantile((double)i / n));
+		}
+		
+		return seq;
+	}
+	
 	public int getParK() {
 		return parK;
 	}
@@ -11,7 +11,8 @@ import com.scudata.expression.PhyTableFunction;
 
 /**
  * ڱ
- * T.memory(C,;w)
+ * T.memory(C,;w) Ĭϰд洢@rд洢@dֵдڶڴ
+ * @dʱڴڵڱcloseĹرԴʱͷţʱʹõҪclose
  * @author RunQian
  *
  */
@@ -20,18 +21,36 @@ public class Memory extends PhyTableFunction {
 		PhyTable tmd = (PhyTable) table;
 		
 		ICursor cursor = CreateCursor.createCursor(tmd, param, option, ctx);
-		Sequence seq = cursor.fetch();
+		MemoryTable result;
 		
-		Table table;
-		if (seq instanceof Table) {
-			table = (Table)seq;
-		} else if (seq == null) {
-			return null;
+		if (option != null && option.indexOf('r') != -1) {
+			// д洢
+			Sequence seq = cursor.fetch();
+			Table table;
+			if (seq instanceof Table) {
+				table = (Table)seq;
+			} else if (seq == null) {
+				return null;
+			} else {
+				table = seq.derive("o");
+			}
+			
+			result = new MemoryTable(table);
+		} else if (option != null && option.indexOf('d') != -1) {
+			// ֵдڶڴ棬closeĹرԴʱͷ
+			result = MemoryTable.createColumnTable(cursor, true);
+			if (result == null) {
+				return null;
+			}
+			
+			result.setContext(ctx);
 		} else {
-			table = seq.derive("o");
+			result = MemoryTable.createColumnTable(cursor);
+			if (result == null) {
+				return null;
+			}
 		}
 		
-		MemoryTable result = new MemoryTable(table);
 		Integer partition = tmd.getGroupTable().getPartition();
 		
 		if (partition != null) {
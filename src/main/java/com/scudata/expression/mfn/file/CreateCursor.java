@@ -13,6 +13,7 @@ import com.scudata.dm.Sequence;
 import com.scudata.dm.cursor.BFileCursor;
 import com.scudata.dm.cursor.FileCursor;
 import com.scudata.dm.cursor.ICursor;
+import com.scudata.dm.cursor.JSONCursor;
 import com.scudata.dm.cursor.MemoryCursor;
 import com.scudata.dm.cursor.MultipathCursors;
 import com.scudata.dm.query.SimpleSQL;
@@ -26,6 +27,7 @@ import com.scudata.resources.EngineMessage;
 /**
  * ļα꣬ļıļļ
  * f.cursor(Fi:type:fmt,;k:n,s)
+ * @jѡjsonļļÿһjsonjson lines飬FiΪѡֶ
  * @author RunQian
  *
  */
@@ -109,10 +111,11 @@ public class CreateCursor extends FileFunction {
 			return createSimpleSQLCursor(fo, cs, param, option, ctx);
 		}
 		
-		boolean isBinary = false, isMultiThread = false;
+		boolean isBinary = false, isMultiThread = false, isJson = false;
 		if (option != null) {
 			if (option.indexOf('m') != -1) isMultiThread = true;
 			if (option.indexOf('b') != -1 || option.indexOf('z') != -1) isBinary = true;
+			if (option.indexOf('j') != -1) isJson = true;
 		}
 		
 		IParam fieldParam = param;
@@ -284,7 +287,16 @@ public class CreateCursor extends FileFunction {
 		
 		if (isMultiThread && segCount > 1) {
 			ICursor []cursors = new ICursor[segCount];
-			if (isBinary) {
+			if (isJson) {
+				// ·ʹͬݽṹ
+				if (fields == null) {
+					fields = JSONCursor.getFieldNames(fo);
+				}
+				
+				for (int i = 0; i < segCount; ++i) {
+					cursors[i] = new JSONCursor(fo, i + 1, segCount, fields, option, ctx);
+				}
+			} else if (isBinary) {
 				for (int i = 0; i < segCount; ++i) {
 					cursors[i] = new BFileCursor(fo, fields, i + 1, segCount, option, ctx);
 				}
@@ -298,7 +310,9 @@ public class CreateCursor extends FileFunction {
 			
 			return new MultipathCursors(cursors, ctx);
 		} else {
-			if (isBinary) {
+			if (isJson) {
+				return new JSONCursor(fo, segSeq, segCount, fields, option, ctx);
+			} else if (isBinary) {
 				return new BFileCursor(fo, fields, segSeq, segCount, option, ctx);
 			} else {
 				FileCursor cursor = new FileCursor(fo, segSeq, segCount, fields, types, s, option, ctx);
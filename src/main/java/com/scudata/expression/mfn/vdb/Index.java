@@ -0,0 +1,44 @@
+package com.scudata.expression.mfn.vdb;
+
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.dm.Context;
+import com.scudata.expression.Expression;
+import com.scudata.expression.VSFunction;
+import com.scudata.resources.EngineMessage;
+import com.scudata.vdb.Library;
+
+/**
+ * ԽֶνЩȡֵļֻҳĽڣʡԲʱɾ
+ * v.index(F,)
+ * @author RunQian
+ *
+ */
+public class Index extends VSFunction {
+	public Object calculate(Context ctx) {
+		Library library = vs.getVDB().getLibrary();
+		if (param == null) {
+			return library.dropIndex();
+		}
+		
+		String []names;
+		if (param.isLeaf()) {
+			names = new String[] {param.getLeafExpression().getIdentifierName()};
+		} else {
+			Expression []exps = param.toArray("index", false);
+			names = new String[exps.length];
+			for (int i = 0; i < exps.length; ++i) {
+				names[i] = exps[i].getIdentifierName();
+			}
+		}
+		
+		for (String name : names) {
+			if (name == null || name.length() == 0) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("index" + mm.getMessage("function.invalidParam"));
+			}
+		}
+		
+		return library.createIndex(names);
+	}
+}
@@ -4,6 +4,7 @@ import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
+import com.scudata.expression.Node;
 import com.scudata.expression.Operator;
 import com.scudata.resources.EngineMessage;
 import com.scudata.util.Variant;
@@ -18,6 +19,10 @@ public class Add extends Operator {
 		priority = PRI_ADD;
 	}
 	
+	public Node duplicate(Context ctx) {
+		return duplicate(new Add(), ctx);
+	}
+	
 	/**
 	 * ʽЧԣЧ׳쳣
 	 */
@@ -5,11 +5,14 @@ import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
+import com.scudata.dm.Current;
 import com.scudata.dm.Sequence;
+import com.scudata.expression.Constant;
 import com.scudata.expression.Function;
 import com.scudata.expression.Move;
 import com.scudata.expression.Node;
 import com.scudata.expression.Operator;
+import com.scudata.expression.WindowAggregator;
 import com.scudata.resources.EngineMessage;
 import com.scudata.util.Variant;
 
@@ -20,10 +23,31 @@ import com.scudata.util.Variant;
  *
  */
 public class DotOperator extends Operator {
+	// 棬ͺƥĳԱ
+	private Class<?> cacheClass1;
+	private Node cacheFunction1;
+	private Class<?> cacheClass2;
+	private Node cacheFunction2;
+	
+	private WindowAggregator windowAggregator; // x[a:b].f()ʽĴھۺϵ
+	
 	public DotOperator() {
 		priority = PRI_SUF;
 	}
 	
+	public void setRight(Node node) {
+		super.setRight(node);
+		clearCache();
+	}
+	
+	private void clearCache() {
+		cacheClass1 = null;
+		cacheFunction1 = null;
+		cacheClass2 = null;
+		cacheFunction2 = null;
+		windowAggregator = null;
+	}
+	
 	/**
 	 * ʽЧԣЧ׳쳣
 	 */
@@ -43,13 +67,58 @@ public class DotOperator extends Operator {
 	public Node optimize(Context ctx) {
 		// Ҳຯ޸ֵгȲ
 		// [1,2,3].contain(n)
+		Node result;
 		if (!right.ifModifySequence()) {
 			left = left.optimize(ctx, true);
 			right = right.optimize(ctx);
-			return this;
+			result = this;
 		} else {
-			return super.optimize(ctx);
+			result = super.optimize(ctx);
+		}
+		
+		clearCache();
+		if (result == this) {
+			windowAggregator = WindowAggregator.create(left, right);
 		}
+		
+		if (result == this && left instanceof Constant) {
+			// ǳʱԤȷƥĳԱ
+			Object obj = left.calculate(ctx);
+			if (obj instanceof Number && right.isSequenceFunction()) {
+				getFunction(new Sequence(0));
+			} else if (obj != null) {
+				getFunction(obj);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * ȡƥĳԱȲ棬ûٱͬ
+	 * ԱǷƥֻ;
+	 * @param leftValue 
+	 * @return Node ûƥķؿ
+	 */
+	private Node getFunction(Object leftValue) {
+		Class<?> cls = leftValue.getClass();
+		if (cls == cacheClass1) {
+			return cacheFunction1;
+		} else if (cls == cacheClass2) {
+			return cacheFunction2;
+		}
+		
+		for (Node node = right; node != null; node = node.getNextFunction()) {
+			if (node.isLeftTypeMatch(leftValue)) {
+				cacheClass2 = cacheClass1;
+				cacheFunction2 = cacheFunction1;
+				cacheClass1 = cls;
+				cacheFunction1 = node;
+				return node;
+			}
+		}
+		
+		return null;
 	}
 
 	/**
@@ -74,19 +143,22 @@ public class DotOperator extends Operator {
 	}
 	
 	public Object calculate(Context ctx) {
+		if (windowAggregator != null) {
+			Current current = windowAggregator.getCurrent(ctx, true);
+			if (current != null) {
+				return windowAggregator.calculate(current, ctx);
+			}
+		}
+		
 		Object leftValue = getLeftObject(ctx);
 		if (leftValue == null) {
 			return null;
 		}
 
-		Node right = this.right;
-		while (right != null) {
-			if (right.isLeftTypeMatch(leftValue)) {
-				right.setDotLeftObject(leftValue);
-				return right.calculate(ctx);
-			} else {
-				right = right.getNextFunction();
-			}
+		Node fn = getFunction(leftValue);
+		if (fn != null) {
+			fn.setDotLeftObject(leftValue);
+			return fn.calculate(ctx);
 		}
 		
 		String fnName;
@@ -156,6 +228,14 @@ public class DotOperator extends Operator {
 	 * @return IArray
 	 */
 	public IArray calculateAll(Context ctx) {
+		if (windowAggregator != null) {
+			// ıʽûиֵ㣬üǷᱻ޸
+			Current current = windowAggregator.getCurrent(ctx, false);
+			if (current != null) {
+				return windowAggregator.calculateAll(current, ctx);
+			}
+		}
+		
 		right.setLeft(left);
 		return right.calculateAll(ctx);
 		//return right.calculateAll(left, ctx);
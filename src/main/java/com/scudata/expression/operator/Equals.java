@@ -5,6 +5,7 @@ import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
+import com.scudata.expression.Node;
 import com.scudata.expression.Relation;
 import com.scudata.resources.EngineMessage;
 import com.scudata.util.Variant;
@@ -19,6 +20,10 @@ public class Equals extends Relation {
 		priority = PRI_EQ;
 	}
 	
+	public Node duplicate(Context ctx) {
+		return duplicate(new Equals(), ctx);
+	}
+	
 	/**
 	 * ʽЧԣЧ׳쳣
 	 */
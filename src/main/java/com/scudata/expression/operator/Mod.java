@@ -5,6 +5,7 @@ import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
 import com.scudata.dm.Sequence;
+import com.scudata.expression.Node;
 import com.scudata.expression.Operator;
 import com.scudata.resources.EngineMessage;
 import com.scudata.util.CursorUtil;
@@ -20,6 +21,10 @@ public class Mod extends Operator {
 	public Mod() {
 		priority = PRI_MOD;
 	}
+	
+	public Node duplicate(Context ctx) {
+		return duplicate(new Mod(), ctx);
+	}
 
 	/**
 	 * ʽЧԣЧ׳쳣
@@ -6,6 +6,7 @@ import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
+import com.scudata.expression.Node;
 import com.scudata.expression.Operator;
 import com.scudata.resources.EngineMessage;
 import com.scudata.util.Variant;
@@ -19,6 +20,10 @@ public class Negative extends Operator {
 	public Negative() {
 		priority = PRI_NEGT;
 	}
+	
+	public Node duplicate(Context ctx) {
+		return duplicate(new Negative(), ctx);
+	}
 
 	/**
 	 * ʽЧԣЧ׳쳣
@@ -5,6 +5,7 @@ import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
+import com.scudata.expression.Node;
 import com.scudata.expression.Relation;
 import com.scudata.resources.EngineMessage;
 import com.scudata.util.Variant;
@@ -18,6 +19,10 @@ public class NotGreater extends Relation {
 	public NotGreater() {
 		priority = PRI_NGT;
 	}
+	
+	public Node duplicate(Context ctx) {
+		return duplicate(new NotGreater(), ctx);
+	}
 
 	/**
 	 * ʽЧԣЧ׳쳣
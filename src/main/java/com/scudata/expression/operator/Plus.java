@@ -4,6 +4,7 @@ import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
+import com.scudata.expression.Node;
 import com.scudata.expression.Operator;
 import com.scudata.resources.EngineMessage;
 
@@ -16,6 +17,10 @@ public class Plus extends Operator {
 	public Plus() {
 		this.priority = PRI_PLUS;
 	}
+	
+	public Node duplicate(Context ctx) {
+		return duplicate(new Plus(), ctx);
+	}
 
 	/**
 	 * ʽЧԣЧ׳쳣
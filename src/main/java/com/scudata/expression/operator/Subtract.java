@@ -4,6 +4,7 @@ import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
+import com.scudata.expression.Node;
 import com.scudata.expression.Operator;
 import com.scudata.resources.EngineMessage;
 import com.scudata.util.Variant;
@@ -17,6 +18,10 @@ public class Subtract extends Operator {
 	public Subtract() {
 		priority = PRI_SUB;
 	}
+	
+	public Node duplicate(Context ctx) {
+		return duplicate(new Subtract(), ctx);
+	}
 
 	/**
 	 * ʽЧԣЧ׳쳣
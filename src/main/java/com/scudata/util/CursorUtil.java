@@ -25,6 +25,7 @@ import com.scudata.dm.FileObject;
 import com.scudata.dm.HashArraySet;
 import com.scudata.dm.IndexTable;
 import com.scudata.dm.ListBase1;
+import com.scudata.dm.LongHashIndexTable;
 import com.scudata.dm.Record;
 import com.scudata.dm.Sequence;
 import com.scudata.dm.Table;
@@ -1210,7 +1211,7 @@ public final class CursorUtil {
 	}
 	
 	/**
-	 * αԹֶ鲢
+	 * αԹֶ鲢ӣhѡʱαùϣӣҪ
 	 * @param cursors α
 	 * @param names ֶ
 	 * @param exps ֶαʽ
@@ -1227,6 +1228,12 @@ public final class CursorUtil {
 				isIsect = true;
 			} else if (opt.indexOf('d') != -1) {
 				isDiff = true;
+			} else if (opt.indexOf('h') != -1 && cursors.length == 2) {
+				// αùϣӣ·α굱һα괦
+				boolean isCluster = cursors[0] instanceof ClusterCursor && cursors[1] instanceof ClusterCursor;
+				if (!isCluster) {
+					return new HashJoinxCursor(cursors[0], exps[0], cursors[1], exps[1], names, opt, ctx);
+				}
 			}
 		}
 		
@@ -1426,6 +1433,37 @@ public final class CursorUtil {
 		return op.process(seq, ctx);
 	}
 	
+	/**
+	 * ϣֵֶ滻ҵά¼ҲΪ
+	 * Ȱֶȡֵ飬ʱҪȡ
+	 * @param data 
+	 * @param fkName ֶ
+	 * @param indexTable άϣ
+	 * @return truefalseǴУûд
+	 */
+	public static boolean batchSwitch(Sequence data, String fkName, LongHashIndexTable indexTable) {
+		DataStruct ds = data.dataStruct();
+		if (ds == null) {
+			return false;
+		}
+		
+		int col = ds.getFieldIndex(fkName);
+		if (col < 0) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(fkName + mm.getMessage("ds.fieldNotExist"));
+		}
+		
+		IArray keys = data.getFieldValueArray(col);
+		Object []values = indexTable.findAll(keys);
+		IArray mems = data.getMems();
+		for (int i = 1, len = mems.size(); i <= len; ++i) {
+			BaseRecord r = (BaseRecord)mems.get(i);
+			r.setNormalFieldValue(col, values[i]);
+		}
+		
+		return true;
+	}
+	
 	/**
 	 * ϣ
 	 * @param data 
@@ -1540,7 +1578,8 @@ public final class CursorUtil {
 						throw new RQException(mm.getMessage("engine.needPmt"));
 					}
 				}
-			} else {
+			} else if (!(indexTable instanceof LongHashIndexTable) || 
+					!batchSwitch(data, fkName, (LongHashIndexTable)indexTable)) {
 				for (int i = 1, len = data.length(); i <= len; ++i) {
 					Object obj = data.getMem(i);
 					if (obj instanceof BaseRecord) {
@@ -1706,6 +1745,10 @@ public final class CursorUtil {
 		} else if (size == 1) {
 			return (ICursor)cursorList.get(0);
 		} else {
+			// ʱļ̫ʱȷ鲢
+			mergeTempFiles(cursorList, exps, opt, ctx);
+			size = cursorList.size();
+			
 			// ʱļ鲢
 			int bufSize = Env.getMergeFileBufSize(size);
 			for (int i = 0; i < size; ++i) {
@@ -1722,6 +1765,74 @@ public final class CursorUtil {
 			}
 		}
 	}
+	
+	/**
+	 * ʱļEnv.getMergeFanIn()ʱ˳ÿȡһ鲢һµʱļֱļ鲢·
+	 * @param cursorList ʱļαб鲢滻µʱļα
+	 * @param exps ʱļʽ
+	 * @param opt ѡ 0null
+	 * @param ctx 
+	 */
+	public static void mergeTempFiles(ArrayList<ICursor> cursorList, Expression[] exps, String opt, Context ctx) {
+		int fanIn = Env.getMergeFanIn();
+		int size = cursorList.size();
+		if (size <= fanIn) {
+			return;
+		}
+		
+		MessageManager mm = EngineMessage.get();
+		String msg = mm.getMessage("engine.createTmpFile");
+		if (opt != null && opt.indexOf('0') != -1) {
+			opt = "0";
+		} else {
+			opt = null;
+		}
+		
+		while (size > fanIn) {
+			// ÿζfanInļдһļ
+			int bufSize = Env.getMergeFileBufSize(fanIn + 1);
+			ArrayList<ICursor> list = new ArrayList<ICursor>((size + fanIn - 1) / fanIn);
+			
+			for (int start = 0; start < size; start += fanIn) {
+				int end = start + fanIn;
+				if (end > size) {
+					end = size;
+				}
+				
+				if (end - start == 1) {
+					list.add(cursorList.get(start));
+					continue;
+				}
+				
+				ICursor []cursors = new ICursor[end - start];
+				for (int i = start; i < end; ++i) {
+					ICursor cs = cursorList.get(i);
+					if (cs instanceof BFileCursor) {
+						((BFileCursor)cs).setFileBufferSize(bufSize);
+					}
+					
+					cursors[i - start] = cs;
+				}
+				
+				FileObject fo = FileObject.createTempFileObject();
+				Logger.info(msg + fo.getFileName());
+				MergesCursor mc = new MergesCursor(cursors, exps, opt, ctx);
+				
+				try {
+					fo.exportCursor(mc, null, null, "b", null, ctx);
+				} finally {
+					// رʱɾ鲢ʱļ
+					mc.close();
+				}
+				
+				list.add(new BFileCursor(fo, null, "x", ctx));
+			}
+			
+			cursorList.clear();
+			cursorList.addAll(list);
+			size = list.size();
+		}
+	}
 
 	/**
 	 * ֵֶͬļ¼ֵͬͬ
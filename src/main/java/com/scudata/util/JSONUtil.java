@@ -285,6 +285,43 @@ public final class JSONUtil {
 		}
 	}
 	
+	public static void toJSON(Object obj, StringBuilder sb) {
+		if (obj == null) {
+			sb.append("null");
+		} else if (obj instanceof BaseRecord) {
+			BaseRecord r = (BaseRecord)obj;
+			String []names = r.getFieldNames();
+			Object []vals = r.getFieldValues();
+			sb.append('{');
+			for (int f = 0, fcount = vals.length; f < fcount; ++f) {
+				if (f > 0) sb.append(',');
+				
+				// ŵĻҳ
+				sb.append(Escape.addEscAndQuote(names[f]));
+				sb.append(':');
+				toJSON(vals[f], sb);
+			}
+
+			sb.append('}');
+		} else if (obj instanceof Sequence) {
+			IArray mems = ((Sequence)obj).getMems();
+			sb.append('[');
+			for (int i = 1, len = mems.size(); i <= len; ++i) {
+				if (i > 1) sb.append(',');
+				toJSON(mems.get(i), sb);
+			}
+
+			sb.append(']');
+		} else if (obj instanceof String) {
+			sb.append(Escape.addEscAndQuote((String)obj));
+		} else if (obj instanceof Date) {
+			String str = Variant.toString(obj);
+			sb.append(Escape.addEscAndQuote(str));
+		} else {
+			sb.append(Variant.toString(obj));
+		}
+	}
+	
 	public static String toJSON(Sequence seq) {
 		StringBuffer sb = new StringBuffer(1024);
 		IArray mems = ((Sequence)seq).getMems();
@@ -0,0 +1,184 @@
+package com.scudata.util;
+
+import com.scudata.array.IArray;
+import com.scudata.dm.ComputeStack;
+import com.scudata.dm.Context;
+import com.scudata.dm.Current;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.cursor.ICursor;
+import com.scudata.dm.op.Operation;
+import com.scudata.expression.Expression;
+
+/**
+ * ʽ鲢αڵ㣬ÿȡһݺ鲢ʽֵ飬ȽʱֱӱȽԱ
+ * ÿȡ·һڼ䱻ȡߵļ¼ռıܵĻ·*FETCHCOUNT_M
+ * @author RunQian
+ *
+ */
+public class LoserTreeNode_Exps implements ILoserTreeNode {
+	private static final int MIN_FETCHCOUNT = ICursor.FETCHCOUNT_M / 8 + 1; // ÿȡС
+	private static final int MAX_FETCHCOUNT = ICursor.FETCHCOUNT_M * 8 + 8; // ÿȡ
+	
+	private ICursor cs;
+	private Expression []exps; // 鲢ʽÿڵԼĸһ
+	private Context ctx;
+	private boolean isNullMin = true; // nullǷСֵ
+	private LoserTreeNode_Exps []nodes; // 鲢нڵ㣬ڼ·ٶ
+	
+	private Sequence data; // 
+	private IArray []keys; // ݶӦĹ鲢ʽֵ
+	private int seq; // -1ʾȡ
+	private int len; // ݵļ¼
+	
+	private int fetchCount = ICursor.FETCHCOUNT_M; // һȡ
+	private long popCount; // ·Ѿȡļ¼
+	private long blockPopCount; // ȡǰʱ·Ѿȡļ¼
+	private long blockTotalCount; // ȡǰʱ·Ѿȡļ¼
+	
+	private LoserTreeNode_Exps(ICursor cs, Expression []exps, Context ctx, boolean isNullMin) {
+		this.cs = cs;
+		this.ctx = ctx.newComputeContext();
+		this.exps = Operation.dupExpressions(exps, this.ctx);
+		this.isNullMin = isNullMin;
+		keys = new IArray[exps.length];
+	}
+	
+	/**
+	 * Ϊ·α괴ڵ㣬ȡÿһ·ĵһ
+	 * @param cursors α飬Ѱexps
+	 * @param exps 鲢ʽ
+	 * @param ctx 
+	 * @param isNullMin nullǷСֵ
+	 * @return ڵ飬αһһӦ
+	 */
+	public static LoserTreeNode_Exps[] createNodes(ICursor []cursors, Expression []exps, Context ctx, boolean isNullMin) {
+		int count = cursors.length;
+		LoserTreeNode_Exps []nodes = new LoserTreeNode_Exps[count];
+		for (int i = 0; i < count; ++i) {
+			nodes[i] = new LoserTreeNode_Exps(cursors[i], exps, ctx, isNullMin);
+		}
+		
+		// Ľڵ飬ڵ֮øƵ
+		LoserTreeNode_Exps []all = nodes.clone();
+		for (int i = 0; i < count; ++i) {
+			nodes[i].nodes = all;
+			nodes[i].fetch();
+		}
+		
+		return nodes;
+	}
+	
+	// ȡһݲ鲢ʽ
+	private void fetch() {
+		Sequence data = cs.fuzzyFetch(fetchCount);
+		if (data == null || data.length() == 0) {
+			this.data = null;
+			keys = null;
+			seq = -1;
+			cs = null;
+			return;
+		}
+		
+		Expression []exps = this.exps;
+		IArray []keys = this.keys;
+		ComputeStack stack = ctx.getComputeStack();
+		stack.push(new Current(data));
+		
+		try {
+			for (int f = 0, fcount = exps.length; f < fcount; ++f) {
+				keys[f] = exps[f].calculateAll(ctx);
+			}
+		} finally {
+			stack.pop();
+		}
+		
+		this.data = data;
+		len = data.length();
+		seq = 1;
+		blockPopCount = popCount;
+		blockTotalCount = getTotalPopCount();
+	}
+	
+	private long getTotalPopCount() {
+		long total = 0;
+		for (LoserTreeNode_Exps node : nodes) {
+			total += node.popCount;
+		}
+		
+		return total;
+	}
+	
+	// һڼ·¼ռıһεȡ
+	private void adjustFetchCount() {
+		long total = getTotalPopCount() - blockTotalCount;
+		if (total <= 0) {
+			return;
+		}
+		
+		double rate = (double)(popCount - blockPopCount) / total;
+		long count = (long)(rate * nodes.length * ICursor.FETCHCOUNT_M);
+		count = (fetchCount + count) / 2;
+		
+		if (count < MIN_FETCHCOUNT) {
+			fetchCount = MIN_FETCHCOUNT;
+		} else if (count > MAX_FETCHCOUNT) {
+			fetchCount = MAX_FETCHCOUNT;
+		} else {
+			fetchCount = (int)count;
+		}
+	}
+	
+	public Object popCurrent() {
+		Object obj = data.getMem(seq);
+		popCount++;
+		
+		if (seq < len) {
+			seq++;
+		} else {
+			adjustFetchCount();
+			fetch();
+		}
+		
+		return obj;
+	}
+	
+	public boolean hasNext() {
+		return seq != -1;
+	}
+	
+	public int compareTo(ILoserTreeNode other) {
+		LoserTreeNode_Exps node = (LoserTreeNode_Exps)other;
+		IArray []keys = this.keys;
+		IArray []otherKeys = node.keys;
+		int seq = this.seq;
+		int otherSeq = node.seq;
+		
+		if (isNullMin) {
+			for (int f = 0, fcount = keys.length; f < fcount; ++f) {
+				int cmp = keys[f].compareTo(seq, otherKeys[f], otherSeq);
+				if (cmp != 0) {
+					return cmp;
+				}
+			}
+		} else {
+			for (int f = 0, fcount = keys.length; f < fcount; ++f) {
+				IArray key = keys[f];
+				IArray otherKey = otherKeys[f];
+				if (key.isNull(seq)) {
+					if (!otherKey.isNull(otherSeq)) {
+						return 1;
+					}
+				} else if (otherKey.isNull(otherSeq)) {
+					return -1;
+				} else {
+					int cmp = key.compareTo(seq, otherKey, otherSeq);
+					if (cmp != 0) {
+						return cmp;
+					}
+				}
+			}
+		}
+		
+		return 0;
+	}
+}
@@ -223,6 +223,20 @@ class ArchiveSection extends ISection {
 		}
 	}
 	
+	public ISection getDirectSub(VDB vdb, Object path, int []seq) {
+		ArchiveDir []subDirs = this.subDirs;
+		if (subDirs != null) {
+			for (int i = 0, count = subDirs.length; i < count; ++i) {
+				if (subDirs[i].isEqualValue(path)) {
+					seq[0] = i;
+					return getSubSection(vdb.getLibrary(), i);
+				}
+			}
+		}
+		
+		return null;
+	}
+	
 	public Section getSubForMove(VDB vdb, Object path) {
 		throw getModifyException();
 	}
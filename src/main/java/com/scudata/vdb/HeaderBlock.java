@@ -146,6 +146,47 @@ class HeaderBlock {
 		return null;
 	}
 	
+	/**
+	 * ȡֵָĿ¼ּĿ¼
+	 * @param path Ŀ¼ֵ
+	 * @param seq ڷĿ¼
+	 * @return Dir
+	 */
+	public synchronized Dir getSubDir(Object path, int []seq) {
+		if (subDirs == null) return null;
+		
+		for (int i = 0, size = subDirs.size(); i < size; ++i) {
+			Dir dir = subDirs.get(i);
+			if (dir.isEqualValue(path)) {
+				seq[0] = i;
+				return dir;
+			}
+		}
+		
+		return null;
+	}
+	
+	// ȡδύЧλĿ¼ύ
+	public synchronized Dir[] getUncommittedSubDirs() {
+		if (subDirs == null) return null;
+		
+		ArrayList<Dir> list = new ArrayList<Dir>();
+		for (Dir dir : subDirs) {
+			DirZone zone = dir.getLastZone();
+			if (zone != null && !zone.isCommitted() && zone.valid()) {
+				list.add(dir);
+			}
+		}
+		
+		if (list.size() == 0) {
+			return null;
+		}
+		
+		Dir []dirs = new Dir[list.size()];
+		list.toArray(dirs);
+		return dirs;
+	}
+	
 	// ȡеĿ¼
 	public synchronized Dir[] getSubDirs() {
 		if (subDirs == null || subDirs.size() == 0) {
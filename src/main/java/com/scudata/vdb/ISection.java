@@ -2,6 +2,7 @@ package com.scudata.vdb;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
@@ -167,6 +168,15 @@ abstract class ISection {
 	 */
 	abstract public ISection getSub(VDB vdb, Object path);
 	
+	/**
+	 * ȡֱֵָӽڣڵӽǹϣĿ¼
+	 * @param vdb ݿ
+	 * @param path Ŀ¼ֵ
+	 * @param seq ڷĿ¼ڵǰе
+	 * @return ӽڣڻ򲻿ɼʱؿ
+	 */
+	abstract public ISection getDirectSub(VDB vdb, Object path, int []seq);
+	
 	/**
 	 * ȡӽƶ
 	 * @param vdb ݿ
@@ -282,7 +292,7 @@ abstract class ISection {
 		}
 		
 		Table table = new Table(ds);
-		importTable(vdb, table, values, signs, filter, filterIndex, ctx);
+		importTableByIndex(vdb, table, values, signs, filter, filterIndex, ctx);
 		
 		if (table.length() == 0) {
 			return null;
@@ -350,7 +360,7 @@ abstract class ISection {
 		}
 		
 		Table table = new Table(ds);
-		importTable(vdb, table, values, signs, filters[0], filterIndex, ctx);
+		importTableByIndex(vdb, table, values, signs, filters[0], filterIndex, ctx);
 		
 		for (int i = 1; i < expCount; ++i) {
 			table.select(filters[i], "o", ctx);
@@ -475,6 +485,83 @@ abstract class ISection {
 		return true;
 	}
 	
+	// ʱֻҳĽڣеӽ
+	private void importTableByIndex(VDB vdb, Table table, Object []values, boolean []signs, 
+			Expression filter, int []filterIndex, Context ctx) throws IOException {
+		SectionIndex index = vdb.getLibrary().getSectionIndex(vdb);
+		ArrayList<SectionIndex.Target> targets = index == null ? null : index.getTargets(vdb, this, filter, ctx);
+		if (targets == null) {
+			importTable(vdb, table, values, signs, filter, filterIndex, ctx);
+			return;
+		}
+		
+		DataStruct ds = table.dataStruct();
+		int fcount = values.length;
+		Object []oldValues = new Object[fcount];
+		boolean []oldSigns = new boolean[fcount];
+		System.arraycopy(values, 0, oldValues, 0, fcount);
+		System.arraycopy(signs, 0, oldSigns, 0, fcount);
+		int []region = null; // ѾĿ¼
+		
+		Next:
+		for (SectionIndex.Target target : targets) {
+			if (target.isIn(region)) {
+				continue;
+			}
+			
+			ISection []sections = target.getSections();
+			int count = sections.length;
+			for (int i = 0; i < count; ++i) {
+				IDir dir = sections[i].getDir();
+				int findex = ds.getFieldIndex(dir.getName());
+				if (findex == -1) {
+					continue;
+				}
+				
+				values[findex] = dir.getValue();
+				signs[findex] = true;
+				
+				boolean isAll = true;
+				for (int f : filterIndex) {
+					if (!signs[f]) {
+						isAll = false;
+						break;
+					}
+				}
+				
+				if (isAll) {
+					// Ŀ¼ֵѾжʱĿ¼
+					Record r = new Record(ds, values);
+					Object result = r.calc(filter, ctx);
+					if (!(result instanceof Boolean)) {
+						MessageManager mm = EngineMessage.get();
+						throw new RQException(mm.getMessage("engine.needBoolExp"));
+					}
+					
+					if ((Boolean)result) {
+						sections[i].importTable(vdb, table, values, signs);
+						region = Arrays.copyOf(target.getSeqs(), i + 1);
+					}
+					
+					System.arraycopy(oldValues, 0, values, 0, fcount);
+					System.arraycopy(oldSigns, 0, signs, 0, fcount);
+					continue Next;
+				}
+			}
+			
+			ISection section = count > 0 ? sections[count - 1] : this;
+			if (target.isDir()) {
+				section.importTable(vdb, table, values, signs, filter, filterIndex, ctx);
+				region = target.getSeqs();
+			} else {
+				addDataToTable(table, values, signs, section.load(vdb, null), filter, ctx);
+			}
+			
+			System.arraycopy(oldValues, 0, values, 0, fcount);
+			System.arraycopy(oldSigns, 0, signs, 0, fcount);
+		}
+	}
+	
 	abstract protected void importTable(VDB vdb, Table table, Object []values, boolean []signs) throws IOException;
 	
 	abstract protected void importTable(VDB vdb, Table table, Object []values, boolean []signs, 
@@ -575,10 +662,68 @@ abstract class ISection {
 			String []fields, Expression exp, boolean isRecursion, Context ctx) throws IOException {
 		Filter filter = new Filter(dirNames, dirValues, valueSigns, fields, exp, ctx);
 		Sequence out = new Sequence(1024);
-		retrieve(vdb, filter, isRecursion, out);
+		
+		// ʱֻҳĽ
+		SectionIndex index = vdb.getLibrary().getSectionIndex(vdb);
+		ArrayList<SectionIndex.Target> targets = index == null ? null : 
+			index.getTargets(vdb, this, dirNames, dirValues, valueSigns, exp, ctx);
+		if (targets == null) {
+			retrieve(vdb, filter, isRecursion, out);
+		} else {
+			retrieve(vdb, targets, filter, isRecursion, out);
+		}
+		
 		return out;
 	}
 	
+	// ˳ҳĽڣĿ¼͹˱ʽ԰ԭʽж
+	private void retrieve(VDB vdb, ArrayList<SectionIndex.Target> targets, Filter filter, 
+			boolean isRecursion, Sequence out) throws IOException {
+		int []region = null; // ѾĿ¼
+		for (SectionIndex.Target target : targets) {
+			if (target.isIn(region)) {
+				continue;
+			}
+			
+			ISection []sections = target.getSections();
+			int count = sections.length;
+			int pushCount = 0;
+			boolean isMatch = true;
+			for (int i = 0; i < count; ++i) {
+				// ݹʱĿ¼ٷ²Ľ
+				if (!isRecursion && filter.isDirMatch()) {
+					isMatch = false;
+					break;
+				}
+				
+				IDir dir = sections[i].getDir();
+				if (filter.pushDir(dir.getName(), dir.getValue())) {
+					pushCount++;
+				} else {
+					isMatch = false;
+					break;
+				}
+			}
+			
+			if (isMatch) {
+				ISection section = count > 0 ? sections[count - 1] : this;
+				if (target.isDir()) {
+					section.retrieve(vdb, filter, isRecursion, out);
+					region = target.getSeqs();
+				} else if (filter.isDirMatch()) {
+					Sequence seq = filter.select(section.load(vdb, null));
+					if (seq != null) {
+						out.addAll(seq);
+					}
+				}
+			}
+			
+			for (; pushCount > 0; --pushCount) {
+				filter.popDir();
+			}
+		}
+	}
+	
 	abstract protected void retrieve(VDB vdb, Filter filter, boolean isRecursion, Sequence out) throws IOException;
 	
 	/**
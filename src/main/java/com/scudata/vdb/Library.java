@@ -5,8 +5,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 
 import com.scudata.common.MessageManager;
@@ -36,6 +38,10 @@ public class Library {
 	// ̨Ż̵߳˯ʱ
 	private static final long SLEEPTIME = 5 * 60 * 1000; // 5
 	
+	// ϲύύдݣȻϲһforce
+	private static final long GROUP_COMMIT_WAIT = 2; // ȴύʱ䣬λ
+	private static final int GROUP_COMMIT_SIZE = 64; // һforceϲύﵽٵȴ
+	
 	// ɨʹļʱ
 	private static final long SCANFILEINTERVAL = 60 * 60 * 1000; // 1Сʱ
 	
@@ -58,9 +64,18 @@ public class Library {
 	private FileChannel channel;
 	private boolean isStarted = false; // Ƿ
 	
+	// ϲύ״̬forceLockͬ
+	private final Object forceLock = new Object();
+	private long writeSeq = 0; // дύ
+	private long forceSeq = 0; // ѱ浽Ӳ̵ύ
+	private int writingCount = 0; // дݵύ
+	private boolean isForcing = false; // Ƿύִforce
+	private IOException forceError; // forceʧܵ쳣ʧܺٽύֱ
+	
 	private BlockManager blockManager; // տ
 	private LinkedList<VDB> vdbList = new LinkedList<VDB>(); // 
 	private ISection rootSection; // 
+	private volatile SectionIndex sectionIndex; // ڵûнʱΪ
 	
 	// û¼ʱ
 	private volatile long lastConnectTime = System.currentTimeMillis();
@@ -178,8 +193,10 @@ public class Library {
 	 */
 	void enlargeFile(long size) {
 		try {
-			synchronized(file) {
-				file.setLength(size);
+			// µĩβдһֽļλдıļָ룬Ҫļ
+			// ߳BlockManagerύʱļ飬ļ
+			if (channel.size() < size) {
+				channel.write(ByteBuffer.wrap(new byte[1]), size - 1);
 			}
 		} catch (IOException e) {
 			processIOException(e);
@@ -231,17 +248,27 @@ public class Library {
 			startTime = System.currentTimeMillis();
 			innerTxSeq = 0;
 			loadTxSeq = 0;
+			synchronized(forceLock) {
+				writeSeq = 0;
+				forceSeq = 0;
+				forceError = null;
+			}
+			
 			File tmp = new File(pathName);
 			
 			if (!tmp.exists() || tmp.length() == 0) {
 				file = new RandomAccessFile(pathName, "rw");
 				file.setLength(ENLARGE_BLOCKCOUNT * BLOCKSIZE);
 				createTime = startTime;
+				sectionIndex = null;
 			} else {
 				file = new RandomAccessFile(pathName, "rw");
 				readDBHeader(file);
 				outerTxSeq++;
 				
+				// ϴرʱݿֱʹãڵһʹʱؽ
+				sectionIndex = SectionIndex.readFile(getIndexFileName(), stopTime);
+				
 				try {
 					tempFile = new RandomAccessFile(pathName + ".tmp", "r");
 					tempFile.seek(0);
@@ -321,6 +348,16 @@ public class Library {
 			writeTempFile();
 		}
 		
+		// дʧʱ´ؽ
+		SectionIndex index = sectionIndex;
+		sectionIndex = null;
+		if (index != null) {
+			try {
+				index.writeFile(getIndexFileName(), stopTime);
+			} catch (IOException e) {
+			}
+		}
+		
 		blockManager.stop();
 		blockManager = null;
 		file = null;
@@ -335,6 +372,50 @@ public class Library {
 	public synchronized boolean stop() {
 		return stop(true);
 	}
+	
+	/**
+	 * ԽֶνЩȡֵretrieveimportֻҳĽ
+	 * ύʱάݿرʱ浽ļ.idxļ
+	 * @param names ֶ飬Ϊձʾɾ
+	 * @return 0ɹ
+	 */
+	public synchronized int createIndex(String []names) {
+		String fileName = getIndexFileName();
+		if (names == null || names.length == 0) {
+			sectionIndex = null;
+			new File(fileName).delete();
+			return VDB.S_SUCCESS;
+		}
+		
+		SectionIndex index = sectionIndex;
+		if (index != null && Arrays.equals(index.getNames(), names)) {
+			return VDB.S_SUCCESS;
+		}
+		
+		index = new SectionIndex(names);
+		try {
+			// ֻ壬ڹرݿʱ
+			index.writeFile(fileName, 0);
+		} catch (IOException e) {
+			throw new RQException(e.getMessage(), e);
+		}
+		
+		sectionIndex = index;
+		return VDB.S_SUCCESS;
+	}
+	
+	/**
+	 * ɾ
+	 * @return 0ɹ
+	 */
+	public int dropIndex() {
+		return createIndex(null);
+	}
+	
+	// ļ
+	private String getIndexFileName() {
+		return pathName + ".idx";
+	}
 
 	// ݿ״̬дʱļΪŻ´εٶȣûдʱļʱҪɨ
 	private void writeTempFile() {
@@ -390,6 +471,28 @@ public class Library {
 	ISection getRootSection() {
 		return rootSection;
 	}
+	
+	// ȡύʱά
+	SectionIndex getSectionIndex() {
+		return sectionIndex;
+	}
+	
+	/**
+	 * ȡڼûʱ
+	 * еҪܿԼδύ޸ģʹ
+	 * @param vdb ݿ
+	 * @return ʹʱؿ
+	 * @throws IOException
+	 */
+	SectionIndex getSectionIndex(VDB vdb) throws IOException {
+		SectionIndex index = sectionIndex;
+		if (index == null || !vdb.isAutoCommit()) {
+			return null;
+		}
+		
+		index.prepare(this);
+		return index;
+	}
 
 	// дļͷ
 	private void writeDBHeader(RandomAccessFile file) throws IOException {
@@ -462,6 +565,17 @@ public class Library {
 			return VDB.S_SUCCESS;
 		}
 		
+		// ǰforceʧܹӲϵѾȷǰٽύ
+		boolean isFailed;
+		synchronized(forceLock) {
+			isFailed = forceError != null;
+		}
+		
+		if (isFailed) {
+			rollback(vdb);
+			return VDB.S_IOERROR;
+		}
+		
 		// ɾtxSeqĶλ
 		long txSeq = getEarliestTxSeq();
 		int outerSeq = getOuterTxSeq();
@@ -470,7 +584,13 @@ public class Library {
 			section.deleteOutdatedZone(this, outerSeq, txSeq);
 		}
 		
+		synchronized(forceLock) {
+			writingCount++;
+		}
+		
+		long seq = 0;
 		synchronized(file) {
+			boolean isWritten = false;
 			try {
 				long innerSeq = getNextInnerTxSeq();
 				for (ISection section : modifySections) {
@@ -479,17 +599,112 @@ public class Library {
 				
 				// ύɺ¶
 				addTxSeq();
-
-				// 浽Ӳ
-				channel.force(false);
+				isWritten = true;
 			} catch (Exception e) {
 				e.printStackTrace();
 				rollback(vdb);
+			} finally {
+				synchronized(forceLock) {
+					writingCount--;
+					if (isWritten) {
+						seq = ++writeSeq;
+					}
+					
+					forceLock.notifyAll();
+				}
 			}
 		}
+		
+		if (seq == 0) {
+			return VDB.S_SUCCESS;
+		}
+		
+		try {
+			// 浽Ӳ̣Ͳύһforce
+			force(seq);
+		} catch (Exception e) {
+			// ޸ѾύӿѾסЩڣٻع
+			e.printStackTrace();
+			return VDB.S_IOERROR;
+		}
 
 		return VDB.S_SUCCESS;
 	}
+	
+	/**
+	 * ȴָύ浽Ӳ̺󷵻
+	 * һȴύִforceִǰڶʱڵȴдݵύ
+	 * ִڼ䵽ύforceɺһִһforce
+	 * forceʧܺлû浽Ӳ̵ύõ쳣
+	 * @param seq ύ
+	 * @throws IOException
+	 */
+	private void force(long seq) throws IOException {
+		boolean isInterrupted = false;
+		long target;
+		
+		synchronized(forceLock) {
+			while (true) {
+				if (forceSeq >= seq) {
+					return;
+				} else if (forceError != null) {
+					throw forceError;
+				} else if (!isForcing) {
+					break;
+				}
+				
+				try {
+					forceLock.wait();
+				} catch (InterruptedException e) {
+					isInterrupted = true;
+				}
+			}
+			
+			// ɵǰύִforceύдȴһ𱣴
+			isForcing = true;
+			long endTime = System.currentTimeMillis() + GROUP_COMMIT_WAIT;
+			while (writingCount > 0 && writeSeq - forceSeq < GROUP_COMMIT_SIZE) {
+				long waitTime = endTime - System.currentTimeMillis();
+				if (waitTime <= 0) {
+					break;
+				}
+				
+				try {
+					forceLock.wait(waitTime);
+				} catch (InterruptedException e) {
+					isInterrupted = true;
+				}
+			}
+			
+			target = writeSeq;
+		}
+		
+		IOException error = null;
+		try {
+			channel.force(false);
+		} catch (IOException e) {
+			error = e;
+		} finally {
+			synchronized(forceLock) {
+				isForcing = false;
+				if (error == null) {
+					forceSeq = target;
+				} else {
+					forceError = error;
+				}
+				
+				forceLock.notifyAll();
+			}
+			
+			if (isInterrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		if (error != null) {
+			throw error;
+		}
+	}
 
 	/**
 	 * ع޸
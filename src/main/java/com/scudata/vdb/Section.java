@@ -26,6 +26,7 @@ class Section extends ISection {
 	private Dir dir; // ڶӦĿ¼Ϣ
 	private volatile VDB lockVDB; // ǰڵ߼
 	private boolean isModified; // Ƿ޸
+	private ArrayList<Dir> renamedDirs; // ǰĿ¼ύڸ
 	
 	// ½
 	public Section(Dir dir) {
@@ -133,6 +134,20 @@ class Section extends ISection {
 		return zone.getSection(vdb.getLibrary(), subDir);
 	}
 	
+	public ISection getDirectSub(VDB vdb, Object path, int []seq) {
+		Dir subDir = headerBlock.getSubDir(path, seq);
+		if (subDir == null) {
+			return null;
+		}
+		
+		DirZone zone = subDir.getZone(vdb, isLockVDB(vdb));
+		if (zone == null) {
+			return null;
+		}
+		
+		return zone.getSection(vdb.getLibrary(), subDir);
+	}
+	
 	// һSection
 	private Section getSubForWrite(VDB vdb, Sequence paths, Sequence names) {
 		int pcount = paths.length();
@@ -264,7 +279,14 @@ class Section extends ISection {
 			return VDB.S_SUCCESS;
 		} else if (lockVDB != vdb) {
 			try {
-				wait(Library.MAXWAITTIME);
+				// ʱֱסʱȴֱʱ
+				long endTime = System.currentTimeMillis() + Library.MAXWAITTIME;
+				long waitTime = Library.MAXWAITTIME;
+				while (lockVDB != null && waitTime > 0) {
+					wait(waitTime);
+					waitTime = endTime - System.currentTimeMillis();
+				}
+				
 				if (lockVDB != null) { // ʱ
 					vdb.setError(VDB.S_LOCKTIMEOUT);
 					return VDB.S_LOCKTIMEOUT;
@@ -291,7 +313,14 @@ class Section extends ISection {
 			return VDB.S_SUCCESS;
 		} else if (lockVDB != vdb) {
 			try {
-				wait(Library.MAXWAITTIME);
+				// ʱֱסʱȴֱʱ
+				long endTime = System.currentTimeMillis() + Library.MAXWAITTIME;
+				long waitTime = Library.MAXWAITTIME;
+				while (lockVDB != null && waitTime > 0) {
+					wait(waitTime);
+					waitTime = endTime - System.currentTimeMillis();
+				}
+				
 				if (lockVDB != null) { // ʱ
 					vdb.setError(VDB.S_LOCKTIMEOUT);
 					return VDB.S_LOCKTIMEOUT;
@@ -314,6 +343,7 @@ class Section extends ISection {
 	 */
 	public synchronized void unlock() {
 		isModified = false;
+		renamedDirs = null;
 		lockVDB = null;
 		notify();
 	}
@@ -329,6 +359,7 @@ class Section extends ISection {
 			}
 
 			isModified = false;
+			renamedDirs = null;
 			lockVDB = null;
 			notify();
 		}
@@ -1062,7 +1093,24 @@ class Section extends ISection {
 	public void commit(Library library, int outerSeq, long innerSeq) throws IOException {
 		// ڿؽûύɾˣʱύ
 		if (isModified && header > 0) {
+			// ύǰдı²Ŀ¼ύ
+			SectionIndex index = library.getSectionIndex();
+			Zone fileZone = null;
+			Dir []newDirs = null;
+			if (index != null && index.isStarted()) {
+				fileZone = headerBlock.getFileZone();
+				if (fileZone != null && fileZone.isCommitted()) {
+					fileZone = null;
+				}
+				
+				newDirs = headerBlock.getUncommittedSubDirs();
+			}
+			
 			headerBlock.commit(library, header, outerSeq, innerSeq);
+			
+			if (index != null) {
+				index.commit(library, this, fileZone, newDirs, renamedDirs);
+			}
 		}
 		
 		unlock();
@@ -1130,6 +1178,11 @@ class Section extends ISection {
 		}
 		
 		parent.isModified = true;
+		if (parent.renamedDirs == null) {
+			parent.renamedDirs = new ArrayList<Dir>();
+		}
+		
+		parent.renamedDirs.add(dir);
 		dir.rename(name);
 		return VDB.S_SUCCESS;
 	}
@@ -0,0 +1,1005 @@
+package com.scudata.vdb;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.Context;
+import com.scudata.dm.DataStruct;
+import com.scudata.dm.ObjectReader;
+import com.scudata.dm.ObjectWriter;
+import com.scudata.dm.Sequence;
+import com.scudata.expression.ArgNode;
+import com.scudata.expression.ConstParam;
+import com.scudata.expression.Constant;
+import com.scudata.expression.Expression;
+import com.scudata.expression.IParam;
+import com.scudata.expression.Node;
+import com.scudata.expression.UnknownSymbol;
+import com.scudata.expression.ValueList;
+import com.scudata.expression.VarParam;
+import com.scudata.expression.mfn.sequence.Contain;
+import com.scudata.expression.operator.And;
+import com.scudata.expression.operator.DotOperator;
+import com.scudata.expression.operator.Equals;
+import com.scudata.expression.operator.Or;
+import com.scudata.util.EnvUtil;
+import com.scudata.util.Variant;
+
+/**
+ * ڵĿ¼ֵֵֶҳڣʱֻЩڶñ
+ * ¼ǽڵ·ӸʼÿĿ¼ֵҳĽڻԭжϣʧЧ·
+ * ύʱSection.commitάݿرʱ浽ļûرʱڵһʹʱؽ
+ * @author RunQian
+ *
+ */
+class SectionIndex {
+	private String []names; // Ľֶ
+	private HashMap<Object, HashSet<IndexPath>> []dirMaps; // Ŀ¼ֵӦĿ¼ڵ·
+	private HashMap<Object, HashSet<IndexPath>> []fileMaps; // ֵֶֶӦıڵ·
+	private HashMap<IndexPath, Object[][]> fileKeys; // ڸֶϵֵ޸ıʱɾֵ
+	
+	private volatile boolean isReady; // Ƿ
+	private final Object buildLock = new Object();
+	
+	/**
+	 * ڵ·ɸÿĿ¼ֵ
+	 */
+	static class IndexPath {
+		private Object []values;
+		
+		public IndexPath(Object []values) {
+			this.values = values;
+		}
+		
+		public int length() {
+			return values.length;
+		}
+		
+		public Object get(int i) {
+			return values[i];
+		}
+		
+		/**
+		 * Ŀ¼·
+		 * @param value Ŀ¼ֵ
+		 * @return IndexPath
+		 */
+		public IndexPath append(Object value) {
+			int len = values.length;
+			Object []newValues = new Object[len + 1];
+			System.arraycopy(values, 0, newValues, 0, len);
+			newValues[len] = value;
+			return new IndexPath(newValues);
+		}
+		
+		/**
+		 * жϵǰ·Ƿָ·ϲ·
+		 * @param path ·
+		 * @return boolean
+		 */
+		public boolean isPrefixOf(IndexPath path) {
+			Object []values = this.values;
+			Object []otherValues = path.values;
+			if (values.length > otherValues.length) {
+				return false;
+			}
+			
+			for (int i = 0; i < values.length; ++i) {
+				if (!Variant.isEquals(values[i], otherValues[i])) {
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		
+		public int hashCode() {
+			return Arrays.hashCode(values);
+		}
+		
+		public boolean equals(Object obj) {
+			return obj instanceof IndexPath && Arrays.equals(values, ((IndexPath)obj).values);
+		}
+	}
+	
+	/**
+	 * ҳҪʵĽڣʼÿӽڹ
+	 */
+	static class Target implements Comparable<Target> {
+		private ISection []sections; // ʼڵӽڵĿڵĸ
+		private int []seqs; // ڸĿ¼еţڰ˳
+		private boolean isDir; // trueĿڼеĽڣfalseֻĿڵı
+		
+		public Target(ISection []sections, int []seqs, boolean isDir) {
+			this.sections = sections;
+			this.seqs = seqs;
+			this.isDir = isDir;
+		}
+		
+		public ISection[] getSections() {
+			return sections;
+		}
+		
+		public int[] getSeqs() {
+			return seqs;
+		}
+		
+		public boolean isDir() {
+			return isDir;
+		}
+		
+		/**
+		 * жĿǷָѷʹĿ¼
+		 * @param region ѷĿ¼·Ϊ
+		 * @return boolean
+		 */
+		public boolean isIn(int []region) {
+			if (region == null || region.length > seqs.length) {
+				return false;
+			}
+			
+			for (int i = 0; i < region.length; ++i) {
+				if (region[i] != seqs[i]) {
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		
+		// ˳ȽϣϲǰͬһڷĿ¼ǰ
+		public int compareTo(Target other) {
+			int []seqs = this.seqs;
+			int []otherSeqs = other.seqs;
+			int len = seqs.length < otherSeqs.length ? seqs.length : otherSeqs.length;
+			for (int i = 0; i < len; ++i) {
+				if (seqs[i] != otherSeqs[i]) {
+					return seqs[i] < otherSeqs[i] ? -1 : 1;
+				}
+			}
+			
+			if (seqs.length != otherSeqs.length) {
+				return seqs.length < otherSeqs.length ? -1 : 1;
+			} else if (isDir == other.isDir) {
+				return 0;
+			} else {
+				return isDir ? -1 : 1;
+			}
+		}
+	}
+	
+	/**
+	 * ڵһʹʱ
+	 * @param names ֶ
+	 */
+	public SectionIndex(String []names) {
+		this.names = names;
+	}
+	
+	/**
+	 * ȡĽֶ
+	 * @return String[]
+	 */
+	public String[] getNames() {
+		return names;
+	}
+	
+	private int indexOf(String name) {
+		if (name != null) {
+			String []names = this.names;
+			for (int i = 0; i < names.length; ++i) {
+				if (name.equals(names[i])) {
+					return i;
+				}
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Ƿѿʼύ޸
+	 * @return boolean
+	 */
+	public synchronized boolean isStarted() {
+		return dirMaps != null;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private synchronized void init() {
+		int count = names.length;
+		dirMaps = new HashMap[count];
+		fileMaps = new HashMap[count];
+		for (int i = 0; i < count; ++i) {
+			dirMaps[i] = new HashMap<Object, HashSet<IndexPath>>();
+			fileMaps[i] = new HashMap<Object, HashSet<IndexPath>>();
+		}
+		
+		fileKeys = new HashMap<IndexPath, Object[][]>();
+	}
+	
+	private synchronized void clear() {
+		dirMaps = null;
+		fileMaps = null;
+		fileKeys = null;
+	}
+	
+	/**
+	 * ݻû
+	 * @param library ݿ
+	 * @throws IOException
+	 */
+	public void prepare(Library library) throws IOException {
+		if (isReady) {
+			return;
+		}
+		
+		synchronized(buildLock) {
+			if (isReady) {
+				return;
+			}
+			
+			// ļڿʼύ޸ģ֮ǰύĽɱõ֮ύĽύʱά
+			synchronized(library.getFile()) {
+				init();
+			}
+			
+			try {
+				VDB vdb = new VDB(library);
+				addSection(vdb, library.getRootSection(), new IndexPath(new Object[0]));
+				
+				// ɹύᱻ
+				synchronized(this) {
+					isReady = dirMaps != null;
+				}
+			} catch (IOException e) {
+				clear();
+				throw e;
+			}
+		}
+	}
+	
+	// ѽڼеĽڼӵ
+	private void addSection(VDB vdb, ISection section, IndexPath path) throws IOException {
+		IDir dir = section.getDir();
+		if (dir != null) {
+			addDir(path, dir.getName(), dir.getValue());
+		}
+		
+		if (section.isFile()) {
+			addFile(path, section.load(vdb, null));
+		}
+		
+		Sequence subs = section.list(vdb, "w");
+		if (subs != null) {
+			for (int i = 1, len = subs.length(); i <= len; ++i) {
+				ISection sub = ((VS)subs.getMem(i)).getHome();
+				addSection(vdb, sub, path.append(sub.getValue()));
+			}
+		}
+	}
+	
+	/**
+	 * ύύļڵãʱϵ´ʹʱؽ
+	 * @param library ݿ
+	 * @param section ύĽ
+	 * @param fileZone дıλû޸ʱΪ
+	 * @param newDirs ²Ŀ¼½Ҳƹ
+	 * @param renamedDirs Ŀ¼
+	 */
+	public void commit(Library library, Section section, Zone fileZone, Dir []newDirs, ArrayList<Dir> renamedDirs) {
+		if (!isStarted()) {
+			return;
+		}
+		
+		try {
+			IndexPath path = getPath(section);
+			if (fileZone != null) {
+				setFile(path, fileZone.getData(library));
+			}
+			
+			if (renamedDirs != null) {
+				for (Dir dir : renamedDirs) {
+					addDir(path.append(dir.getValue()), dir.getName(), dir.getValue());
+				}
+			}
+			
+			if (newDirs != null) {
+				// ƹĿ¼ύĽڣҪ
+				VDB vdb = new VDB(library);
+				for (Dir dir : newDirs) {
+					DirZone zone = dir.getLastZone();
+					ISection sub;
+					if (zone != null && (sub = zone.getSection(library, dir)) != null) {
+						addSection(vdb, sub, path.append(dir.getValue()));
+					}
+				}
+			}
+		} catch (Exception e) {
+			synchronized(this) {
+				clear();
+				isReady = false;
+			}
+		}
+	}
+	
+	/**
+	 * ȡڵ·
+	 * @param section 
+	 * @return IndexPath
+	 */
+	public static IndexPath getPath(ISection section) {
+		ArrayList<Object> list = new ArrayList<Object>();
+		IDir dir = section.getDir();
+		while (dir != null) {
+			list.add(dir.getValue());
+			section = dir.getParent();
+			dir = section.getDir();
+		}
+		
+		int count = list.size();
+		Object []values = new Object[count];
+		for (int i = 0; i < count; ++i) {
+			values[i] = list.get(count - i - 1);
+		}
+		
+		return new IndexPath(values);
+	}
+	
+	// ֵתļжȵֵļһֵͬͬͬļ
+	private static Object toKey(Object value) {
+		if (value instanceof Number) {
+			double d = ((Number)value).doubleValue();
+			long n = (long)d;
+			if (n == d) {
+				return n;
+			} else {
+				return d;
+			}
+		} else if (value instanceof Date) {
+			return ((Date)value).getTime();
+		} else if (value instanceof String || value instanceof Boolean) {
+			return value;
+		} else {
+			// ͵ֵڿֵ
+			return null;
+		}
+	}
+	
+	// ȡڸֶϵļûֶʱؿ
+	private Object[][] getFileKeys(Object data) {
+		if (!(data instanceof Sequence)) {
+			return null;
+		}
+		
+		Sequence seq = (Sequence)data;
+		DataStruct ds = seq.dataStruct();
+		if (ds == null) {
+			return null;
+		}
+		
+		String []names = this.names;
+		Object [][]keys = null;
+		for (int i = 0; i < names.length; ++i) {
+			int f = ds.getFieldIndex(names[i]);
+			if (f == -1) {
+				continue;
+			}
+			
+			HashSet<Object> set = new HashSet<Object>();
+			for (int j = 1, len = seq.length(); j <= len; ++j) {
+				Object obj = seq.getMem(j);
+				if (obj instanceof BaseRecord) {
+					set.add(toKey(((BaseRecord)obj).getNormalFieldValue(f)));
+				}
+			}
+			
+			if (keys == null) {
+				keys = new Object[names.length][];
+			}
+			
+			keys[i] = set.toArray();
+		}
+		
+		return keys;
+	}
+	
+	private static void addPath(HashMap<Object, HashSet<IndexPath>> map, Object key, IndexPath path) {
+		HashSet<IndexPath> paths = map.get(key);
+		if (paths == null) {
+			paths = new HashSet<IndexPath>();
+			map.put(key, paths);
+		}
+		
+		paths.add(path);
+	}
+	
+	private static void removePath(HashMap<Object, HashSet<IndexPath>> map, Object key, IndexPath path) {
+		HashSet<IndexPath> paths = map.get(key);
+		if (paths != null) {
+			paths.remove(path);
+			if (paths.size() == 0) {
+				map.remove(key);
+			}
+		}
+	}
+	
+	private synchronized void addDir(IndexPath path, String name, Object value) {
+		int i = indexOf(name);
+		if (i != -1 && dirMaps != null) {
+			addPath(dirMaps[i], toKey(value), path);
+		}
+	}
+	
+	// ѱֵֶӵеֵ
+	private void addFile(IndexPath path, Object data) {
+		Object [][]keys = getFileKeys(data);
+		if (keys == null) {
+			return;
+		}
+		
+		synchronized(this) {
+			if (fileMaps == null) {
+				return;
+			}
+			
+			Object [][]oldKeys = fileKeys.get(path);
+			for (int i = 0; i < keys.length; ++i) {
+				if (keys[i] == null) {
+					continue;
+				}
+				
+				for (Object key : keys[i]) {
+					addPath(fileMaps[i], key, path);
+				}
+				
+				if (oldKeys != null && oldKeys[i] != null) {
+					HashSet<Object> set = new HashSet<Object>();
+					Collections.addAll(set, oldKeys[i]);
+					Collections.addAll(set, keys[i]);
+					keys[i] = set.toArray();
+				}
+			}
+			
+			if (oldKeys != null) {
+				for (int i = 0; i < keys.length; ++i) {
+					if (keys[i] == null) {
+						keys[i] = oldKeys[i];
+					}
+				}
+			}
+			
+			fileKeys.put(path, keys);
+		}
+	}
+	
+	// ñµֵֶ滻ԭֵ
+	private void setFile(IndexPath path, Object data) {
+		Object [][]keys = getFileKeys(data);
+		synchronized(this) {
+			if (fileMaps == null) {
+				return;
+			}
+			
+			Object [][]oldKeys = keys == null ? fileKeys.remove(path) : fileKeys.put(path, keys);
+			if (oldKeys != null) {
+				for (int i = 0; i < oldKeys.length; ++i) {
+					if (oldKeys[i] != null) {
+						for (Object key : oldKeys[i]) {
+							removePath(fileMaps[i], key, path);
+						}
+					}
+				}
+			}
+			
+			if (keys != null) {
+				for (int i = 0; i < keys.length; ++i) {
+					if (keys[i] != null) {
+						for (Object key : keys[i]) {
+							addPath(fileMaps[i], key, path);
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	// ֵָӦ·ӵУֵΪtrueʾҪ·еĽ
+	private synchronized void getPaths(int i, Object value, boolean isDir, HashMap<IndexPath, Boolean> result) {
+		if (dirMaps == null) {
+			return;
+		}
+		
+		HashMap<Object, HashSet<IndexPath>> map = isDir ? dirMaps[i] : fileMaps[i];
+		HashSet<IndexPath> paths = map.get(toKey(value));
+		if (paths == null) {
+			return;
+		}
+		
+		for (IndexPath path : paths) {
+			if (isDir) {
+				result.put(path, Boolean.TRUE);
+			} else if (!result.containsKey(path)) {
+				result.put(path, Boolean.FALSE);
+			}
+		}
+	}
+	
+	private static void merge(HashMap<IndexPath, Boolean> result, HashMap<IndexPath, Boolean> other) {
+		for (Map.Entry<IndexPath, Boolean> entry : other.entrySet()) {
+			if (entry.getValue()) {
+				result.put(entry.getKey(), Boolean.TRUE);
+			} else if (!result.containsKey(entry.getKey())) {
+				result.put(entry.getKey(), Boolean.FALSE);
+			}
+		}
+	}
+	
+	// Ŀ¼ȡѡ·ûпõʱؿ
+	private HashMap<IndexPath, Boolean> getCandidates(String []dirNames, Object []dirValues, boolean []valueSigns) {
+		if (dirNames == null) {
+			return null;
+		}
+		
+		HashMap<IndexPath, Boolean> best = null;
+		for (int d = 0; d < dirNames.length; ++d) {
+			int i = indexOf(dirNames[d]);
+			if (i == -1 || !valueSigns[d]) {
+				continue;
+			}
+			
+			HashMap<IndexPath, Boolean> result = new HashMap<IndexPath, Boolean>();
+			if (dirValues[d] instanceof Sequence) {
+				Sequence seq = (Sequence)dirValues[d];
+				for (int j = 1, len = seq.length(); j <= len; ++j) {
+					getPaths(i, seq.getMem(j), true, result);
+				}
+			} else {
+				getPaths(i, dirValues[d], true, result);
+			}
+			
+			if (best == null || result.size() < best.size()) {
+				best = result;
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * ݹֶεĵֵжȡѡ·
+	 * ֻʶF==vv.contain(F)Լǵ롢
+	 * @param node Ľڵ
+	 * @param ctx 
+	 * @return ѡ·ؿձʾ޷ȷ
+	 */
+	private HashMap<IndexPath, Boolean> getCandidates(Node node, Context ctx) {
+		if (node instanceof And) {
+			HashMap<IndexPath, Boolean> left = getCandidates(node.getLeft(), ctx);
+			HashMap<IndexPath, Boolean> right = getCandidates(node.getRight(), ctx);
+			if (left == null) {
+				return right;
+			} else if (right == null || left.size() <= right.size()) {
+				return left;
+			} else {
+				return right;
+			}
+		} else if (node instanceof Or) {
+			HashMap<IndexPath, Boolean> left = getCandidates(node.getLeft(), ctx);
+			if (left == null) {
+				return null;
+			}
+			
+			HashMap<IndexPath, Boolean> right = getCandidates(node.getRight(), ctx);
+			if (right == null) {
+				return null;
+			}
+			
+			merge(left, right);
+			return left;
+		} else if (node instanceof Equals) {
+			Node valueNode = node.getRight();
+			int i = getFieldIndex(node.getLeft(), ctx);
+			if (i == -1) {
+				valueNode = node.getLeft();
+				i = getFieldIndex(node.getRight(), ctx);
+			}
+			
+			if (i == -1 || !isConstant(valueNode)) {
+				return null;
+			}
+			
+			Object value;
+			try {
+				value = valueNode.calculate(ctx);
+			} catch (Exception e) {
+				return null;
+			}
+			
+			HashMap<IndexPath, Boolean> result = new HashMap<IndexPath, Boolean>();
+			getPaths(i, value, true, result);
+			getPaths(i, value, false, result);
+			return result;
+		} else if (node instanceof DotOperator && node.getRight() instanceof Contain) {
+			IParam param = ((Contain)node.getRight()).getParam();
+			if (param == null || !param.isLeaf()) {
+				return null;
+			}
+			
+			int i = getFieldIndex(param.getLeafExpression().getHome(), ctx);
+			if (i == -1 || !isConstant(node.getLeft())) {
+				return null;
+			}
+			
+			Object obj;
+			try {
+				obj = node.getLeft().calculate(ctx);
+			} catch (Exception e) {
+				return null;
+			}
+			
+			if (!(obj instanceof Sequence)) {
+				return null;
+			}
+			
+			Sequence seq = (Sequence)obj;
+			HashMap<IndexPath, Boolean> result = new HashMap<IndexPath, Boolean>();
+			for (int j = 1, len = seq.length(); j <= len; ++j) {
+				Object value = seq.getMem(j);
+				getPaths(i, value, true, result);
+				getPaths(i, value, false, result);
+			}
+			
+			return result;
+		} else {
+			return null;
+		}
+	}
+	
+	// ڵֶ򷵻ֶеţ򷵻-1
+	private int getFieldIndex(Node node, Context ctx) {
+		if (!(node instanceof UnknownSymbol)) {
+			return -1;
+		}
+		
+		String name = ((UnknownSymbol)node).getName();
+		int i = indexOf(name);
+		if (i == -1) {
+			return -1;
+		} else if (ctx.getComputeStack().isStackEmpty()) {
+			// ͬĲ
+			return EnvUtil.getParam(name, ctx) == null ? i : -1;
+		} else {
+			// ļ㻷Ĳǽڵֶ
+			try {
+				node.calculate(ctx);
+				return -1;
+			} catch (Exception e) {
+				return i;
+			}
+		}
+	}
+	
+	// жϽڵǷǲڽݵֵ
+	private static boolean isConstant(Node node) {
+		if (node instanceof Constant || node instanceof ConstParam ||
+				node instanceof VarParam || node instanceof ArgNode) {
+			return true;
+		} else if (node instanceof ValueList) {
+			IParam param = ((ValueList)node).getParam();
+			if (param == null) {
+				return true;
+			}
+			
+			ArrayList<Expression> list = new ArrayList<Expression>();
+			param.getAllLeafExpression(list);
+			for (Expression exp : list) {
+				if (exp == null || !isConstant(exp.getHome())) {
+					return false;
+				}
+			}
+			
+			return true;
+		} else {
+			return false;
+		}
+	}
+	
+	/**
+	 * ȡretrieveҪʵĽ
+	 * @param vdb ݿ
+	 * @param start ʼ
+	 * @param dirNames 
+	 * @param dirValues ֵ
+	 * @param valueSigns ǷԽֵ
+	 * @param exp ˱ʽ
+	 * @param ctx 
+	 * @return ˳źõĿڣؿձʾڴ
+	 */
+	public ArrayList<Target> getTargets(VDB vdb, ISection start, String []dirNames, Object []dirValues,
+			boolean []valueSigns, Expression exp, Context ctx) {
+		HashMap<IndexPath, Boolean> candidates = getCandidates(dirNames, dirValues, valueSigns);
+		if (exp != null) {
+			HashMap<IndexPath, Boolean> result = getCandidates(exp.getHome(), ctx);
+			if (result != null && (candidates == null || result.size() < candidates.size())) {
+				candidates = result;
+			}
+		}
+		
+		if (candidates == null || !isReady) {
+			return null;
+		} else {
+			// retrieveʼڿʼƥĿ¼ʼϲĿ¼ж
+			return resolve(vdb, start, candidates, false);
+		}
+	}
+	
+	/**
+	 * ȡimportTableҪʵĽ
+	 * @param vdb ݿ
+	 * @param start ʼ
+	 * @param filter ˱ʽ
+	 * @param ctx 
+	 * @return ˳źõĿڣؿձʾڴ
+	 */
+	public ArrayList<Target> getTargets(VDB vdb, ISection start, Expression filter, Context ctx) {
+		HashMap<IndexPath, Boolean> candidates = getCandidates(filter.getHome(), ctx);
+		if (candidates == null || !isReady) {
+			return null;
+		} else {
+			return resolve(vdb, start, candidates, true);
+		}
+	}
+	
+	/**
+	 * Ѻѡ·λʼµĽڣȺ˳
+	 * @param vdb ݿ
+	 * @param start ʼ
+	 * @param candidates ѡ·
+	 * @param isInherit ǷʹʼϲĿ¼ֵϲĿ¼ʱؿ
+	 * @return ArrayList<Target>
+	 */
+	private static ArrayList<Target> resolve(VDB vdb, ISection start,
+			HashMap<IndexPath, Boolean> candidates, boolean isInherit) {
+		IndexPath startPath = getPath(start);
+		int startLen = startPath.length();
+		ArrayList<Target> targets = new ArrayList<Target>();
+		int []seq = new int[1];
+		
+		Next:
+		for (Map.Entry<IndexPath, Boolean> entry : candidates.entrySet()) {
+			IndexPath path = entry.getKey();
+			boolean isDir = entry.getValue();
+			int len = path.length();
+			
+			if (len < startLen || (len == startLen && isDir)) {
+				if (isInherit && isDir && path.isPrefixOf(startPath)) {
+					// ʼĿ¼£ҪʼеĽ
+					return null;
+				}
+				
+				continue;
+			} else if (!startPath.isPrefixOf(path)) {
+				continue;
+			}
+			
+			int count = len - startLen;
+			ISection []sections = new ISection[count];
+			int []seqs = new int[count];
+			ISection section = start;
+			for (int i = 0; i < count; ++i) {
+				section = section.getDirectSub(vdb, path.get(startLen + i), seq);
+				if (section == null) {
+					// ·ѱɾ
+					continue Next;
+				}
+				
+				sections[i] = section;
+				seqs[i] = seq[0];
+			}
+			
+			targets.add(new Target(sections, seqs, isDir));
+		}
+		
+		Collections.sort(targets);
+		return targets;
+	}
+	
+	/**
+	 * дļݿرʱдݣļ¼ļֹͣʱʱжǷЧ
+	 * @param fileName ļ
+	 * @param stopTime ļͷֹͣʱ
+	 * @throws IOException
+	 */
+	public void writeFile(String fileName, long stopTime) throws IOException {
+		File tmpFile = new File(fileName + ".tmp");
+		ObjectWriter writer = new ObjectWriter(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+		
+		try {
+			writer.writeLong64(stopTime);
+			writer.writeStrings(names);
+			
+			synchronized(this) {
+				boolean hasContent = isReady && dirMaps != null;
+				writer.writeBoolean(hasContent);
+				if (hasContent) {
+					writeContent(writer);
+				}
+			}
+		} finally {
+			writer.close();
+		}
+		
+		File file = new File(fileName);
+		file.delete();
+		if (!tmpFile.renameTo(file)) {
+			throw new IOException(fileName);
+		}
+	}
+	
+	// де··
+	private void writeContent(ObjectWriter writer) throws IOException {
+		HashMap<IndexPath, Integer> pathSeqs = new HashMap<IndexPath, Integer>();
+		ArrayList<IndexPath> pathList = new ArrayList<IndexPath>();
+		for (int i = 0; i < names.length; ++i) {
+			addPaths(dirMaps[i], pathSeqs, pathList);
+			addPaths(fileMaps[i], pathSeqs, pathList);
+		}
+		
+		writer.writeInt(pathList.size());
+		for (IndexPath path : pathList) {
+			Object []values = path.values;
+			writer.writeInt(values.length);
+			for (Object value : values) {
+				writer.writeObject(value);
+			}
+		}
+		
+		for (int i = 0; i < names.length; ++i) {
+			writeMap(writer, dirMaps[i], pathSeqs);
+			writeMap(writer, fileMaps[i], pathSeqs);
+		}
+	}
+	
+	private static void addPaths(HashMap<Object, HashSet<IndexPath>> map,
+			HashMap<IndexPath, Integer> pathSeqs, ArrayList<IndexPath> pathList) {
+		for (HashSet<IndexPath> paths : map.values()) {
+			for (IndexPath path : paths) {
+				if (!pathSeqs.containsKey(path)) {
+					pathSeqs.put(path, pathList.size());
+					pathList.add(path);
+				}
+			}
+		}
+	}
+	
+	private static void writeMap(ObjectWriter writer, HashMap<Object, HashSet<IndexPath>> map,
+			HashMap<IndexPath, Integer> pathSeqs) throws IOException {
+		writer.writeInt(map.size());
+		for (Map.Entry<Object, HashSet<IndexPath>> entry : map.entrySet()) {
+			writer.writeObject(entry.getKey());
+			HashSet<IndexPath> paths = entry.getValue();
+			writer.writeInt(paths.size());
+			for (IndexPath path : paths) {
+				writer.writeInt(pathSeqs.get(path));
+			}
+		}
+	}
+	
+	/**
+	 * ļֹͣʱͿļĲһʱֻĶ壬ڵһʹʱؽ
+	 * @param fileName ļ
+	 * @param stopTime ļͷֹͣʱ
+	 * @return ûļʱؿ
+	 */
+	public static SectionIndex readFile(String fileName, long stopTime) {
+		File file = new File(fileName);
+		if (!file.exists()) {
+			return null;
+		}
+		
+		ObjectReader reader = null;
+		try {
+			reader = new ObjectReader(new BufferedInputStream(new FileInputStream(file)));
+			long time = reader.readLong64();
+			String []names = reader.readStrings();
+			SectionIndex index = new SectionIndex(names);
+			
+			if (reader.readBoolean() && time == stopTime) {
+				try {
+					index.readContent(reader);
+					index.isReady = true;
+				} catch (Exception e) {
+					index.clear();
+				}
+			}
+			
+			return index;
+		} catch (Exception e) {
+			return null;
+		} finally {
+			try {
+				if (reader != null) {
+					reader.close();
+				}
+			} catch (IOException e) {
+			}
+		}
+	}
+	
+	private void readContent(ObjectReader reader) throws IOException {
+		int pathCount = reader.readInt();
+		IndexPath []paths = new IndexPath[pathCount];
+		for (int p = 0; p < pathCount; ++p) {
+			Object []values = new Object[reader.readInt()];
+			for (int v = 0; v < values.length; ++v) {
+				values[v] = reader.readObject();
+			}
+			
+			paths[p] = new IndexPath(values);
+		}
+		
+		init();
+		int count = names.length;
+		HashMap<IndexPath, ArrayList<Object>[]> keyMap = new HashMap<IndexPath, ArrayList<Object>[]>();
+		for (int i = 0; i < count; ++i) {
+			readMap(reader, dirMaps[i], paths, null, i);
+			readMap(reader, fileMaps[i], paths, keyMap, i);
+		}
+		
+		// ֶԭֵֶ
+		for (Map.Entry<IndexPath, ArrayList<Object>[]> entry : keyMap.entrySet()) {
+			ArrayList<Object> []lists = entry.getValue();
+			Object [][]keys = new Object[count][];
+			for (int i = 0; i < count; ++i) {
+				if (lists[i] != null) {
+					keys[i] = lists[i].toArray();
+				}
+			}
+			
+			fileKeys.put(entry.getKey(), keys);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void readMap(ObjectReader reader, HashMap<Object, HashSet<IndexPath>> map, IndexPath []paths,
+			HashMap<IndexPath, ArrayList<Object>[]> keyMap, int index) throws IOException {
+		for (int k = reader.readInt(); k > 0; --k) {
+			Object key = reader.readObject();
+			int size = reader.readInt();
+			HashSet<IndexPath> set = new HashSet<IndexPath>(size * 2);
+			map.put(key, set);
+			
+			for (int p = 0; p < size; ++p) {
+				IndexPath path = paths[reader.readInt()];
+				set.add(path);
+				
+				if (keyMap != null) {
+					ArrayList<Object> []lists = keyMap.get(path);
+					if (lists == null) {
+						lists = new ArrayList[names.length];
+						keyMap.put(path, lists);
+					}
+					
+					if (lists[index] == null) {
+						lists[index] = new ArrayList<Object>(1);
+					}
+					
+					lists[index].add(key);
+				}
+			}
+		}
+	}
+}
@@ -94,9 +94,14 @@ public class VDB implements IVS, IResource {
 		isAutoCommit = true;
 		loadTxSeq = LATEST_TX_SEQ;
 		
-		library.commit(this);
+		int result = library.commit(this);
 		modifySections.clear();
-		return S_SUCCESS;
+		if (result != S_SUCCESS) {
+			// ύʧʱ´룬getErrorȡ
+			error = result;
+		}
+		
+		return result;
 	}
 
 	// ع
@@ -161,7 +166,7 @@ public class VDB implements IVS, IResource {
 		return null;
 	}
 
-	private boolean isAutoCommit() {
+	boolean isAutoCommit() {
 		return isAutoCommit;
 	}
 	
@@ -397,7 +402,10 @@ public class VDB implements IVS, IResource {
 		
 		int result = section.save(this, value);
 		if (isAutoCommit()) {
-			commit();
+			int commitResult = commit();
+			if (result == S_SUCCESS) {
+				result = commitResult;
+			}
 		}
 		
 		return result;
@@ -414,7 +422,10 @@ public class VDB implements IVS, IResource {
 		
 		int result = section.save(this, value, path, name);
 		if (isAutoCommit()) {
-			commit();
+			int commitResult = commit();
+			if (result == S_SUCCESS) {
+				result = commitResult;
+			}
 		}
 		
 		return result;
@@ -431,7 +442,10 @@ public class VDB implements IVS, IResource {
 		
 		int result = section.makeDir(this, path, name);
 		if (isAutoCommit()) {
-			commit();
+			int commitResult = commit();
+			if (result == S_SUCCESS) {
+				result = commitResult;
+			}
 		}
 		
 		return result;
@@ -582,7 +596,10 @@ public class VDB implements IVS, IResource {
 		}
 		
 		if (isAutoCommit()) {
-			commit();
+			int commitResult = commit();
+			if (result == S_SUCCESS) {
+				result = commitResult;
+			}
 		}
 		
 		return result;
@@ -611,7 +628,10 @@ public class VDB implements IVS, IResource {
 		}
 		
 		if (isAutoCommit()) {
-			commit();
+			int commitResult = commit();
+			if (result == S_SUCCESS) {
+				result = commitResult;
+			}
 		}
 		
 		return result;
@@ -694,7 +714,10 @@ public class VDB implements IVS, IResource {
 		}
 		
 		if (isAutoCommit()) {
-			commit();
+			int commitResult = commit();
+			if (result == S_SUCCESS) {
+				result = commitResult;
+			}
 		}
 		
 		return result;
@@ -983,7 +1006,10 @@ public class VDB implements IVS, IResource {
 		}
 		
 		if (isAutoCommit()) {
-			commit();
+			int commitResult = commit();
+			if (result == S_SUCCESS) {
+				result = commitResult;
+			}
 		}
 		
 		return result;
@@ -1049,7 +1075,10 @@ public class VDB implements IVS, IResource {
 		boolean isRecursion = opt != null && opt.indexOf('r') != -1;
 		int result = section.update(this, dirNames, dirValues, valueSigns, fvals, fields, filter, isRecursion, ctx);
 		if (isAutoCommit()) {
-			commit();
+			int commitResult = commit();
+			if (result == S_SUCCESS) {
+				result = commitResult;
+			}
 		}
 		
 		return result;
@@ -1090,8 +1119,8 @@ public class VDB implements IVS, IResource {
 		}
 		
 		Sequence result = section.saveBlob(this, oldValues, newValues, name);
-		if (isAutoCommit()) {
-			commit();
+		if (isAutoCommit() && commit() != S_SUCCESS) {
+			return null;
 		}
 		
 		return result;
@@ -1118,7 +1147,10 @@ public class VDB implements IVS, IResource {
 		
 		int result = section.rename(this, path, name);
 		if (isAutoCommit()) {
-			commit();
+			int commitResult = commit();
+			if (result == S_SUCCESS) {
+				result = commitResult;
+			}
 		}
 		
 		return result;
@@ -1148,7 +1180,10 @@ public class VDB implements IVS, IResource {
 		
 		int result = ((Section)section).archive(this, path);
 		if (isAutoCommit()) {
-			commit();
+			int commitResult = commit();
+			if (result == S_SUCCESS) {
+				result = commitResult;
+			}
 		}
 		
 		return result;
@@ -1193,7 +1228,10 @@ public class VDB implements IVS, IResource {
 				}
 			} else {
 				if (isAutoCommit()) {
-					commit();
+					int commitResult = commit();
+					if (state == S_SUCCESS) {
+						state = commitResult;
+					}
 				}
 				
 				return state;
@@ -1232,7 +1270,10 @@ public class VDB implements IVS, IResource {
 		int state = destSection.copy(this, srcVdb, src.getHome());
 		
 		if (isAutoCommit()) {
-			commit();
+			int commitResult = commit();
+			if (state == S_SUCCESS) {
+				state = commitResult;
+			}
 		}
 		
 		return state;